@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+
+import javax.jms.JMSException;
+
+import org.apache.qpid.jms.exceptions.JmsExceptionSupport;
+import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
+import org.apache.qpid.jms.provider.ProviderConstants.ACK_TYPE;
+import org.apache.qpid.jms.provider.ProviderFuture;
+import org.apache.qpid.jms.provider.ProviderSynchronization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the DELIVERED and ACCEPTED acknowledgements of an AUTO_ACKNOWLEDGE or
+ * DUPS_OK_ACKNOWLEDGE session so that the consumers can move on to the next message
+ * without waiting for each one to be processed by the provider.
+ *
+ * The buffered acknowledgements are handed to the provider in the order they were
+ * added once the batch is full, when the batch timeout expires or when the session
+ * asks for them to be flushed.  A DELIVERED acknowledgement that is followed by the
+ * ACCEPTED acknowledgement of the same message before the batch is sent is replaced
+ * by the ACCEPTED one as it has the same effect on the remote.
+ */
+final class JmsAcknowledgementBuffer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsAcknowledgementBuffer.class);
+
+    private final JmsConnection connection;
+    private final int batchSize;
+    private final long batchTimeout;
+
+    private final List<JmsInboundMessageDispatch> envelopes;
+    private final List<ACK_TYPE> ackTypes;
+    private ScheduledFuture<?> pendingFlush;
+
+    private final ProviderSynchronization failureLogger = new ProviderSynchronization() {
+
+        @Override
+        public void onPendingSuccess() {
+        }
+
+        @Override
+        public void onPendingFailure(Throwable cause) {
+            LOG.debug("Batched acknowledgement failed: {}", cause.getMessage());
+        }
+    };
+
+    private final Runnable timeoutTask = new Runnable() {
+
+        @Override
+        public void run() {
+            try {
+                flush(false);
+            } catch (JMSException ex) {
+                LOG.debug("Failed to send batched acknowledgements after timeout: {}", ex.getMessage());
+            }
+        }
+    };
+
+    JmsAcknowledgementBuffer(JmsConnection connection, int batchSize, long batchTimeout) {
+        this.connection = connection;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+        this.envelopes = new ArrayList<>(batchSize);
+        this.ackTypes = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Adds an acknowledgement to the batch, sending the batch if it is now full.
+     *
+     * @param envelope
+     *      the message that is being acknowledged.
+     * @param ackType
+     *      the type of acknowledgement, either DELIVERED or ACCEPTED.
+     *
+     * @throws JMSException if the batch is full and could not be sent.
+     */
+    synchronized void add(JmsInboundMessageDispatch envelope, ACK_TYPE ackType) throws JMSException {
+        int last = envelopes.size() - 1;
+        if (ackType == ACK_TYPE.ACCEPTED && last >= 0 &&
+            envelopes.get(last) == envelope && ackTypes.get(last) == ACK_TYPE.DELIVERED) {
+
+            ackTypes.set(last, ACK_TYPE.ACCEPTED);
+            return;
+        }
+
+        envelopes.add(envelope);
+        ackTypes.add(ackType);
+
+        if (envelopes.size() >= batchSize) {
+            flush(false);
+        } else if (pendingFlush == null && batchTimeout > 0) {
+            try {
+                pendingFlush = connection.scheduleSessionTask(timeoutTask, batchTimeout);
+            } catch (RejectedExecutionException ree) {
+                LOG.trace("Connection closed before ack batch timeout could be scheduled");
+            }
+        }
+    }
+
+    /**
+     * Hands all buffered acknowledgements to the provider.
+     *
+     * @param sync
+     *      should the call wait for the provider to process the acknowledgements.
+     *
+     * @throws JMSException if the acknowledgements could not be sent.
+     */
+    void flush(boolean sync) throws JMSException {
+        ProviderFuture lastRequest = null;
+
+        synchronized (this) {
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
+            }
+
+            try {
+                for (int i = 0; i < envelopes.size(); ++i) {
+                    lastRequest = new ProviderFuture(failureLogger);
+                    connection.acknowledgeAsync(envelopes.get(i), ackTypes.get(i), lastRequest);
+                }
+            } finally {
+                envelopes.clear();
+                ackTypes.clear();
+            }
+        }
+
+        // The provider processes acknowledgements in order so the last completing
+        // means that all those before it have been processed as well.
+        if (sync && lastRequest != null) {
+            try {
+                lastRequest.sync();
+            } catch (Exception ex) {
+                throw JmsExceptionSupport.create(ex);
+            }
+        }
+    }
+
+    /**
+     * Discards any buffered acknowledgements, used when the messages they cover are
+     * no longer valid on the remote.
+     */
+    synchronized void clear() {
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+
+        envelopes.clear();
+        ackTypes.clear();
+    }
+
+    synchronized int size() {
+        return envelopes.size();
+    }
+}
@@ -18,11 +18,15 @@ package org.apache.qpid.jms;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -106,10 +110,13 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
     private final AtomicReference<IOException> failureCause = new AtomicReference<>();
     private final JmsConnectionInfo connectionInfo;
     private final ThreadPoolExecutor executor;
+    private volatile ScheduledThreadPoolExecutor sessionTimer;
+    private volatile ThreadPoolExecutor dispatcherPool;
 
     private ExceptionListener exceptionListener;
     private JmsMessageFactory messageFactory;
     private Provider provider;
+    private volatile JmsStripedConnection stripedConnection;
 
     private final Set<JmsConnectionListener> connectionListeners = new CopyOnWriteArraySet<>();
     private final Map<JmsTemporaryDestination, JmsTemporaryDestination> tempDestinations = new ConcurrentHashMap<>();
@@ -125,9 +132,11 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         // in reentrant calls to this Connection that could block.  The thread in this executor
         // will also serve as a means of preventing JVM shutdown should a client application
         // not have it's own mechanism for doing so if the configuration specifies that the
-        // Connection create this thread as a non-daemon thread.
+        // Connection create this thread as a non-daemon thread, a virtual thread is only used
+        // when that is not required as virtual threads are always daemon threads.
         executor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
-            new QpidJMSThreadFactory("QpidJMS Connection Executor: " + connectionInfo.getId(), connectionInfo.isUseDaemonThread()));
+            new QpidJMSThreadFactory("QpidJMS Connection Executor: " + connectionInfo.getId(), connectionInfo.isUseDaemonThread(),
+                connectionInfo.isUseVirtualThreads() && connectionInfo.isUseDaemonThread(), null));
 
         executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardOldestPolicy());
 
@@ -206,6 +215,14 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
 
                 closing.set(true);
 
+                for (JmsSession session : sessions.values()) {
+                    try {
+                        session.flushAcknowledgements(true);
+                    } catch (JMSException ex) {
+                        LOG.debug("Failed to send batched acknowledgements during connection close: {}", ex.getMessage());
+                    }
+                }
+
                 for (JmsSession session : sessions.values()) {
                     session.shutdown();
                 }
@@ -253,6 +270,16 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
                 LOG.warn("Error shutting down thread pool: " + executor + ". This exception will be ignored.", e);
             }
 
+            synchronized (connectionInfo) {
+                if (sessionTimer != null) {
+                    sessionTimer.shutdownNow();
+                }
+
+                if (dispatcherPool != null) {
+                    dispatcherPool.shutdown();
+                }
+            }
+
             if (provider != null) {
                 provider.close();
                 provider = null;
@@ -462,13 +489,14 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         JmsDestination jmsDestination = JmsMessageTransformation.transformDestination(this, destination);
 
         int configuredPrefetch = getPrefetchPolicy().getConfiguredPrefetch((JmsSession) null, jmsDestination, durable, false);
+        int adaptivePrefetchTarget = getPrefetchPolicy().getConfiguredAdaptivePrefetchTarget((JmsSession) null, jmsDestination, durable, false);
 
         final MessageQueue messageQueue;
 
         if (isLocalMessagePriority()) {
             messageQueue = new PriorityMessageQueue();
         } else {
-            messageQueue = new FifoMessageQueue(configuredPrefetch);
+            messageQueue = new FifoMessageQueue();
         }
 
         JmsConsumerInfo consumerInfo = new JmsConsumerInfo(getNextConnectionConsumerId(), messageQueue);
@@ -482,6 +510,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         consumerInfo.setNoLocal(false);
         consumerInfo.setBrowser(false);
         consumerInfo.setPrefetchSize(configuredPrefetch);
+        consumerInfo.setAdaptivePrefetchTarget(adaptivePrefetchTarget);
         consumerInfo.setRedeliveryPolicy(getRedeliveryPolicy().copy());
         consumerInfo.setLocalMessageExpiry(isLocalMessageExpiry());
         consumerInfo.setPresettle(false);
@@ -575,6 +604,15 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         connectionConsumers.put(consumerInfo.getId(), consumer);
     }
 
+    int getSessionLoad() {
+        // Connection consumers dispatch through the connection much as a session does.
+        return sessions.size() + connectionConsumers.size();
+    }
+
+    void setStripedConnection(JmsStripedConnection stripedConnection) {
+        this.stripedConnection = stripedConnection;
+    }
+
     private void createJmsConnection() throws JMSException {
         if (isConnected() || closed.get()) {
             return;
@@ -644,7 +682,10 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
     }
 
     protected void checkConsumeFromTemporaryDestination(JmsTemporaryDestination destination) throws JMSException {
-        if (!this.equals(destination.getConnection())) {
+        JmsStripedConnection striped = stripedConnection;
+        if (!this.equals(destination.getConnection()) &&
+            (striped == null || !striped.isStripe(destination.getConnection()))) {
+
             throw new InvalidDestinationException("Can't consume from a temporary destination created using another connection");
         }
     }
@@ -761,6 +802,47 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         }
     }
 
+    /**
+     * Asks the provider to destroy a resource without waiting for it to do so, the outcome
+     * is reported to the given synchronization.
+     *
+     * @param resource
+     *      the resource to destroy.
+     * @param synchronization
+     *      notified once the provider has destroyed the resource or failed to.
+     *
+     * @throws JMSException if the request could not be handed to the provider.
+     */
+    void destroyResourceAsync(JmsResource resource, ProviderSynchronization synchronization) throws JMSException {
+        checkClosedOrFailed();
+
+        ProviderFuture request = new ProviderFuture(synchronization) {
+
+            @Override
+            public void onFailure(Throwable result) {
+                requests.remove(this);
+                super.onFailure(result);
+            }
+
+            @Override
+            public void onSuccess() {
+                requests.remove(this);
+                super.onSuccess();
+            }
+        };
+
+        // Tracked so that the request is failed if the connection fails before it completes.
+        requests.put(request, request);
+        try {
+            provider.destroy(resource, request);
+        } catch (Exception ioe) {
+            requests.remove(request);
+            if (!request.isComplete()) {
+                throw JmsExceptionSupport.create(ioe);
+            }
+        }
+    }
+
     void send(JmsOutboundMessageDispatch envelope, ProviderSynchronization synchronization) throws JMSException {
         checkClosedOrFailed();
 
@@ -778,6 +860,74 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         }
     }
 
+    /**
+     * Sends a batch of messages with a single request to the provider, waiting for all of
+     * them to have been processed before returning.
+     *
+     * @param envelopes
+     *      the sends to hand to the provider, in the order they should be sent.
+     *
+     * @throws JMSException if any of the sends failed.
+     */
+    void send(List<JmsOutboundMessageDispatch> envelopes) throws JMSException {
+        checkClosedOrFailed();
+
+        try {
+            ProviderFuture request = new ProviderFuture();
+            requests.put(request, request);
+            try {
+                provider.send(envelopes, request);
+                request.sync();
+            } finally {
+                requests.remove(request);
+            }
+        } catch (Exception ioe) {
+            throw JmsExceptionSupport.create(ioe);
+        }
+    }
+
+    /**
+     * Hands a send to the provider without waiting for the provider to process it, the
+     * outcome of the hand off is reported to the given synchronization.
+     *
+     * @param envelope
+     *      the send to hand to the provider.
+     * @param synchronization
+     *      notified once the provider has processed the send or it has failed.
+     *
+     * @throws JMSException if the send could not be handed to the provider.
+     */
+    void sendAsync(JmsOutboundMessageDispatch envelope, ProviderSynchronization synchronization) throws JMSException {
+        checkClosedOrFailed();
+
+        ProviderFuture request = new ProviderFuture(synchronization) {
+
+            @Override
+            public void onFailure(Throwable result) {
+                requests.remove(this);
+                super.onFailure(result);
+            }
+
+            @Override
+            public void onSuccess() {
+                requests.remove(this);
+                super.onSuccess();
+            }
+        };
+
+        // Tracked so that the send is failed if the connection fails before it completes.
+        requests.put(request, request);
+        try {
+            provider.send(envelope, request);
+        } catch (Exception ioe) {
+            requests.remove(request);
+            // A request that has completed has already reported its outcome.
+            if (!request.isComplete()) {
+                throw JmsExceptionSupport.create(ioe);
+            }
+        }
+    }
+
     void acknowledge(JmsInboundMessageDispatch envelope, ACK_TYPE ackType) throws JMSException {
         acknowledge(envelope, ackType, null);
     }
@@ -794,6 +944,16 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         }
     }
 
+    void acknowledgeAsync(JmsInboundMessageDispatch envelope, ACK_TYPE ackType, AsyncResult request) throws JMSException {
+        checkClosedOrFailed();
+
+        try {
+            provider.acknowledge(envelope, ackType, request);
+        } catch (Exception ioe) {
+            throw JmsExceptionSupport.create(ioe);
+        }
+    }
+
     void acknowledge(JmsSessionId sessionId, ACK_TYPE ackType) throws JMSException {
         acknowledge(sessionId, ackType, null);
     }
@@ -810,6 +970,45 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         }
     }
 
+    Executor getDispatcherPool() {
+        ThreadPoolExecutor pool = dispatcherPool;
+        if (pool == null && connectionInfo.getDispatcherPoolSize() > 0) {
+            synchronized (connectionInfo) {
+                pool = dispatcherPool;
+                if (pool == null && !closed.get()) {
+                    int poolSize = connectionInfo.getDispatcherPoolSize();
+                    pool = new ThreadPoolExecutor(poolSize, poolSize, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                        new QpidJMSThreadFactory("QpidJMS Connection Dispatcher: " + connectionInfo.getId(), true, connectionInfo.isUseVirtualThreads(), null));
+                    pool.allowCoreThreadTimeOut(true);
+                    dispatcherPool = pool;
+                }
+            }
+        }
+
+        return pool;
+    }
+
+    ScheduledFuture<?> scheduleSessionTask(Runnable task, long delay) {
+        ScheduledThreadPoolExecutor timer = sessionTimer;
+        if (timer == null) {
+            synchronized (connectionInfo) {
+                if (closed.get()) {
+                    return null;
+                }
+
+                timer = sessionTimer;
+                if (timer == null) {
+                    timer = new ScheduledThreadPoolExecutor(1,
+                        new QpidJMSThreadFactory("QpidJMS Connection Session Timer: " + connectionInfo.getId(), true));
+                    timer.setRemoveOnCancelPolicy(true);
+                    sessionTimer = timer;
+                }
+            }
+        }
+
+        return timer.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
     void unsubscribe(String name) throws JMSException {
         unsubscribe(name, null);
     }
@@ -1139,6 +1338,62 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         connectionInfo.setForceAsyncAcks(forceAsyncAcks);
     }
 
+    public int getAckBatchSize() {
+        return connectionInfo.getAckBatchSize();
+    }
+
+    public void setAckBatchSize(int ackBatchSize) {
+        connectionInfo.setAckBatchSize(ackBatchSize);
+    }
+
+    public long getAckBatchTimeout() {
+        return connectionInfo.getAckBatchTimeout();
+    }
+
+    public void setAckBatchTimeout(long ackBatchTimeout) {
+        connectionInfo.setAckBatchTimeout(ackBatchTimeout);
+    }
+
+    public int getConsumerLinkCacheSize() {
+        return connectionInfo.getConsumerLinkCacheSize();
+    }
+
+    public void setConsumerLinkCacheSize(int consumerLinkCacheSize) {
+        connectionInfo.setConsumerLinkCacheSize(consumerLinkCacheSize);
+    }
+
+    public long getConsumerLinkIdleTimeout() {
+        return connectionInfo.getConsumerLinkIdleTimeout();
+    }
+
+    public int getDispatcherPoolSize() {
+        return connectionInfo.getDispatcherPoolSize();
+    }
+
+    public void setDispatcherPoolSize(int dispatcherPoolSize) {
+        connectionInfo.setDispatcherPoolSize(dispatcherPoolSize);
+    }
+
+    public void setConsumerLinkIdleTimeout(long consumerLinkIdleTimeout) {
+        connectionInfo.setConsumerLinkIdleTimeout(consumerLinkIdleTimeout);
+    }
+
+    public int getMaxInFlightSends() {
+        return connectionInfo.getMaxInFlightSends();
+    }
+
+    public void setMaxInFlightSends(int maxInFlightSends) {
+        connectionInfo.setMaxInFlightSends(maxInFlightSends);
+    }
+
+    public long getMaxInFlightSendBytes() {
+        return connectionInfo.getMaxInFlightSendBytes();
+    }
+
+    public void setMaxInFlightSendBytes(long maxInFlightSendBytes) {
+        connectionInfo.setMaxInFlightSendBytes(maxInFlightSendBytes);
+    }
+
     public boolean isLocalMessageExpiry() {
         return connectionInfo.isLocalMessageExpiry();
     }
@@ -1167,6 +1422,10 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         return connectionInfo.isUseDaemonThread();
     }
 
+    public boolean isUseVirtualThreads() {
+        return connectionInfo.isUseVirtualThreads();
+    }
+
     public boolean isCloseLinksThatFailOnReconnect() {
         return connectionInfo.isCloseLinksThatFailOnReconnect();
     }
@@ -330,7 +330,7 @@ public class JmsConnectionConsumer implements ConnectionConsumer, JmsMessageDisp
                 } else {
                     boolean deliveryFailed = false;
 
-                    copy = session.acknowledge(envelope, ACK_TYPE.DELIVERED).getMessage().copy();
+                    copy = session.acknowledge(envelope, ACK_TYPE.DELIVERED).getMessage().copyOnWrite();
 
                     session.clearSessionRecovered();
 
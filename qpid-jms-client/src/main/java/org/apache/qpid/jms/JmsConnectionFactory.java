@@ -20,13 +20,16 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.ExceptionListener;
+import javax.jms.IllegalStateException;
 import javax.jms.JMSContext;
 import javax.jms.JMSException;
 import javax.jms.MessageListener;
@@ -83,6 +86,14 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
     private boolean forceAsyncSend;
     private boolean forceSyncSend;
     private boolean forceAsyncAcks;
+    private int ackBatchSize;
+    private long ackBatchTimeout = JmsConnectionInfo.DEFAULT_ACK_BATCH_TIMEOUT;
+    private int consumerLinkCacheSize;
+    private long consumerLinkIdleTimeout = JmsConnectionInfo.DEFAULT_CONSUMER_LINK_IDLE_TIMEOUT;
+    private int maxInFlightSends;
+    private long maxInFlightSendBytes;
+    private int connectionStripes = 1;
+    private int dispatcherPoolSize;
     private boolean localMessagePriority;
     private boolean localMessageExpiry = true;
     private boolean receiveLocalOnly;
@@ -94,6 +105,7 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
     private boolean validatePropertyNames = true;
     private boolean awaitClientID = true;
     private boolean useDaemonThread = false;
+    private boolean useVirtualThreads;
     private long sendTimeout = JmsConnectionInfo.DEFAULT_SEND_TIMEOUT;
     private long requestTimeout = JmsConnectionInfo.DEFAULT_REQUEST_TIMEOUT;
     private long closeTimeout = JmsConnectionInfo.DEFAULT_CLOSE_TIMEOUT;
@@ -168,6 +180,10 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
 
     @Override
     public TopicConnection createTopicConnection(String username, String password) throws JMSException {
+        if (connectionStripes > 1) {
+            return createStripedConnection(username, password);
+        }
+
         JmsTopicConnection connection = null;
 
         try {
@@ -196,6 +212,14 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
 
     @Override
     public Connection createConnection(String username, String password) throws JMSException {
+        if (connectionStripes > 1) {
+            return createStripedConnection(username, password);
+        }
+
+        return createJmsConnection(username, password);
+    }
+
+    private JmsConnection createJmsConnection(String username, String password) throws JMSException {
         JmsConnection connection = null;
 
         try {
@@ -224,6 +248,10 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
 
     @Override
     public QueueConnection createQueueConnection(String username, String password) throws JMSException {
+        if (connectionStripes > 1) {
+            return createStripedConnection(username, password);
+        }
+
         JmsQueueConnection connection = null;
 
         try {
@@ -245,6 +273,28 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
         return connection;
     }
 
+    private JmsStripedConnection createStripedConnection(String username, String password) throws JMSException {
+        if (clientID != null) {
+            throw new IllegalStateException("A client ID cannot be used when connections are striped");
+        }
+
+        List<JmsConnection> stripes = new ArrayList<>(connectionStripes);
+        try {
+            for (int i = 0; i < connectionStripes; ++i) {
+                stripes.add(createJmsConnection(username, password));
+            }
+        } catch (JMSException ex) {
+            for (JmsConnection stripe : stripes) {
+                try {
+                    stripe.close();
+                } catch (Throwable ignored) {}
+            }
+            throw ex;
+        }
+
+        return new JmsStripedConnection(stripes, exceptionListener);
+    }
+
     protected JmsConnectionInfo configureConnectionInfo(String username, String password) throws JMSException {
         try {
             Map<String, String> properties = PropertyUtil.getProperties(this);
@@ -312,7 +362,7 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
     public JMSContext createContext(String username, String password, int sessionMode) {
         JmsSession.validateSessionMode(sessionMode);
         try {
-            JmsConnection connection = (JmsConnection) createConnection(username, password);
+            JmsConnection connection = createJmsConnection(username, password);
             return new JmsContext(connection, sessionMode);
         } catch (JMSException jmse) {
             throw JmsExceptionSupport.createRuntimeException(jmse);
@@ -791,6 +841,176 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
         this.forceAsyncAcks = forceAsyncAcks;
     }
 
+    /**
+     * @return the number of acknowledgments an AUTO_ACKNOWLEDGE or DUPS_OK_ACKNOWLEDGE session buffers before sending them.
+     */
+    public int getAckBatchSize() {
+        return ackBatchSize;
+    }
+
+    /**
+     * Sets the number of message acknowledgments that a Session in AUTO_ACKNOWLEDGE or
+     * DUPS_OK_ACKNOWLEDGE mode may hold before handing them to the remote peer.  While
+     * batching is enabled the consumer does not wait for each acknowledgment to be sent,
+     * buffered acknowledgments are sent once the batch fills, when the consumer has no
+     * more prefetched messages to deliver, when the batch timeout expires or when the
+     * Session is recovered or closed.  Should the connection fail before a batch is sent
+     * the messages it covered will be redelivered.  A value of zero or one disables the
+     * batching and each acknowledgment is completed before the next message is delivered.
+     *
+     * @param ackBatchSize
+     *        the maximum number of acknowledgments held in a batch.
+     */
+    public void setAckBatchSize(int ackBatchSize) {
+        this.ackBatchSize = ackBatchSize;
+    }
+
+    /**
+     * @return the time in milliseconds that a batched acknowledgment may be held before being sent.
+     */
+    public long getAckBatchTimeout() {
+        return ackBatchTimeout;
+    }
+
+    /**
+     * Sets the maximum time that an acknowledgment is held in a partially filled batch
+     * before the batch is sent, only applies when the acknowledgment batch size is set.
+     *
+     * @param ackBatchTimeout
+     *        time in milliseconds to hold a partially filled acknowledgment batch.
+     */
+    public void setAckBatchTimeout(long ackBatchTimeout) {
+        this.ackBatchTimeout = ackBatchTimeout;
+    }
+
+    /**
+     * @return the number of closed consumer links each Session may keep open for reuse.
+     */
+    public int getConsumerLinkCacheSize() {
+        return consumerLinkCacheSize;
+    }
+
+    /**
+     * Sets the number of links of closed MessageConsumers that a Session in AUTO_ACKNOWLEDGE
+     * or DUPS_OK_ACKNOWLEDGE mode keeps open for reuse.  Closing a consumer on a queue then
+     * stops its link instead of detaching it, and a consumer later created on the same
+     * Session for the same queue, selector and noLocal setting takes over that link without
+     * waiting on the remote peer.  Messages prefetched but not yet received when a consumer
+     * is closed stay with its link and are handed to the next consumer of that link, or are
+     * released when the link is closed.  A value of zero (the default) disables the cache.
+     *
+     * @param consumerLinkCacheSize
+     *        the maximum number of closed consumer links kept by each Session.
+     */
+    public void setConsumerLinkCacheSize(int consumerLinkCacheSize) {
+        this.consumerLinkCacheSize = consumerLinkCacheSize;
+    }
+
+    /**
+     * @return the time in milliseconds that an unused consumer link is kept open for reuse.
+     */
+    public long getConsumerLinkIdleTimeout() {
+        return consumerLinkIdleTimeout;
+    }
+
+    /**
+     * Sets the time that the link of a closed MessageConsumer is kept open waiting to be
+     * reused before it is closed, only applies when the consumer link cache size is set.
+     *
+     * @param consumerLinkIdleTimeout
+     *        time in milliseconds that an unused consumer link is kept open.
+     */
+    public void setConsumerLinkIdleTimeout(long consumerLinkIdleTimeout) {
+        this.consumerLinkIdleTimeout = consumerLinkIdleTimeout;
+    }
+
+    /**
+     * @return the number of threads shared by the Sessions of a connection to deliver messages and send completions.
+     */
+    public int getDispatcherPoolSize() {
+        return dispatcherPoolSize;
+    }
+
+    /**
+     * Sets the number of threads that the Sessions of each connection share to deliver
+     * messages to their MessageListeners and to notify CompletionListeners, rather than each
+     * Session starting threads of its own.  Each Session still has its work run one task at
+     * a time and in order.  Threads are started as work arrives and stop after a short idle
+     * period, as a MessageListener that blocks holds on to a pool thread the pool should be
+     * sized for the number of listeners expected to block at once.  A value of zero (the
+     * default) gives each Session its own threads.
+     *
+     * @param dispatcherPoolSize
+     *        the number of threads shared by the Sessions of a connection.
+     */
+    public void setDispatcherPoolSize(int dispatcherPoolSize) {
+        this.dispatcherPoolSize = dispatcherPoolSize;
+    }
+
+    /**
+     * @return the number of physical connections opened for each Connection created by this factory.
+     */
+    public int getConnectionStripes() {
+        return connectionStripes;
+    }
+
+    /**
+     * Sets the number of physical connections that each Connection created by this factory
+     * opens, spreading its work over that many connections and their I/O threads.  Sessions
+     * and connection consumers are assigned to the physical connection with the fewest
+     * sessions.  A client ID cannot be set when more than one stripe is configured, and a
+     * JMSContext always uses a single connection.
+     *
+     * @param connectionStripes
+     *        the number of physical connections, values of one or less disable striping.
+     */
+    public void setConnectionStripes(int connectionStripes) {
+        this.connectionStripes = connectionStripes;
+    }
+
+    /**
+     * @return the number of sends a MessageProducer may hand off without waiting for them to be processed.
+     */
+    public int getMaxInFlightSends() {
+        return maxInFlightSends;
+    }
+
+    /**
+     * Sets the number of asynchronous or presettled sends that each MessageProducer of a
+     * non-transacted Session may hand off to the connection without waiting for them to
+     * be written.  Once the limit is reached a send blocks until an earlier one has been
+     * processed.  Failures of sends that were handed off are reported to the send's
+     * CompletionListener when one was given, or otherwise to the Connection ExceptionListener.
+     * A value of zero (the default) disables the window unless a byte limit is configured,
+     * and each send waits for the connection to process it before returning.
+     *
+     * @param maxInFlightSends
+     *        the maximum number of sends that each producer may have in flight.
+     */
+    public void setMaxInFlightSends(int maxInFlightSends) {
+        this.maxInFlightSends = maxInFlightSends;
+    }
+
+    /**
+     * @return the number of encoded message bytes a MessageProducer may have in flight.
+     */
+    public long getMaxInFlightSendBytes() {
+        return maxInFlightSendBytes;
+    }
+
+    /**
+     * Sets the total size of encoded messages that each MessageProducer may have handed off
+     * without waiting for them to be written, a single message larger than this limit is
+     * still sent once nothing else is in flight.  Setting this enables the in-flight window
+     * described in {@link #setMaxInFlightSends(int)}, zero (the default) applies no byte limit.
+     *
+     * @param maxInFlightSendBytes
+     *        the maximum number of encoded bytes that each producer may have in flight.
+     */
+    public void setMaxInFlightSendBytes(long maxInFlightSendBytes) {
+        this.maxInFlightSendBytes = maxInFlightSendBytes;
+    }
+
     /**
      * @return true if MessageConsumer instance will check for expired messages locally before dispatch.
      */
@@ -916,6 +1136,24 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
         this.useDaemonThread = useDaemonThread;
     }
 
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * Sets whether the Connection created runs its Session message delivery, send completion
+     * and connection executor work on virtual threads, allowing MessageListeners that block
+     * to do so without holding a platform thread.  On a JVM without virtual threads platform
+     * threads are used as before.  When useDaemonThread is false the connection executor keeps
+     * its platform thread so that it still prevents JVM shutdown.
+     *
+     * @param useVirtualThreads
+     * 		controls whether the Connection creates virtual threads where supported.
+     */
+    public void setUseVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
 
     /**
      * @return whether links that fail to be created during failover reconnect are closed or not.
@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.JMSException;
+
+import org.apache.qpid.jms.meta.JmsConsumerId;
+import org.apache.qpid.jms.meta.JmsConsumerInfo;
+import org.apache.qpid.jms.meta.JmsResource.ResourceState;
+import org.apache.qpid.jms.provider.ProviderSynchronization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the stopped links of MessageConsumers that a session has closed so that a later
+ * consumer with the same settings can take one over instead of attaching a new link.
+ *
+ * A parked link has no credit and keeps the message queue of the consumer that closed
+ * it, so messages that were prefetched but not yet received are handed to the consumer
+ * that next takes the link.  Links are closed once they have been parked for longer
+ * than the idle timeout, or when more than the maximum number are parked, oldest first.
+ * Expiry runs on the connection's session timer so links are closed without waiting
+ * for the remote to answer, leaving the timer free for its other tasks.
+ */
+final class JmsConsumerLinkCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsConsumerLinkCache.class);
+
+    private final JmsConnection connection;
+    private final int maxLinks;
+    private final long idleTimeout;
+
+    private final ArrayDeque<ParkedLink> parked;
+    private ScheduledFuture<?> pendingExpiry;
+    private boolean closed;
+
+    private final Runnable expiryTask = new Runnable() {
+
+        @Override
+        public void run() {
+            expire();
+        }
+    };
+
+    JmsConsumerLinkCache(JmsConnection connection, int maxLinks, long idleTimeout) {
+        this.connection = connection;
+        this.maxLinks = maxLinks;
+        this.idleTimeout = idleTimeout;
+        this.parked = new ArrayDeque<>(maxLinks);
+    }
+
+    /**
+     * Checks whether the link of the given consumer can be parked when it is closed,
+     * only links on queues that never had a MessageListener are reused as a link on a
+     * topic would collect messages sent after its consumer was closed.
+     *
+     * @param consumerInfo
+     *      the consumer whose link is about to be closed.
+     *
+     * @return true if the link of the consumer can be parked.
+     */
+    boolean isReusable(JmsConsumerInfo consumerInfo) {
+        return consumerInfo.getDestination().isQueue() &&
+               !consumerInfo.getDestination().isTemporary() &&
+               !consumerInfo.isBrowser() &&
+               !consumerInfo.isListener() &&
+               !consumerInfo.isDurable() &&
+               !consumerInfo.isShared() &&
+               !consumerInfo.isConnectionConsumer();
+    }
+
+    /**
+     * Parks the stopped link of a closed consumer, closing the oldest parked link if
+     * the cache is now over its limit.
+     *
+     * @param consumerInfo
+     *      the consumer whose link has been stopped.
+     *
+     * @return true if the link was parked, false if the cache is closed.
+     */
+    boolean park(JmsConsumerInfo consumerInfo) {
+        ParkedLink evicted = null;
+
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+
+            parked.addLast(new ParkedLink(consumerInfo, System.nanoTime()));
+            if (parked.size() > maxLinks) {
+                evicted = parked.pollFirst();
+            }
+
+            if (pendingExpiry == null && idleTimeout > 0) {
+                scheduleExpiry(idleTimeout);
+            }
+        }
+
+        LOG.trace("Parked consumer link {} for reuse", consumerInfo.getId());
+
+        if (evicted != null) {
+            closeLink(evicted.consumerInfo);
+        }
+
+        return true;
+    }
+
+    /**
+     * Takes the most recently parked link that matches the settings of a new consumer.
+     *
+     * @param candidate
+     *      the configuration of the consumer being created.
+     *
+     * @return the parked consumer to take over, or null if none matches.
+     */
+    synchronized JmsConsumerInfo take(JmsConsumerInfo candidate) {
+        Iterator<ParkedLink> iterator = parked.descendingIterator();
+        while (iterator.hasNext()) {
+            ParkedLink link = iterator.next();
+            if (link.matches(candidate)) {
+                iterator.remove();
+                return link.consumerInfo;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Drops a parked link that has been closed by the remote peer.
+     *
+     * @param consumerId
+     *      the id of the consumer whose link was closed.
+     *
+     * @return true if the link was parked.
+     */
+    synchronized boolean remove(JmsConsumerId consumerId) {
+        Iterator<ParkedLink> iterator = parked.iterator();
+        while (iterator.hasNext()) {
+            ParkedLink link = iterator.next();
+            if (link.consumerInfo.getId().equals(consumerId)) {
+                iterator.remove();
+                link.consumerInfo.setState(ResourceState.CLOSED);
+                link.consumerInfo.getMessageQueue().close();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Drops all parked links without closing them, used once the session or its
+     * connection is gone and the links with it.
+     */
+    void clear() {
+        List<ParkedLink> dropped;
+
+        synchronized (this) {
+            closed = true;
+            dropped = new ArrayList<>(parked);
+            parked.clear();
+
+            if (pendingExpiry != null) {
+                pendingExpiry.cancel(false);
+                pendingExpiry = null;
+            }
+        }
+
+        for (ParkedLink link : dropped) {
+            link.consumerInfo.setState(ResourceState.CLOSED);
+            link.consumerInfo.getMessageQueue().close();
+        }
+    }
+
+    /**
+     * Drops all parked links after a connection interruption, the links are not recovered
+     * on reconnect so later consumers attach new ones.
+     */
+    synchronized void onConnectionInterrupted() {
+        for (ParkedLink link : parked) {
+            link.consumerInfo.setState(ResourceState.CLOSED);
+            link.consumerInfo.getMessageQueue().close();
+        }
+
+        parked.clear();
+    }
+
+    synchronized int size() {
+        return parked.size();
+    }
+
+    private void expire() {
+        List<ParkedLink> expired = new ArrayList<>();
+        long now = System.nanoTime();
+
+        synchronized (this) {
+            pendingExpiry = null;
+            if (closed) {
+                return;
+            }
+
+            long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+            while (!parked.isEmpty() && now - parked.peekFirst().parkedAt >= idleNanos) {
+                expired.add(parked.pollFirst());
+            }
+
+            if (!parked.isEmpty()) {
+                long remaining = idleNanos - (now - parked.peekFirst().parkedAt);
+                scheduleExpiry(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+            }
+        }
+
+        for (ParkedLink link : expired) {
+            LOG.trace("Closing consumer link {} after it was unused for {} ms", link.consumerInfo.getId(), idleTimeout);
+            closeLink(link.consumerInfo);
+        }
+    }
+
+    private void scheduleExpiry(long delay) {
+        try {
+            pendingExpiry = connection.scheduleSessionTask(expiryTask, delay);
+        } catch (RejectedExecutionException ree) {
+            LOG.trace("Connection closed before consumer link expiry could be scheduled");
+        }
+    }
+
+    private void closeLink(final JmsConsumerInfo consumerInfo) {
+        consumerInfo.setState(ResourceState.CLOSED);
+        consumerInfo.getMessageQueue().close();
+
+        try {
+            connection.destroyResourceAsync(consumerInfo, new ProviderSynchronization() {
+
+                @Override
+                public void onPendingSuccess() {
+                    LOG.trace("Closed parked consumer link {}", consumerInfo.getId());
+                }
+
+                @Override
+                public void onPendingFailure(Throwable cause) {
+                    LOG.debug("Failed to close parked consumer link {}: {}", consumerInfo.getId(), cause.getMessage());
+                }
+            });
+        } catch (JMSException ex) {
+            LOG.debug("Failed to close parked consumer link {}: {}", consumerInfo.getId(), ex.getMessage());
+        }
+    }
+
+    private static final class ParkedLink {
+
+        private final JmsConsumerInfo consumerInfo;
+        private final long parkedAt;
+
+        public ParkedLink(JmsConsumerInfo consumerInfo, long parkedAt) {
+            this.consumerInfo = consumerInfo;
+            this.parkedAt = parkedAt;
+        }
+
+        public boolean matches(JmsConsumerInfo candidate) {
+            return consumerInfo.getDestination().equals(candidate.getDestination()) &&
+                   Objects.equals(consumerInfo.getSelector(), candidate.getSelector()) &&
+                   consumerInfo.isNoLocal() == candidate.isNoLocal() &&
+                   Objects.equals(consumerInfo.getSubscriptionName(), candidate.getSubscriptionName()) &&
+                   consumerInfo.getPrefetchSize() == candidate.getPrefetchSize() &&
+                   consumerInfo.getAdaptivePrefetchTarget() == candidate.getAdaptivePrefetchTarget() &&
+                   consumerInfo.isPresettle() == candidate.isPresettle();
+        }
+    }
+}
@@ -92,14 +92,16 @@ public class JmsMessageConsumer implements AutoCloseable, MessageConsumer, JmsMe
         JmsDeserializationPolicy deserializationPolicy = session.getDeserializationPolicy().copy();
 
         int configuredPrefetch = prefetchPolicy.getConfiguredPrefetch(session, destination, isDurableSubscription(), isBrowser());
+        int adaptivePrefetchTarget = prefetchPolicy.getConfiguredAdaptivePrefetchTarget(session, destination, isDurableSubscription(), isBrowser());
 
+        MessageQueue queue;
         if (connection.isLocalMessagePriority()) {
-            this.messageQueue = new PriorityMessageQueue();
+            queue = new PriorityMessageQueue();
         } else {
-            this.messageQueue = new FifoMessageQueue(configuredPrefetch);
+            queue = new FifoMessageQueue();
         }
 
-        consumerInfo = new JmsConsumerInfo(consumerId, messageQueue);
+        consumerInfo = new JmsConsumerInfo(consumerId, queue);
         consumerInfo.setExplicitClientID(connection.isExplicitClientID());
         consumerInfo.setSelector(selector);
         consumerInfo.setDurable(isDurableSubscription());
@@ -110,17 +112,33 @@ public class JmsMessageConsumer implements AutoCloseable, MessageConsumer, JmsMe
         consumerInfo.setNoLocal(noLocal);
         consumerInfo.setBrowser(isBrowser());
         consumerInfo.setPrefetchSize(configuredPrefetch);
+        consumerInfo.setAdaptivePrefetchTarget(adaptivePrefetchTarget);
         consumerInfo.setRedeliveryPolicy(redeliveryPolicy);
         consumerInfo.setLocalMessageExpiry(connection.isLocalMessageExpiry());
         consumerInfo.setPresettle(session.getPresettlePolicy().isConsumerPresttled(session, destination));
         consumerInfo.setDeserializationPolicy(deserializationPolicy);
 
+        // Take over the link of a closed consumer with the same settings when the session
+        // has one parked, along with any messages it had prefetched.
+        JmsConsumerInfo parked = session.takeParkedConsumerLink(consumerInfo);
+        if (parked != null) {
+            parked.setRedeliveryPolicy(redeliveryPolicy);
+            parked.setDeserializationPolicy(deserializationPolicy);
+
+            consumerInfo = parked;
+            queue = parked.getMessageQueue();
+        }
+
+        this.messageQueue = queue;
+
         session.add(this);
-        try {
-            session.getConnection().createResource(consumerInfo);
-        } catch (JMSException jmse) {
-            session.remove(this);
-            throw jmse;
+        if (parked == null) {
+            try {
+                session.getConnection().createResource(consumerInfo);
+            } catch (JMSException jmse) {
+                session.remove(this);
+                throw jmse;
+            }
         }
     }
 
@@ -153,13 +171,39 @@ public class JmsMessageConsumer implements AutoCloseable, MessageConsumer, JmsMe
      * @throws JMSException if an error occurs during the consumer close operation.
      */
     protected void doClose() throws JMSException {
+        if (session.canParkConsumerLink(consumerInfo) && closed.compareAndSet(false, true)) {
+            if (parkConsumerLink()) {
+                return;
+            }
+
+            closed.set(false);
+        }
+
         shutdown();
         try {
+            // Acknowledgements held by the session must arrive before the link is closed.
+            session.flushAcknowledgements(true);
             this.connection.destroyResource(consumerInfo);
         } catch (JmsConnectionFailedException jmsex) {
         }
     }
 
+    private boolean parkConsumerLink() throws JMSException {
+        // The consumer stays registered while its link is drained so that messages still
+        // arriving reach the queue, which is kept for the next consumer of the link.
+        stop();
+        try {
+            session.flushAcknowledgements(true);
+            connection.stopResource(consumerInfo);
+        } catch (JMSException ex) {
+            LOG.debug("Consumer {} link could not be stopped for reuse: {}", getConsumerId(), ex.getMessage());
+            return false;
+        }
+
+        session.remove(this);
+        return session.parkConsumerLink(consumerInfo);
+    }
+
     /**
      * Called to release all producer resources without requiring a destroy request
      * to be sent to the remote peer.  This is most commonly needed when the parent
@@ -388,7 +432,7 @@ public class JmsMessageConsumer implements AutoCloseable, MessageConsumer, JmsMe
         if (envelope == null || envelope.getMessage() == null) {
             return null;
         }
-        return envelope.getMessage().copy();
+        return envelope.getMessage().copyOnWrite();
     }
 
     JmsInboundMessageDispatch ackFromReceive(final JmsInboundMessageDispatch envelope) throws JMSException {
@@ -401,10 +445,26 @@ public class JmsMessageConsumer implements AutoCloseable, MessageConsumer, JmsMe
             } else {
                 doAckConsumed(envelope);
             }
+
+            flushAcknowledgementsIfIdle();
         }
         return envelope;
     }
 
+    private void flushAcknowledgementsIfIdle() throws JMSException {
+        // Batched acknowledgements are sent as soon as there is nothing left locally
+        // to deliver so that credit is replenished and a slow trickle of messages is
+        // not held back waiting for the batch to fill.
+        if (session.isBatchingAcknowledgements() && messageQueue.isEmpty()) {
+            try {
+                session.flushAcknowledgements(false);
+            } catch (JMSException ex) {
+                session.onException(ex);
+                throw ex;
+            }
+        }
+    }
+
     private JmsInboundMessageDispatch doAckConsumed(final JmsInboundMessageDispatch envelope) throws JMSException {
         try {
             session.acknowledge(envelope, ACK_TYPE.ACCEPTED);
@@ -750,6 +810,8 @@ public class JmsMessageConsumer implements AutoCloseable, MessageConsumer, JmsMe
                         }
                     }
                 }
+
+                flushAcknowledgementsIfIdle();
             } catch (Exception e) {
                 // TODO - There are two cases where we can get an error here, one being
                 //        and error returned from the attempted ACK that was sent and the
@@ -17,6 +17,7 @@
 package org.apache.qpid.jms;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -56,6 +57,7 @@ public class JmsMessageProducer implements AutoCloseable, MessageProducer {
     protected boolean disableTimestamp;
     protected final AtomicLong messageSequence = new AtomicLong();
     protected final AtomicReference<Throwable> failureCause = new AtomicReference<>();
+    protected final JmsSendWindow sendWindow;
 
     protected JmsMessageProducer(JmsProducerId producerId, JmsSession session, JmsDestination destination) throws JMSException {
         this.session = session;
@@ -69,6 +71,12 @@ public class JmsMessageProducer implements AutoCloseable, MessageProducer {
         this.producerInfo.setDestination(destination);
         this.producerInfo.setPresettle(session.getPresettlePolicy().isProducerPresttled(session, destination));
 
+        if (connection.getMaxInFlightSends() > 0 || connection.getMaxInFlightSendBytes() > 0) {
+            this.sendWindow = new JmsSendWindow(connection.getMaxInFlightSends(), connection.getMaxInFlightSendBytes());
+        } else {
+            this.sendWindow = null;
+        }
+
         session.add(this);
         try {
             session.getConnection().createResource(producerInfo);
@@ -116,6 +124,9 @@ public class JmsMessageProducer implements AutoCloseable, MessageProducer {
             producerInfo.setState(ResourceState.CLOSED);
             failureCause.set(cause);
             session.remove(this);
+            if (sendWindow != null) {
+                sendWindow.close();
+            }
         }
     }
 
@@ -237,6 +248,54 @@ public class JmsMessageProducer implements AutoCloseable, MessageProducer {
         sendMessage(destination, message, deliveryMode, priority, timeToLive, listener);
     }
 
+    /**
+     * Sends a batch of messages to the producer's destination using the producer's default
+     * delivery mode, priority and time to live.
+     *
+     * The messages are prepared and handed to the connection together so that they can be
+     * written out in one go, the call returns once all of them have been sent with the same
+     * guarantees that sending each one on its own would have given.
+     *
+     * @param messages
+     *      the messages to send, in the order they should be sent.
+     *
+     * @throws JMSException if an error occurs while sending any of the messages.
+     */
+    public void send(List<? extends Message> messages) throws JMSException {
+        checkClosed();
+
+        if (anonymousProducer) {
+            throw new UnsupportedOperationException("Using this method is not supported on producers created without an explicit Destination");
+        }
+
+        session.send(this, producerInfo.getDestination(), messages, deliveryMode, priority, timeToLive, disableMessageId, disableTimestamp, deliveryDelay);
+    }
+
+    /**
+     * Sends a batch of messages to the given destination using the producer's default
+     * delivery mode, priority and time to live.
+     *
+     * @param destination
+     *      the destination to send the messages to.
+     * @param messages
+     *      the messages to send, in the order they should be sent.
+     *
+     * @throws JMSException if an error occurs while sending any of the messages.
+     *
+     * @see #send(List)
+     */
+    public void send(Destination destination, List<? extends Message> messages) throws JMSException {
+        checkClosed();
+
+        checkDestinationNotInvalid(destination);
+
+        if (!anonymousProducer) {
+            throw new UnsupportedOperationException("Using this method is not supported on producers created with an explicit Destination.");
+        }
+
+        session.send(this, destination, messages, deliveryMode, priority, timeToLive, disableMessageId, disableTimestamp, deliveryDelay);
+    }
+
     private void checkDestinationNotInvalid(Destination destination) throws InvalidDestinationException {
         if (destination == null) {
             throw new InvalidDestinationException("Destination must not be null");
@@ -302,6 +361,13 @@ public class JmsMessageProducer implements AutoCloseable, MessageProducer {
         return this.producerInfo.getId();
     }
 
+    /**
+     * @return the window limiting sends handed off without waiting, or null if none is configured.
+     */
+    protected JmsSendWindow getSendWindow() {
+        return sendWindow;
+    }
+
     /**
      * @return the next logical sequence for a Message sent from this Producer.
      */
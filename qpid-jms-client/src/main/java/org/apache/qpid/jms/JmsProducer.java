@@ -23,6 +23,7 @@ import static org.apache.qpid.jms.message.JmsMessagePropertySupport.convertPrope
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -149,8 +150,50 @@ public class JmsProducer implements JMSProducer {
         return this;
     }
 
+    /**
+     * Sends a batch of messages to the given destination using this JMSProducer's
+     * configuration, the messages are handed to the connection together so that they
+     * can be written out in one go.  When a CompletionListener has been set each of the
+     * messages is sent on its own and completes with its own callback.
+     *
+     * @param destination
+     *      the destination to send the messages to.
+     * @param messages
+     *      the messages to send, in the order they should be sent.
+     *
+     * @return this JMSProducer.
+     */
+    public JMSProducer send(Destination destination, List<? extends Message> messages) {
+        try {
+            if (messages == null) {
+                throw new MessageFormatException("Message must not be null");
+            }
+
+            if (completionListener != null) {
+                for (Message message : messages) {
+                    doSend(destination, message);
+                }
+            } else {
+                for (Message message : messages) {
+                    applyMessageConfiguration(message);
+                }
+
+                session.send(producer, destination, messages, deliveryMode, priority, timeToLive, disableMessageId, disableTimestamp, deliveryDelay);
+            }
+        } catch (JMSException jmse) {
+            throw JmsExceptionSupport.createRuntimeException(jmse);
+        }
+
+        return this;
+    }
+
     private void doSend(Destination destination, Message message) throws JMSException {
+        applyMessageConfiguration(message);
 
+        session.send(producer, destination, message, deliveryMode, priority, timeToLive, disableMessageId, disableTimestamp, deliveryDelay, completionListener);
+    }
+
+    private void applyMessageConfiguration(Message message) throws JMSException {
         if (message == null) {
             throw new MessageFormatException("Message must not be null");
         }
@@ -171,8 +214,6 @@ public class JmsProducer implements JMSProducer {
         if (replyTo != null) {
             message.setJMSReplyTo(replyTo);
         }
-
-        session.send(producer, destination, message, deliveryMode, priority, timeToLive, disableMessageId, disableTimestamp, deliveryDelay, completionListener);
     }
 
     //----- Message Property Methods -----------------------------------------//
@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jms.CompletionListener;
+import javax.jms.Destination;
+import javax.jms.IllegalStateException;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import javax.jms.TemporaryQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends request messages and matches the replies to them, using a single temporary
+ * reply queue and consumer for all requests made through it.
+ *
+ * Each request is given a unique JMSCorrelationID and the temporary queue as its
+ * JMSReplyTo, the responder is expected to copy the correlation ID of the request into
+ * the reply.  The reply is delivered through the CompletableFuture returned when the
+ * request was sent, so any number of requests can be outstanding at once.  Replies that
+ * arrive after their request timed out, or that match no request, are dropped.
+ *
+ * Replies are delivered from the session's MessageListener thread, actions attached to
+ * the returned futures run on that thread unless an async variant is used and must not
+ * block waiting on the reply to another request made through the same requestor.
+ */
+public class JmsRequestor implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsRequestor.class);
+
+    private final JmsSession session;
+    private final TemporaryQueue replyQueue;
+    private final JmsMessageConsumer replyConsumer;
+    private final JmsMessageProducer requestProducer;
+    private final String correlationPrefix;
+
+    private final AtomicLong correlationIdGenerator = new AtomicLong();
+    private final ConcurrentMap<String, PendingRequest> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Creates a requestor that sends requests and receives their replies using the given
+     * session, which must not be transacted or use client acknowledgement as the replies
+     * are acknowledged as they are delivered.
+     *
+     * @param session
+     *      the session used to create the reply queue, reply consumer and request producer.
+     *
+     * @throws JMSException if the session cannot be used or the reply consumer cannot be created.
+     */
+    public JmsRequestor(JmsSession session) throws JMSException {
+        if (session.getTransacted() || session.getAcknowledgeMode() == Session.CLIENT_ACKNOWLEDGE) {
+            throw new IllegalStateException("A requestor cannot use a transacted or client acknowledged session");
+        }
+
+        this.session = session;
+        this.requestProducer = (JmsMessageProducer) session.createProducer(null);
+
+        try {
+            this.replyQueue = session.createTemporaryQueue();
+        } catch (JMSException ex) {
+            closeQuietly(requestProducer);
+            throw ex;
+        }
+
+        JmsMessageConsumer consumer = null;
+        try {
+            consumer = (JmsMessageConsumer) session.createConsumer(replyQueue);
+            consumer.setMessageListener(new MessageListener() {
+
+                @Override
+                public void onMessage(Message reply) {
+                    onReply(reply);
+                }
+            });
+        } catch (JMSException ex) {
+            if (consumer != null) {
+                closeQuietly(consumer);
+            }
+            closeQuietly(requestProducer);
+            closeQuietly(replyQueue);
+            throw ex;
+        }
+
+        this.replyConsumer = consumer;
+
+        this.correlationPrefix = replyConsumer.getConsumerId().toString() + ":";
+    }
+
+    /**
+     * Sends a request and waits indefinitely for its reply.
+     *
+     * @param destination
+     *      the destination to send the request to.
+     * @param request
+     *      the request message, its JMSCorrelationID and JMSReplyTo are replaced.
+     *
+     * @return a future that completes with the reply to the request.
+     *
+     * @throws JMSException if the requestor is closed or the request cannot be sent.
+     */
+    public CompletableFuture<Message> request(Destination destination, Message request) throws JMSException {
+        return request(destination, request, 0);
+    }
+
+    /**
+     * Sends a request, completing the returned future exceptionally with a
+     * {@link JmsOperationTimedOutException} if no reply arrives within the timeout.
+     *
+     * @param destination
+     *      the destination to send the request to.
+     * @param request
+     *      the request message, its JMSCorrelationID and JMSReplyTo are replaced.
+     * @param timeout
+     *      the time in milliseconds to wait for a reply, zero or less waits indefinitely.
+     *
+     * @return a future that completes with the reply to the request.
+     *
+     * @throws JMSException if the requestor is closed or the request cannot be sent.
+     */
+    public CompletableFuture<Message> request(Destination destination, Message request, long timeout) throws JMSException {
+        checkClosed();
+
+        final String correlationId = correlationPrefix + correlationIdGenerator.incrementAndGet();
+        final PendingRequest pendingRequest = new PendingRequest(correlationId);
+
+        request.setJMSCorrelationID(correlationId);
+        request.setJMSReplyTo(replyQueue);
+
+        pending.put(correlationId, pendingRequest);
+
+        // The timeout is armed before the send so that it can be cancelled by a reply
+        // arriving at any point after the request leaves.
+        if (timeout > 0) {
+            pendingRequest.scheduleTimeout(timeout);
+        }
+
+        try {
+            requestProducer.send(destination, request, new CompletionListener() {
+
+                @Override
+                public void onCompletion(Message message) {
+                }
+
+                @Override
+                public void onException(Message message, Exception exception) {
+                    fail(correlationId, exception);
+                }
+            });
+        } catch (JMSException ex) {
+            pending.remove(correlationId, pendingRequest);
+            pendingRequest.cancelTimeout();
+            throw ex;
+        }
+
+        return pendingRequest;
+    }
+
+    /**
+     * @return the number of requests sent that have not yet had a reply or timed out.
+     */
+    public int getPendingRequestCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return the temporary queue that replies are sent to.
+     */
+    public TemporaryQueue getReplyQueue() {
+        return replyQueue;
+    }
+
+    /**
+     * Closes the reply consumer and request producer and deletes the reply queue, any
+     * requests still awaiting a reply are completed exceptionally.
+     *
+     * @throws JMSException if an error occurs while closing the reply consumer.
+     */
+    @Override
+    public void close() throws JMSException {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                replyConsumer.close();
+            } finally {
+                closeQuietly(requestProducer);
+                closeQuietly(replyQueue);
+                failPending(new IllegalStateException("The requestor was closed before a reply arrived"));
+            }
+        }
+    }
+
+    //----- Internal implementation ------------------------------------------//
+
+    private void onReply(Message reply) {
+        String correlationId = null;
+        try {
+            correlationId = reply.getJMSCorrelationID();
+        } catch (JMSException ex) {
+            LOG.debug("Failed to read the correlation ID of a reply: {}", ex.getMessage());
+        }
+
+        PendingRequest pendingRequest = correlationId != null ? pending.remove(correlationId) : null;
+        if (pendingRequest != null) {
+            pendingRequest.cancelTimeout();
+            pendingRequest.complete(reply);
+        } else {
+            LOG.trace("Dropping reply with correlation ID {} that matches no pending request", correlationId);
+        }
+    }
+
+    private void fail(String correlationId, Exception cause) {
+        PendingRequest pendingRequest = pending.remove(correlationId);
+        if (pendingRequest != null) {
+            pendingRequest.cancelTimeout();
+            pendingRequest.completeExceptionally(cause);
+        }
+    }
+
+    private void failPending(Exception cause) {
+        List<String> correlationIds = new ArrayList<>(pending.keySet());
+        for (String correlationId : correlationIds) {
+            fail(correlationId, cause);
+        }
+    }
+
+    private void checkClosed() throws IllegalStateException {
+        if (closed.get()) {
+            throw new IllegalStateException("The requestor is closed");
+        }
+    }
+
+    private static void closeQuietly(JmsMessageProducer producer) {
+        try {
+            producer.close();
+        } catch (JMSException ex) {
+            LOG.trace("Caught exception while closing requestor producer: {}", ex.getMessage());
+        }
+    }
+
+    private static void closeQuietly(JmsMessageConsumer consumer) {
+        try {
+            consumer.close();
+        } catch (JMSException ex) {
+            LOG.trace("Caught exception while closing requestor consumer: {}", ex.getMessage());
+        }
+    }
+
+    private static void closeQuietly(TemporaryQueue queue) {
+        try {
+            queue.delete();
+        } catch (JMSException ex) {
+            LOG.trace("Caught exception while deleting requestor reply queue: {}", ex.getMessage());
+        }
+    }
+
+    private final class PendingRequest extends CompletableFuture<Message> implements Runnable {
+
+        private final String correlationId;
+        private volatile ScheduledFuture<?> timeoutTask;
+
+        public PendingRequest(String correlationId) {
+            this.correlationId = correlationId;
+        }
+
+        public void scheduleTimeout(long timeout) throws IllegalStateException {
+            try {
+                timeoutTask = session.getConnection().scheduleSessionTask(this, timeout);
+            } catch (RejectedExecutionException ree) {
+                timeoutTask = null;
+            }
+
+            if (timeoutTask == null) {
+                pending.remove(correlationId, this);
+                throw new IllegalStateException("The connection is closed");
+            }
+        }
+
+        public void cancelTimeout() {
+            ScheduledFuture<?> task = timeoutTask;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            // A cancelled request no longer waits for its reply, a late reply is dropped.
+            pending.remove(correlationId, this);
+            cancelTimeout();
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public void run() {
+            if (pending.remove(correlationId, this)) {
+                completeExceptionally(new JmsOperationTimedOutException(
+                    "No reply received for request " + correlationId + " in time"));
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.jms.IllegalStateException;
+import javax.jms.JMSException;
+
+import org.apache.qpid.jms.exceptions.JmsExceptionSupport;
+
+/**
+ * Limits the number of sends, and the number of encoded bytes, that a producer may
+ * have handed to the connection without waiting for them to be processed.
+ *
+ * A send that would take the producer over either limit waits until enough of the
+ * earlier sends have been released.  A single message larger than the byte limit is
+ * allowed through once nothing else is in flight so that it can never wait forever.
+ * The window is guarded by a ReentrantLock so that a send waiting on a virtual thread
+ * does not pin its carrier thread.
+ */
+final class JmsSendWindow {
+
+    private final int maxMessages;
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private int messages;
+    private long bytes;
+    private boolean closed;
+
+    /**
+     * Creates a new send window.
+     *
+     * @param maxMessages
+     *      the number of sends that may be in flight, zero for no limit.
+     * @param maxBytes
+     *      the number of encoded bytes that may be in flight, zero for no limit.
+     */
+    JmsSendWindow(int maxMessages, long maxBytes) {
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reserves space in the window for a send, waiting for space if the window is full.
+     *
+     * @param size
+     *      the encoded size of the message being sent.
+     *
+     * @throws JMSException if the window is closed or the wait is interrupted.
+     */
+    void acquire(int size) throws JMSException {
+        lock.lock();
+        try {
+            while (!closed && isFull(size)) {
+                released.await();
+            }
+
+            if (closed) {
+                throw new IllegalStateException("The MessageProducer was closed while waiting to send");
+            }
+
+            messages++;
+            bytes += size;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw JmsExceptionSupport.create(ie);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns space taken by a send that has now been processed.
+     *
+     * @param size
+     *      the encoded size given when the space was acquired.
+     */
+    void release(int size) {
+        lock.lock();
+        try {
+            messages--;
+            bytes -= size;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the window, any send waiting for space is woken and fails.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getMessagesInFlight() {
+        lock.lock();
+        try {
+            return messages;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getBytesInFlight() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isFull(int size) {
+        if (maxMessages > 0 && messages >= maxMessages) {
+            return true;
+        }
+
+        return maxBytes > 0 && messages > 0 && bytes + size > maxBytes;
+    }
+}
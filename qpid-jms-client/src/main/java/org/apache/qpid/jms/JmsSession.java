@@ -23,6 +23,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
@@ -97,6 +98,7 @@ import org.apache.qpid.jms.selector.SelectorParser;
 import org.apache.qpid.jms.selector.filter.FilterException;
 import org.apache.qpid.jms.util.NoOpExecutor;
 import org.apache.qpid.jms.util.QpidJMSThreadFactory;
+import org.apache.qpid.jms.util.SerialExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -123,14 +125,16 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
     private final AtomicBoolean started = new AtomicBoolean();
     private final JmsSessionInfo sessionInfo;
     private final ReentrantLock sendLock = new ReentrantLock();
-    private volatile ThreadPoolExecutor deliveryExecutor;
-    private volatile ThreadPoolExecutor completionExcecutor;
+    private volatile ExecutorService deliveryExecutor;
+    private volatile ExecutorService completionExcecutor;
     private AtomicReference<Thread> deliveryThread = new AtomicReference<Thread>();
     private AtomicReference<Thread> completionThread = new AtomicReference<Thread>();
 
     private final AtomicLong consumerIdGenerator = new AtomicLong();
     private final AtomicLong producerIdGenerator = new AtomicLong();
     private JmsTransactionContext transactionContext;
+    private final JmsAcknowledgementBuffer acknowledgementBuffer;
+    private final JmsConsumerLinkCache consumerLinkCache;
     private boolean sessionRecovered;
     private final AtomicReference<Throwable> failureCause = new AtomicReference<>();
     private final Deque<SendCompletion> asyncSendQueue = new ConcurrentLinkedDeque<SendCompletion>();
@@ -145,6 +149,24 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
             setTransactionContext(new JmsNoTxTransactionContext());
         }
 
+        if ((acknowledgementMode == AUTO_ACKNOWLEDGE || acknowledgementMode == DUPS_OK_ACKNOWLEDGE) &&
+            connection.getAckBatchSize() > 1) {
+
+            acknowledgementBuffer = new JmsAcknowledgementBuffer(
+                connection, connection.getAckBatchSize(), connection.getAckBatchTimeout());
+        } else {
+            acknowledgementBuffer = null;
+        }
+
+        if ((acknowledgementMode == AUTO_ACKNOWLEDGE || acknowledgementMode == DUPS_OK_ACKNOWLEDGE) &&
+            connection.getConsumerLinkCacheSize() > 0) {
+
+            consumerLinkCache = new JmsConsumerLinkCache(
+                connection, connection.getConsumerLinkCacheSize(), connection.getConsumerLinkIdleTimeout());
+        } else {
+            consumerLinkCache = null;
+        }
+
         sessionInfo = new JmsSessionInfo(sessionId);
         sessionInfo.setAcknowledgementMode(acknowledgementMode);
         sessionInfo.setSendAcksAsync(connection.isForceAsyncAcks());
@@ -216,6 +238,7 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
         boolean wasStarted = isStarted();
         stop();
 
+        flushAcknowledgements(true);
         connection.recover(getSessionId());
         sessionRecovered = true;
 
@@ -279,6 +302,15 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
      */
     protected void doClose() throws JMSException {
         boolean interrupted = Thread.interrupted();
+        if (acknowledgementBuffer != null) {
+            // Stop delivery first so that no new acknowledgements are added after the flush.
+            stop();
+            try {
+                acknowledgementBuffer.flush(true);
+            } catch (JMSException ex) {
+                LOG.debug("Failed to send batched acknowledgements during session close: {}", ex.getMessage());
+            }
+        }
         shutdown();
         try {
             connection.destroyResource(sessionInfo);
@@ -315,12 +347,20 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
                 consumer.shutdown(cause);
             }
 
+            if (consumerLinkCache != null) {
+                consumerLinkCache.clear();
+            }
+
             for (JmsMessageProducer producer : new ArrayList<JmsMessageProducer>(this.producers.values())) {
                 producer.shutdown(cause);
             }
 
             transactionContext.shutdown();
 
+            if (acknowledgementBuffer != null) {
+                acknowledgementBuffer.clear();
+            }
+
             // Ensure that no asynchronous completion sends remain blocked after close.
             synchronized (sessionInfo) {
                 if (cause == null) {
@@ -353,14 +393,20 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
         LOG.info("A JMS MessageConsumer has been closed: {}", resource);
 
         JmsMessageConsumer consumer = consumers.get(resource.getId());
+        if (consumer == null) {
+            if (consumerLinkCache != null) {
+                consumerLinkCache.remove(resource.getId());
+            }
+
+            return null;
+        }
+
         if (consumer.hasMessageListener()) {
             connection.onAsyncException(JmsExceptionSupport.create(cause));
         }
 
         try {
-            if (consumer != null) {
-                consumer.shutdown(cause);
-            }
+            consumer.shutdown(cause);
         } catch (Throwable error) {
             LOG.trace("Ignoring exception thrown during cleanup of closed consumer", error);
         }
@@ -791,126 +837,241 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
         send(producer, destination, msg, deliveryMode, priority, timeToLive, disableMsgId, disableTimestamp, deliveryDelay, listener);
     }
 
-    private void send(JmsMessageProducer producer, JmsDestination destination, Message original, int deliveryMode, int priority, long timeToLive, boolean disableMsgId, boolean disableTimestamp, long deliveryDelay, CompletionListener listener) throws JMSException {
-        sendLock.lock();
-        try {
-            original.setJMSDeliveryMode(deliveryMode);
-            original.setJMSPriority(priority);
-            original.setJMSRedelivered(false);
-            original.setJMSDestination(destination);
+    protected void send(JmsMessageProducer producer, Destination dest, List<? extends Message> messages, int deliveryMode, int priority, long timeToLive, boolean disableMsgId, boolean disableTimestamp, long deliveryDelay) throws JMSException {
+        if (dest == null) {
+            throw new InvalidDestinationException("Destination must not be null");
+        }
+
+        if (messages == null || messages.contains(null)) {
+            throw new MessageFormatException("Message must not be null");
+        }
 
-            long timeStamp = System.currentTimeMillis();
-            boolean hasTTL = timeToLive > Message.DEFAULT_TIME_TO_LIVE;
-            boolean hasDelay = deliveryDelay > Message.DEFAULT_DELIVERY_DELAY;
+        JmsDestination destination = JmsMessageTransformation.transformDestination(connection, dest);
 
-            boolean isJmsMessage = original instanceof JmsMessage;
+        if (destination.isTemporary() && ((JmsTemporaryDestination) destination).isDeleted()) {
+            throw new IllegalStateException("Temporary destination has been deleted");
+        }
 
-            if (!disableTimestamp) {
-                original.setJMSTimestamp(timeStamp);
-            } else {
-                original.setJMSTimestamp(0);
-            }
+        if (messages.isEmpty()) {
+            return;
+        }
 
-            if (hasTTL) {
-                original.setJMSExpiration(timeStamp + timeToLive);
-            } else {
-                original.setJMSExpiration(0);
-            }
+        List<JmsOutboundMessageDispatch> envelopes = new ArrayList<>(messages.size());
 
-            long messageSequence = producer.getNextMessageSequence();
-            Object messageId = null;
-            if (!disableMsgId) {
-                messageId = producer.getMessageIDBuilder().createMessageID(producer.getProducerId().toString(), messageSequence);
+        sendLock.lock();
+        try {
+            for (Message message : messages) {
+                JmsOutboundMessageDispatch envelope = prepareSend(producer, destination, message, deliveryMode, priority, timeToLive, disableMsgId, disableTimestamp, deliveryDelay, null);
+                envelopes.add(envelope);
+
+                if (envelope.isSendAsync() && !envelope.isPresettle()) {
+                    JmsMessage outbound = envelope.getMessage();
+                    envelope.setMessage(outbound.copy());
+                    outbound.onSendComplete();
+                }
             }
 
-            JmsMessage outbound = null;
-            if (isJmsMessage) {
-                outbound = (JmsMessage) original;
+            if (isTransacted()) {
+                // Transacted sends are tracked one at a time by the transaction context.
+                for (JmsOutboundMessageDispatch envelope : envelopes) {
+                    transactionContext.send(connection, envelope, null);
+                }
             } else {
-                // Transform and assign the Destination as one of our own destination objects.
-                outbound = JmsMessageTransformation.transformMessage(connection, original);
-                outbound.setJMSDestination(destination);
+                connection.send(envelopes);
             }
-
-            // Set the delivery time. Purposefully avoided doing this earlier so
-            // that we use the 'outbound' JmsMessage object reference when
-            // updating our own message instances, avoids using the interface
-            // in case the JMS 1.1 Message API is actually being used due to
-            // being on the classpath too.
-            long deliveryTime = timeStamp;
-            if (hasDelay) {
-                deliveryTime = timeStamp + deliveryDelay;
+        } finally {
+            for (JmsOutboundMessageDispatch envelope : envelopes) {
+                envelope.releasePayload();
             }
 
-            outbound.getFacade().setDeliveryTime(deliveryTime, hasDelay);
-            if(!isJmsMessage) {
-                // If the original was a foreign message, we still need to update it too.
-                setForeignMessageDeliveryTime(original, deliveryTime);
-            }
+            sendLock.unlock();
+        }
+    }
 
-            // Set the message ID
-            outbound.getFacade().setProviderMessageIdObject(messageId);
-            if (!isJmsMessage) {
-                // If the original was a foreign message, we still need to update it
-                // with the properly encoded Message ID String, get it from the one
-                // we transformed from now that it is set.
-                original.setJMSMessageID(outbound.getJMSMessageID());
+    private void send(JmsMessageProducer producer, JmsDestination destination, Message original, int deliveryMode, int priority, long timeToLive, boolean disableMsgId, boolean disableTimestamp, long deliveryDelay, CompletionListener listener) throws JMSException {
+        sendLock.lock();
+        try {
+            JmsOutboundMessageDispatch envelope = prepareSend(producer, destination, original, deliveryMode, priority, timeToLive, disableMsgId, disableTimestamp, deliveryDelay, listener);
+            JmsMessage outbound = envelope.getMessage();
+
+            // Async and presettled sends outside a transaction are handed off without waiting
+            // for the provider when the producer has an in-flight send window configured.
+            JmsSendWindow sendWindow = producer.getSendWindow();
+            boolean handOff = sendWindow != null && !isTransacted() && (envelope.isSendAsync() || envelope.isPresettle());
+
+            if (!envelope.isCompletionRequired() && (handOff || (envelope.isSendAsync() && !envelope.isPresettle()))) {
+                envelope.setMessage(outbound.copy());
+                outbound.onSendComplete();
             }
 
-            // If configured set the User ID using the value we have encoded and cached,
-            // otherwise clear to prevent caller from spoofing the user ID value.
-            if (connection.isPopulateJMSXUserID()) {
-                outbound.getFacade().setUserIdBytes(connection.getEncodedUsername());
-            } else {
-                outbound.getFacade().setUserId(null);
+            // The provider adds its own reference to the encoded payload if it needs it
+            // after the send call returns, ours is dropped once the call is done.
+            try {
+                if (handOff) {
+                    sendWithoutBlocking(envelope, listener, sendWindow);
+                } else if (envelope.isCompletionRequired()) {
+                    transactionContext.send(connection, envelope, new ProviderSynchronization() {
+
+                        @Override
+                        public void onPendingSuccess() {
+                            // Provider accepted the send request so new we place the marker in
+                            // the queue so that it can be completed asynchronously.
+                            asyncSendQueue.addLast(new SendCompletion(envelope, listener));
+                        }
+
+                        @Override
+                        public void onPendingFailure(Throwable cause) {
+                            // Provider has rejected the send request so we will throw the
+                            // exception that is to follow so no completion will be needed.
+                        }
+                    });
+                } else {
+                    transactionContext.send(connection, envelope, null);
+                }
+            } finally {
+                envelope.releasePayload();
             }
+        } finally {
+            sendLock.unlock();
+        }
+    }
 
-            boolean sync = connection.isForceSyncSend() ||
-                           (!connection.isForceAsyncSend() && deliveryMode == DeliveryMode.PERSISTENT && !getTransacted());
+    private JmsOutboundMessageDispatch prepareSend(JmsMessageProducer producer, JmsDestination destination, Message original, int deliveryMode, int priority, long timeToLive, boolean disableMsgId, boolean disableTimestamp, long deliveryDelay, CompletionListener listener) throws JMSException {
+        original.setJMSDeliveryMode(deliveryMode);
+        original.setJMSPriority(priority);
+        original.setJMSRedelivered(false);
+        original.setJMSDestination(destination);
 
-            outbound.onSend(timeToLive);
+        long timeStamp = System.currentTimeMillis();
+        boolean hasTTL = timeToLive > Message.DEFAULT_TIME_TO_LIVE;
+        boolean hasDelay = deliveryDelay > Message.DEFAULT_DELIVERY_DELAY;
 
-            JmsOutboundMessageDispatch envelope = new JmsOutboundMessageDispatch();
-            envelope.setMessage(outbound);
-            envelope.setPayload(outbound.getFacade().encodeMessage());
-            envelope.setProducerId(producer.getProducerId());
-            envelope.setDestination(destination);
-            envelope.setSendAsync(listener == null ? !sync : true);
-            envelope.setDispatchId(messageSequence);
-            envelope.setCompletionRequired(listener != null);
+        boolean isJmsMessage = original instanceof JmsMessage;
 
-            if (producer.isAnonymous()) {
-                envelope.setPresettle(getPresettlePolicy().isProducerPresttled(this, destination));
-            } else {
-                envelope.setPresettle(producer.isPresettled());
-            }
+        if (!disableTimestamp) {
+            original.setJMSTimestamp(timeStamp);
+        } else {
+            original.setJMSTimestamp(0);
+        }
 
-            if (envelope.isSendAsync() && !envelope.isCompletionRequired() && !envelope.isPresettle()) {
-                envelope.setMessage(outbound.copy());
-                outbound.onSendComplete();
-            }
+        if (hasTTL) {
+            original.setJMSExpiration(timeStamp + timeToLive);
+        } else {
+            original.setJMSExpiration(0);
+        }
 
-            if (envelope.isCompletionRequired()) {
-                transactionContext.send(connection, envelope, new ProviderSynchronization() {
+        long messageSequence = producer.getNextMessageSequence();
+        Object messageId = null;
+        if (!disableMsgId) {
+            messageId = producer.getMessageIDBuilder().createMessageID(producer.getProducerId().toString(), messageSequence);
+        }
 
-                    @Override
-                    public void onPendingSuccess() {
-                        // Provider accepted the send request so new we place the marker in
-                        // the queue so that it can be completed asynchronously.
-                        asyncSendQueue.addLast(new SendCompletion(envelope, listener));
-                    }
+        JmsMessage outbound = null;
+        if (isJmsMessage) {
+            outbound = (JmsMessage) original;
+        } else {
+            // Transform and assign the Destination as one of our own destination objects.
+            outbound = JmsMessageTransformation.transformMessage(connection, original);
+            outbound.setJMSDestination(destination);
+        }
+
+        // Set the delivery time. Purposefully avoided doing this earlier so
+        // that we use the 'outbound' JmsMessage object reference when
+        // updating our own message instances, avoids using the interface
+        // in case the JMS 1.1 Message API is actually being used due to
+        // being on the classpath too.
+        long deliveryTime = timeStamp;
+        if (hasDelay) {
+            deliveryTime = timeStamp + deliveryDelay;
+        }
+
+        outbound.getFacade().setDeliveryTime(deliveryTime, hasDelay);
+        if(!isJmsMessage) {
+            // If the original was a foreign message, we still need to update it too.
+            setForeignMessageDeliveryTime(original, deliveryTime);
+        }
+
+        // Set the message ID
+        outbound.getFacade().setProviderMessageIdObject(messageId);
+        if (!isJmsMessage) {
+            // If the original was a foreign message, we still need to update it
+            // with the properly encoded Message ID String, get it from the one
+            // we transformed from now that it is set.
+            original.setJMSMessageID(outbound.getJMSMessageID());
+        }
+
+        // If configured set the User ID using the value we have encoded and cached,
+        // otherwise clear to prevent caller from spoofing the user ID value.
+        if (connection.isPopulateJMSXUserID()) {
+            outbound.getFacade().setUserIdBytes(connection.getEncodedUsername());
+        } else {
+            outbound.getFacade().setUserId(null);
+        }
+
+        boolean sync = connection.isForceSyncSend() ||
+                       (!connection.isForceAsyncSend() && deliveryMode == DeliveryMode.PERSISTENT && !getTransacted());
+
+        outbound.onSend(timeToLive);
+
+        JmsOutboundMessageDispatch envelope = new JmsOutboundMessageDispatch();
+        envelope.setMessage(outbound);
+        envelope.setPayload(outbound.getFacade().encodeMessage(producer.getProducerId()));
+        envelope.setProducerId(producer.getProducerId());
+        envelope.setDestination(destination);
+        envelope.setSendAsync(listener == null ? !sync : true);
+        envelope.setDispatchId(messageSequence);
+        envelope.setCompletionRequired(listener != null);
+
+        if (producer.isAnonymous()) {
+            envelope.setPresettle(getPresettlePolicy().isProducerPresttled(this, destination));
+        } else {
+            envelope.setPresettle(producer.isPresettled());
+        }
+
+        return envelope;
+    }
+
+    private void sendWithoutBlocking(final JmsOutboundMessageDispatch envelope, CompletionListener listener, final JmsSendWindow sendWindow) throws JMSException {
+        final int size = envelope.getPayloadSize();
 
-                    @Override
-                    public void onPendingFailure(Throwable cause) {
-                        // Provider has rejected the send request so we will throw the
-                        // exception that is to follow so no completion will be needed.
+        sendWindow.acquire(size);
+
+        // The completion is queued before the hand off as the outcome of the send can be
+        // known before the provider has reported back on the hand off itself.
+        SendCompletion completion = null;
+        if (listener != null) {
+            completion = new SendCompletion(envelope, listener);
+            asyncSendQueue.addLast(completion);
+        }
+
+        try {
+            connection.sendAsync(envelope, new ProviderSynchronization() {
+
+                @Override
+                public void onPendingSuccess() {
+                    sendWindow.release(size);
+                }
+
+                @Override
+                public void onPendingFailure(Throwable cause) {
+                    sendWindow.release(size);
+
+                    // Sends outstanding when the connection fails are dealt with by the failure handling.
+                    if (!connection.isFailed()) {
+                        if (envelope.isCompletionRequired()) {
+                            connection.onFailedMessageSend(envelope, cause);
+                        } else {
+                            connection.onAsyncException(cause);
+                        }
                     }
-                });
-            } else {
-                transactionContext.send(connection, envelope, null);
+                }
+            });
+        } catch (JMSException jmse) {
+            sendWindow.release(size);
+            if (completion != null) {
+                asyncSendQueue.removeLastOccurrence(completion);
             }
-        } finally {
-            sendLock.unlock();
+            throw jmse;
         }
     }
 
@@ -934,10 +1095,80 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
     }
 
     JmsInboundMessageDispatch acknowledge(JmsInboundMessageDispatch envelope, ACK_TYPE ackType) throws JMSException {
+        if (acknowledgementBuffer != null) {
+            if (ackType == ACK_TYPE.DELIVERED || ackType == ACK_TYPE.ACCEPTED) {
+                acknowledgementBuffer.add(envelope, ackType);
+                return envelope;
+            }
+
+            // Other outcomes must reach the provider after those already buffered.
+            acknowledgementBuffer.flush(false);
+        }
+
         transactionContext.acknowledge(connection, envelope, ackType);
         return envelope;
     }
 
+    /**
+     * @return true if this session buffers the acknowledgements of its consumers.
+     */
+    boolean isBatchingAcknowledgements() {
+        return acknowledgementBuffer != null;
+    }
+
+    /**
+     * Sends any acknowledgements that are being held in the session acknowledgement
+     * batch, does nothing if acknowledgement batching is not enabled.
+     *
+     * @param sync
+     *      should the call wait for the provider to process the acknowledgements.
+     *
+     * @throws JMSException if an error occurs while the acknowledgements are sent.
+     */
+    void flushAcknowledgements(boolean sync) throws JMSException {
+        if (acknowledgementBuffer != null) {
+            acknowledgementBuffer.flush(sync);
+        }
+    }
+
+    /**
+     * @param consumerInfo
+     *      the consumer that is being closed.
+     *
+     * @return true if the link of the consumer can be kept open for reuse once it closes.
+     */
+    boolean canParkConsumerLink(JmsConsumerInfo consumerInfo) {
+        return consumerLinkCache != null && !closed.get() && consumerLinkCache.isReusable(consumerInfo);
+    }
+
+    /**
+     * Keeps the stopped link of a closed consumer open for reuse by a later consumer.
+     *
+     * @param consumerInfo
+     *      the consumer whose link has been stopped.
+     *
+     * @return true if the link was kept, false if it must be closed.
+     */
+    boolean parkConsumerLink(JmsConsumerInfo consumerInfo) {
+        return consumerLinkCache != null && consumerLinkCache.park(consumerInfo);
+    }
+
+    /**
+     * Takes a parked consumer link whose settings match those of a new consumer.
+     *
+     * @param consumerInfo
+     *      the configuration of the consumer being created.
+     *
+     * @return the parked consumer to take over, or null if there is none.
+     */
+    JmsConsumerInfo takeParkedConsumerLink(JmsConsumerInfo consumerInfo) {
+        if (consumerLinkCache == null || !consumerLinkCache.isReusable(consumerInfo)) {
+            return null;
+        }
+
+        return consumerLinkCache.take(consumerInfo);
+    }
+
     /**
      * Acknowledge all previously delivered messages in this Session as consumed.  This
      * method is usually only called when the Session is in the CLIENT_ACKNOWLEDGE mode.
@@ -1101,7 +1332,7 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
     }
 
     Executor getDispatcherExecutor() {
-        ThreadPoolExecutor exec = deliveryExecutor;
+        ExecutorService exec = deliveryExecutor;
         if (exec == null) {
             synchronized (sessionInfo) {
                 if (deliveryExecutor == null) {
@@ -1120,7 +1351,7 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
     }
 
     private ExecutorService getCompletionExecutor() {
-        ThreadPoolExecutor exec = completionExcecutor;
+        ExecutorService exec = completionExcecutor;
         if (exec == null) {
             synchronized (sessionInfo) {
                 exec = completionExcecutor;
@@ -1128,12 +1359,16 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
                     exec = createExecutor("completion dispatcher", completionThread);
 
                     // Ensure work thread is fully up before allowing other threads
-                    // to attempt to execute on this instance.
-                    Future<?> starter = exec.submit(() -> {});
-                    try {
-                        starter.get();
-                    } catch (InterruptedException | ExecutionException e) {
-                        LOG.trace("Completion Executor starter task failed: {}", e.getMessage());
+                    // to attempt to execute on this instance, a pooled executor has
+                    // no thread of its own to wait for and a caller on a virtual thread
+                    // would be pinned to its carrier waiting here under the session lock.
+                    if (!(exec instanceof SerialExecutor) && !isUsingVirtualThreads()) {
+                        Future<?> starter = exec.submit(() -> {});
+                        try {
+                            starter.get();
+                        } catch (InterruptedException | ExecutionException e) {
+                            LOG.trace("Completion Executor starter task failed: {}", e.getMessage());
+                        }
                     }
 
                     completionExcecutor = exec;
@@ -1144,9 +1379,20 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
         return exec;
     }
 
-    private ThreadPoolExecutor createExecutor(final String threadNameSuffix, AtomicReference<Thread> threadTracker) {
+    private boolean isUsingVirtualThreads() {
+        return connection.isUseVirtualThreads() && QpidJMSThreadFactory.isVirtualThreadSupported();
+    }
+
+    private ExecutorService createExecutor(final String threadNameSuffix, AtomicReference<Thread> threadTracker) {
+        // Run on the connection's shared dispatcher threads when it has them, the tasks of
+        // this session still run one at a time and in order.
+        Executor dispatcherPool = connection.getDispatcherPool();
+        if (dispatcherPool != null) {
+            return new SerialExecutor(dispatcherPool, threadTracker);
+        }
+
         ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
-            new QpidJMSThreadFactory("JmsSession ["+ sessionInfo.getId() + "] " + threadNameSuffix, true, threadTracker));
+            new QpidJMSThreadFactory("JmsSession ["+ sessionInfo.getId() + "] " + threadNameSuffix, true, connection.isUseVirtualThreads(), threadTracker));
 
         executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardOldestPolicy() {
 
@@ -1322,6 +1568,14 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
     protected void onConnectionInterrupted() {
         transactionContext.onConnectionInterrupted();
 
+        if (acknowledgementBuffer != null) {
+            acknowledgementBuffer.clear();
+        }
+
+        if (consumerLinkCache != null) {
+            consumerLinkCache.onConnectionInterrupted();
+        }
+
         // TODO - Synthesize a better exception
         JMSException failureCause = new JMSException("Send failed due to connection loss");
         getCompletionExecutor().execute(new FailOrCompleteAsyncCompletionsTask(failureCause));
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionConsumer;
+import javax.jms.ConnectionMetaData;
+import javax.jms.Destination;
+import javax.jms.ExceptionListener;
+import javax.jms.IllegalStateException;
+import javax.jms.JMSException;
+import javax.jms.Queue;
+import javax.jms.QueueConnection;
+import javax.jms.QueueSession;
+import javax.jms.ServerSessionPool;
+import javax.jms.Session;
+import javax.jms.Topic;
+import javax.jms.TopicConnection;
+import javax.jms.TopicSession;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Connection that spreads its sessions over a number of physical connections, each
+ * with its own provider thread and transport, so that the protocol work of one logical
+ * connection is not limited to a single thread.
+ *
+ * Each session and connection consumer is created on the physical connection that has
+ * the fewest open, skipping any that have failed, and lives on that connection from then
+ * on.  Temporary destinations belong to the physical connection of the session that
+ * created them but can be consumed from any session of this connection.  Each physical
+ * connection has its own generated client ID and setting a client ID is not supported,
+ * the client ID reported is that of the first physical connection.  The ExceptionListener
+ * is told of the failure of any physical connection, sessions on the others carry on.
+ */
+public class JmsStripedConnection implements AutoCloseable, Connection, TopicConnection, QueueConnection {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsStripedConnection.class);
+
+    private final List<JmsConnection> stripes;
+    private final AtomicInteger nextStripe = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private volatile ExceptionListener exceptionListener;
+
+    protected JmsStripedConnection(List<JmsConnection> stripes, ExceptionListener exceptionListener) throws JMSException {
+        this.stripes = Collections.unmodifiableList(new ArrayList<>(stripes));
+        this.exceptionListener = exceptionListener;
+
+        ExceptionListener forwarder = new ExceptionListener() {
+
+            @Override
+            public void onException(JMSException exception) {
+                ExceptionListener listener = JmsStripedConnection.this.exceptionListener;
+                if (listener != null && !closed.get()) {
+                    listener.onException(exception);
+                }
+            }
+        };
+
+        for (JmsConnection stripe : this.stripes) {
+            stripe.setStripedConnection(this);
+            stripe.setExceptionListener(forwarder);
+        }
+    }
+
+    //----- Session creation -------------------------------------------------//
+
+    @Override
+    public Session createSession() throws JMSException {
+        return createSession(false, Session.AUTO_ACKNOWLEDGE);
+    }
+
+    @Override
+    public Session createSession(int acknowledgeMode) throws JMSException {
+        return createSession(acknowledgeMode == Session.SESSION_TRANSACTED, acknowledgeMode);
+    }
+
+    @Override
+    public Session createSession(boolean transacted, int acknowledgeMode) throws JMSException {
+        return selectStripe().createSession(transacted, acknowledgeMode);
+    }
+
+    @Override
+    public QueueSession createQueueSession(boolean transacted, int acknowledgeMode) throws JMSException {
+        return selectStripe().createQueueSession(transacted, acknowledgeMode);
+    }
+
+    @Override
+    public TopicSession createTopicSession(boolean transacted, int acknowledgeMode) throws JMSException {
+        return selectStripe().createTopicSession(transacted, acknowledgeMode);
+    }
+
+    //----- Connection consumers ---------------------------------------------//
+
+    @Override
+    public ConnectionConsumer createConnectionConsumer(Destination destination, String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        return selectStripe().createConnectionConsumer(destination, messageSelector, sessionPool, maxMessages);
+    }
+
+    @Override
+    public ConnectionConsumer createConnectionConsumer(Queue queue, String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        return selectStripe().createConnectionConsumer(queue, messageSelector, sessionPool, maxMessages);
+    }
+
+    @Override
+    public ConnectionConsumer createConnectionConsumer(Topic topic, String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        return selectStripe().createConnectionConsumer(topic, messageSelector, sessionPool, maxMessages);
+    }
+
+    @Override
+    public ConnectionConsumer createDurableConnectionConsumer(Topic topic, String subscriptionName, String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        return selectStripe().createDurableConnectionConsumer(topic, subscriptionName, messageSelector, sessionPool, maxMessages);
+    }
+
+    @Override
+    public ConnectionConsumer createSharedConnectionConsumer(Topic topic, String subscriptionName, String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        return selectStripe().createSharedConnectionConsumer(topic, subscriptionName, messageSelector, sessionPool, maxMessages);
+    }
+
+    @Override
+    public ConnectionConsumer createSharedDurableConnectionConsumer(Topic topic, String subscriptionName, String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        return selectStripe().createSharedDurableConnectionConsumer(topic, subscriptionName, messageSelector, sessionPool, maxMessages);
+    }
+
+    //----- Connection state -------------------------------------------------//
+
+    @Override
+    public String getClientID() throws JMSException {
+        checkClosed();
+        return stripes.get(0).getClientID();
+    }
+
+    @Override
+    public void setClientID(String clientID) throws JMSException {
+        checkClosed();
+        throw new IllegalStateException("A client ID cannot be set on a striped connection");
+    }
+
+    @Override
+    public ConnectionMetaData getMetaData() throws JMSException {
+        checkClosed();
+        return stripes.get(0).getMetaData();
+    }
+
+    @Override
+    public ExceptionListener getExceptionListener() throws JMSException {
+        checkClosed();
+        return exceptionListener;
+    }
+
+    @Override
+    public void setExceptionListener(ExceptionListener listener) throws JMSException {
+        checkClosed();
+        this.exceptionListener = listener;
+    }
+
+    @Override
+    public void start() throws JMSException {
+        checkClosed();
+        for (JmsConnection stripe : stripes) {
+            if (!stripe.isFailed()) {
+                stripe.start();
+            }
+        }
+    }
+
+    @Override
+    public void stop() throws JMSException {
+        checkClosed();
+        for (JmsConnection stripe : stripes) {
+            if (!stripe.isFailed()) {
+                stripe.stop();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws JMSException {
+        if (closed.compareAndSet(false, true)) {
+            JMSException failure = null;
+
+            for (JmsConnection stripe : stripes) {
+                try {
+                    stripe.close();
+                } catch (JMSException ex) {
+                    LOG.debug("Caught exception while closing striped connection {}: {}", stripe.getId(), ex.getMessage());
+                    if (failure == null) {
+                        failure = ex;
+                    }
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * @return the physical connections of this connection.
+     */
+    public List<JmsConnection> getStripes() {
+        return stripes;
+    }
+
+    //----- Internal implementation ------------------------------------------//
+
+    boolean isStripe(JmsConnection connection) {
+        return stripes.contains(connection);
+    }
+
+    private JmsConnection selectStripe() throws JMSException {
+        checkClosed();
+
+        // Start from a rotating position so that stripes with equal load take turns.
+        int start = Math.floorMod(nextStripe.getAndIncrement(), stripes.size());
+
+        JmsConnection selected = null;
+        int selectedLoad = Integer.MAX_VALUE;
+
+        for (int i = 0; i < stripes.size(); ++i) {
+            JmsConnection stripe = stripes.get((start + i) % stripes.size());
+            if (stripe.isFailed() || stripe.isClosed()) {
+                continue;
+            }
+
+            int load = stripe.getSessionLoad();
+            if (load < selectedLoad) {
+                selected = stripe;
+                selectedLoad = load;
+            }
+        }
+
+        if (selected == null) {
+            throw new IllegalStateException("All the connections of the striped connection have failed");
+        }
+
+        return selected;
+    }
+
+    private void checkClosed() throws IllegalStateException {
+        if (closed.get()) {
+            throw new IllegalStateException("The Connection is closed");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JmsStripedConnection { stripes = " + stripes.size() + " }";
+    }
+}
@@ -27,6 +27,7 @@ import javax.jms.MessageFormatException;
 
 import org.apache.qpid.jms.exceptions.JmsExceptionSupport;
 import org.apache.qpid.jms.message.facade.JmsBytesMessageFacade;
+import org.apache.qpid.jms.message.facade.JmsMessageFacade;
 
 @SuppressWarnings("unchecked")
 public class JmsBytesMessage extends JmsMessage implements BytesMessage {
@@ -34,7 +35,7 @@ public class JmsBytesMessage extends JmsMessage implements BytesMessage {
     protected transient DataOutputStream dataOut;
     protected transient DataInputStream dataIn;
 
-    private final JmsBytesMessageFacade facade;
+    private JmsBytesMessageFacade facade;
 
     public JmsBytesMessage(JmsBytesMessageFacade facade) {
         super(facade);
@@ -48,6 +49,20 @@ public class JmsBytesMessage extends JmsMessage implements BytesMessage {
         return other;
     }
 
+    @Override
+    public JmsBytesMessage copyOnWrite() throws JMSException {
+        JmsBytesMessage other = new JmsBytesMessage(facade);
+        other.copy(this);
+        other.facadeShared = true;
+        return other;
+    }
+
+    @Override
+    protected void setFacade(JmsMessageFacade facade) {
+        super.setFacade(facade);
+        this.facade = (JmsBytesMessageFacade) facade;
+    }
+
     private void copy(JmsBytesMessage other) throws JMSException {
         super.copy(other);
         this.dataOut = null;
@@ -386,6 +401,7 @@ public class JmsBytesMessage extends JmsMessage implements BytesMessage {
 
     @Override
     public void reset() throws JMSException {
+        copySharedFacade();
         this.facade.reset();
         this.dataOut = null;
         this.dataIn = null;
@@ -429,6 +445,8 @@ public class JmsBytesMessage extends JmsMessage implements BytesMessage {
     private void initializeReading() throws JMSException {
         checkWriteOnlyBody();
         if (dataIn == null) {
+            // Reading moves the position of a stream held by the facade.
+            copySharedFacade();
             dataIn = new DataInputStream(this.facade.getInputStream());
         }
     }
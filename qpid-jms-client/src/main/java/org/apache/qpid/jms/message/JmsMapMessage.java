@@ -25,6 +25,7 @@ import javax.jms.MapMessage;
 import javax.jms.MessageFormatException;
 
 import org.apache.qpid.jms.message.facade.JmsMapMessageFacade;
+import org.apache.qpid.jms.message.facade.JmsMessageFacade;
 
 /**
  * Implementation of the JMS MapMessage.
@@ -46,6 +47,20 @@ public class JmsMapMessage extends JmsMessage implements MapMessage {
         return other;
     }
 
+    @Override
+    public JmsMapMessage copyOnWrite() throws JMSException {
+        JmsMapMessage other = new JmsMapMessage(facade);
+        other.copy(this);
+        other.facadeShared = true;
+        return other;
+    }
+
+    @Override
+    protected void setFacade(JmsMessageFacade facade) {
+        super.setFacade(facade);
+        this.facade = (JmsMapMessageFacade) facade;
+    }
+
     @Override
     public void clearBody() throws JMSException {
         super.clearBody();
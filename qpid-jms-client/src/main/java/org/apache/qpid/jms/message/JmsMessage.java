@@ -41,7 +41,8 @@ public class JmsMessage implements javax.jms.Message {
     protected transient JmsAcknowledgeCallback acknowledgeCallback;
     protected transient JmsConnection connection;
 
-    protected final JmsMessageFacade facade;
+    protected JmsMessageFacade facade;
+    protected boolean facadeShared;
     protected boolean readOnly;
     protected boolean readOnlyBody;
     protected boolean readOnlyProperties;
@@ -57,6 +58,23 @@ public class JmsMessage implements javax.jms.Message {
         return other;
     }
 
+    /**
+     * Creates a copy of this message that shares the message facade with this message
+     * instead of copying it.  The copy takes its own copy of the facade before it is
+     * first modified, so changes made to it are never seen by this message.  This
+     * message must not be modified while the copy is sharing its facade.
+     *
+     * @return a new message that shares the facade of this message.
+     *
+     * @throws JMSException if an error occurs while creating the copy.
+     */
+    public JmsMessage copyOnWrite() throws JMSException {
+        JmsMessage other = new JmsMessage(facade);
+        other.copy(this);
+        other.facadeShared = true;
+        return other;
+    }
+
     protected void copy(JmsMessage other) {
         this.readOnlyBody = other.readOnlyBody;
         this.readOnlyProperties = other.readOnlyProperties;
@@ -125,6 +143,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void clearBody() throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         readOnlyBody = false;
         facade.clearBody();
     }
@@ -174,6 +193,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSMessageID(String value) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         facade.setMessageId(value);
     }
 
@@ -185,6 +205,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSTimestamp(long timestamp) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         facade.setTimestamp(timestamp);
     }
 
@@ -196,6 +217,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSCorrelationID(String correlationId) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         facade.setCorrelationId(correlationId);
     }
 
@@ -207,6 +229,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSCorrelationIDAsBytes(byte[] correlationId) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         facade.setCorrelationIdBytes(correlationId);
     }
 
@@ -218,6 +241,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSReplyTo(Destination destination) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         facade.setReplyTo(JmsMessageTransformation.transformDestination(connection, destination));
     }
 
@@ -229,6 +253,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSDestination(Destination destination) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         facade.setDestination(JmsMessageTransformation.transformDestination(connection, destination));
     }
 
@@ -240,6 +265,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSDeliveryMode(int mode) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         switch (mode) {
             case DeliveryMode.PERSISTENT:
                 facade.setPersistent(true);
@@ -260,6 +286,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSRedelivered(boolean redelivered) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         facade.setRedelivered(redelivered);
     }
 
@@ -271,6 +298,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSType(String type) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         facade.setType(type);
     }
 
@@ -282,6 +310,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSExpiration(long expiration) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         facade.setExpiration(expiration);
     }
 
@@ -293,6 +322,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSPriority(int priority) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
 
         if (priority < 0 || priority > 9) {
             throw new JMSException(String.format("Priority value given {%d} is out of range (0..9)", priority));
@@ -309,12 +339,14 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setJMSDeliveryTime(long deliveryTime) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         facade.setDeliveryTime(deliveryTime, true);
     }
 
     @Override
     public void clearProperties() throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         JmsMessagePropertyIntercepter.clearProperties(this, true);
     }
 
@@ -345,6 +377,7 @@ public class JmsMessage implements javax.jms.Message {
     @Override
     public void setObjectProperty(String name, Object value) throws JMSException {
         checkReadOnly();
+        copySharedFacade();
         JmsMessagePropertyIntercepter.setProperty(this, name, value);
     }
 
@@ -454,6 +487,7 @@ public class JmsMessage implements javax.jms.Message {
      * @throws JMSException if an error occurs while preparing the message for send.
      */
     public void onSend(long producerTtl) throws JMSException {
+        copySharedFacade();
         setReadOnly(true);
         facade.onSend(producerTtl);
     }
@@ -502,6 +536,32 @@ public class JmsMessage implements javax.jms.Message {
         return "JmsMessage { " + facade + " }";
     }
 
+    //----- Copy on write support -------------------------------------------//
+
+    /**
+     * Replaces a facade that is shared with another message by a copy of it, must be
+     * called before any change is made to the facade.
+     *
+     * @throws JMSException if an error occurs while copying the facade.
+     */
+    protected void copySharedFacade() throws JMSException {
+        if (facadeShared) {
+            setFacade(facade.copy());
+            facadeShared = false;
+        }
+    }
+
+    /**
+     * Sets the facade this message wraps, subclasses that hold a typed reference to the
+     * facade must override this to update it.
+     *
+     * @param facade
+     *      the facade this message should now use.
+     */
+    protected void setFacade(JmsMessageFacade facade) {
+        this.facade = facade;
+    }
+
     //----- State validation methods -----------------------------------------//
 
     protected void checkReadOnly() throws MessageNotWriteableException {
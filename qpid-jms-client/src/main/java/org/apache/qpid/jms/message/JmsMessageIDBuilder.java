@@ -17,8 +17,11 @@
 package org.apache.qpid.jms.message;
 
 import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.apache.qpid.jms.provider.amqp.message.AmqpMessageIdHelper;
+import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.UnsignedLong;
 
 /**
  * Interface for creating a custom Message ID builder to populate the
@@ -32,13 +35,23 @@ public interface JmsMessageIDBuilder {
             public JmsMessageIDBuilder createBuilder() {
                 return new JmsMessageIDBuilder() {
 
+                    // Holds the producer ID last seen along with the prefix built from it, a builder
+                    // is normally used by a single producer so the prefix is only built once.
+                    private volatile String[] cachedPrefix = new String[2];
+
                     @Override
                     public Object createMessageID(String producerId, long messageSequence) {
-                        String messageId = producerId + "-" + messageSequence;
-                        if (!AmqpMessageIdHelper.INSTANCE.hasMessageIdPrefix(messageId)) {
-                            messageId = AmqpMessageIdHelper.JMS_ID_PREFIX + messageId;
+                        String[] cached = cachedPrefix;
+                        if (cached[0] != producerId) {
+                            String prefix = producerId + "-";
+                            if (!AmqpMessageIdHelper.INSTANCE.hasMessageIdPrefix(prefix)) {
+                                prefix = AmqpMessageIdHelper.JMS_ID_PREFIX + prefix;
+                            }
+                            cached = new String[] { producerId, prefix };
+                            cachedPrefix = cached;
                         }
-                        return messageId;
+
+                        return cached[1] + messageSequence;
                     }
 
                     @Override
@@ -98,8 +111,56 @@ public interface JmsMessageIDBuilder {
                     }
                 };
             }
+        },
+        ULONG {
+            @Override
+            public JmsMessageIDBuilder createBuilder() {
+                return new JmsMessageIDBuilder() {
+
+                    private final long base = ThreadLocalRandom.current().nextLong();
+
+                    @Override
+                    public Object createMessageID(String producerId, long messageSequence) {
+                        return UnsignedLong.valueOf(base + messageSequence);
+                    }
+
+                    @Override
+                    public String toString() {
+                        return ULONG.name();
+                    }
+                };
+            }
+        },
+        BINARY {
+            @Override
+            public JmsMessageIDBuilder createBuilder() {
+                return new JmsMessageIDBuilder() {
+
+                    private final long prefix = ThreadLocalRandom.current().nextLong();
+
+                    @Override
+                    public Object createMessageID(String producerId, long messageSequence) {
+                        byte[] id = new byte[16];
+                        writeLong(prefix, id, 0);
+                        writeLong(messageSequence, id, 8);
+                        return new Binary(id);
+                    }
+
+                    @Override
+                    public String toString() {
+                        return BINARY.name();
+                    }
+                };
+            }
         };
 
+        private static void writeLong(long value, byte[] target, int offset) {
+            for (int i = 7; i >= 0; --i) {
+                target[offset + i] = (byte) value;
+                value >>>= 8;
+            }
+        }
+
         public abstract JmsMessageIDBuilder createBuilder();
 
         /**
@@ -113,7 +174,21 @@ public interface JmsMessageIDBuilder {
          * @throws IllegalArgumentException if the named type is unknown.
          */
         public static JmsMessageIDBuilder create(String value) {
-            return valueOf(value.toUpperCase(Locale.ENGLISH)).createBuilder();
+            return fromString(value).createBuilder();
+        }
+
+        /**
+         * Returns the builder type with the given name (case insensitive).
+         *
+         * @param value
+         *      The name of the builder type.
+         *
+         * @return the builder type that matches the given name.
+         *
+         * @throws IllegalArgumentException if the named type is unknown.
+         */
+        public static BUILTIN fromString(String value) {
+            return valueOf(value.toUpperCase(Locale.ENGLISH));
         }
     }
 
@@ -19,6 +19,9 @@ package org.apache.qpid.jms.message;
 import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.meta.JmsProducerId;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
+
 /**
  * Envelope that wraps the objects involved in a Message send operation.
  */
@@ -63,6 +66,30 @@ public class JmsOutboundMessageDispatch {
         this.payload = payload;
     }
 
+    /**
+     * @return the number of encoded bytes in the payload, or zero if the size is not known.
+     */
+    public int getPayloadSize() {
+        return payload instanceof ByteBuf ? ((ByteBuf) payload).readableBytes() : 0;
+    }
+
+    /**
+     * Adds a reference to the encoded payload, used by a holder that needs the payload
+     * to outlive the send request that carried it.  Each call must be balanced by a
+     * call to {@link #releasePayload()}.
+     */
+    public void retainPayload() {
+        ReferenceCountUtil.retain(payload);
+    }
+
+    /**
+     * Drops a reference to the encoded payload, once all references are released any
+     * resources held by the payload are returned to where they were allocated from.
+     */
+    public void releasePayload() {
+        ReferenceCountUtil.release(payload);
+    }
+
     public JmsProducerId getProducerId() {
         return producerId;
     }
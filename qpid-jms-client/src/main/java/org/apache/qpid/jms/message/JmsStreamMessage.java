@@ -46,6 +46,12 @@ public class JmsStreamMessage extends JmsMessage implements StreamMessage {
         return other;
     }
 
+    @Override
+    public JmsStreamMessage copyOnWrite() throws JMSException {
+        // The read position is held in the facade so the facade cannot be shared.
+        return copy();
+    }
+
     @Override
     public void onSend(long producerTtl) throws JMSException {
         reset();
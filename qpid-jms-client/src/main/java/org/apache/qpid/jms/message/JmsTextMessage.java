@@ -20,12 +20,13 @@ import javax.jms.JMSException;
 import javax.jms.MessageNotWriteableException;
 import javax.jms.TextMessage;
 
+import org.apache.qpid.jms.message.facade.JmsMessageFacade;
 import org.apache.qpid.jms.message.facade.JmsTextMessageFacade;
 
 @SuppressWarnings("unchecked")
 public class JmsTextMessage extends JmsMessage implements TextMessage {
 
-    private final JmsTextMessageFacade facade;
+    private JmsTextMessageFacade facade;
 
     public JmsTextMessage(JmsTextMessageFacade facade) {
         super(facade);
@@ -39,6 +40,20 @@ public class JmsTextMessage extends JmsMessage implements TextMessage {
         return other;
     }
 
+    @Override
+    public JmsTextMessage copyOnWrite() throws JMSException {
+        JmsTextMessage other = new JmsTextMessage(facade);
+        other.copy(this);
+        other.facadeShared = true;
+        return other;
+    }
+
+    @Override
+    protected void setFacade(JmsMessageFacade facade) {
+        super.setFacade(facade);
+        this.facade = (JmsTextMessageFacade) facade;
+    }
+
     private void copy(JmsTextMessage other) throws JMSException {
         super.copy(other);
     }
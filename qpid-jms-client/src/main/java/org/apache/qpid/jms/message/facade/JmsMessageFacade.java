@@ -21,6 +21,8 @@ import java.util.Set;
 import javax.jms.JMSException;
 
 import org.apache.qpid.jms.JmsDestination;
+import org.apache.qpid.jms.message.JmsOutboundMessageDispatch;
+import org.apache.qpid.jms.meta.JmsProducerId;
 
 /**
  * The Message Facade interface defines the required mapping between a Provider's
@@ -459,6 +461,22 @@ public interface JmsMessageFacade {
      */
     Object encodeMessage();
 
+    /**
+     * Encodes the protocol level Message instance for transmission by the given producer.
+     *
+     * The returned object may hold resources that are released once the send it was
+     * created for has completed, see {@link JmsOutboundMessageDispatch#releasePayload()}.
+     * By default this delegates to {@link #encodeMessage()}.
+     *
+     * @param producerId
+     *      the producer that is sending the message.
+     *
+     * @return an Object that represents the encoded form of the message for the target provider.
+     */
+    default Object encodeMessage(JmsProducerId producerId) {
+        return encodeMessage();
+    }
+
     /**
      * Returns whether the delivery time is being transmitted, i.e. incorporates an actual delivery delay.
      *
@@ -47,6 +47,8 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
     public static final long DEFAULT_CLOSE_TIMEOUT = 60000;
     public static final long DEFAULT_SEND_TIMEOUT = INFINITE;
     public static final long DEFAULT_REQUEST_TIMEOUT = INFINITE;
+    public static final long DEFAULT_ACK_BATCH_TIMEOUT = 100;
+    public static final long DEFAULT_CONSUMER_LINK_IDLE_TIMEOUT = 30000;
 
     private final JmsConnectionId connectionId;
     private final EnumMap<JmsConnectionExtensions, BiFunction<Connection, URI, Object>> extensionMap = new EnumMap<>(JmsConnectionExtensions.class);
@@ -61,6 +63,13 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
     private boolean forceAsyncSend;
     private boolean forceSyncSend;
     private boolean forceAsyncAcks;
+    private int ackBatchSize;
+    private long ackBatchTimeout = DEFAULT_ACK_BATCH_TIMEOUT;
+    private int consumerLinkCacheSize;
+    private long consumerLinkIdleTimeout = DEFAULT_CONSUMER_LINK_IDLE_TIMEOUT;
+    private int maxInFlightSends;
+    private long maxInFlightSendBytes;
+    private int dispatcherPoolSize;
     private boolean validatePropertyNames = true;
     private boolean receiveLocalOnly;
     private boolean receiveNoWaitLocalOnly;
@@ -68,6 +77,7 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
     private boolean localMessageExpiry;
     private boolean populateJMSXUserID;
     private boolean useDaemonThread;
+    private boolean useVirtualThreads;
     private boolean awaitClientID = true;
     private boolean closeLinksThatFailOnReconnect;
     private long sendTimeout = DEFAULT_SEND_TIMEOUT;
@@ -107,6 +117,13 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
         copy.password = password;
         copy.forceAsyncSend = forceAsyncSend;
         copy.forceSyncSend = forceSyncSend;
+        copy.ackBatchSize = ackBatchSize;
+        copy.ackBatchTimeout = ackBatchTimeout;
+        copy.consumerLinkCacheSize = consumerLinkCacheSize;
+        copy.consumerLinkIdleTimeout = consumerLinkIdleTimeout;
+        copy.maxInFlightSends = maxInFlightSends;
+        copy.maxInFlightSendBytes = maxInFlightSendBytes;
+        copy.dispatcherPoolSize = dispatcherPoolSize;
         copy.sendTimeout = sendTimeout;
         copy.requestTimeout = requestTimeout;
         copy.closeTimeout = closeTimeout;
@@ -115,6 +132,7 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
         copy.connectTimeout = connectTimeout;
         copy.validatePropertyNames = validatePropertyNames;
         copy.useDaemonThread = useDaemonThread;
+        copy.useVirtualThreads = useVirtualThreads;
         copy.closeLinksThatFailOnReconnect = closeLinksThatFailOnReconnect;
         copy.messageIDPolicy = getMessageIDPolicy().copy();
         copy.prefetchPolicy = getPrefetchPolicy().copy();
@@ -261,6 +279,62 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
         this.forceAsyncAcks = forceAsyncAcks;
     }
 
+    public int getAckBatchSize() {
+        return ackBatchSize;
+    }
+
+    public void setAckBatchSize(int ackBatchSize) {
+        this.ackBatchSize = ackBatchSize;
+    }
+
+    public long getAckBatchTimeout() {
+        return ackBatchTimeout;
+    }
+
+    public void setAckBatchTimeout(long ackBatchTimeout) {
+        this.ackBatchTimeout = ackBatchTimeout;
+    }
+
+    public int getConsumerLinkCacheSize() {
+        return consumerLinkCacheSize;
+    }
+
+    public void setConsumerLinkCacheSize(int consumerLinkCacheSize) {
+        this.consumerLinkCacheSize = consumerLinkCacheSize;
+    }
+
+    public long getConsumerLinkIdleTimeout() {
+        return consumerLinkIdleTimeout;
+    }
+
+    public void setConsumerLinkIdleTimeout(long consumerLinkIdleTimeout) {
+        this.consumerLinkIdleTimeout = consumerLinkIdleTimeout;
+    }
+
+    public int getDispatcherPoolSize() {
+        return dispatcherPoolSize;
+    }
+
+    public void setDispatcherPoolSize(int dispatcherPoolSize) {
+        this.dispatcherPoolSize = dispatcherPoolSize;
+    }
+
+    public int getMaxInFlightSends() {
+        return maxInFlightSends;
+    }
+
+    public void setMaxInFlightSends(int maxInFlightSends) {
+        this.maxInFlightSends = maxInFlightSends;
+    }
+
+    public long getMaxInFlightSendBytes() {
+        return maxInFlightSendBytes;
+    }
+
+    public void setMaxInFlightSendBytes(long maxInFlightSendBytes) {
+        this.maxInFlightSendBytes = maxInFlightSendBytes;
+    }
+
     public boolean isReceiveLocalOnly() {
         return receiveLocalOnly;
     }
@@ -364,6 +438,14 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
         this.useDaemonThread = useDaemonThread;
     }
 
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    public void setUseVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
     public boolean isAwaitClientID() {
         return awaitClientID;
     }
@@ -28,6 +28,7 @@ public final class JmsConsumerInfo extends JmsAbstractResource implements Compar
     private final JmsConsumerId consumerId;
     private JmsDestination destination;
     private int prefetchSize;
+    private int adaptivePrefetchTarget;
     private boolean browser;
     private String selector;
     private boolean explicitClientID;
@@ -66,6 +67,7 @@ public final class JmsConsumerInfo extends JmsAbstractResource implements Compar
     private void copy(JmsConsumerInfo info) {
         info.destination = destination;
         info.prefetchSize = prefetchSize;
+        info.adaptivePrefetchTarget = adaptivePrefetchTarget;
         info.browser = browser;
         info.selector = selector;
         info.explicitClientID = explicitClientID;
@@ -86,6 +88,10 @@ public final class JmsConsumerInfo extends JmsAbstractResource implements Compar
         return messageQueue.size();
     }
 
+    public MessageQueue getMessageQueue() {
+        return messageQueue;
+    }
+
     @Override
     public JmsConsumerId getId() {
         return consumerId;
@@ -123,6 +129,17 @@ public final class JmsConsumerInfo extends JmsAbstractResource implements Compar
         this.prefetchSize = prefetchSize;
     }
 
+    /**
+     * @return the time in milliseconds of work the credit window should cover, zero for a fixed window.
+     */
+    public int getAdaptivePrefetchTarget() {
+        return adaptivePrefetchTarget;
+    }
+
+    public void setAdaptivePrefetchTarget(int adaptivePrefetchTarget) {
+        this.adaptivePrefetchTarget = adaptivePrefetchTarget;
+    }
+
     public String getSelector() {
         return selector;
     }
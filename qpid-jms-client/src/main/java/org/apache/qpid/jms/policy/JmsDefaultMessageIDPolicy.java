@@ -26,7 +26,8 @@ import org.apache.qpid.jms.message.JmsMessageIDBuilder;
  */
 public class JmsDefaultMessageIDPolicy implements JmsMessageIDPolicy {
 
-    private JmsMessageIDBuilder messageIDBuilder = JmsMessageIDBuilder.BUILTIN.DEFAULT.createBuilder();
+    private JmsMessageIDBuilder.BUILTIN messageIDType = JmsMessageIDBuilder.BUILTIN.DEFAULT;
+    private JmsMessageIDBuilder messageIDBuilder = messageIDType.createBuilder();
 
     /**
      * Initialize default Message ID builder policy
@@ -41,6 +42,7 @@ public class JmsDefaultMessageIDPolicy implements JmsMessageIDPolicy {
      *      The policy instance to copy values from.
      */
     public JmsDefaultMessageIDPolicy(JmsDefaultMessageIDPolicy source) {
+        this.messageIDType = source.messageIDType;
         this.messageIDBuilder = source.messageIDBuilder;
     }
 
@@ -51,6 +53,12 @@ public class JmsDefaultMessageIDPolicy implements JmsMessageIDPolicy {
 
     @Override
     public JmsMessageIDBuilder getMessageIDBuilder(JmsSession session, JmsDestination destination) {
+        // The built in builders are given to each producer separately so that they
+        // can hold state that is specific to that producer.
+        if (messageIDType != null) {
+            return messageIDType.createBuilder();
+        }
+
         return messageIDBuilder;
     }
 
@@ -61,7 +69,8 @@ public class JmsDefaultMessageIDPolicy implements JmsMessageIDPolicy {
      *      The name of the Message type to use when sending a message.
      */
     public void setMessageIDType(String type) {
-        this.messageIDBuilder = JmsMessageIDBuilder.BUILTIN.create(type);
+        this.messageIDType = JmsMessageIDBuilder.BUILTIN.fromString(type);
+        this.messageIDBuilder = messageIDType.createBuilder();
     }
 
     /**
@@ -76,6 +85,7 @@ public class JmsDefaultMessageIDPolicy implements JmsMessageIDPolicy {
     }
 
     public void setMessageIDBuilder(JmsMessageIDBuilder messageIDBuilder) {
+        this.messageIDType = null;
         this.messageIDBuilder = messageIDBuilder;
     }
 }
@@ -39,6 +39,7 @@ public class JmsDefaultPrefetchPolicy implements JmsPrefetchPolicy {
     private int topicPrefetch;
     private int durableTopicPrefetch;
     private int maxPrefetchSize = MAX_PREFETCH_SIZE;
+    private int adaptivePrefetchTarget;
 
     /**
      * Initialize default prefetch policies
@@ -62,6 +63,7 @@ public class JmsDefaultPrefetchPolicy implements JmsPrefetchPolicy {
         this.topicPrefetch = source.getTopicPrefetch();
         this.durableTopicPrefetch = source.getDurableTopicPrefetch();
         this.maxPrefetchSize = source.getMaxPrefetchSize();
+        this.adaptivePrefetchTarget = source.getAdaptivePrefetchTarget();
     }
 
     @Override
@@ -89,6 +91,12 @@ public class JmsDefaultPrefetchPolicy implements JmsPrefetchPolicy {
         return prefetch;
     }
 
+    @Override
+    public int getConfiguredAdaptivePrefetchTarget(JmsSession session, JmsDestination destination, boolean durable, boolean browser) {
+        // A browser reads the whole queue as fast as it can, there is no processing to size for.
+        return browser ? 0 : getAdaptivePrefetchTarget();
+    }
+
     /**
      * @return Returns the durableTopicPrefetch.
      */
@@ -170,6 +178,27 @@ public class JmsDefaultPrefetchPolicy implements JmsPrefetchPolicy {
         this.maxPrefetchSize = maxPrefetchSize;
     }
 
+    /**
+     * @return the time in milliseconds that an adaptive consumer credit window covers, zero if disabled.
+     */
+    public int getAdaptivePrefetchTarget() {
+        return adaptivePrefetchTarget;
+    }
+
+    /**
+     * Sets the amount of work, in milliseconds, that the credit window of a consumer is sized
+     * to cover.  When set the consumer measures the time it takes to consume each message and
+     * shrinks its credit window so that slow consumers do not hold on to messages that others
+     * could be processing, the window grows again up to the configured prefetch value as the
+     * consumer speeds up.  A value of zero (the default) disables the adaptive window.
+     *
+     * @param adaptivePrefetchTarget
+     *        The time in milliseconds that the consumer credit window should cover.
+     */
+    public void setAdaptivePrefetchTarget(int adaptivePrefetchTarget) {
+        this.adaptivePrefetchTarget = adaptivePrefetchTarget;
+    }
+
     /**
      * Sets the prefetch values for all options in this policy to the set limit.  If the value
      * given is larger than the max prefetch value of this policy the new limit will be capped
@@ -194,6 +223,7 @@ public class JmsDefaultPrefetchPolicy implements JmsPrefetchPolicy {
         result = prime * result + queueBrowserPrefetch;
         result = prime * result + queuePrefetch;
         result = prime * result + topicPrefetch;
+        result = prime * result + adaptivePrefetchTarget;
         return result;
     }
 
@@ -214,7 +244,8 @@ public class JmsDefaultPrefetchPolicy implements JmsPrefetchPolicy {
         return this.queuePrefetch == other.queuePrefetch &&
                this.queueBrowserPrefetch == other.queueBrowserPrefetch &&
                this.topicPrefetch == other.topicPrefetch &&
-               this.durableTopicPrefetch == other.durableTopicPrefetch;
+               this.durableTopicPrefetch == other.durableTopicPrefetch &&
+               this.adaptivePrefetchTarget == other.adaptivePrefetchTarget;
     }
 
     private int getMaxPrefetchLimit(int value) {
@@ -48,4 +48,25 @@ public interface JmsPrefetchPolicy {
      */
     int getConfiguredPrefetch(JmsSession session, JmsDestination destination, boolean durable, boolean browser);
 
+    /**
+     * Returns the amount of work, in milliseconds, that the credit window of a MessageConsumer
+     * should be sized to cover.  When a value greater than zero is returned the consumer measures
+     * how quickly it is consuming messages and grants only as much credit as it can get through
+     * in that time, never more than the configured prefetch.  A value of zero or less results in
+     * the consumer always using a credit window of the configured prefetch.
+     *
+     * @param session
+     *      the Session that own the MessageConsumer being created. (null for a ConnectionConsumer).
+     * @param destination
+     *      the Destination that the consumer will be subscribed to.
+     * @param durable
+     *      indicates if the subscription being created is a durable subscription (Topics only).
+     * @param browser
+     *      indicates if the subscription being created is a message browser (Queues only).
+     *
+     * @return the target time in milliseconds used to size the consumer credit window.
+     */
+    default int getConfiguredAdaptivePrefetchTarget(JmsSession session, JmsDestination destination, boolean durable, boolean browser) {
+        return 0;
+    }
 }
\ No newline at end of file
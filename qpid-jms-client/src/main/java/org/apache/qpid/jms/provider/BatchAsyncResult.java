@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Completes a single AsyncResult once a batch of operations, each with its own
+ * request, have all completed.
+ *
+ * A request for each operation in the batch is obtained from {@link #createRequest()}.
+ * The wrapped request succeeds once each of those have succeeded and the batch has been
+ * marked as {@link #submitted()}, it fails as soon as any one of the operations fails.
+ */
+public class BatchAsyncResult extends WrappedAsyncResult {
+
+    // Starts at one so that the batch cannot complete before it has all been submitted.
+    private final AtomicInteger outstanding = new AtomicInteger(1);
+
+    /**
+     * Create a new BatchAsyncResult for the target AsyncResult
+     *
+     * @param wrapped
+     *      The AsyncResult to complete once the whole batch has completed.
+     */
+    public BatchAsyncResult(AsyncResult wrapped) {
+        super(wrapped);
+    }
+
+    /**
+     * @return a new request for one of the operations in the batch.
+     */
+    public AsyncResult createRequest() {
+        outstanding.incrementAndGet();
+        return new BatchEntryRequest();
+    }
+
+    /**
+     * Marks the batch as fully submitted, no further requests can be created once
+     * this has been called.
+     */
+    public void submitted() {
+        entryCompleted();
+    }
+
+    private void entryCompleted() {
+        if (outstanding.decrementAndGet() == 0) {
+            onSuccess();
+        }
+    }
+
+    private final class BatchEntryRequest implements AsyncResult {
+
+        private final AtomicBoolean complete = new AtomicBoolean();
+
+        @Override
+        public void onFailure(Throwable result) {
+            if (complete.compareAndSet(false, true)) {
+                BatchAsyncResult.this.onFailure(result);
+            }
+        }
+
+        @Override
+        public void onSuccess() {
+            if (complete.compareAndSet(false, true)) {
+                entryCompleted();
+            }
+        }
+
+        @Override
+        public boolean isComplete() {
+            return complete.get();
+        }
+    }
+}
@@ -198,6 +198,30 @@ public interface Provider {
      */
     void send(JmsOutboundMessageDispatch envelope, AsyncResult request) throws IOException, JMSException;
 
+    /**
+     * Sends each of the JmsMessage instances contained in the given outbound dispatch
+     * envelopes in the order given, the request is completed once all the sends have
+     * completed or fails as soon as any one of them fails.
+     *
+     * By default each envelope is sent on its own, a Provider can override this to write
+     * the whole batch in one go.
+     *
+     * @param envelopes
+     *        the message envelopes containing the JmsMessage instances to send.
+     * @param request
+     *        The request object that should be signaled when this operation completes.
+     *
+     * @throws IOException if an error occurs or the Provider is already closed.
+     * @throws JMSException if an error that maps to JMS occurs such as not authorized.
+     */
+    default void send(List<JmsOutboundMessageDispatch> envelopes, AsyncResult request) throws IOException, JMSException {
+        BatchAsyncResult batch = new BatchAsyncResult(request);
+        for (JmsOutboundMessageDispatch envelope : envelopes) {
+            send(envelope, batch.createRequest());
+        }
+        batch.submitted();
+    }
+
     /**
      * Called to acknowledge all messages that have been delivered in a given session.
      *
@@ -105,6 +105,11 @@ public class ProviderWrapper<E extends Provider> implements Provider, ProviderLi
         next.send(envelope, request);
     }
 
+    @Override
+    public void send(List<JmsOutboundMessageDispatch> envelopes, AsyncResult request) throws IOException, JMSException {
+        next.send(envelopes, request);
+    }
+
     @Override
     public void acknowledge(JmsSessionId sessionId, ACK_TYPE ackType, AsyncResult request) throws IOException, JMSException {
         next.acknowledge(sessionId, ackType, request);
@@ -17,13 +17,13 @@
 package org.apache.qpid.jms.provider.amqp;
 
 import java.io.IOException;
-import java.util.concurrent.ScheduledFuture;
 
 import org.apache.qpid.jms.JmsOperationTimedOutException;
 import org.apache.qpid.jms.meta.JmsConnectionInfo;
 import org.apache.qpid.jms.meta.JmsResource;
 import org.apache.qpid.jms.meta.JmsResource.ResourceState;
 import org.apache.qpid.jms.provider.AsyncResult;
+import org.apache.qpid.jms.util.TimeoutWheel;
 import org.apache.qpid.proton.engine.Delivery;
 import org.apache.qpid.proton.engine.Endpoint;
 import org.apache.qpid.proton.engine.EndpointState;
@@ -45,7 +45,7 @@ public abstract class AmqpAbstractResource<R extends JmsResource, E extends Endp
     private static final Logger LOG = LoggerFactory.getLogger(AmqpAbstractResource.class);
 
     protected AsyncResult closeRequest;
-    protected ScheduledFuture<?> closeTimeoutTask;
+    protected TimeoutWheel.Timeout closeTimeoutTask;
 
     private final E endpoint;
     private final R resourceInfo;
@@ -164,7 +164,7 @@ public abstract class AmqpAbstractResource<R extends JmsResource, E extends Endp
         }
 
         if (closeTimeoutTask != null) {
-            closeTimeoutTask.cancel(true);
+            closeTimeoutTask.cancel();
             closeTimeoutTask = null;
         }
 
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider.amqp;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the credit window of a consumer so that it covers a target amount of work
+ * based on how long the consumer has been taking to consume each message.
+ *
+ * The time taken for a message is measured from the point at which the consumer could
+ * have started on it, which is either when the previous message was consumed if this
+ * one was already waiting in the prefetch buffer, or when the message arrived if the
+ * consumer was idle.  This keeps the time a consumer spends waiting for messages out
+ * of the measurement so that an idle but fast consumer is not mistaken for a slow one.
+ *
+ * The window starts at the maximum size and moves between one and that maximum as the
+ * average time per message changes.  Instances are not thread safe and are expected to
+ * be used from the provider thread only.
+ */
+final class AmqpAdaptiveCreditWindow {
+
+    private final long targetNanos;
+    private final int maxWindow;
+
+    private int window;
+    private long averageNanos;
+    private long lastConsumed;
+    private long firstArrival;
+    private boolean backlogged;
+
+    /**
+     * Creates a new credit window.
+     *
+     * @param targetMillis
+     *      the time in milliseconds worth of messages that the window should cover.
+     * @param maxWindow
+     *      the largest window that can be granted, usually the configured prefetch.
+     */
+    AmqpAdaptiveCreditWindow(int targetMillis, int maxWindow) {
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        this.maxWindow = Math.max(1, maxWindow);
+        this.window = this.maxWindow;
+    }
+
+    /**
+     * @return the number of messages the consumer should currently have credit for.
+     */
+    int getWindow() {
+        return window;
+    }
+
+    /**
+     * Called when a new message arrives for the consumer.
+     *
+     * @param now
+     *      the current time from {@link System#nanoTime()}.
+     */
+    void onMessageArrived(long now) {
+        if (firstArrival == 0) {
+            firstArrival = now;
+        }
+    }
+
+    /**
+     * Called when the consumer has taken a message from its prefetch buffer.
+     *
+     * @param now
+     *      the current time from {@link System#nanoTime()}.
+     * @param remaining
+     *      the number of messages still waiting in the prefetch buffer.
+     */
+    void onMessageConsumed(long now, int remaining) {
+        long startedAt = backlogged ? lastConsumed : firstArrival;
+        if (lastConsumed != 0 && startedAt != 0) {
+            update(Math.max(1, now - startedAt));
+        }
+
+        lastConsumed = now;
+        backlogged = remaining > 0;
+        firstArrival = 0;
+    }
+
+    private void update(long sample) {
+        if (averageNanos == 0) {
+            averageNanos = sample;
+        } else {
+            averageNanos += (sample - averageNanos) / 4;
+        }
+
+        long messages = targetNanos / Math.max(1, averageNanos);
+        window = (int) Math.max(1, Math.min(maxWindow, messages));
+    }
+}
@@ -21,8 +21,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import javax.jms.JMSException;
 
@@ -34,7 +32,9 @@ import org.apache.qpid.jms.meta.JmsSessionInfo;
 import org.apache.qpid.jms.provider.AsyncResult;
 import org.apache.qpid.jms.provider.amqp.builders.AmqpSessionBuilder;
 import org.apache.qpid.jms.provider.amqp.builders.AmqpTemporaryDestinationBuilder;
+import org.apache.qpid.jms.provider.amqp.message.AmqpEncodeBufferAllocator;
 import org.apache.qpid.jms.provider.amqp.message.AmqpJmsMessageFactory;
+import org.apache.qpid.jms.util.TimeoutWheel;
 import org.apache.qpid.proton.engine.Connection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +52,7 @@ public class AmqpConnection extends AmqpAbstractResource<JmsConnectionInfo, Conn
     private final Map<JmsDestination, AmqpTemporaryDestination> tempDests = new HashMap<JmsDestination, AmqpTemporaryDestination>();
     private final AmqpProvider provider;
     private final AmqpConnectionProperties properties;
+    private final AmqpEncodeBufferAllocator encodeBufferAllocator;
     private AmqpConnectionSession connectionSession;
 
     private boolean objectMessageUsesAmqpTypes = false;
@@ -64,6 +65,7 @@ public class AmqpConnection extends AmqpAbstractResource<JmsConnectionInfo, Conn
         this.provider = provider;
         this.remoteURI = provider.getRemoteURI();
         this.amqpMessageFactory = new AmqpJmsMessageFactory(this);
+        this.encodeBufferAllocator = new AmqpEncodeBufferAllocator(provider.getEncodeBufferPoolType());
 
         // Create connection properties initialized with defaults from the JmsConnectionInfo
         this.properties = new AmqpConnectionProperties(info, provider);
@@ -136,6 +138,13 @@ public class AmqpConnection extends AmqpAbstractResource<JmsConnectionInfo, Conn
         }
     }
 
+    /**
+     * @return the allocator that provides the buffers outgoing messages are encoded into.
+     */
+    public AmqpEncodeBufferAllocator getEncodeBufferAllocator() {
+        return encodeBufferAllocator;
+    }
+
     public URI getRemoteURI() {
         return remoteURI;
     }
@@ -263,15 +272,15 @@ public class AmqpConnection extends AmqpAbstractResource<JmsConnectionInfo, Conn
      * @param delay
      *      The delay in milliseconds to schedule the given task for execution.
      *
-     * @return a ScheduledFuture instance that can be used to cancel the task.
+     * @return a Timeout instance that can be used to cancel the task.
      */
-    public ScheduledFuture<?> schedule(final Runnable task, long delay) {
+    public TimeoutWheel.Timeout schedule(final Runnable task, long delay) {
         if (task == null) {
             LOG.trace("Resource attempted to schedule a null task.");
             return null;
         }
 
-        return getProvider().getScheduler().schedule(task, delay, TimeUnit.MILLISECONDS);
+        return getProvider().scheduleTimeout(task, delay);
     }
 
     @Override
@@ -22,8 +22,9 @@ import static org.apache.qpid.jms.provider.amqp.AmqpSupport.REJECTED;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.ListIterator;
-import java.util.concurrent.ScheduledFuture;
+import java.util.Set;
 
 import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.JmsOperationTimedOutException;
@@ -38,6 +39,7 @@ import org.apache.qpid.jms.provider.ProviderListener;
 import org.apache.qpid.jms.provider.WrappedAsyncResult;
 import org.apache.qpid.jms.provider.amqp.message.AmqpCodec;
 import org.apache.qpid.jms.util.IOExceptionSupport;
+import org.apache.qpid.jms.util.TimeoutWheel;
 import org.apache.qpid.proton.amqp.Binary;
 import org.apache.qpid.proton.amqp.messaging.Accepted;
 import org.apache.qpid.proton.amqp.messaging.Released;
@@ -58,13 +60,20 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
     protected AsyncResult stopRequest;
     protected AsyncResult pullRequest;
     protected long incomingSequence;
-    protected long deliveredCount;
+    protected final Set<Delivery> delivered = new LinkedHashSet<>();
     protected boolean deferredClose;
+    private final AmqpAdaptiveCreditWindow creditWindow;
 
     public AmqpConsumer(AmqpSession session, JmsConsumerInfo info, Receiver receiver) {
         super(info, receiver, session);
 
         this.session = session;
+
+        if (info.getAdaptivePrefetchTarget() > 0 && info.getPrefetchSize() > 0) {
+            creditWindow = new AmqpAdaptiveCreditWindow(info.getAdaptivePrefetchTarget(), info.getPrefetchSize());
+        } else {
+            creditWindow = null;
+        }
     }
 
     @Override
@@ -125,7 +134,7 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
                 // blocked receive or stop calls that are waiting, unless the consumer is
                 // a participant in a transaction in which case we will just fail the request
                 // and leave the consumer open since the TX needs it to remain active.
-                final ScheduledFuture<?> future = getSession().schedule(new Runnable() {
+                final TimeoutWheel.Timeout timeout = getSession().schedule(new Runnable() {
                     @Override
                     public void run() {
                         LOG.trace("Consumer {} drain request timed out", getConsumerId());
@@ -140,7 +149,7 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
                     }
                 }, getDrainTimeout());
 
-                stopRequest = new ScheduledRequest(future, stopRequest);
+                stopRequest = new ScheduledRequest(timeout, stopRequest);
             }
         }
     }
@@ -148,7 +157,7 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
     private void stopOnSchedule(long timeout, final AsyncResult request) {
         LOG.trace("Consumer {} scheduling stop", getConsumerId());
         // We need to drain the credit if no message(s) arrive to use it.
-        final ScheduledFuture<?> future = getSession().schedule(new Runnable() {
+        final TimeoutWheel.Timeout scheduledStop = getSession().schedule(new Runnable() {
             @Override
             public void run() {
                 LOG.trace("Consumer {} running scheduled stop", getConsumerId());
@@ -159,7 +168,7 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
             }
         }, timeout);
 
-        stopRequest = new ScheduledRequest(future, request);
+        stopRequest = new ScheduledRequest(scheduledStop, request);
     }
 
     @Override
@@ -193,49 +202,42 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
      * client acknowledge session operation.
      *
      * Only messages that have already been acknowledged as delivered by the JMS
-     * framework will be in the delivered Map.  This means that the link credit
-     * would already have been given for these so we just need to settle them.
+     * framework will be in the delivered set.  This means that the link credit
+     * would already have been given for these so we just need to settle them, any
+     * deliveries that are still only prefetched are not visited.
      *
      * @param ackType the type of acknowledgement to perform
      */
     public void acknowledge(ACK_TYPE ackType) {
         LOG.trace("Session Acknowledge for consumer {} with ack type {}", getResourceInfo().getId(), ackType);
-        Delivery delivery = getEndpoint().head();
-        while (delivery != null) {
-            Delivery current = delivery;
-            delivery = delivery.next();
-
-            if (!(current.getContext() instanceof JmsInboundMessageDispatch)) {
-                LOG.debug("{} Found incomplete delivery with no context during recover processing", AmqpConsumer.this);
-                continue;
-            }
 
-            JmsInboundMessageDispatch envelope = (JmsInboundMessageDispatch) current.getContext();
-            if (envelope.isDelivered()) {
-                switch (ackType) {
-                    case ACCEPTED:
-                        current.disposition(Accepted.getInstance());
-                        break;
-                    case RELEASED:
-                        current.disposition(Released.getInstance());
-                        break;
-                    case REJECTED:
-                        current.disposition(REJECTED);
-                        break;
-                    case MODIFIED_FAILED:
-                        current.disposition(MODIFIED_FAILED);
-                        break;
-                    case MODIFIED_FAILED_UNDELIVERABLE:
-                        current.disposition(MODIFIED_FAILED_UNDELIVERABLE);
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Invalid acknowledgement type specified: " + ackType);
-                }
-
-                current.settle();
-                deliveredCount--;
-            }
-        }
+        final DeliveryState state;
+        switch (ackType) {
+            case ACCEPTED:
+                state = Accepted.getInstance();
+                break;
+            case RELEASED:
+                state = Released.getInstance();
+                break;
+            case REJECTED:
+                state = REJECTED;
+                break;
+            case MODIFIED_FAILED:
+                state = MODIFIED_FAILED;
+                break;
+            case MODIFIED_FAILED_UNDELIVERABLE:
+                state = MODIFIED_FAILED_UNDELIVERABLE;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid acknowledgement type specified: " + ackType);
+        }
+
+        for (Delivery current : delivered) {
+            current.disposition(state);
+            current.settle();
+        }
+
+        delivered.clear();
 
         tryCompleteDeferredClose();
     }
@@ -260,15 +262,17 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
 
         if (ackType.equals(ACK_TYPE.DELIVERED)) {
             LOG.debug("Delivered Ack of message: {}", envelope);
-            deliveredCount++;
+            delivered.add(delivery);
             envelope.setDelivered(true);
             delivery.setDefaultDeliveryState(MODIFIED_FAILED);
+            onMessageConsumed();
             sendFlowIfNeeded();
             return;
         } else if (ackType.equals(ACK_TYPE.ACCEPTED)) {
             // A Consumer may not always send a DELIVERED ack so we need to
             // check to ensure we don't add too much credit to the link.
             if (!envelope.isDelivered()) {
+                onMessageConsumed();
                 sendFlowIfNeeded();
             }
             LOG.debug("Accepted Ack of message: {}", envelope);
@@ -308,16 +312,23 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
         }
 
         if (envelope.isDelivered()) {
-            deliveredCount--;
+            delivered.remove(delivery);
         }
 
         tryCompleteDeferredClose();
     }
 
+    private void onMessageConsumed() {
+        if (creditWindow != null) {
+            creditWindow.onMessageConsumed(System.nanoTime(), getResourceInfo().getPrefetchedMessageCount());
+        }
+    }
+
     /**
      * We only send more credits as the credit window dwindles to a certain point and
-     * then we open the window back up to full prefetch size.  If this is a pull consumer
-     * or we are stopping then we never send credit here.
+     * then we open the window back up to full prefetch size, or to the size of the
+     * adaptive credit window when one is in use.  If this is a pull consumer or we are
+     * stopping then we never send credit here.
      */
     private void sendFlowIfNeeded() {
         int prefetchSize = getResourceInfo().getPrefetchSize();
@@ -329,6 +340,10 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
             return;
         }
 
+        if (creditWindow != null) {
+            prefetchSize = creditWindow.getWindow();
+        }
+
         int currentCredit = getEndpoint().getCredit();
         if (currentCredit <= prefetchSize * 0.5) {
             int prefetchedMessageCount = getResourceInfo().getPrefetchedMessageCount();
@@ -360,29 +375,24 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
     public void recover() throws Exception {
         LOG.debug("Session Recover for consumer: {}", getResourceInfo().getId());
 
-        ArrayList<JmsInboundMessageDispatch> redispatchList = new ArrayList<JmsInboundMessageDispatch>();
-
-        Delivery delivery = getEndpoint().head();
-        while (delivery != null) {
-            Delivery current = delivery;
-            delivery = delivery.next();
-
-            if (!(current.getContext() instanceof JmsInboundMessageDispatch)) {
-                LOG.debug("{} Found incomplete delivery with no context during recover processing", AmqpConsumer.this);
-                continue;
-            }
+        ArrayList<JmsInboundMessageDispatch> redispatchList = new ArrayList<JmsInboundMessageDispatch>(delivered.size());
 
+        for (Delivery current : delivered) {
             JmsInboundMessageDispatch envelope = (JmsInboundMessageDispatch) current.getContext();
-            if (envelope.isDelivered()) {
-                envelope.getMessage().getFacade().setRedeliveryCount(
-                    envelope.getMessage().getFacade().getRedeliveryCount() + 1);
-                envelope.setEnqueueFirst(true);
-                envelope.setDelivered(false);
 
-                redispatchList.add(envelope);
-            }
+            // The application may still hold a message sharing this one's facade,
+            // take a copy so the redelivered state is not seen through it.
+            envelope.setMessage(envelope.getMessage().copy());
+            envelope.getMessage().getFacade().setRedeliveryCount(
+                envelope.getMessage().getFacade().getRedeliveryCount() + 1);
+            envelope.setEnqueueFirst(true);
+            envelope.setDelivered(false);
+
+            redispatchList.add(envelope);
         }
 
+        delivered.clear();
+
         ListIterator<JmsInboundMessageDispatch> reverseIterator = redispatchList.listIterator(redispatchList.size());
         while (reverseIterator.hasPrevious()) {
             deliver(reverseIterator.previous());
@@ -477,6 +487,10 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
     private boolean processDelivery(Delivery incoming) throws Exception {
         incoming.setDefaultDeliveryState(Released.getInstance());
 
+        if (creditWindow != null) {
+            creditWindow.onMessageArrived(System.nanoTime());
+        }
+
         JmsMessage message = null;
         try {
             message = AmqpCodec.decodeMessage(this, getEndpoint().recv()).asJmsMessage();
@@ -626,7 +640,7 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
             return true;
         }
 
-        if (deliveredCount > 0) {
+        if (!delivered.isEmpty()) {
             return true;
         }
 
@@ -634,7 +648,7 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
     }
 
     private void tryCompleteDeferredClose() {
-        if (deferredClose && deliveredCount == 0) {
+        if (deferredClose && delivered.isEmpty()) {
             super.close(new DeferredCloseRequest());
         }
     }
@@ -701,23 +715,23 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
 
     private static final class ScheduledRequest implements AsyncResult {
 
-        private final ScheduledFuture<?> sheduledTask;
+        private final TimeoutWheel.Timeout sheduledTask;
         private final AsyncResult origRequest;
 
-        public ScheduledRequest(ScheduledFuture<?> completionTask, AsyncResult origRequest) {
+        public ScheduledRequest(TimeoutWheel.Timeout completionTask, AsyncResult origRequest) {
             this.sheduledTask = completionTask;
             this.origRequest = origRequest;
         }
 
         @Override
         public void onFailure(Throwable cause) {
-            sheduledTask.cancel(false);
+            sheduledTask.cancel();
             origRequest.onFailure(cause);
         }
 
         @Override
         public void onSuccess() {
-            boolean cancelled = sheduledTask.cancel(false);
+            boolean cancelled = sheduledTask.cancel();
             if (cancelled) {
                 // Signal completion. Otherwise wait for the scheduled task to do it.
                 origRequest.onSuccess();
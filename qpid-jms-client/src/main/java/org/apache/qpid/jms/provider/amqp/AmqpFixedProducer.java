@@ -21,8 +21,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledFuture;
 
 import javax.jms.IllegalStateException;
 import javax.jms.JMSException;
@@ -34,6 +34,7 @@ import org.apache.qpid.jms.meta.JmsProducerInfo;
 import org.apache.qpid.jms.provider.AsyncResult;
 import org.apache.qpid.jms.provider.amqp.message.AmqpReadableBuffer;
 import org.apache.qpid.jms.util.IOExceptionSupport;
+import org.apache.qpid.jms.util.TimeoutWheel;
 import org.apache.qpid.proton.amqp.messaging.Accepted;
 import org.apache.qpid.proton.amqp.messaging.Modified;
 import org.apache.qpid.proton.amqp.messaging.Outcome;
@@ -63,6 +64,7 @@ public class AmqpFixedProducer extends AmqpProducer {
     private final AmqpTransferTagGenerator tagGenerator = new AmqpTransferTagGenerator(true);
     private final Map<Object, InFlightSend> sent = new LinkedHashMap<Object, InFlightSend>();
     private final Map<Object, InFlightSend> blocked = new LinkedHashMap<Object, InFlightSend>();
+    private final List<InFlightSend> unwritten = new ArrayList<InFlightSend>();
 
     private AsyncResult sendCompletionWatcher;
 
@@ -182,6 +184,8 @@ public class AmqpFixedProducer extends AmqpProducer {
 
     @Override
     public void processFlowUpdates(AmqpProvider provider) throws IOException {
+        releaseWrittenPayloads();
+
         if (!blocked.isEmpty() && getEndpoint().getCredit() > 0) {
             Iterator<InFlightSend> blockedSends = blocked.values().iterator();
             while (getEndpoint().getCredit() > 0 && blockedSends.hasNext()) {
@@ -306,6 +310,31 @@ public class AmqpFixedProducer extends AmqpProducer {
                 LOG.debug("Caught exception when failing blocked send during remote producer closure: {}", send, e);
             }
         }
+
+        for (InFlightSend send : unwritten) {
+            send.getEnvelope().releasePayload();
+        }
+        unwritten.clear();
+
+        super.handleResourceClosure(provider, error);
+    }
+
+    /*
+     * Releases the payloads of completed sends that the Sender has finished writing, a
+     * presettled send completes once pumped even if some of it is held back by the
+     * remote session window.
+     */
+    private void releaseWrittenPayloads() {
+        if (!unwritten.isEmpty()) {
+            Iterator<InFlightSend> sends = unwritten.iterator();
+            while (sends.hasNext()) {
+                InFlightSend send = sends.next();
+                if (send.getDelivery().pending() == 0) {
+                    send.getEnvelope().releasePayload();
+                    sends.remove();
+                }
+            }
+        }
     }
 
     //----- Class used to manage held sends ----------------------------------//
@@ -316,11 +345,15 @@ public class AmqpFixedProducer extends AmqpProducer {
         private final AsyncResult request;
 
         private Delivery delivery;
-        private ScheduledFuture<?> requestTimeout;
+        private TimeoutWheel.Timeout requestTimeout;
+        private boolean payloadReleased;
 
         public InFlightSend(JmsOutboundMessageDispatch envelope, AsyncResult request) {
             this.envelope = envelope;
             this.request = request;
+
+            // The original request can complete before the encoded bytes are written.
+            envelope.retainPayload();
         }
 
         @Override
@@ -353,9 +386,9 @@ public class AmqpFixedProducer extends AmqpProducer {
             }
         }
 
-        public void setRequestTimeout(ScheduledFuture<?> requestTimeout) {
+        public void setRequestTimeout(TimeoutWheel.Timeout requestTimeout) {
             if (this.requestTimeout != null) {
-                this.requestTimeout.cancel(false);
+                this.requestTimeout.cancel();
             }
 
             this.requestTimeout = requestTimeout;
@@ -393,6 +426,8 @@ public class AmqpFixedProducer extends AmqpProducer {
                 blocked.remove(envelope.getMessageId());
             }
 
+            releasePayload();
+
             // Put the message back to usable state following send complete
             envelope.getMessage().onSendComplete();
 
@@ -410,6 +445,20 @@ public class AmqpFixedProducer extends AmqpProducer {
             }
         }
 
+        private void releasePayload() {
+            if (!payloadReleased) {
+                payloadReleased = true;
+
+                if (delivery != null && delivery.pending() > 0) {
+                    unwritten.add(this);
+                } else {
+                    envelope.releasePayload();
+                }
+            }
+
+            releaseWrittenPayloads();
+        }
+
         @Override
         public Exception createException() {
             if (delivery == null) {
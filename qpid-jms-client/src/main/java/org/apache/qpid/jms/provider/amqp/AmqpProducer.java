@@ -94,4 +94,9 @@ public abstract class AmqpProducer extends AmqpAbstractResource<JmsProducerInfo,
     public void setDelayedDeliverySupported(boolean delayedDeliverySupported) {
         this.delayedDeliverySupported = delayedDeliverySupported;
     }
+
+    @Override
+    public void handleResourceClosure(AmqpProvider provider, Throwable error) {
+        connection.getEncodeBufferAllocator().removeProducer(getProducerId());
+    }
 }
@@ -23,9 +23,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -54,6 +55,7 @@ import org.apache.qpid.jms.meta.JmsSessionId;
 import org.apache.qpid.jms.meta.JmsSessionInfo;
 import org.apache.qpid.jms.meta.JmsTransactionInfo;
 import org.apache.qpid.jms.provider.AsyncResult;
+import org.apache.qpid.jms.provider.BatchAsyncResult;
 import org.apache.qpid.jms.provider.NoOpAsyncResult;
 import org.apache.qpid.jms.provider.Provider;
 import org.apache.qpid.jms.provider.ProviderClosedException;
@@ -63,6 +65,7 @@ import org.apache.qpid.jms.provider.ProviderFuture;
 import org.apache.qpid.jms.provider.ProviderListener;
 import org.apache.qpid.jms.provider.amqp.builders.AmqpClosedConnectionBuilder;
 import org.apache.qpid.jms.provider.amqp.builders.AmqpConnectionBuilder;
+import org.apache.qpid.jms.provider.amqp.message.AmqpEncodeBufferAllocator.PoolType;
 import org.apache.qpid.jms.sasl.Mechanism;
 import org.apache.qpid.jms.sasl.SaslMechanismFinder;
 import org.apache.qpid.jms.transports.Transport;
@@ -71,6 +74,7 @@ import org.apache.qpid.jms.util.IOExceptionSupport;
 import org.apache.qpid.jms.util.PropertyUtil;
 import org.apache.qpid.jms.util.QpidJMSThreadFactory;
 import org.apache.qpid.jms.util.ThreadPoolUtils;
+import org.apache.qpid.jms.util.TimeoutWheel;
 import org.apache.qpid.proton.engine.Collector;
 import org.apache.qpid.proton.engine.Connection;
 import org.apache.qpid.proton.engine.Delivery;
@@ -102,6 +106,9 @@ import io.netty.util.ReferenceCountUtil;
  *
  * All work within this Provider is serialized to a single Thread.  Any asynchronous exceptions
  * will be dispatched from that Thread and all in-bound requests are handled there as well.
+ * By default the Provider creates its own Thread for this work, optionally the Provider can
+ * instead run on the event loop of the connected Transport so that incoming data is processed
+ * as it is read and outgoing data is written without a Thread hand-off.
  */
 public class AmqpProvider implements Provider, TransportListener , AmqpResourceParent {
 
@@ -113,6 +120,10 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
     // NOTE: Limit default channel max to signed short range to deal with
     //       brokers that don't currently handle the unsigned range well.
     private static final int DEFAULT_CHANNEL_MAX = 32767;
+    private static final int DEFAULT_FLUSH_THRESHOLD = 64 * 1024;
+    private static final int DEFAULT_MAX_FLUSH_DELAY = 10;
+    private static final int TIMEOUT_TICK_MILLIS = 10;
+    private static final int TIMEOUT_WHEEL_SIZE = 512;
     private static final AtomicInteger PROVIDER_SEQUENCE = new AtomicInteger();
     private static final NoOpAsyncResult NOOP_REQUEST = new NoOpAsyncResult();
 
@@ -133,11 +144,16 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
     private int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
 
     private boolean allowNonSecureRedirects;
+    private boolean useTransportEventLoop;
+    private int flushThreshold = DEFAULT_FLUSH_THRESHOLD;
+    private int maxFlushDelay = DEFAULT_MAX_FLUSH_DELAY;
+    private PoolType encodeBufferPool = PoolType.NONE;
 
     private final URI remoteURI;
     private final AtomicBoolean closed = new AtomicBoolean();
     private volatile Throwable failureCause;
-    private ScheduledThreadPoolExecutor serializer;
+    private final ScheduledThreadPoolExecutor providerExecutor;
+    private volatile ScheduledExecutorService serializer;
     private final org.apache.qpid.proton.engine.Transport protonTransport =
         org.apache.qpid.proton.engine.Transport.Factory.create();
     private final Collector protonCollector = new CollectorImpl();
@@ -146,6 +162,21 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
     private AsyncResult connectionRequest;
     private ScheduledFuture<?> nextIdleTimeoutCheck;
 
+    // Writes queued on the Transport that have not yet been flushed.
+    private int unflushedBytes;
+    private long firstUnflushedWrite;
+    private boolean flushScheduled;
+    private final Runnable flushTask = new FlushTask();
+
+    // Set while a batch of sends is processed so that it is written out in one pass.
+    private boolean deferWrites;
+
+    // Request timeouts are kept in a wheel driven by a single task on the serializer.
+    private final TimeoutWheel timeouts = new TimeoutWheel(TIMEOUT_TICK_MILLIS, TIMEOUT_WHEEL_SIZE, System.nanoTime());
+    private final Runnable timeoutTickTask = new TimeoutTickTask();
+    private ScheduledFuture<?> timeoutTick;
+    private ScheduledExecutorService timeoutTickExecutor;
+
     /**
      * Create a new instance of an AmqpProvider bonded to the given remote URI.
      *
@@ -158,12 +189,14 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
         this.remoteURI = remoteURI;
         this.transport = transport;
 
-        serializer = new ScheduledThreadPoolExecutor(1, new QpidJMSThreadFactory(
+        providerExecutor = new ScheduledThreadPoolExecutor(1, new QpidJMSThreadFactory(
             "AmqpProvider :(" + PROVIDER_SEQUENCE.incrementAndGet() + "):[" +
             remoteURI.getScheme() + "://" + remoteURI.getHost() + ":" + remoteURI.getPort() + "]", true));
 
-        serializer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
-        serializer.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+        providerExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        providerExecutor.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+
+        serializer = providerExecutor;
     }
 
     @Override
@@ -222,8 +255,8 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                         }
                     }
 
-                    transport.connect(sslContextOverride);
-
+                    // Configure SASL before connecting, in event loop mode data from the
+                    // remote can be processed as soon as the connection is established.
                     if (saslLayer) {
                         Sasl sasl = protonTransport.sasl();
                         sasl.client();
@@ -268,10 +301,18 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                         });
 
                         authenticator = new AmqpSaslAuthenticator((remoteMechanisms) -> findSaslMechanism(remoteMechanisms));
+                    }
 
-                        pumpToProtonTransport();
+                    transport.connect(sslContextOverride);
+
+                    if (isUseTransportEventLoop()) {
+                        // From here on all work is run on the Transport's event loop and our
+                        // own thread is no longer needed.
+                        serializer = transport.getEventLoop();
+                        providerExecutor.shutdown();
+                        serializer.execute(() -> completeConnect(connectRequest));
                     } else {
-                        connectRequest.onSuccess();
+                        completeConnect(connectRequest);
                     }
                 } catch (Throwable t) {
                     connectionRequest.onFailure(IOExceptionSupport.create(t));
@@ -315,6 +356,12 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                 @Override
                 public void run() {
                     try {
+                        // The Transport is closed as soon as the request completes so any
+                        // output still waiting on a deferred flush must be written first.
+                        if (unflushedBytes > 0 && transport.isConnected()) {
+                            flushTransport();
+                        }
+
                         // If we are not connected then there is nothing we can do now
                         // just signal success.
                         if (transport == null || !transport.isConnected()) {
@@ -344,7 +391,7 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                             }
                         }
 
-                        pumpToProtonTransport(request);
+                        pumpToProtonTransport(request, true);
                     } catch (Exception e) {
                         LOG.debug("Caught exception while closing proton connection: {}", e.getMessage());
                     } finally {
@@ -375,7 +422,7 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                         }
                     }
                 } finally {
-                    ThreadPoolUtils.shutdownGraceful(serializer);
+                    ThreadPoolUtils.shutdownGraceful(providerExecutor);
                 }
             }
         }
@@ -624,31 +671,97 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
     @Override
     public void send(final JmsOutboundMessageDispatch envelope, final AsyncResult request) throws IOException {
         checkClosedOrFailed();
+
+        // Hold the payload until the send has been handed to the producer, the caller
+        // may stop waiting on the request before that happens.
+        envelope.retainPayload();
+        try {
+            doSend(envelope, request);
+        } catch (RuntimeException ex) {
+            envelope.releasePayload();
+            throw ex;
+        }
+    }
+
+    private void doSend(final JmsOutboundMessageDispatch envelope, final AsyncResult request) {
         serializer.execute(new Runnable() {
 
             @Override
             public void run() {
                 try {
                     checkClosedOrFailed();
-
-                    JmsProducerId producerId = envelope.getProducerId();
-                    AmqpProducer producer = null;
-
-                    if (producerId.getProviderHint() instanceof AmqpFixedProducer) {
-                        producer = (AmqpFixedProducer) producerId.getProviderHint();
-                    } else {
-                        AmqpSession session = connection.getSession(producerId.getParentId());
-                        producer = session.getProducer(producerId);
-                    }
-
-                    producer.send(envelope, request);
+                    getProducer(envelope.getProducerId()).send(envelope, request);
                 } catch (Throwable t) {
                     request.onFailure(t);
+                } finally {
+                    envelope.releasePayload();
                 }
             }
         });
     }
 
+    @Override
+    public void send(final List<JmsOutboundMessageDispatch> envelopes, final AsyncResult request) throws IOException {
+        checkClosedOrFailed();
+
+        for (JmsOutboundMessageDispatch envelope : envelopes) {
+            envelope.retainPayload();
+        }
+
+        try {
+            serializer.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    BatchAsyncResult batch = new BatchAsyncResult(request);
+                    try {
+                        checkClosedOrFailed();
+
+                        // Hold back the writes until every message has been given to its
+                        // producer so that the batch goes out in one pass over the transport.
+                        deferWrites = true;
+                        try {
+                            for (JmsOutboundMessageDispatch envelope : envelopes) {
+                                AsyncResult entry = batch.createRequest();
+                                try {
+                                    getProducer(envelope.getProducerId()).send(envelope, entry);
+                                } catch (Throwable t) {
+                                    entry.onFailure(t);
+                                }
+                            }
+                        } finally {
+                            deferWrites = false;
+                        }
+
+                        if (pumpToProtonTransport(batch)) {
+                            batch.submitted();
+                        }
+                    } catch (Throwable t) {
+                        batch.onFailure(t);
+                    } finally {
+                        for (JmsOutboundMessageDispatch envelope : envelopes) {
+                            envelope.releasePayload();
+                        }
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            for (JmsOutboundMessageDispatch envelope : envelopes) {
+                envelope.releasePayload();
+            }
+            throw ex;
+        }
+    }
+
+    private AmqpProducer getProducer(JmsProducerId producerId) {
+        if (producerId.getProviderHint() instanceof AmqpFixedProducer) {
+            return (AmqpFixedProducer) producerId.getProviderHint();
+        } else {
+            AmqpSession session = connection.getSession(producerId.getParentId());
+            return session.getProducer(producerId);
+        }
+    }
+
     @Override
     public void acknowledge(final JmsSessionId sessionId, final ACK_TYPE ackType, final AsyncResult request) throws IOException {
         checkClosedOrFailed();
@@ -828,6 +941,18 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
 
     @Override
     public void onData(final ByteBuf input) {
+        if (isUseTransportEventLoop()) {
+            // The remote can send data before connect has finished switching over to the
+            // event loop, make sure any work it triggers is queued to the right place.
+            if (serializer == providerExecutor) {
+                serializer = transport.getEventLoop();
+            }
+
+            // Already running on the serializer so process the data before the Transport
+            // reclaims the buffer, no need to retain it.
+            processIncomingData(input);
+            return;
+        }
 
         // We need to retain until the serializer gets around to processing it.
         ReferenceCountUtil.retain(input);
@@ -837,32 +962,38 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
             @Override
             public void run() {
                 try {
-                    if (isTraceBytes()) {
-                        TRACE_BYTES.info("Received: {}", ByteBufUtil.hexDump(input));
-                    }
-
-                    do {
-                        ByteBuffer buffer = protonTransport.tail();
-                        int chunkSize = Math.min(buffer.remaining(), input.readableBytes());
-                        buffer.limit(buffer.position() + chunkSize);
-                        input.readBytes(buffer);
-                        protonTransport.process();
-                    } while (input.isReadable());
-
+                    processIncomingData(input);
+                } finally {
                     ReferenceCountUtil.release(input);
-
-                    // Process the state changes from the latest data and then answer back
-                    // any pending updates to the Broker.
-                    processUpdates();
-                    pumpToProtonTransport();
-                } catch (Throwable t) {
-                    LOG.warn("Caught problem during data processing: {}", t.getMessage(), t);
-                    fireProviderException(t);
                 }
             }
         });
     }
 
+    private void processIncomingData(ByteBuf input) {
+        try {
+            if (isTraceBytes()) {
+                TRACE_BYTES.info("Received: {}", ByteBufUtil.hexDump(input));
+            }
+
+            do {
+                ByteBuffer buffer = protonTransport.tail();
+                int chunkSize = Math.min(buffer.remaining(), input.readableBytes());
+                buffer.limit(buffer.position() + chunkSize);
+                input.readBytes(buffer);
+                protonTransport.process();
+            } while (input.isReadable());
+
+            // Process the state changes from the latest data and then answer back
+            // any pending updates to the Broker.
+            processUpdates();
+            pumpToProtonTransport();
+        } catch (Throwable t) {
+            LOG.warn("Caught problem during data processing: {}", t.getMessage(), t);
+            fireProviderException(t);
+        }
+    }
+
     /**
      * Callback method for the Transport to report connection errors.  When called
      * the method will queue a new task to fire the failure error back to the listener.
@@ -929,6 +1060,18 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
         }
     }
 
+    private void completeConnect(AsyncResult connectRequest) {
+        try {
+            if (saslLayer) {
+                pumpToProtonTransport();
+            } else {
+                connectRequest.onSuccess();
+            }
+        } catch (Throwable t) {
+            connectRequest.onFailure(IOExceptionSupport.create(t));
+        }
+    }
+
     private void checkSaslAuthenticationState() {
         try {
             if (authenticator.isComplete()) {
@@ -1041,6 +1184,15 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
     }
 
     protected boolean pumpToProtonTransport(AsyncResult request) {
+        return pumpToProtonTransport(request, false);
+    }
+
+    protected boolean pumpToProtonTransport(AsyncResult request, boolean flush) {
+        if (deferWrites) {
+            // The batch being processed writes everything out once it is done.
+            return true;
+        }
+
         try {
             boolean done = false;
             while (!done) {
@@ -1053,12 +1205,25 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                         TRACE_BYTES.info("Sending: {}", ByteBufUtil.hexDump(outbound));
                     }
 
-                    transport.send(outbound);
+                    if (unflushedBytes == 0) {
+                        firstUnflushedWrite = System.nanoTime();
+                    }
+
+                    unflushedBytes += outbound.readableBytes();
+                    transport.write(outbound);
                     protonTransport.outputConsumed();
                 } else {
                     done = true;
                 }
             }
+
+            if (flush) {
+                if (unflushedBytes > 0) {
+                    flushTransport();
+                }
+            } else {
+                flushOrScheduleFlush();
+            }
         } catch (IOException e) {
             fireProviderException(e);
             request.onFailure(e);
@@ -1068,6 +1233,35 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
         return true;
     }
 
+    /*
+     * Flushes the queued writes right away if the byte or time budget has been used up,
+     * otherwise a single flush is queued on the serializer so that output from all the
+     * work already waiting to run is written to the connection together.
+     */
+    private void flushOrScheduleFlush() throws IOException {
+        if (unflushedBytes == 0) {
+            return;
+        }
+
+        if (flushThreshold <= 0 || unflushedBytes >= flushThreshold ||
+            System.nanoTime() - firstUnflushedWrite >= TimeUnit.MILLISECONDS.toNanos(maxFlushDelay)) {
+
+            flushTransport();
+        } else if (!flushScheduled) {
+            try {
+                serializer.execute(flushTask);
+                flushScheduled = true;
+            } catch (RejectedExecutionException ree) {
+                flushTransport();
+            }
+        }
+    }
+
+    private void flushTransport() throws IOException {
+        unflushedBytes = 0;
+        transport.flush();
+    }
+
     void fireConnectionEstablished() {
         // The request onSuccess calls this method
         connectionRequest = null;
@@ -1294,6 +1488,76 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
         this.allowNonSecureRedirects = allowNonSecureRedirects;
     }
 
+    public int getFlushThreshold() {
+        return flushThreshold;
+    }
+
+    /**
+     * Sets the number of bytes of outgoing data that can be queued on the Transport
+     * before it is flushed to the connection.  Output is otherwise flushed once the
+     * provider has finished the work currently waiting to be run.
+     *
+     * Values less than or equal to zero cause every write to be flushed immediately.
+     *
+     * @param flushThreshold
+     *      the number of queued bytes that triggers a flush.
+     */
+    public void setFlushThreshold(int flushThreshold) {
+        this.flushThreshold = flushThreshold;
+    }
+
+    public int getMaxFlushDelay() {
+        return maxFlushDelay;
+    }
+
+    /**
+     * Sets the maximum time in milliseconds that outgoing data can remain queued on
+     * the Transport before it is flushed to the connection.
+     *
+     * @param maxFlushDelay
+     *      the maximum delay in milliseconds before queued data is flushed.
+     */
+    public void setMaxFlushDelay(int maxFlushDelay) {
+        this.maxFlushDelay = maxFlushDelay;
+    }
+
+    public String getEncodeBufferPool() {
+        return encodeBufferPool.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Sets the kind of buffer that outgoing messages are encoded into, one of "none" to
+     * encode into unpooled heap buffers, "heap" to use pooled heap buffers or "direct" to
+     * use pooled direct buffers.
+     *
+     * @param encodeBufferPool
+     *      the name of the buffer pool to encode outgoing messages with.
+     */
+    public void setEncodeBufferPool(String encodeBufferPool) {
+        this.encodeBufferPool = PoolType.fromString(encodeBufferPool);
+    }
+
+    PoolType getEncodeBufferPoolType() {
+        return encodeBufferPool;
+    }
+
+    public boolean isUseTransportEventLoop() {
+        return useTransportEventLoop;
+    }
+
+    /**
+     * Sets whether the provider runs its work on the event loop of the connected
+     * Transport instead of its own dedicated thread.  When enabled incoming data is
+     * processed on the thread that read it and outgoing data is written without a
+     * further thread hand-off.
+     *
+     * @param useTransportEventLoop
+     *      true if the provider should run on the Transport event loop once connected.
+     */
+    public void setUseTransportEventLoop(boolean useTransportEventLoop) {
+        this.useTransportEventLoop = useTransportEventLoop;
+    }
+
     public long getCloseTimeout() {
         return connectionInfo != null ? connectionInfo.getCloseTimeout() : JmsConnectionInfo.DEFAULT_CLOSE_TIMEOUT;
     }
@@ -1380,10 +1644,29 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
         return this;
     }
 
+    /**
+     * Schedules a task to run on the serializer once the given delay has passed.  The
+     * task is kept in a timing wheel so scheduling and cancelling it are cheap, which
+     * suits timeouts that are nearly always cancelled, the task can run up to one tick
+     * of the wheel after the delay.  Must only be called from the serializer.
+     *
+     * @param task
+     *      The task to run when the timeout expires.
+     * @param delay
+     *      The time in milliseconds to wait before running the task.
+     *
+     * @return a {@link TimeoutWheel.Timeout} that can be used to cancel the task.
+     */
+    public TimeoutWheel.Timeout scheduleTimeout(Runnable task, long delay) {
+        TimeoutWheel.Timeout timeout = timeouts.schedule(task, delay, System.nanoTime());
+        scheduleTimeoutTick();
+        return timeout;
+    }
+
     /**
      * Allows a resource to request that its parent resource schedule a future
-     * cancellation of a request and return it a {@link Future} instance that
-     * can be used to cancel the scheduled automatic failure of the request.
+     * cancellation of a request and return it a {@link TimeoutWheel.Timeout} instance
+     * that can be used to cancel the scheduled automatic failure of the request.
      *
      * @param request
      *      The request that should be marked as failed based on configuration.
@@ -1392,11 +1675,11 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
      * @param error
      *      The error to use when failing the pending request.
      *
-     * @return a {@link ScheduledFuture} that can be stored by the caller.
+     * @return a {@link TimeoutWheel.Timeout} that can be stored by the caller.
      */
-    public ScheduledFuture<?> scheduleRequestTimeout(final AsyncResult request, long timeout, final Exception error) {
+    public TimeoutWheel.Timeout scheduleRequestTimeout(final AsyncResult request, long timeout, final Exception error) {
         if (timeout != JmsConnectionInfo.INFINITE) {
-            return serializer.schedule(new Runnable() {
+            return scheduleTimeout(new Runnable() {
 
                 @Override
                 public void run() {
@@ -1404,7 +1687,7 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                     pumpToProtonTransport();
                 }
 
-            }, timeout, TimeUnit.MILLISECONDS);
+            }, timeout);
         }
 
         return null;
@@ -1412,8 +1695,8 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
 
     /**
      * Allows a resource to request that its parent resource schedule a future
-     * cancellation of a request and return it a {@link Future} instance that
-     * can be used to cancel the scheduled automatic failure of the request.
+     * cancellation of a request and return it a {@link TimeoutWheel.Timeout} instance
+     * that can be used to cancel the scheduled automatic failure of the request.
      *
      * @param request
      *      The request that should be marked as failed based on configuration.
@@ -1422,11 +1705,11 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
      * @param builder
      *      An AmqpExceptionBuilder to use when creating a timed out exception.
      *
-     * @return a {@link ScheduledFuture} that can be stored by the caller.
+     * @return a {@link TimeoutWheel.Timeout} that can be stored by the caller.
      */
-    public ScheduledFuture<?> scheduleRequestTimeout(final AsyncResult request, long timeout, final AmqpExceptionBuilder builder) {
+    public TimeoutWheel.Timeout scheduleRequestTimeout(final AsyncResult request, long timeout, final AmqpExceptionBuilder builder) {
         if (timeout != JmsConnectionInfo.INFINITE) {
-            return serializer.schedule(new Runnable() {
+            return scheduleTimeout(new Runnable() {
 
                 @Override
                 public void run() {
@@ -1434,7 +1717,7 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                     pumpToProtonTransport();
                 }
 
-            }, timeout, TimeUnit.MILLISECONDS);
+            }, timeout);
         }
 
         return null;
@@ -1442,6 +1725,20 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
 
     //----- Internal implementation ------------------------------------------//
 
+    private void scheduleTimeoutTick() {
+        // The serializer moves to the Transport event loop on connect, a tick left on the
+        // old executor will never run so one is started on the new serializer.
+        if (timeoutTick == null || timeoutTickExecutor != serializer) {
+            try {
+                timeoutTickExecutor = serializer;
+                timeoutTick = serializer.schedule(timeoutTickTask, timeouts.getTickMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ree) {
+                LOG.trace("Could not schedule timeout tick, provider is shutting down");
+                timeoutTick = null;
+            }
+        }
+    }
+
     private void checkClosedOrFailed() throws ProviderClosedException, ProviderFailedException {
         if (closed.get()) {
             throw new ProviderClosedException("This Provider is already closed");
@@ -1490,6 +1787,35 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
         return mechanism;
     }
 
+    private final class FlushTask implements Runnable {
+        @Override
+        public void run() {
+            flushScheduled = false;
+
+            if (unflushedBytes > 0) {
+                try {
+                    flushTransport();
+                } catch (IOException e) {
+                    if (!closed.get() && failureCause == null) {
+                        fireProviderException(e);
+                    }
+                }
+            }
+        }
+    }
+
+    private final class TimeoutTickTask implements Runnable {
+        @Override
+        public void run() {
+            timeoutTick = null;
+            timeouts.expire(System.nanoTime());
+
+            if (!timeouts.isEmpty()) {
+                scheduleTimeoutTick();
+            }
+        }
+    }
+
     private final class IdleTimeoutCheck implements Runnable {
         @Override
         public void run() {
@@ -20,8 +20,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import javax.jms.IllegalStateException;
 
@@ -37,6 +35,7 @@ import org.apache.qpid.jms.provider.AsyncResult;
 import org.apache.qpid.jms.provider.ProviderConstants.ACK_TYPE;
 import org.apache.qpid.jms.provider.amqp.builders.AmqpConsumerBuilder;
 import org.apache.qpid.jms.provider.amqp.builders.AmqpProducerBuilder;
+import org.apache.qpid.jms.util.TimeoutWheel;
 import org.apache.qpid.proton.engine.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -192,15 +191,15 @@ public class AmqpSession extends AmqpAbstractResource<JmsSessionInfo, Session> i
      * @param delay
      *      The delay in milliseconds to schedule the given task for execution.
      *
-     * @return a ScheduledFuture instance that can be used to cancel the task.
+     * @return a Timeout instance that can be used to cancel the task.
      */
-    public ScheduledFuture<?> schedule(final Runnable task, long delay) {
+    public TimeoutWheel.Timeout schedule(final Runnable task, long delay) {
         if (task == null) {
             LOG.trace("Resource attempted to schedule a null task.");
             return null;
         }
 
-        return getProvider().getScheduler().schedule(task, delay, TimeUnit.MILLISECONDS);
+        return getProvider().scheduleTimeout(task, delay);
     }
 
     @Override
@@ -18,7 +18,6 @@ package org.apache.qpid.jms.provider.amqp;
 
 import java.io.IOException;
 import java.nio.BufferOverflowException;
-import java.util.concurrent.ScheduledFuture;
 
 import javax.jms.IllegalStateException;
 import javax.jms.JMSException;
@@ -31,6 +30,7 @@ import org.apache.qpid.jms.meta.JmsTransactionId;
 import org.apache.qpid.jms.provider.AsyncResult;
 import org.apache.qpid.jms.provider.amqp.AmqpTransactionContext.DischargeCompletion;
 import org.apache.qpid.jms.util.IOExceptionSupport;
+import org.apache.qpid.jms.util.TimeoutWheel;
 import org.apache.qpid.proton.amqp.Binary;
 import org.apache.qpid.proton.amqp.messaging.AmqpValue;
 import org.apache.qpid.proton.amqp.messaging.Rejected;
@@ -108,7 +108,7 @@ public class AmqpTransactionCoordinator extends AmqpAbstractResource<JmsSessionI
                 pendingRequest = null;
 
                 if (context.getTimeout() != null) {
-                    context.getTimeout().cancel(false);
+                    context.getTimeout().cancel();
                 }
             }
 
@@ -133,7 +133,7 @@ public class AmqpTransactionCoordinator extends AmqpAbstractResource<JmsSessionI
         Declare declare = new Declare();
         message.setBody(new AmqpValue(declare));
 
-        ScheduledFuture<?> timeout = scheduleTimeoutIfNeeded("Timed out waiting for declare of TX.", request);
+        TimeoutWheel.Timeout timeout = scheduleTimeoutIfNeeded("Timed out waiting for declare of TX.", request);
         OperationContext context = new OperationContext(txId, request, timeout);
 
         Delivery delivery = getEndpoint().delivery(tagGenerator.getNextTag());
@@ -170,7 +170,7 @@ public class AmqpTransactionCoordinator extends AmqpAbstractResource<JmsSessionI
         discharge.setTxnId((Binary) txId.getProviderHint());
         message.setBody(new AmqpValue(discharge));
 
-        ScheduledFuture<?> timeout = scheduleTimeoutIfNeeded("Timed out waiting for discharge of TX.", request);
+        TimeoutWheel.Timeout timeout = scheduleTimeoutIfNeeded("Timed out waiting for discharge of TX.", request);
         OperationContext context = new OperationContext(txId, request, timeout);
 
         Delivery delivery = getEndpoint().delivery(tagGenerator.getNextTag());
@@ -219,10 +219,10 @@ public class AmqpTransactionCoordinator extends AmqpAbstractResource<JmsSessionI
     private class OperationContext {
 
         private final AsyncResult request;
-        private final ScheduledFuture<?> timeout;
+        private final TimeoutWheel.Timeout timeout;
         private final JmsTransactionId transactionId;
 
-        public OperationContext(JmsTransactionId transactionId, AsyncResult request, ScheduledFuture<?> timeout) {
+        public OperationContext(JmsTransactionId transactionId, AsyncResult request, TimeoutWheel.Timeout timeout) {
             this.transactionId = transactionId;
             this.request = request;
             this.timeout = timeout;
@@ -236,12 +236,12 @@ public class AmqpTransactionCoordinator extends AmqpAbstractResource<JmsSessionI
             return request;
         }
 
-        public ScheduledFuture<?> getTimeout() {
+        public TimeoutWheel.Timeout getTimeout() {
             return timeout;
         }
     }
 
-    private ScheduledFuture<?> scheduleTimeoutIfNeeded(String cause, AsyncResult pendingRequest) {
+    private TimeoutWheel.Timeout scheduleTimeoutIfNeeded(String cause, AsyncResult pendingRequest) {
         AmqpProvider provider = getParent().getProvider();
         if (provider.getRequestTimeout() != JmsConnectionInfo.INFINITE) {
             return provider.scheduleRequestTimeout(pendingRequest, provider.getRequestTimeout(), new JmsOperationTimedOutException(cause));
@@ -17,7 +17,6 @@
 package org.apache.qpid.jms.provider.amqp.builders;
 
 import java.io.IOException;
-import java.util.concurrent.ScheduledFuture;
 
 import org.apache.qpid.jms.JmsOperationTimedOutException;
 import org.apache.qpid.jms.meta.JmsConnectionInfo;
@@ -30,6 +29,7 @@ import org.apache.qpid.jms.provider.amqp.AmqpProvider;
 import org.apache.qpid.jms.provider.amqp.AmqpResource;
 import org.apache.qpid.jms.provider.amqp.AmqpResourceParent;
 import org.apache.qpid.jms.provider.amqp.AmqpSupport;
+import org.apache.qpid.jms.util.TimeoutWheel;
 import org.apache.qpid.proton.engine.Delivery;
 import org.apache.qpid.proton.engine.Endpoint;
 import org.apache.qpid.proton.engine.EndpointState;
@@ -49,7 +49,7 @@ public abstract class AmqpResourceBuilder<TARGET extends AmqpResource, PARENT ex
     private static final Logger LOG = LoggerFactory.getLogger(AmqpResourceBuilder.class);
 
     protected AsyncResult request;
-    protected ScheduledFuture<?> requestTimeoutTask;
+    protected TimeoutWheel.Timeout requestTimeoutTask;
     protected TARGET resource;
     protected ENDPOINT endpoint;
     protected final PARENT parent;
@@ -156,7 +156,7 @@ public abstract class AmqpResourceBuilder<TARGET extends AmqpResource, PARENT ex
         }
 
         if (requestTimeoutTask != null) {
-            requestTimeoutTask.cancel(false);
+            requestTimeoutTask.cancel();
         }
 
         if (isOpenedEndpointValid()) {
@@ -190,7 +190,7 @@ public abstract class AmqpResourceBuilder<TARGET extends AmqpResource, PARENT ex
         }
 
         if (requestTimeoutTask != null) {
-            requestTimeoutTask.cancel(false);
+            requestTimeoutTask.cancel();
         }
 
         LOG.warn("Open of resource:({}) failed: {}", resourceInfo, openError.getMessage());
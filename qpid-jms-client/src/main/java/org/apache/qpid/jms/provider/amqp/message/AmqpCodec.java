@@ -28,9 +28,11 @@ import static org.apache.qpid.jms.provider.amqp.message.AmqpMessageSupport.SERIA
 import static org.apache.qpid.jms.provider.amqp.message.AmqpMessageSupport.isContentType;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
+import org.apache.qpid.jms.meta.JmsProducerId;
 import org.apache.qpid.jms.provider.amqp.AmqpConsumer;
 import org.apache.qpid.jms.util.ContentTypeSupport;
 import org.apache.qpid.jms.util.InvalidContentTypeException;
@@ -49,16 +51,25 @@ import org.apache.qpid.proton.amqp.messaging.Section;
 import org.apache.qpid.proton.codec.AMQPDefinedTypes;
 import org.apache.qpid.proton.codec.DecoderImpl;
 import org.apache.qpid.proton.codec.EncoderImpl;
+import org.apache.qpid.proton.codec.EncodingCodes;
 import org.apache.qpid.proton.codec.ReadableBuffer;
+import org.apache.qpid.proton.codec.TypeConstructor;
 import org.apache.qpid.proton.codec.WritableBuffer;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 
 /**
  * AMQP Codec class used to hide the details of encode / decode
  */
 public final class AmqpCodec {
 
+    private static final byte DATA_DESCRIPTOR_CODE = 0x75;
+
+    // Data bodies of at least this size are referenced by the encoded message, not copied into it.
+    private static final int DATA_SECTION_REFERENCE_THRESHOLD = 8 * 1024;
+
     private static class EncoderDecoderPair {
         DecoderImpl decoder = new DecoderImpl();
         EncoderImpl encoder = new EncoderImpl(decoder);
@@ -140,10 +151,41 @@ public final class AmqpCodec {
      * @param message
      *      the Message that is to be encoded into the wire level representation.
      *
+     * Large Data body sections are not copied, the returned buffer references the bytes
+     * of the body Binary in place.
+     *
      * @return a buffer containing the wire level representation of the input Message.
      */
     public static ByteBuf encodeMessage(AmqpJmsMessageFacade message) {
-        AmqpWritableBuffer buffer = new AmqpWritableBuffer();
+        return encodeMessage(message, AmqpEncodeBufferAllocator.UNPOOLED, null);
+    }
+
+    /**
+     * Given an AMQP JMS Message object encode it into a buffer taken from the given
+     * allocator, sized from the history of the producer that is sending it.
+     *
+     * @param message
+     *      The AMQP JMS Message object to encode.
+     * @param allocator
+     *      The allocator that provides the buffer the message is encoded into.
+     * @param producerId
+     *      The producer sending the message, or null if not known.
+     *
+     * @return a reference counted buffer containing the encoded message.
+     */
+    public static ByteBuf encodeMessage(AmqpJmsMessageFacade message, AmqpEncodeBufferAllocator allocator, JmsProducerId producerId) {
+        AmqpWritableBuffer buffer = new AmqpWritableBuffer(allocator.allocate(producerId));
+        try {
+            ByteBuf encoded = doEncodeMessage(message, buffer);
+            allocator.recordEncodedSize(producerId, buffer.getBuffer().writerIndex());
+            return encoded;
+        } catch (RuntimeException ex) {
+            buffer.getBuffer().release();
+            throw ex;
+        }
+    }
+
+    private static ByteBuf doEncodeMessage(AmqpJmsMessageFacade message, AmqpWritableBuffer buffer) {
 
         EncoderImpl encoder = getEncoder();
         encoder.setByteBuffer(buffer);
@@ -171,6 +213,9 @@ public final class AmqpCodec {
         if (applicationProperties != null) {
             encoder.writeObject(applicationProperties);
         }
+        if (isReferencedDataSection(body)) {
+            return encodeWithReferencedData(encoder, buffer, ((Data) body).getValue(), footer);
+        }
         if (body != null) {
             encoder.writeObject(body);
         }
@@ -183,14 +228,54 @@ public final class AmqpCodec {
         return buffer.getBuffer();
     }
 
+    private static boolean isReferencedDataSection(Section body) {
+        if (body instanceof Data) {
+            Binary payload = ((Data) body).getValue();
+            return payload != null && payload.getLength() >= DATA_SECTION_REFERENCE_THRESHOLD;
+        }
+
+        return false;
+    }
+
+    private static ByteBuf encodeWithReferencedData(EncoderImpl encoder, AmqpWritableBuffer buffer, Binary payload, Footer footer) {
+        buffer.put(EncodingCodes.DESCRIBED_TYPE_INDICATOR);
+        buffer.put(EncodingCodes.SMALLULONG);
+        buffer.put(DATA_DESCRIPTOR_CODE);
+        buffer.put(EncodingCodes.VBIN32);
+        buffer.putInt(payload.getLength());
+
+        CompositeByteBuf encoded = Unpooled.compositeBuffer(3);
+        encoded.addComponent(true, buffer.getBuffer());
+        encoded.addComponent(true, Unpooled.wrappedBuffer(payload.getArray(), payload.getArrayOffset(), payload.getLength()));
+
+        if (footer != null) {
+            AmqpWritableBuffer trailer = new AmqpWritableBuffer();
+            encoder.setByteBuffer(trailer);
+            encoder.writeObject(footer);
+            encoded.addComponent(true, trailer.getBuffer());
+        }
+
+        encoder.setByteBuffer((WritableBuffer) null);
+
+        return encoded;
+    }
+
     /**
      * Create a new JmsMessage and underlying JmsMessageFacade that represents the proper
      * message type for the incoming AMQP message.
      *
+     * Only the header and properties sections are decoded here, the remaining sections
+     * are located in the message bytes and left for the facade to decode when they are
+     * first accessed.  The message type annotation is read from the encoded annotations
+     * without decoding the rest of them, only when it is missing does the body need to
+     * be decoded up front in order to determine the type of message.
+     *
      * @param consumer
      *        The AmqpConsumer instance that will be linked to the decoded message.
      * @param messageBytes
-     *        The the raw bytes that compose the incoming message. (Read-Only)
+     *        The the raw bytes that compose the incoming message. (Read-Only)  When the
+     *        buffer is backed by a single array the message will reference that array
+     *        rather than a copy of it so the array must not be reused afterwards.
      *
      * @return a AmqpJmsMessageFacade instance decoded from the message bytes.
      *
@@ -198,112 +283,221 @@ public final class AmqpCodec {
      */
     public static AmqpJmsMessageFacade decodeMessage(AmqpConsumer consumer, ReadableBuffer messageBytes) throws IOException {
 
+        if (!messageBytes.hasArray()) {
+            // Sections are decoded on demand from the message bytes so they need to be held
+            // in a single array that lives on after the delivery has been processed.
+            byte[] copy = new byte[messageBytes.remaining()];
+            messageBytes.get(copy);
+            messageBytes = ReadableBuffer.ByteBufferReader.wrap(copy);
+        }
+
+        final byte[] array = messageBytes.array();
+        final int arrayOffset = messageBytes.arrayOffset();
+
         DecoderImpl decoder = getDecoder();
         decoder.setBuffer(messageBytes);
 
         Header header = null;
-        DeliveryAnnotations deliveryAnnotations = null;
-        MessageAnnotations messageAnnotations = null;
         Properties properties = null;
-        ApplicationProperties applicationProperties = null;
-        Section body = null;
-        Footer footer = null;
-        Section section = null;
+        AmqpEncodedSection deliveryAnnotations = null;
+        AmqpEncodedSection messageAnnotations = null;
+        AmqpEncodedSection applicationProperties = null;
+        AmqpEncodedSection body = null;
+        AmqpEncodedSection footer = null;
+
+        while (messageBytes.hasRemaining()) {
+            final int start = messageBytes.position();
+            final TypeConstructor<?> constructor = decoder.readConstructor();
+            final Class<?> sectionType = constructor.getTypeClass();
+
+            if (sectionType == Header.class) {
+                header = (Header) constructor.readValue();
+            } else if (sectionType == Properties.class) {
+                properties = (Properties) constructor.readValue();
+            } else {
+                constructor.skipValue();
 
-        if (messageBytes.hasRemaining()) {
-            section = (Section) decoder.readObject();
-        }
+                final int length = messageBytes.position() - start;
 
-        if (section instanceof Header) {
-            header = (Header) section;
-            if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
-            } else {
-                section = null;
-            }
+                // Sections are decoded on first access so check now that they would decode.
+                AmqpSectionValidator.validate(sectionType, array, arrayOffset + start, length);
 
-        }
-        if (section instanceof DeliveryAnnotations) {
-            deliveryAnnotations = (DeliveryAnnotations) section;
+                AmqpEncodedSection section = new AmqpEncodedSection(array, arrayOffset + start, length);
 
-            if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
-            } else {
-                section = null;
+                if (sectionType == DeliveryAnnotations.class) {
+                    deliveryAnnotations = section;
+                } else if (sectionType == MessageAnnotations.class) {
+                    messageAnnotations = section;
+                } else if (sectionType == ApplicationProperties.class) {
+                    applicationProperties = section;
+                } else if (sectionType == Data.class || sectionType == AmqpValue.class || sectionType == AmqpSequence.class) {
+                    body = section;
+                } else if (sectionType == Footer.class) {
+                    footer = section;
+                } else {
+                    throw new IOException("Unexpected section type in incoming message: " + sectionType.getSimpleName());
+                }
             }
+        }
+
+        decoder.setByteBuffer(null);
 
+        // First we try the easy way, if the annotation is there we don't have to work hard.
+        AmqpJmsMessageFacade result = null;
+        if (messageAnnotations != null) {
+            result = createFromMsgAnnotation(messageAnnotations.findAnnotation(JMS_MSG_TYPE));
         }
-        if (section instanceof MessageAnnotations) {
-            messageAnnotations = (MessageAnnotations) section;
 
-            if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
-            } else {
-                section = null;
+        Section decodedBody = null;
+        if (result == null) {
+            // Next, match specific section structures and content types
+            if (body != null) {
+                decodedBody = body.decode();
             }
-
+            result = createWithoutAnnotation(decodedBody, properties);
         }
-        if (section instanceof Properties) {
-            properties = (Properties) section;
 
-            if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
+        if (result != null) {
+            result.setHeader(header);
+            result.setProperties(properties);
+            result.setEncodedDeliveryAnnotations(deliveryAnnotations);
+            result.setEncodedMessageAnnotations(messageAnnotations);
+            result.setEncodedApplicationProperties(applicationProperties);
+            if (body == null || decodedBody != null) {
+                result.setBody(decodedBody);
             } else {
-                section = null;
+                result.setEncodedBody(body);
             }
+            result.setEncodedFooter(footer);
+            result.initialize(consumer);
 
+            return result;
         }
-        if (section instanceof ApplicationProperties) {
-            applicationProperties = (ApplicationProperties) section;
 
-            if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
+        throw new IOException("Could not create a JMS message from incoming message");
+    }
+
+    /**
+     * Decodes a single section of a received message from the message bytes.
+     *
+     * @param array
+     *      the array holding the received message bytes.
+     * @param offset
+     *      the offset into the array where the section starts.
+     * @param length
+     *      the number of bytes the encoded section occupies.
+     *
+     * @return the decoded Section.
+     */
+    static Section decodeSection(byte[] array, int offset, int length) {
+        ReadableBuffer buffer = ReadableBuffer.ByteBufferReader.wrap(ByteBuffer.wrap(array, offset, length));
+
+        DecoderImpl decoder = getDecoder();
+        decoder.setBuffer(buffer);
+        Section section = readSection(decoder, buffer);
+        decoder.setByteBuffer(null);
+
+        return section;
+    }
+
+    /**
+     * Scans an encoded delivery or message annotations section for the given key and
+     * decodes only the value stored against it, the values of other entries are skipped.
+     *
+     * @param array
+     *      the array holding the received message bytes.
+     * @param offset
+     *      the offset into the array where the section starts.
+     * @param length
+     *      the number of bytes the encoded section occupies.
+     * @param key
+     *      the annotation key to look for.
+     *
+     * @return the value of the annotation or null if it is not present.
+     */
+    static Object findAnnotation(byte[] array, int offset, int length, Symbol key) {
+        ReadableBuffer buffer = ReadableBuffer.ByteBufferReader.wrap(ByteBuffer.wrap(array, offset, length));
+
+        DecoderImpl decoder = getDecoder();
+        decoder.setBuffer(buffer);
+
+        try {
+            // Step over the section descriptor to the map that holds the annotations.
+            if (buffer.get() != EncodingCodes.DESCRIBED_TYPE_INDICATOR) {
+                throw new IllegalArgumentException("Encoded annotations are not a described type");
+            }
+            decoder.readConstructor().skipValue();
+
+            final int count;
+            final byte encoding = buffer.get();
+            if (encoding == EncodingCodes.MAP8) {
+                buffer.get();
+                count = buffer.get() & 0xFF;
+            } else if (encoding == EncodingCodes.MAP32) {
+                buffer.getInt();
+                count = buffer.getInt();
+            } else if (encoding == EncodingCodes.NULL) {
+                count = 0;
             } else {
-                section = null;
+                throw new IllegalArgumentException("Expected an encoded map in annotations but found: " + encoding);
             }
 
-        }
-        if (section != null && !(section instanceof Footer)) {
-            body = section;
+            for (int i = 0; i < count; i += 2) {
+                if (key.equals(decoder.readObject())) {
+                    return decoder.readObject();
+                }
 
-            if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
-            } else {
-                section = null;
+                decoder.readConstructor().skipValue();
             }
 
+            return null;
+        } finally {
+            decoder.setByteBuffer(null);
         }
-        if (section instanceof Footer) {
-            footer = (Footer) section;
-        }
+    }
 
-        decoder.setByteBuffer(null);
+    private static Section readSection(DecoderImpl decoder, ReadableBuffer buffer) {
+        // A Data section in a buffer backed by a single array can reference its payload in
+        // place, saving the decoder from copying what is often the bulk of the message.
+        if (buffer.hasArray() && buffer.remaining() > 4) {
+            final int position = buffer.position();
+
+            if (buffer.get(position) == EncodingCodes.DESCRIBED_TYPE_INDICATOR &&
+                buffer.get(position + 1) == EncodingCodes.SMALLULONG &&
+                buffer.get(position + 2) == DATA_DESCRIPTOR_CODE) {
+
+                final byte encoding = buffer.get(position + 3);
+                final int headerSize;
+                final int length;
+
+                if (encoding == EncodingCodes.VBIN8) {
+                    headerSize = 5;
+                    length = buffer.get(position + 4) & 0xFF;
+                } else if (encoding == EncodingCodes.VBIN32 && buffer.remaining() >= 8) {
+                    headerSize = 8;
+                    length = ((buffer.get(position + 4) & 0xFF) << 24) |
+                             ((buffer.get(position + 5) & 0xFF) << 16) |
+                             ((buffer.get(position + 6) & 0xFF) << 8) |
+                              (buffer.get(position + 7) & 0xFF);
+                } else {
+                    return (Section) decoder.readObject();
+                }
 
-        // First we try the easy way, if the annotation is there we don't have to work hard.
-        AmqpJmsMessageFacade result = createFromMsgAnnotation(messageAnnotations);
-        if (result == null) {
-            // Next, match specific section structures and content types
-            result = createWithoutAnnotation(body, properties);
-        }
+                if (length < 0 || length > buffer.remaining() - headerSize) {
+                    throw new IllegalArgumentException("Data section length " + length +
+                        " exceeds the remaining message bytes " + (buffer.remaining() - headerSize));
+                }
 
-        if (result != null) {
-            result.setHeader(header);
-            result.setDeliveryAnnotations(deliveryAnnotations);
-            result.setMessageAnnotations(messageAnnotations);
-            result.setProperties(properties);
-            result.setApplicationProperties(applicationProperties);
-            result.setBody(body);
-            result.setFooter(footer);
-            result.initialize(consumer);
+                buffer.position(position + headerSize + length);
 
-            return result;
+                return new Data(new Binary(buffer.array(), buffer.arrayOffset() + position + headerSize, length));
+            }
         }
 
-        throw new IOException("Could not create a JMS message from incoming message");
+        return (Section) decoder.readObject();
     }
 
-    private static AmqpJmsMessageFacade createFromMsgAnnotation(MessageAnnotations messageAnnotations) throws IOException {
-        Object annotation = AmqpMessageSupport.getMessageAnnotation(JMS_MSG_TYPE, messageAnnotations);
+    private static AmqpJmsMessageFacade createFromMsgAnnotation(Object annotation) throws IOException {
         if (annotation != null) {
             switch ((byte) annotation) {
                 case JMS_MESSAGE:
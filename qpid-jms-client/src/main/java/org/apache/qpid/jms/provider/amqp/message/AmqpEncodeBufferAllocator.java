@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider.amqp.message;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.qpid.jms.meta.JmsProducerId;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+
+/**
+ * Allocates the buffers that outgoing messages are encoded into.
+ *
+ * The size of the buffer handed out for a producer is based on the encoded size of
+ * the messages that producer has recently sent so that the common case is encoded
+ * without the buffer needing to grow.  Buffers are reference counted and must be
+ * released once the encoded bytes are no longer needed, when a pooled allocator is
+ * in use this returns the memory to the pool.
+ */
+public class AmqpEncodeBufferAllocator {
+
+    /**
+     * The kinds of buffer that messages can be encoded into.
+     */
+    public enum PoolType {
+        NONE,
+        HEAP,
+        DIRECT;
+
+        /**
+         * Returns the PoolType whose name matches the given value ignoring case.
+         *
+         * @param value
+         *      the name of the pool type.
+         *
+         * @return the matching PoolType.
+         *
+         * @throws IllegalArgumentException if the value does not name a pool type.
+         */
+        public static PoolType fromString(String value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Encode buffer pool type cannot be null");
+            }
+
+            return valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+        }
+    }
+
+    public static final int MIN_CAPACITY = 64;
+
+    private static final int MAX_ESTIMATE = 1024 * 1024;
+
+    /**
+     * Allocator that hands out unpooled heap buffers, used when a message is encoded
+     * outside of a connection.
+     */
+    public static final AmqpEncodeBufferAllocator UNPOOLED = new AmqpEncodeBufferAllocator(PoolType.NONE);
+
+    private final PoolType poolType;
+    private final ByteBufAllocator allocator;
+    private final Map<JmsProducerId, SizeEstimate> estimates = new ConcurrentHashMap<>();
+
+    public AmqpEncodeBufferAllocator(PoolType poolType) {
+        this.poolType = poolType;
+        this.allocator = poolType == PoolType.NONE ? UnpooledByteBufAllocator.DEFAULT : PooledByteBufAllocator.DEFAULT;
+    }
+
+    public PoolType getPoolType() {
+        return poolType;
+    }
+
+    /**
+     * Allocates a buffer sized for the next message sent by the given producer.
+     *
+     * @param producerId
+     *      the producer that is sending the message or null if not known.
+     *
+     * @return a new buffer which the caller is responsible for releasing.
+     */
+    public ByteBuf allocate(JmsProducerId producerId) {
+        int capacity = AmqpWritableBuffer.INITIAL_CAPACITY;
+
+        if (producerId != null) {
+            SizeEstimate estimate = estimates.get(producerId);
+            if (estimate != null) {
+                capacity = estimate.nextCapacity();
+            }
+        }
+
+        if (poolType == PoolType.DIRECT) {
+            return allocator.directBuffer(capacity);
+        } else {
+            return allocator.heapBuffer(capacity);
+        }
+    }
+
+    /**
+     * Records the number of bytes that a message sent from the given producer occupied
+     * in the buffer it was encoded into.
+     *
+     * @param producerId
+     *      the producer that sent the message or null if not known.
+     * @param encodedSize
+     *      the number of bytes written into the allocated buffer.
+     */
+    public void recordEncodedSize(JmsProducerId producerId, int encodedSize) {
+        if (producerId != null) {
+            SizeEstimate estimate = estimates.get(producerId);
+            if (estimate == null) {
+                estimate = new SizeEstimate();
+                estimates.put(producerId, estimate);
+            }
+
+            estimate.record(encodedSize);
+        }
+    }
+
+    /**
+     * Discards any size history held for the given producer.
+     *
+     * @param producerId
+     *      the producer that has been closed.
+     */
+    public void removeProducer(JmsProducerId producerId) {
+        estimates.remove(producerId);
+    }
+
+    int getEstimatedCapacity(JmsProducerId producerId) {
+        SizeEstimate estimate = estimates.get(producerId);
+        return estimate != null ? estimate.nextCapacity() : AmqpWritableBuffer.INITIAL_CAPACITY;
+    }
+
+    //----- Per producer size tracking ---------------------------------------//
+
+    /*
+     * Tracks the largest recent encoding, jumping straight up to a larger size and
+     * decaying slowly towards smaller ones so an occasional small message does not
+     * cause the next large one to need the buffer to be grown.  Sends for a single
+     * producer are serialized so updates do not need to be atomic.
+     */
+    private static final class SizeEstimate {
+
+        private volatile int estimate;
+
+        public void record(int encodedSize) {
+            int current = estimate;
+            if (encodedSize >= current) {
+                estimate = Math.min(encodedSize, MAX_ESTIMATE);
+            } else {
+                estimate = current - ((current - encodedSize) >> 3);
+            }
+        }
+
+        public int nextCapacity() {
+            int current = estimate;
+            return Math.max(MIN_CAPACITY, current + (current >> 3));
+        }
+    }
+}
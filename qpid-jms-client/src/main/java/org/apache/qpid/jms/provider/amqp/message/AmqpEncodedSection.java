@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider.amqp.message;
+
+import org.apache.qpid.proton.amqp.messaging.Section;
+
+/**
+ * A section of a received message that has been located in the message bytes but
+ * not yet decoded.
+ *
+ * The bytes are never modified once a message has been received, so the same
+ * instance can be shared between a message and its copies and each one decodes
+ * its own Section from it when first accessed.
+ */
+public final class AmqpEncodedSection {
+
+    private final byte[] array;
+    private final int offset;
+    private final int length;
+
+    public AmqpEncodedSection(byte[] array, int offset, int length) {
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @return the number of bytes the encoded section occupies.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Decodes the section, each call returns a new Section instance.
+     *
+     * @return the Section that was encoded in the message bytes.
+     */
+    public Section decode() {
+        return AmqpCodec.decodeSection(array, offset, length);
+    }
+
+    /**
+     * Looks up the value of a single entry in an encoded annotations section without
+     * decoding any of the other values that it contains.
+     *
+     * @param key
+     *      the name of the annotation to look up.
+     *
+     * @return the decoded value of the annotation or null if it is not present.
+     */
+    public Object findAnnotation(String key) {
+        return AmqpCodec.findAnnotation(array, offset, length, AmqpMessageSupport.getSymbol(key));
+    }
+}
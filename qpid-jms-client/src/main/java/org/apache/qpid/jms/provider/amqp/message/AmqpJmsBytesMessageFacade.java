@@ -62,12 +62,14 @@ public class AmqpJmsBytesMessageFacade extends AmqpJmsMessageFacade implements J
         AmqpJmsBytesMessageFacade copy = new AmqpJmsBytesMessageFacade();
         copyInto(copy);
 
-        Binary payload = getBinaryFromBody();
         copy.setContentType(OCTET_STREAM_CONTENT_TYPE);
-        if (payload.getLength() > 0) {
-            copy.setBody(new Data(payload));
-        } else {
-            copy.setBody(EMPTY_BODY);
+        if (isBodyDecoded()) {
+            Binary payload = getBinaryFromBody();
+            if (payload.getLength() > 0) {
+                copy.setBody(new Data(payload));
+            } else {
+                copy.setBody(EMPTY_BODY);
+            }
         }
 
         return copy;
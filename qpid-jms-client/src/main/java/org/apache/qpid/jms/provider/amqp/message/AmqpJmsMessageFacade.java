@@ -36,6 +36,7 @@ import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.exceptions.IdConversionException;
 import org.apache.qpid.jms.message.JmsMessage;
 import org.apache.qpid.jms.message.facade.JmsMessageFacade;
+import org.apache.qpid.jms.meta.JmsProducerId;
 import org.apache.qpid.jms.provider.amqp.AmqpConnection;
 import org.apache.qpid.jms.provider.amqp.AmqpConsumer;
 import org.apache.qpid.proton.amqp.Binary;
@@ -65,13 +66,27 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     private Map<Symbol, Object> deliveryAnnotationsMap;
     private Map<Symbol, Object> footerMap;
 
-    private JmsDestination replyTo;
-    private JmsDestination destination;
+    // Sections of a received message which are decoded when first accessed.  A received
+    // message can be read by the application while the provider copies it, so a section
+    // is decoded only once under the facade lock and its decoded value is assigned before
+    // the encoded one is cleared, which publishes it to any thread that sees it cleared.
+    private volatile AmqpEncodedSection encodedBody;
+    private volatile AmqpEncodedSection encodedMessageAnnotations;
+    private volatile AmqpEncodedSection encodedApplicationProperties;
+    private volatile AmqpEncodedSection encodedDeliveryAnnotations;
+    private volatile AmqpEncodedSection encodedFooter;
+
+    private volatile JmsDestination replyTo;
+    private volatile JmsDestination destination;
     private JmsDestination consumerDestination;
 
     private Long syntheticExpiration;
     private long syntheticDeliveryTime;
 
+    // The JMSMessageID string last created and the AMQP message id it was created from.
+    private volatile Object messageIdSource;
+    private String messageIdString;
+
     /**
      * Used to record the value of JMS_AMQP_TTL property
      * if it is explicitly set by the application
@@ -102,15 +117,15 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
         this.connection = consumer.getConnection();
         this.consumerDestination = consumer.getDestination();
 
+        // The synthetic values are only used when the message does not carry an absolute
+        // expiry or delivery time annotation, setting them regardless avoids having to
+        // decode the message annotations here.
         Long ttl = getTtl();
-        Long absoluteExpiryTime = getAbsoluteExpiryTime();
-        if (absoluteExpiryTime == null && ttl != null) {
+        if (ttl != null) {
             syntheticExpiration = System.currentTimeMillis() + ttl;
         }
 
-        if (getMessageAnnotation(JMS_DELIVERY_TIME) == null) {
-            syntheticDeliveryTime = getTimestamp();
-        }
+        syntheticDeliveryTime = getTimestamp();
     }
 
     /**
@@ -159,6 +174,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     }
 
     public boolean applicationPropertyExists(String key) throws JMSException {
+        decodeApplicationProperties();
         if (applicationPropertiesMap != null) {
             return applicationPropertiesMap.containsKey(key);
         }
@@ -179,6 +195,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     }
 
     public Set<String> getApplicationPropertyNames(Set<String> propertyNames) {
+        decodeApplicationProperties();
         if (applicationPropertiesMap != null) {
             propertyNames.addAll(applicationPropertiesMap.keySet());
         }
@@ -192,6 +209,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     }
 
     public Object getApplicationProperty(String key) throws JMSException {
+        decodeApplicationProperties();
         if (applicationPropertiesMap != null) {
             return applicationPropertiesMap.get(key);
         }
@@ -257,6 +275,8 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
         target.syntheticExpiration = syntheticExpiration;
         target.syntheticDeliveryTime = syntheticDeliveryTime;
         target.userSpecifiedTTL = userSpecifiedTTL;
+        target.messageIdSource = messageIdSource;
+        target.messageIdString = messageIdString;
 
         if (destination != null) {
             target.setDestination(destination);
@@ -272,24 +292,42 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
             target.setProperties(new Properties(properties));
         }
 
-        target.setBody(body);
+        // Sections that are still encoded are shared, each message decodes its own copy.
+        AmqpEncodedSection encoded = encodedBody;
+        if (encoded != null) {
+            target.encodedBody = encoded;
+        } else {
+            target.setBody(body);
+        }
 
-        if (deliveryAnnotationsMap != null) {
+        encoded = encodedDeliveryAnnotations;
+        if (encoded != null) {
+            target.encodedDeliveryAnnotations = encoded;
+        } else if (deliveryAnnotationsMap != null) {
             target.lazyCreateDeliveryAnnotations();
             target.deliveryAnnotationsMap.putAll(deliveryAnnotationsMap);
         }
 
-        if (applicationPropertiesMap != null) {
+        encoded = encodedApplicationProperties;
+        if (encoded != null) {
+            target.encodedApplicationProperties = encoded;
+        } else if (applicationPropertiesMap != null) {
             target.lazyCreateApplicationProperties();
             target.applicationPropertiesMap.putAll(applicationPropertiesMap);
         }
 
-        if (messageAnnotationsMap != null) {
+        encoded = encodedMessageAnnotations;
+        if (encoded != null) {
+            target.encodedMessageAnnotations = encoded;
+        } else if (messageAnnotationsMap != null) {
             target.lazyCreateMessageAnnotations();
             target.messageAnnotationsMap.putAll(messageAnnotationsMap);
         }
 
-        if (footerMap != null) {
+        encoded = encodedFooter;
+        if (encoded != null) {
+            target.encodedFooter = encoded;
+        } else if (footerMap != null) {
             target.lazyCreateFooter();
             target.footerMap.putAll(footerMap);
         }
@@ -303,7 +341,16 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
             underlying = properties.getMessageId();
         }
 
-        return AmqpMessageIdHelper.INSTANCE.toMessageIdString(underlying);
+        if (underlying == null) {
+            return null;
+        }
+
+        if (underlying != messageIdSource) {
+            messageIdString = AmqpMessageIdHelper.INSTANCE.toMessageIdString(underlying);
+            messageIdSource = underlying;
+        }
+
+        return messageIdString;
     }
 
     @Override
@@ -760,7 +807,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
 
     @Override
     public boolean hasBody() {
-        return body != null;
+        return body != null || encodedBody != null;
     }
 
     /**
@@ -782,6 +829,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
      * @return true if the annotation is present, false in not or annotations not initialized.
      */
     boolean messageAnnotationExists(String key) {
+        decodeMessageAnnotations();
         if (messageAnnotationsMap == null) {
             return false;
         }
@@ -800,6 +848,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
      * @return the value of the annotation if it exists, or null if not set or not accessible.
      */
     Object getMessageAnnotation(String key) {
+        decodeMessageAnnotations();
         if (messageAnnotationsMap == null) {
             return null;
         }
@@ -816,6 +865,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
      *        the annotation key that is to be removed from the current set.
      */
     void removeMessageAnnotation(String key) {
+        decodeMessageAnnotations();
         if (messageAnnotationsMap == null) {
             return;
         }
@@ -841,6 +891,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
      * Removes all message annotations from this message.
      */
     void clearMessageAnnotations() {
+        encodedMessageAnnotations = null;
         messageAnnotationsMap = null;
     }
 
@@ -848,6 +899,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
      * Removes all application level properties from the Message.
      */
     void clearAllApplicationProperties() {
+        encodedApplicationProperties = null;
         applicationPropertiesMap = null;
     }
 
@@ -902,6 +954,15 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
         return AmqpCodec.encodeMessage(this);
     }
 
+    @Override
+    public ByteBuf encodeMessage(JmsProducerId producerId) {
+        if (connection != null) {
+            return AmqpCodec.encodeMessage(this, connection.getEncodeBufferAllocator(), producerId);
+        } else {
+            return AmqpCodec.encodeMessage(this);
+        }
+    }
+
     //----- Access to AMQP Message Values ------------------------------------//
 
     AmqpHeader getAmqpHeader() {
@@ -929,14 +990,29 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     }
 
     Section getBody() {
+        decodeBody();
         return body;
     }
 
     void setBody(Section body) {
         this.body = body;
+        this.encodedBody = null;
+    }
+
+    void setEncodedBody(AmqpEncodedSection encodedBody) {
+        this.body = null;
+        this.encodedBody = encodedBody;
+    }
+
+    /**
+     * @return true if the body of the message is not waiting to be decoded.
+     */
+    boolean isBodyDecoded() {
+        return encodedBody == null;
     }
 
     MessageAnnotations getMessageAnnotations() {
+        decodeMessageAnnotations();
         MessageAnnotations result = null;
         if (messageAnnotationsMap != null && !messageAnnotationsMap.isEmpty()) {
             result = new MessageAnnotations(messageAnnotationsMap);
@@ -948,10 +1024,16 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     void setMessageAnnotations(MessageAnnotations messageAnnotations) {
         if (messageAnnotations != null) {
             this.messageAnnotationsMap = messageAnnotations.getValue();
+            this.encodedMessageAnnotations = null;
         }
     }
 
+    void setEncodedMessageAnnotations(AmqpEncodedSection messageAnnotations) {
+        this.encodedMessageAnnotations = messageAnnotations;
+    }
+
     DeliveryAnnotations getDeliveryAnnotations() {
+        decodeDeliveryAnnotations();
         DeliveryAnnotations result = null;
         if (deliveryAnnotationsMap != null && !deliveryAnnotationsMap.isEmpty()) {
             result = new DeliveryAnnotations(deliveryAnnotationsMap);
@@ -963,10 +1045,16 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     void setDeliveryAnnotations(DeliveryAnnotations deliveryAnnotations) {
         if (deliveryAnnotations != null) {
             this.deliveryAnnotationsMap = deliveryAnnotations.getValue();
+            this.encodedDeliveryAnnotations = null;
         }
     }
 
+    void setEncodedDeliveryAnnotations(AmqpEncodedSection deliveryAnnotations) {
+        this.encodedDeliveryAnnotations = deliveryAnnotations;
+    }
+
     ApplicationProperties getApplicationProperties() {
+        decodeApplicationProperties();
         ApplicationProperties result = null;
         if (applicationPropertiesMap != null && !applicationPropertiesMap.isEmpty()) {
             result = new ApplicationProperties(applicationPropertiesMap);
@@ -977,10 +1065,16 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     void setApplicationProperties(ApplicationProperties applicationProperties) {
         if (applicationProperties != null) {
             this.applicationPropertiesMap = applicationProperties.getValue();
+            this.encodedApplicationProperties = null;
         }
     }
 
+    void setEncodedApplicationProperties(AmqpEncodedSection applicationProperties) {
+        this.encodedApplicationProperties = applicationProperties;
+    }
+
     Footer getFooter() {
+        decodeFooter();
         Footer result = null;
         if (footerMap != null && !footerMap.isEmpty()) {
             result = new Footer(footerMap);
@@ -992,9 +1086,14 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     void setFooter(Footer footer) {
         if (footer != null) {
             this.footerMap = footer.getValue();
+            this.encodedFooter = null;
         }
     }
 
+    void setEncodedFooter(AmqpEncodedSection footer) {
+        this.encodedFooter = footer;
+    }
+
     //----- Internal Message Utility Methods ---------------------------------//
 
     private Long getAbsoluteExpiryTime() {
@@ -1035,25 +1134,85 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
         }
     }
 
+    private void decodeBody() {
+        if (encodedBody != null) {
+            synchronized (this) {
+                AmqpEncodedSection encoded = encodedBody;
+                if (encoded != null) {
+                    // Routed through setBody so that subclasses see the decoded body.
+                    setBody(encoded.decode());
+                }
+            }
+        }
+    }
+
+    private void decodeMessageAnnotations() {
+        if (encodedMessageAnnotations != null) {
+            synchronized (this) {
+                AmqpEncodedSection encoded = encodedMessageAnnotations;
+                if (encoded != null) {
+                    setMessageAnnotations((MessageAnnotations) encoded.decode());
+                }
+            }
+        }
+    }
+
+    private void decodeDeliveryAnnotations() {
+        if (encodedDeliveryAnnotations != null) {
+            synchronized (this) {
+                AmqpEncodedSection encoded = encodedDeliveryAnnotations;
+                if (encoded != null) {
+                    setDeliveryAnnotations((DeliveryAnnotations) encoded.decode());
+                }
+            }
+        }
+    }
+
+    private void decodeApplicationProperties() {
+        if (encodedApplicationProperties != null) {
+            synchronized (this) {
+                AmqpEncodedSection encoded = encodedApplicationProperties;
+                if (encoded != null) {
+                    setApplicationProperties((ApplicationProperties) encoded.decode());
+                }
+            }
+        }
+    }
+
+    private void decodeFooter() {
+        if (encodedFooter != null) {
+            synchronized (this) {
+                AmqpEncodedSection encoded = encodedFooter;
+                if (encoded != null) {
+                    setFooter((Footer) encoded.decode());
+                }
+            }
+        }
+    }
+
     private void lazyCreateMessageAnnotations() {
+        decodeMessageAnnotations();
         if (messageAnnotationsMap == null) {
             messageAnnotationsMap = new HashMap<Symbol, Object>();
         }
     }
 
     private void lazyCreateDeliveryAnnotations() {
+        decodeDeliveryAnnotations();
         if (deliveryAnnotationsMap == null) {
             deliveryAnnotationsMap = new HashMap<Symbol, Object>();
         }
     }
 
     private void lazyCreateApplicationProperties() {
+        decodeApplicationProperties();
         if (applicationPropertiesMap == null) {
             applicationPropertiesMap = new HashMap<String, Object>();
         }
     }
 
     private void lazyCreateFooter() {
+        decodeFooter();
         if (footerMap == null) {
             footerMap = new HashMap<Symbol, Object>();
         }
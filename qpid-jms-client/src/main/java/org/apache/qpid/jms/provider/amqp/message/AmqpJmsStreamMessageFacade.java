@@ -44,8 +44,10 @@ public class AmqpJmsStreamMessageFacade extends AmqpJmsMessageFacade implements
     public AmqpJmsStreamMessageFacade copy() {
         AmqpJmsStreamMessageFacade copy = new AmqpJmsStreamMessageFacade();
         copyInto(copy);
-        copy.initializeEmptyBodyList(getBody() instanceof AmqpSequence);
-        copy.list.addAll(list);
+        if (isBodyDecoded()) {
+            copy.initializeEmptyBodyList(getBody() instanceof AmqpSequence);
+            copy.list.addAll(list);
+        }
         return copy;
     }
 
@@ -59,16 +61,18 @@ public class AmqpJmsStreamMessageFacade extends AmqpJmsMessageFacade implements
 
     @Override
     public boolean hasNext() {
-        return !list.isEmpty() && position < list.size();
+        List<Object> values = getList();
+        return !values.isEmpty() && position < values.size();
     }
 
     @Override
     public Object peek() throws MessageEOFException {
-        if (list.isEmpty() || position >= list.size()) {
+        List<Object> values = getList();
+        if (values.isEmpty() || position >= values.size()) {
             throw new MessageEOFException("Attempt to read past end of stream");
         }
 
-        Object object = list.get(position);
+        Object object = values.get(position);
         if (object instanceof Binary) {
             // Copy to a byte[], ensure we copy only the required portion.
             Binary bin = ((Binary) object);
@@ -80,7 +84,8 @@ public class AmqpJmsStreamMessageFacade extends AmqpJmsMessageFacade implements
 
     @Override
     public void pop() throws MessageEOFException {
-        if (list.isEmpty() || position >= list.size()) {
+        List<Object> values = getList();
+        if (values.isEmpty() || position >= values.size()) {
             throw new MessageEOFException("Attempt to read past end of stream");
         }
 
@@ -94,7 +99,7 @@ public class AmqpJmsStreamMessageFacade extends AmqpJmsMessageFacade implements
             entry = new Binary((byte[]) value);
         }
 
-        list.add(entry);
+        getList().add(entry);
     }
 
     @Override
@@ -104,13 +109,13 @@ public class AmqpJmsStreamMessageFacade extends AmqpJmsMessageFacade implements
 
     @Override
     public void clearBody() {
-        list.clear();
+        getList().clear();
         position = 0;
     }
 
     @Override
     public boolean hasBody() {
-        return !list.isEmpty();
+        return !getList().isEmpty();
     }
 
     @Override
@@ -153,6 +158,14 @@ public class AmqpJmsStreamMessageFacade extends AmqpJmsMessageFacade implements
         }
     }
 
+    private List<Object> getList() {
+        if (!isBodyDecoded()) {
+            getBody();
+        }
+
+        return list;
+    }
+
     private List<Object> initializeEmptyBodyList(boolean useSequenceBody) {
         List<Object> emptyList = new ArrayList<Object>();
 
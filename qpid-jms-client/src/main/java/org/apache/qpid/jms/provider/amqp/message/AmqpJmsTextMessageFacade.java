@@ -60,9 +60,11 @@ public class AmqpJmsTextMessageFacade extends AmqpJmsMessageFacade implements Jm
 
     @Override
     public AmqpJmsTextMessageFacade copy() throws JMSException {
-        AmqpJmsTextMessageFacade copy = new AmqpJmsTextMessageFacade();
+        AmqpJmsTextMessageFacade copy = new AmqpJmsTextMessageFacade(charset);
         copyInto(copy);
-        copy.setText(getText());
+        if (isBodyDecoded()) {
+            copy.setText(getText());
+        }
         return copy;
     }
 
@@ -119,8 +119,13 @@ public class AmqpReadableBuffer implements ReadableBuffer {
 
         if (buffer.hasArray()) {
             target.put(buffer.array(), buffer.arrayOffset() + buffer.readerIndex(), buffer.readableBytes());
-        } else {
+        } else if (buffer.nioBufferCount() == 1) {
             target.put(buffer.nioBuffer());
+        } else {
+            // Avoid nioBuffer() merging the components of a composite into a new copy.
+            for (ByteBuffer component : buffer.nioBuffers()) {
+                target.put(component);
+            }
         }
 
         int written = target.position() - start;
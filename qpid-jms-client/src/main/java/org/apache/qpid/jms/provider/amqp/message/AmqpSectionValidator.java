@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider.amqp.message;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import org.apache.qpid.proton.amqp.messaging.AmqpSequence;
+import org.apache.qpid.proton.amqp.messaging.AmqpValue;
+import org.apache.qpid.proton.amqp.messaging.Data;
+import org.apache.qpid.proton.codec.EncodingCodes;
+
+/**
+ * Checks that a section of a received message which is kept for decoding on demand
+ * would decode, without creating any of the values that it holds.
+ *
+ * The encoding is walked the same way the decoder reads it, every format code must be
+ * known, every size and count must fit in the section and every string must be valid
+ * UTF-8.  This keeps a malformed section failing the delivery while it is received, as
+ * it did when all sections were decoded up front, rather than failing later on in the
+ * application when the section is first accessed.
+ */
+final class AmqpSectionValidator {
+
+    private AmqpSectionValidator() {
+    }
+
+    /**
+     * Validates an encoded message section.
+     *
+     * @param sectionType
+     *      the type of section that the descriptor of the encoded section names.
+     * @param array
+     *      the array holding the received message bytes.
+     * @param offset
+     *      the offset into the array where the section starts.
+     * @param length
+     *      the number of bytes the encoded section occupies.
+     *
+     * @throws IOException if the section is not well formed.
+     */
+    static void validate(Class<?> sectionType, byte[] array, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(array, offset, length);
+
+        try {
+            if (buffer.get() != EncodingCodes.DESCRIBED_TYPE_INDICATOR) {
+                throw malformed(sectionType, "it is not a described type");
+            }
+
+            skipValue(buffer, buffer.get());
+
+            final byte encoding = buffer.get();
+            if (!isValidSectionValue(sectionType, encoding)) {
+                throw malformed(sectionType, "it holds a value of format code 0x" + Integer.toHexString(encoding & 0xFF));
+            }
+
+            skipValue(buffer, encoding);
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            throw malformed(sectionType, ex.getMessage() != null ? ex.getMessage() : "a value runs past the end of it");
+        }
+    }
+
+    private static boolean isValidSectionValue(Class<?> sectionType, byte encoding) {
+        if (sectionType == AmqpValue.class) {
+            return true;
+        } else if (sectionType == Data.class) {
+            return encoding == EncodingCodes.VBIN8 || encoding == EncodingCodes.VBIN32 || encoding == EncodingCodes.NULL;
+        } else if (sectionType == AmqpSequence.class) {
+            return encoding == EncodingCodes.LIST0 || encoding == EncodingCodes.LIST8 ||
+                   encoding == EncodingCodes.LIST32 || encoding == EncodingCodes.NULL;
+        } else {
+            // The annotations, application properties and footer sections all hold a map.
+            return encoding == EncodingCodes.MAP8 || encoding == EncodingCodes.MAP32 || encoding == EncodingCodes.NULL;
+        }
+    }
+
+    private static void skipValue(ByteBuffer buffer, byte encoding) {
+        switch (encoding) {
+            case EncodingCodes.DESCRIBED_TYPE_INDICATOR:
+                skipValue(buffer, buffer.get());
+                skipValue(buffer, buffer.get());
+                break;
+            case EncodingCodes.NULL:
+            case EncodingCodes.BOOLEAN_TRUE:
+            case EncodingCodes.BOOLEAN_FALSE:
+            case EncodingCodes.UINT0:
+            case EncodingCodes.ULONG0:
+            case EncodingCodes.LIST0:
+                break;
+            case EncodingCodes.UBYTE:
+            case EncodingCodes.BYTE:
+            case EncodingCodes.SMALLUINT:
+            case EncodingCodes.SMALLULONG:
+            case EncodingCodes.SMALLINT:
+            case EncodingCodes.SMALLLONG:
+            case EncodingCodes.BOOLEAN:
+                skip(buffer, 1);
+                break;
+            case EncodingCodes.USHORT:
+            case EncodingCodes.SHORT:
+                skip(buffer, 2);
+                break;
+            case EncodingCodes.UINT:
+            case EncodingCodes.INT:
+            case EncodingCodes.FLOAT:
+            case EncodingCodes.CHAR:
+            case EncodingCodes.DECIMAL32:
+                skip(buffer, 4);
+                break;
+            case EncodingCodes.ULONG:
+            case EncodingCodes.LONG:
+            case EncodingCodes.DOUBLE:
+            case EncodingCodes.TIMESTAMP:
+            case EncodingCodes.DECIMAL64:
+                skip(buffer, 8);
+                break;
+            case EncodingCodes.DECIMAL128:
+            case EncodingCodes.UUID:
+                skip(buffer, 16);
+                break;
+            case EncodingCodes.VBIN8:
+            case EncodingCodes.SYM8:
+                skip(buffer, buffer.get() & 0xFF);
+                break;
+            case EncodingCodes.VBIN32:
+            case EncodingCodes.SYM32:
+                skip(buffer, buffer.getInt());
+                break;
+            case EncodingCodes.STR8:
+                skipUtf8(buffer, buffer.get() & 0xFF);
+                break;
+            case EncodingCodes.STR32:
+                skipUtf8(buffer, buffer.getInt());
+                break;
+            case EncodingCodes.LIST8:
+            case EncodingCodes.MAP8:
+                buffer.get();
+                skipElements(buffer, buffer.get() & 0xFF);
+                break;
+            case EncodingCodes.LIST32:
+            case EncodingCodes.MAP32:
+                buffer.getInt();
+                skipElements(buffer, buffer.getInt());
+                break;
+            case EncodingCodes.ARRAY8:
+                buffer.get();
+                skipArrayElements(buffer, buffer.get() & 0xFF);
+                break;
+            case EncodingCodes.ARRAY32:
+                buffer.getInt();
+                skipArrayElements(buffer, buffer.getInt());
+                break;
+            default:
+                throw new IllegalArgumentException("unknown format code 0x" + Integer.toHexString(encoding & 0xFF));
+        }
+    }
+
+    private static void skipElements(ByteBuffer buffer, int count) {
+        checkCount(buffer, count);
+        for (int i = 0; i < count; ++i) {
+            skipValue(buffer, buffer.get());
+        }
+    }
+
+    private static void skipArrayElements(ByteBuffer buffer, int count) {
+        // Array elements share a single constructor which may itself be described.
+        byte encoding = buffer.get();
+        while (encoding == EncodingCodes.DESCRIBED_TYPE_INDICATOR) {
+            skipValue(buffer, buffer.get());
+            encoding = buffer.get();
+        }
+
+        switch (encoding) {
+            case EncodingCodes.NULL:
+            case EncodingCodes.BOOLEAN_TRUE:
+            case EncodingCodes.BOOLEAN_FALSE:
+            case EncodingCodes.UINT0:
+            case EncodingCodes.ULONG0:
+            case EncodingCodes.LIST0:
+                // Elements of these take up no bytes at all.
+                break;
+            default:
+                checkCount(buffer, count);
+                for (int i = 0; i < count; ++i) {
+                    skipValue(buffer, encoding);
+                }
+        }
+    }
+
+    private static void checkCount(ByteBuffer buffer, int count) {
+        // Every element takes up at least one byte.
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("element count " + (count & 0xFFFFFFFFL) + " exceeds the remaining bytes");
+        }
+    }
+
+    private static void skip(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("value length " + (length & 0xFFFFFFFFL) + " exceeds the remaining bytes");
+        }
+
+        buffer.position(buffer.position() + length);
+    }
+
+    private static void skipUtf8(ByteBuffer buffer, int length) {
+        final int start = buffer.position();
+        skip(buffer, length);
+
+        final int end = start + length;
+        int index = start;
+        while (index < end) {
+            final int lead = buffer.get(index++) & 0xFF;
+            if (lead < 0x80) {
+                continue;
+            }
+
+            final int trailing;
+            final int minimum;
+            int codePoint;
+            if ((lead & 0xE0) == 0xC0) {
+                trailing = 1;
+                minimum = 0x80;
+                codePoint = lead & 0x1F;
+            } else if ((lead & 0xF0) == 0xE0) {
+                trailing = 2;
+                minimum = 0x800;
+                codePoint = lead & 0x0F;
+            } else if ((lead & 0xF8) == 0xF0) {
+                trailing = 3;
+                minimum = 0x10000;
+                codePoint = lead & 0x07;
+            } else {
+                throw new IllegalArgumentException("a string is not valid UTF-8");
+            }
+
+            if (trailing > end - index) {
+                throw new IllegalArgumentException("a string is not valid UTF-8");
+            }
+
+            for (int i = 0; i < trailing; ++i) {
+                final int next = buffer.get(index++) & 0xFF;
+                if ((next & 0xC0) != 0x80) {
+                    throw new IllegalArgumentException("a string is not valid UTF-8");
+                }
+                codePoint = (codePoint << 6) | (next & 0x3F);
+            }
+
+            // Overlong forms, surrogates and values beyond the Unicode range are rejected
+            // by the decoder just as badly formed sequences are.
+            if (codePoint < minimum || codePoint > 0x10FFFF || (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+                throw new IllegalArgumentException("a string is not valid UTF-8");
+            }
+        }
+    }
+
+    private static IOException malformed(Class<?> sectionType, String reason) {
+        return new IOException("Malformed " + sectionType.getSimpleName() + " section in incoming message, " + reason);
+    }
+}
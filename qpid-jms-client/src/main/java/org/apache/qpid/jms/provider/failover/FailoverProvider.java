@@ -21,16 +21,19 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.jms.JMSException;
 import javax.jms.JMSSecurityException;
@@ -87,7 +90,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
     public static final int DEFAULT_WARN_AFTER_RECONNECT_ATTEMPTS = 10;
 
     private ProviderListener listener;
-    private Provider provider;
+    private volatile Provider provider;
     private final FailoverUriPool uris;
     private ScheduledFuture<?> requestTimeoutTask;
 
@@ -97,10 +100,15 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
     private final AtomicBoolean failed = new AtomicBoolean();
     private final AtomicBoolean closingConnection = new AtomicBoolean(false);
     private final AtomicLong requestId = new AtomicLong();
-    private final Map<Long, FailoverRequest> requests = new LinkedHashMap<Long, FailoverRequest>();
+    private final Map<Long, FailoverRequest> requests = new ConcurrentHashMap<Long, FailoverRequest>();
     private final DefaultProviderListener closedListener = new DefaultProviderListener();
     private final AtomicReference<JmsMessageFactory> messageFactory = new AtomicReference<JmsMessageFactory>();
 
+    // Requests that may pass straight to the connected provider hold the read lock while doing
+    // so, the serializer holds the write lock whenever it replaces or replays to the provider.
+    private final ReentrantReadWriteLock providerLock = new ReentrantReadWriteLock();
+    private final AtomicInteger serializedRequests = new AtomicInteger();
+
     // Current state of connection / reconnection
     private final ReconnectControls reconnectControl = new ReconnectControls();
     private IOException failureCause;
@@ -172,10 +180,10 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
 
                 @Override
                 public void run() {
+                    providerLock.writeLock().lock();
                     try {
                         IOException error = failureCause != null ? failureCause : new IOException("Connection closed");
-                        List<FailoverRequest> pending = new ArrayList<FailoverRequest>(requests.values());
-                        for (FailoverRequest request : pending) {
+                        for (FailoverRequest request : pendingRequests()) {
                             request.onFailure(error);
                         }
 
@@ -189,6 +197,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
                     } catch (Exception e) {
                         LOG.debug("Caught exception while closing connection");
                     } finally {
+                        providerLock.writeLock().unlock();
                         ThreadPoolUtils.shutdownGraceful(connectionHub);
                         if (serializer != null) {
                             serializer.shutdown();
@@ -260,7 +269,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             };
         }
 
-        serializer.execute(pending);
+        serialize(pending);
     }
 
     @Override
@@ -278,7 +287,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        serialize(pending);
     }
 
     @Override
@@ -296,7 +305,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        serialize(pending);
     }
 
     @Override
@@ -323,13 +332,17 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        serialize(pending);
     }
 
     @Override
     public void send(final JmsOutboundMessageDispatch envelope, AsyncResult request) throws IOException, JMSException {
         checkClosed();
-        final FailoverRequest pending = new FailoverRequest(request, sendTimeout) {
+
+        // The send can be replayed after the caller stops waiting on it so keep the payload
+        // alive until the request has reached its final outcome.
+        envelope.retainPayload();
+        final FailoverRequest pending = new FailoverRequest(new PayloadReleasingRequest(envelope, request), sendTimeout) {
             @Override
             public void doTask() throws Exception {
                 provider.send(envelope, this);
@@ -346,7 +359,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        dispatch(pending);
     }
 
     @Override
@@ -370,7 +383,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        dispatch(pending);
     }
 
     @Override
@@ -394,7 +407,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        dispatch(pending);
     }
 
     @Override
@@ -424,7 +437,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        serialize(pending);
     }
 
     @Override
@@ -447,7 +460,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        serialize(pending);
     }
 
     @Override
@@ -470,7 +483,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        serialize(pending);
     }
 
     @Override
@@ -488,7 +501,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        serialize(pending);
     }
 
     @Override
@@ -506,7 +519,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        dispatch(pending);
     }
 
     @Override
@@ -514,6 +527,65 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         return messageFactory.get();
     }
 
+    //--------------- Request Dispatch methods -------------------------------//
+
+    /**
+     * Sends the request straight to the connected Provider from the calling thread when
+     * possible, avoiding the hop onto the serializer.  This is only done while connected
+     * and with no other requests waiting on the serializer, otherwise the request is
+     * queued behind them so that the order requests are issued in is kept.
+     *
+     * @param pending
+     *        the request to dispatch.
+     */
+    private void dispatch(FailoverRequest pending) {
+        // A thread holding the write lock is the serializer in the middle of recovery, anything
+        // it issues has to wait until the pending requests have been replayed.
+        if (serializedRequests.get() == 0 && !providerLock.isWriteLocked() && providerLock.readLock().tryLock()) {
+            try {
+                if (provider != null && serializedRequests.get() == 0) {
+                    pending.runDirect();
+                    return;
+                }
+            } finally {
+                providerLock.readLock().unlock();
+            }
+        }
+
+        serialize(pending);
+    }
+
+    /**
+     * Queues the request to be run on the serializer.
+     *
+     * @param pending
+     *        the request to run.
+     */
+    private void serialize(final FailoverRequest pending) {
+        serializedRequests.incrementAndGet();
+        try {
+            serializer.execute(() -> {
+                try {
+                    pending.run();
+                } finally {
+                    serializedRequests.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            serializedRequests.decrementAndGet();
+            throw ree;
+        }
+    }
+
+    /**
+     * @return the requests that are still awaiting an outcome in the order they were issued.
+     */
+    private List<FailoverRequest> pendingRequests() {
+        List<FailoverRequest> pending = new ArrayList<FailoverRequest>(requests.values());
+        pending.sort((left, right) -> Long.compare(left.id, right.id));
+        return pending;
+    }
+
     //--------------- Connection Error and Recovery methods ------------------//
 
     /**
@@ -531,14 +603,20 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             LOG.debug("handling Provider failure: {}", cause.getMessage());
             LOG.trace("stack", cause);
 
-            provider.setProviderListener(closedListener);
-            URI failedURI = this.provider.getRemoteURI();
+            URI failedURI;
+            providerLock.writeLock().lock();
             try {
-                provider.close();
-            } catch (Throwable error) {
-                LOG.trace("Caught exception while closing failed provider: {}", error.getMessage());
+                provider.setProviderListener(closedListener);
+                failedURI = this.provider.getRemoteURI();
+                try {
+                    provider.close();
+                } catch (Throwable error) {
+                    LOG.trace("Caught exception while closing failed provider: {}", error.getMessage());
+                }
+                provider = null;
+            } finally {
+                providerLock.writeLock().unlock();
             }
-            provider = null;
 
             if (reconnectControl.isReconnectAllowed(cause)) {
                 if (cause instanceof ProviderRedirectedException) {
@@ -588,6 +666,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         this.serializer.execute(new Runnable() {
             @Override
             public void run() {
+                providerLock.writeLock().lock();
                 try {
                     FailoverProvider.this.provider = provider;
                     provider.setProviderListener(FailoverProvider.this);
@@ -616,8 +695,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
                         listener.onConnectionRestored(provider.getRemoteURI());
 
                         // Last step: Send pending actions.
-                        List<FailoverRequest> pending = new ArrayList<FailoverRequest>(requests.values());
-                        for (FailoverRequest request : pending) {
+                        for (FailoverRequest request : pendingRequests()) {
                             request.run();
                         }
 
@@ -626,8 +704,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
                         processAlternates(provider.getAlternateURIs());
 
                         // Last step: Send pending actions.
-                        List<FailoverRequest> pending = new ArrayList<FailoverRequest>(requests.values());
-                        for (FailoverRequest request : pending) {
+                        for (FailoverRequest request : pendingRequests()) {
                             request.run();
                         }
                     }
@@ -644,6 +721,8 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
                 } catch (Throwable error) {
                     LOG.trace("Connection attempt:[{}] to: {} failed", reconnectControl.reconnectAttempts, provider.getRemoteURI());
                     handleProviderFailure(IOExceptionSupport.create(error));
+                } finally {
+                    providerLock.writeLock().unlock();
                 }
             }
         });
@@ -1064,9 +1143,20 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
 
         @Override
         public void run() {
-            List<FailoverRequest> copied = new ArrayList<FailoverRequest>(requests.values());
-            for (FailoverRequest request : copied) {
+            // Failing a request removes it from the map so only the expired ones are
+            // collected first, most sweeps find nothing and so allocate nothing.
+            List<FailoverRequest> expired = null;
+            for (FailoverRequest request : requests.values()) {
                 if (request.isExpired()) {
+                    if (expired == null) {
+                        expired = new ArrayList<FailoverRequest>();
+                    }
+                    expired.add(request);
+                }
+            }
+
+            if (expired != null) {
+                for (FailoverRequest request : expired) {
                     LOG.trace("Task {} has timed out, sending failure notice.", request);
                     request.onFailure(request.createTimedOutException());
                 }
@@ -1121,6 +1211,27 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         }
 
+        /**
+         * Runs the request against the connected Provider on the calling thread, which must
+         * hold the provider read lock.  Any failure other than a JMS level error is handed
+         * to the serializer to process.
+         */
+        void runDirect() {
+            requests.put(id, this);
+            try {
+                doTask();
+            } catch (UnsupportedOperationException e) {
+                requests.remove(id);
+                getWrappedRequest().onFailure(e);
+            } catch (JMSException jmsEx) {
+                requests.remove(id);
+                getWrappedRequest().onFailure(jmsEx);
+            } catch (Throwable e) {
+                LOG.debug("Caught exception while executing task: {} - {}", this, e.getMessage());
+                onFailure(IOExceptionSupport.create(e));
+            }
+        }
+
         @Override
         public void onFailure(final Throwable error) {
             if (error instanceof JMSException || closingConnection.get() || closed.get() || failed.get()) {
@@ -1201,6 +1312,45 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         }
     }
 
+    /**
+     * Releases the reference held on the payload of a send once the wrapped request
+     * has been completed.
+     */
+    private static final class PayloadReleasingRequest extends WrappedAsyncResult {
+
+        private final JmsOutboundMessageDispatch envelope;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        public PayloadReleasingRequest(JmsOutboundMessageDispatch envelope, AsyncResult request) {
+            super(request);
+            this.envelope = envelope;
+        }
+
+        @Override
+        public void onFailure(Throwable result) {
+            try {
+                super.onFailure(result);
+            } finally {
+                release();
+            }
+        }
+
+        @Override
+        public void onSuccess() {
+            try {
+                super.onSuccess();
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                envelope.releasePayload();
+            }
+        }
+    }
+
     /**
      * Captures the initial request to create a JmsConnectionInfo based resources and ensures
      * that if the connection is successfully established that the connection established event
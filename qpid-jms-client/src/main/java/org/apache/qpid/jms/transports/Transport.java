@@ -19,6 +19,7 @@ package org.apache.qpid.jms.transports;
 import java.io.IOException;
 import java.net.URI;
 import java.security.Principal;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.net.ssl.SSLContext;
 
@@ -72,7 +73,8 @@ public interface Transport {
     ByteBuf allocateSendBuffer(int size) throws IOException;
 
     /**
-     * Sends a chunk of data over the Transport connection.
+     * Sends a chunk of data over the Transport connection, the data is written and
+     * flushed to the underlying connection.
      *
      * @param output
      *        The buffer of data that is to be transmitted.
@@ -81,6 +83,34 @@ public interface Transport {
      */
     void send(ByteBuf output) throws IOException;
 
+    /**
+     * Queues a chunk of data for transmission over the Transport connection, the data
+     * is not guaranteed to be sent until a call to {@link #flush()} is made.
+     *
+     * @param output
+     *        The buffer of data that is to be transmitted.
+     *
+     * @throws IOException if an error occurs during the write operation.
+     */
+    void write(ByteBuf output) throws IOException;
+
+    /**
+     * Flushes any data previously queued by calls to {@link #write(ByteBuf)} to the
+     * underlying connection.
+     *
+     * @throws IOException if an error occurs during the flush operation.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Returns the executor that runs the IO events of this Transport.  Work submitted to it
+     * runs on the same thread that delivers incoming data to the {@link TransportListener}
+     * and writes are performed without a thread hand-off.
+     *
+     * @return the event loop of the connected Transport or null if not connected.
+     */
+    ScheduledExecutorService getEventLoop();
+
     /**
      * Gets the currently set TransportListener instance
      *
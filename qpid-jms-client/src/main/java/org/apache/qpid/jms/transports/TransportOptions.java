@@ -41,10 +41,12 @@ public class TransportOptions implements Cloneable {
     public static final boolean DEFAULT_USE_EPOLL = true;
     public static final boolean DEFAULT_USE_KQUEUE = false;
     public static final boolean DEFAULT_TRACE_BYTES = false;
+    public static final int DEFAULT_SHARED_EVENT_LOOP_THREADS = -1;
     public static final String DEFAULT_STORE_TYPE = "jks";
     public static final String DEFAULT_CONTEXT_PROTOCOL = "TLS";
     public static final boolean DEFAULT_TRUST_ALL = false;
     public static final boolean DEFAULT_VERIFY_HOST = true;
+    public static final boolean DEFAULT_USE_OPENSSL = false;
     public static final List<String> DEFAULT_DISABLED_PROTOCOLS = Collections.unmodifiableList(Arrays.asList(new String[]{"SSLv2Hello", "SSLv3"}));
     public static final int DEFAULT_SSL_PORT = 5671;
 
@@ -67,6 +69,7 @@ public class TransportOptions implements Cloneable {
     private boolean useEpoll = DEFAULT_USE_EPOLL;
     private boolean useKQueue = DEFAULT_USE_KQUEUE;
     private boolean traceBytes = DEFAULT_TRACE_BYTES;
+    private int sharedEventLoopThreads = DEFAULT_SHARED_EVENT_LOOP_THREADS;
 
     private String keyStoreLocation;
     private String keyStorePassword;
@@ -82,6 +85,7 @@ public class TransportOptions implements Cloneable {
 
     private boolean trustAll = DEFAULT_TRUST_ALL;
     private boolean verifyHost = DEFAULT_VERIFY_HOST;
+    private boolean useOpenSSL = DEFAULT_USE_OPENSSL;
     private String keyAlias;
     private int defaultSslPort = DEFAULT_SSL_PORT;
     private SSLContext sslContextOverride;
@@ -274,6 +278,25 @@ public class TransportOptions implements Cloneable {
         this.traceBytes = traceBytes;
     }
 
+    /**
+     * @return the number of threads in the shared event loop group, or a value less than one if not shared.
+     */
+    public int getSharedEventLoopThreads() {
+        return sharedEventLoopThreads;
+    }
+
+    /**
+     * Sets the number of threads in the event loop group that is shared by all
+     * connections in the JVM configured with the same value.  When set to a value
+     * less than one each connection creates its own single threaded event loop.
+     *
+     * @param sharedEventLoopThreads
+     * 		the number of threads the shared event loop group should run.
+     */
+    public void setSharedEventLoopThreads(int sharedEventLoopThreads) {
+        this.sharedEventLoopThreads = sharedEventLoopThreads;
+    }
+
     /**
      * @return the keyStoreLocation currently configured.
      */
@@ -477,6 +500,26 @@ public class TransportOptions implements Cloneable {
         this.verifyHost = verifyHost;
     }
 
+    /**
+     * @return true if the OpenSSL based SSLEngine should be used when it is available.
+     */
+    public boolean isUseOpenSSL() {
+        return useOpenSSL;
+    }
+
+    /**
+     * Determines if the transport should use the OpenSSL based SSLEngine provided by the
+     * netty-tcnative library instead of the JDK SSLEngine.  When the native library is not
+     * available, or the configured options cannot be applied to it, the JDK SSLEngine is
+     * used instead.
+     *
+     * @param useOpenSSL
+     *      should the OpenSSL SSLEngine be used when it is available.
+     */
+    public void setUseOpenSSL(boolean useOpenSSL) {
+        this.useOpenSSL = useOpenSSL;
+    }
+
     /**
      * @return the key alias
      */
@@ -524,6 +567,7 @@ public class TransportOptions implements Cloneable {
         copy.setDefaultTcpPort(getDefaultTcpPort());
         copy.setUseEpoll(isUseEpoll());
         copy.setTraceBytes(isTraceBytes());
+        copy.setSharedEventLoopThreads(getSharedEventLoopThreads());
         copy.setKeyStoreLocation(getKeyStoreLocation());
         copy.setKeyStorePassword(getKeyStorePassword());
         copy.setTrustStoreLocation(getTrustStoreLocation());
@@ -536,6 +580,7 @@ public class TransportOptions implements Cloneable {
         copy.setDisabledProtocols(getDisabledProtocols());
         copy.setTrustAll(isTrustAll());
         copy.setVerifyHost(isVerifyHost());
+        copy.setUseOpenSSL(isUseOpenSSL());
         copy.setKeyAlias(getKeyAlias());
         copy.setContextProtocol(getContextProtocol());
         copy.setDefaultSslPort(getDefaultSslPort());
@@ -31,6 +31,8 @@ import java.util.List;
 
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.KeyManagerFactorySpi;
+import javax.net.ssl.ManagerFactoryParameters;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLParameters;
@@ -42,7 +44,13 @@ import javax.net.ssl.X509TrustManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 
 /**
  * Static class that provides various utility methods used by Transport implementations.
@@ -69,16 +77,137 @@ public class TransportSupport {
      * @throws Exception if an error occurs while creating the SslHandler instance.
      */
     public static SslHandler createSslHandler(URI remote, TransportOptions options) throws Exception {
-        SSLContext sslContext = options.getSslContextOverride();
-        if(sslContext == null) {
-            sslContext = createSslContext(options);
-        }
+        return createSslHandler(ByteBufAllocator.DEFAULT, remote, options);
+    }
 
-        SSLEngine sslEngine = createSslEngine(remote, sslContext, options);
+    /**
+     * Creates a Netty SslHandler instance for use in Transports that require
+     * an SSL encoder / decoder.
+     *
+     * When the options request it and the netty-tcnative library is available the
+     * handler uses the OpenSSL based SSLEngine, otherwise the JDK SSLEngine is used.
+     *
+     * @param allocator
+     *        The ByteBufAllocator the OpenSSL SSLEngine uses for its internal buffers.
+     * @param remote
+     *        The URI of the remote peer that the SslHandler will be used against.
+     * @param options
+     *        The SSL options object to build the SslHandler instance from.
+     *
+     * @return a new SslHandler that is configured from the given options.
+     *
+     * @throws Exception if an error occurs while creating the SslHandler instance.
+     */
+    public static SslHandler createSslHandler(ByteBufAllocator allocator, URI remote, TransportOptions options) throws Exception {
+        final SSLEngine sslEngine;
+
+        if (isOpenSSLPossible(options)) {
+            SslContext sslContext = createOpenSslContext(options);
+            sslEngine = createOpenSslEngine(allocator, remote, sslContext, options);
+        } else {
+            SSLContext sslContext = options.getSslContextOverride();
+            if(sslContext == null) {
+                sslContext = createSslContext(options);
+            }
+
+            sslEngine = createSslEngine(remote, sslContext, options);
+        }
 
         return new SslHandler(sslEngine);
     }
 
+    /**
+     * Determines if the OpenSSL based SSLEngine can be used with the given options, which
+     * requires that it was asked for, that the netty-tcnative library is available and
+     * that the options do not need features that the native library does not support.
+     *
+     * @param options
+     *        The SSL options that the SSLEngine would be configured from.
+     *
+     * @return true if the OpenSSL SSLEngine should be used.
+     */
+    public static boolean isOpenSSLPossible(TransportOptions options) {
+        boolean result = false;
+
+        if (options.isUseOpenSSL()) {
+            if (!OpenSsl.isAvailable()) {
+                LOG.debug("OpenSSL could not be enabled because a suitable implementation could not be found.", OpenSsl.unavailabilityCause());
+            } else if (options.getSslContextOverride() != null) {
+                LOG.debug("OpenSSL could not be enabled due to user SSLContext being supplied.");
+            } else if (!TransportOptions.DEFAULT_CONTEXT_PROTOCOL.equals(options.getContextProtocol())) {
+                LOG.debug("OpenSSL could not be enabled because a specific context protocol was configured: {}", options.getContextProtocol());
+            } else if (!OpenSsl.supportsKeyManagerFactory()) {
+                LOG.debug("OpenSSL could not be enabled because the version provided does not allow a KeyManagerFactory to be used.");
+            } else if (options.isVerifyHost() && !OpenSsl.supportsHostnameValidation()) {
+                LOG.debug("OpenSSL could not be enabled because the version provided does not support host name validation.");
+            } else {
+                result = true;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Create a new Netty SslContext backed by OpenSSL using the options specific in the
+     * given TransportOptions instance.
+     *
+     * @param options
+     *        the configured options used to create the SslContext.
+     *
+     * @return a new SslContext instance.
+     *
+     * @throws Exception if an error occurs while creating the context.
+     */
+    public static SslContext createOpenSslContext(TransportOptions options) throws Exception {
+        try {
+            LOG.trace("Creating OpenSSL SslContext");
+
+            SslContextBuilder builder = SslContextBuilder.forClient().sslProvider(SslProvider.OPENSSL);
+            builder.keyManager(loadKeyManagerFactory(options));
+            builder.trustManager(loadTrustManagerFactory(options));
+
+            return builder.build();
+        } catch (Exception e) {
+            LOG.error("Failed to create OpenSSL SslContext: {}", e, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Create a new OpenSSL based SSLEngine instance in client mode from the given
+     * SslContext and TransportOptions instances.
+     *
+     * @param allocator
+     *        the ByteBufAllocator the engine uses for its internal buffers.
+     * @param remote
+     *        the URI of the remote peer that will be used to initialize the engine, may be null if none should.
+     * @param context
+     *        the SslContext to use when creating the engine.
+     * @param options
+     *        the TransportOptions to use to configure the new SSLEngine.
+     *
+     * @return a new SSLEngine instance in client mode.
+     *
+     * @throws Exception if an error occurs while creating the new SSLEngine.
+     */
+    public static SSLEngine createOpenSslEngine(ByteBufAllocator allocator, URI remote, SslContext context, TransportOptions options) throws Exception {
+        if (allocator == null) {
+            throw new IllegalArgumentException("OpenSSL engine requires a valid ByteBufAllocator to operate");
+        }
+
+        SSLEngine engine = null;
+        if(remote == null) {
+            engine = context.newEngine(allocator);
+        } else {
+            engine = context.newEngine(allocator, remote.getHost(), remote.getPort());
+        }
+
+        configureEngine(engine, options);
+
+        return engine;
+    }
+
     /**
      * Create a new SSLContext using the options specific in the given TransportSslOptions
      * instance.
@@ -147,6 +276,12 @@ public class TransportSupport {
             engine = context.createSSLEngine(remote.getHost(), remote.getPort());
         }
 
+        configureEngine(engine, options);
+
+        return engine;
+    }
+
+    private static void configureEngine(SSLEngine engine, TransportOptions options) {
         engine.setEnabledProtocols(buildEnabledProtocols(engine, options));
         engine.setEnabledCipherSuites(buildEnabledCipherSuites(engine, options));
         engine.setUseClientMode(true);
@@ -156,8 +291,6 @@ public class TransportSupport {
             sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
             engine.setSSLParameters(sslParameters);
         }
-
-        return engine;
     }
 
     private static String[] buildEnabledProtocols(SSLEngine engine, TransportOptions options) {
@@ -210,9 +343,9 @@ public class TransportSupport {
         return enabledCipherSuites.toArray(new String[0]);
     }
 
-    private static TrustManager[] loadTrustManagers(TransportOptions options) throws Exception {
+    private static TrustManagerFactory loadTrustManagerFactory(TransportOptions options) throws Exception {
         if (options.isTrustAll()) {
-            return new TrustManager[] { createTrustAllTrustManager() };
+            return InsecureTrustManagerFactory.INSTANCE;
         }
 
         if (options.getTrustStoreLocation() == null) {
@@ -230,10 +363,10 @@ public class TransportSupport {
         KeyStore trustStore = loadStore(storeLocation, storePassword, storeType);
         fact.init(trustStore);
 
-        return fact.getTrustManagers();
+        return fact;
     }
 
-    private static KeyManager[] loadKeyManagers(TransportOptions options) throws Exception {
+    private static KeyManagerFactory loadKeyManagerFactory(TransportOptions options) throws Exception {
         if (options.getKeyStoreLocation() == null) {
             return null;
         }
@@ -251,11 +384,27 @@ public class TransportSupport {
         fact.init(keyStore, storePassword != null ? storePassword.toCharArray() : null);
 
         if (alias == null) {
-            return fact.getKeyManagers();
+            return fact;
         } else {
             validateAlias(keyStore, alias);
-            return wrapKeyManagers(alias, fact.getKeyManagers());
+            return new AliasKeyManagerFactory(wrapKeyManagers(alias, fact.getKeyManagers()), fact.getAlgorithm());
+        }
+    }
+
+    private static TrustManager[] loadTrustManagers(TransportOptions options) throws Exception {
+        if (options.isTrustAll()) {
+            return new TrustManager[] { createTrustAllTrustManager() };
         }
+
+        TrustManagerFactory fact = loadTrustManagerFactory(options);
+
+        return fact != null ? fact.getTrustManagers() : null;
+    }
+
+    private static KeyManager[] loadKeyManagers(TransportOptions options) throws Exception {
+        KeyManagerFactory fact = loadKeyManagerFactory(options);
+
+        return fact != null ? fact.getKeyManagers() : null;
     }
 
     private static KeyManager[] wrapKeyManagers(String alias, KeyManager[] origKeyManagers) {
@@ -307,4 +456,29 @@ public class TransportSupport {
             }
         };
     }
+
+    /*
+     * KeyManagerFactory that hands out key managers which were already created, used to
+     * pass the alias restricted key managers to the OpenSSL SslContext builder.
+     */
+    private static final class AliasKeyManagerFactory extends KeyManagerFactory {
+
+        public AliasKeyManagerFactory(final KeyManager[] keyManagers, String algorithm) {
+            super(new KeyManagerFactorySpi() {
+
+                @Override
+                protected void engineInit(KeyStore keyStore, char[] password) {
+                }
+
+                @Override
+                protected void engineInit(ManagerFactoryParameters params) {
+                }
+
+                @Override
+                protected KeyManager[] engineGetKeyManagers() {
+                    return keyManagers.clone();
+                }
+            }, null, algorithm);
+        }
+    }
 }
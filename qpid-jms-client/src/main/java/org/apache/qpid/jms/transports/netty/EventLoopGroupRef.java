@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.transports.netty;
+
+import io.netty.channel.EventLoopGroup;
+
+/**
+ * Handle to an EventLoopGroup used by a Netty based transport.
+ *
+ * The holder of a reference must call {@link #close()} once it no longer needs
+ * the group, which either shuts the group down or, for a shared group, drops
+ * the reference so the group can be shut down once the last user is done.
+ */
+public interface EventLoopGroupRef extends AutoCloseable {
+
+    /**
+     * @return the EventLoopGroup that this reference holds.
+     */
+    EventLoopGroup group();
+
+    /**
+     * Release this reference to the held EventLoopGroup.
+     */
+    @Override
+    void close();
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.transports.netty;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.qpid.jms.transports.TransportOptions;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.kqueue.KQueue;
+import io.netty.channel.kqueue.KQueueEventLoopGroup;
+import io.netty.channel.kqueue.KQueueSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * The IO layers that a Netty based transport can be run on.
+ */
+public enum EventLoopType {
+
+    KQUEUE {
+
+        @Override
+        public EventLoopGroup createEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            return new KQueueEventLoopGroup(threads, threadFactory);
+        }
+
+        @Override
+        public Class<? extends Channel> getChannelType() {
+            return KQueueSocketChannel.class;
+        }
+    },
+    EPOLL {
+
+        @Override
+        public EventLoopGroup createEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            return new EpollEventLoopGroup(threads, threadFactory);
+        }
+
+        @Override
+        public Class<? extends Channel> getChannelType() {
+            return EpollSocketChannel.class;
+        }
+    },
+    NIO {
+
+        @Override
+        public EventLoopGroup createEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            return new NioEventLoopGroup(threads, threadFactory);
+        }
+
+        @Override
+        public Class<? extends Channel> getChannelType() {
+            return NioSocketChannel.class;
+        }
+    };
+
+    /**
+     * Creates a new EventLoopGroup of this type.
+     *
+     * @param threads
+     *        the number of event loop threads the group should run.
+     * @param threadFactory
+     *        the factory used to create the threads or null for the Netty default.
+     *
+     * @return a new EventLoopGroup instance of this type.
+     */
+    public abstract EventLoopGroup createEventLoopGroup(int threads, ThreadFactory threadFactory);
+
+    /**
+     * @return the type of Channel that must be used with an EventLoopGroup of this type.
+     */
+    public abstract Class<? extends Channel> getChannelType();
+
+    /**
+     * Select the IO layer to use based on the given options and what is available on
+     * the current platform.
+     *
+     * @param options
+     *        the TransportOptions that configure the transport.
+     *
+     * @return the EventLoopType that the transport should use.
+     */
+    public static EventLoopType valueOf(TransportOptions options) {
+        if (options.isUseKQueue() && KQueue.isAvailable()) {
+            return KQUEUE;
+        } else if (options.isUseEpoll() && Epoll.isAvailable()) {
+            return EPOLL;
+        } else {
+            return NIO;
+        }
+    }
+}
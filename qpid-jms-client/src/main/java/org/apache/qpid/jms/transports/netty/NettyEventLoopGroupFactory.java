@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.transports.netty;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+
+/**
+ * Creates the EventLoopGroup instances used by the Netty transports, either a
+ * single threaded group private to one connection or a reference counted group
+ * that is shared by every connection in the JVM configured with the same IO
+ * layer and number of threads.
+ */
+public final class NettyEventLoopGroupFactory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NettyEventLoopGroupFactory.class);
+
+    public static final int SHUTDOWN_TIMEOUT = 50;
+
+    private static final String SHARED_THREAD_POOL_NAME = "QpidJMS-Netty-Shared";
+
+    private static final Map<SharedGroupKey, SharedGroup> SHARED_GROUPS = new HashMap<>();
+
+    private NettyEventLoopGroupFactory() {}
+
+    /**
+     * Creates a new single threaded EventLoopGroup that is shut down when the
+     * returned reference is closed.
+     *
+     * @param type
+     *        the IO layer the group should use.
+     *
+     * @return a reference to a newly created EventLoopGroup.
+     */
+    public static EventLoopGroupRef unsharedGroup(EventLoopType type) {
+        return new UnsharedGroupRef(type.createEventLoopGroup(1, null));
+    }
+
+    /**
+     * Returns a reference to the shared EventLoopGroup for the given IO layer and
+     * thread count, creating it if no other connection currently holds it.  The
+     * group is shut down once every reference to it has been closed.
+     *
+     * @param type
+     *        the IO layer the group should use.
+     * @param threads
+     *        the number of event loop threads the shared group runs.
+     *
+     * @return a reference to the shared EventLoopGroup.
+     */
+    public static EventLoopGroupRef sharedGroup(EventLoopType type, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Shared event loop thread count must be > 0");
+        }
+
+        final SharedGroupKey key = new SharedGroupKey(type, threads);
+
+        synchronized (SHARED_GROUPS) {
+            SharedGroup shared = SHARED_GROUPS.get(key);
+            if (shared == null) {
+                LOG.trace("Creating shared {} event loop group with {} threads", type, threads);
+                shared = new SharedGroup(key, type.createEventLoopGroup(
+                    threads, new DefaultThreadFactory(SHARED_THREAD_POOL_NAME + "-" + type, true)));
+                SHARED_GROUPS.put(key, shared);
+            }
+
+            return shared.reference();
+        }
+    }
+
+    /**
+     * @return the number of shared event loop groups that are currently active.
+     */
+    static int getSharedGroupCount() {
+        synchronized (SHARED_GROUPS) {
+            return SHARED_GROUPS.size();
+        }
+    }
+
+    private static void shutdown(EventLoopGroup group) {
+        Future<?> fut = group.shutdownGracefully(0, SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+
+        // Can't wait on our own shutdown when closed from one of the group's threads.
+        for (EventExecutor executor : group) {
+            if (executor.inEventLoop()) {
+                return;
+            }
+        }
+
+        if (!fut.awaitUninterruptibly(2 * SHUTDOWN_TIMEOUT)) {
+            LOG.trace("Channel group shutdown failed to complete in allotted time");
+        }
+    }
+
+    //----- Reference implementations ----------------------------------------//
+
+    private static final class UnsharedGroupRef implements EventLoopGroupRef {
+
+        private final EventLoopGroup group;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        public UnsharedGroupRef(EventLoopGroup group) {
+            this.group = group;
+        }
+
+        @Override
+        public EventLoopGroup group() {
+            if (closed.get()) {
+                throw new IllegalStateException("Group reference is already closed");
+            }
+
+            return group;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                shutdown(group);
+            }
+        }
+    }
+
+    private static final class SharedGroup {
+
+        private final SharedGroupKey key;
+        private final EventLoopGroup group;
+
+        private int refCount;
+
+        public SharedGroup(SharedGroupKey key, EventLoopGroup group) {
+            this.key = key;
+            this.group = group;
+        }
+
+        // Guarded by the SHARED_GROUPS lock
+        public EventLoopGroupRef reference() {
+            refCount++;
+            return new SharedGroupRef(this);
+        }
+
+        public void release() {
+            boolean shutdown = false;
+
+            synchronized (SHARED_GROUPS) {
+                if (--refCount == 0) {
+                    SHARED_GROUPS.remove(key);
+                    shutdown = true;
+                }
+            }
+
+            if (shutdown) {
+                LOG.trace("Last reference released, shutting down shared {} event loop group", key.type);
+                NettyEventLoopGroupFactory.shutdown(group);
+            }
+        }
+    }
+
+    private static final class SharedGroupRef implements EventLoopGroupRef {
+
+        private final SharedGroup shared;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        public SharedGroupRef(SharedGroup shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public EventLoopGroup group() {
+            if (closed.get()) {
+                throw new IllegalStateException("Group reference is already closed");
+            }
+
+            return shared.group;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                shared.release();
+            }
+        }
+    }
+
+    private static final class SharedGroupKey {
+
+        private final EventLoopType type;
+        private final int threads;
+
+        public SharedGroupKey(EventLoopType type, int threads) {
+            this.type = type;
+            this.threads = threads;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, threads);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (other == null || getClass() != other.getClass()) {
+                return false;
+            }
+
+            SharedGroupKey otherKey = (SharedGroupKey) other;
+            return type == otherKey.type && threads == otherKey.threads;
+        }
+    }
+}
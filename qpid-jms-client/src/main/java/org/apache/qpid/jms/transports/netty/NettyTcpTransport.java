@@ -20,7 +20,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.security.Principal;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.net.ssl.SSLContext;
@@ -46,14 +46,6 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.FixedRecvByteBufAllocator;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.channel.epoll.Epoll;
-import io.netty.channel.epoll.EpollEventLoopGroup;
-import io.netty.channel.epoll.EpollSocketChannel;
-import io.netty.channel.kqueue.KQueue;
-import io.netty.channel.kqueue.KQueueEventLoopGroup;
-import io.netty.channel.kqueue.KQueueSocketChannel;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.util.ReferenceCountUtil;
@@ -67,10 +59,11 @@ public class NettyTcpTransport implements Transport {
 
     private static final Logger LOG = LoggerFactory.getLogger(NettyTcpTransport.class);
 
-    public static final int SHUTDOWN_TIMEOUT = 50;
+    public static final int SHUTDOWN_TIMEOUT = NettyEventLoopGroupFactory.SHUTDOWN_TIMEOUT;
     public static final int DEFAULT_MAX_FRAME_SIZE = 65535;
 
     protected Bootstrap bootstrap;
+    protected EventLoopGroupRef groupRef;
     protected EventLoopGroup group;
     protected Channel channel;
     protected TransportListener listener;
@@ -146,29 +139,15 @@ public class NettyTcpTransport implements Transport {
             sslHandler = null;
         }
 
-        boolean useKQueue = getTransportOptions().isUseKQueue() && KQueue.isAvailable();
-        boolean useEpoll = getTransportOptions().isUseEpoll() && Epoll.isAvailable();
+        EventLoopType eventLoopType = EventLoopType.valueOf(getTransportOptions());
+        LOG.trace("Netty Transport using {} mode", eventLoopType);
 
-        if (useKQueue) {
-            LOG.trace("Netty Transport using KQueue mode");
-            group = new KQueueEventLoopGroup(1);
-        } else if (useEpoll) {
-            LOG.trace("Netty Transport using Epoll mode");
-            group = new EpollEventLoopGroup(1);
-        } else {
-            LOG.trace("Netty Transport using NIO mode");
-            group = new NioEventLoopGroup(1);
-        }
+        groupRef = createEventLoopGroup(eventLoopType, getTransportOptions());
+        group = groupRef.group();
 
         bootstrap = new Bootstrap();
         bootstrap.group(group);
-        if (useKQueue) {
-            bootstrap.channel(KQueueSocketChannel.class);
-        } else if (useEpoll) {
-            bootstrap.channel(EpollSocketChannel.class);
-        } else {
-            bootstrap.channel(NioSocketChannel.class);
-        }
+        bootstrap.channel(eventLoopType.getChannelType());
         bootstrap.handler(new ChannelInitializer<Channel>() {
             @Override
             public void initChannel(Channel connectedChannel) throws Exception {
@@ -203,11 +182,9 @@ public class NettyTcpTransport implements Transport {
                 channel.close().syncUninterruptibly();
                 channel = null;
             }
-            if (group != null) {
-                Future<?> fut = group.shutdownGracefully(0, SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
-                if (!fut.awaitUninterruptibly(2 * SHUTDOWN_TIMEOUT)) {
-                    LOG.trace("Channel group shutdown failed to complete in allotted time");
-                }
+            if (groupRef != null) {
+                groupRef.close();
+                groupRef = null;
                 group = null;
             }
 
@@ -245,11 +222,8 @@ public class NettyTcpTransport implements Transport {
                     channel.close().syncUninterruptibly();
                 }
             } finally {
-                if (group != null) {
-                    Future<?> fut = group.shutdownGracefully(0, SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
-                    if (!fut.awaitUninterruptibly(2 * SHUTDOWN_TIMEOUT)) {
-                        LOG.trace("Channel group shutdown failed to complete in allotted time");
-                    }
+                if (groupRef != null) {
+                    groupRef.close();
                 }
             }
         }
@@ -270,6 +244,30 @@ public class NettyTcpTransport implements Transport {
         channel.writeAndFlush(output);
     }
 
+    @Override
+    public void write(ByteBuf output) throws IOException {
+        checkConnected(output);
+
+        LOG.trace("Attempted write of: {} bytes", output.readableBytes());
+
+        channel.write(output);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        checkConnected();
+
+        LOG.trace("Attempted flush of pending writes");
+
+        channel.flush();
+    }
+
+    @Override
+    public ScheduledExecutorService getEventLoop() {
+        Channel channel = this.channel;
+        return channel != null ? channel.eventLoop() : null;
+    }
+
     @Override
     public TransportListener getTransportListener() {
         return listener;
@@ -330,6 +328,14 @@ public class NettyTcpTransport implements Transport {
         }
     }
 
+    protected EventLoopGroupRef createEventLoopGroup(EventLoopType type, TransportOptions options) {
+        if (options.getSharedEventLoopThreads() > 0) {
+            return NettyEventLoopGroupFactory.sharedGroup(type, options.getSharedEventLoopThreads());
+        } else {
+            return NettyEventLoopGroupFactory.unsharedGroup(type);
+        }
+    }
+
     protected void addAdditionalHandlers(ChannelPipeline pipeline) {
 
     }
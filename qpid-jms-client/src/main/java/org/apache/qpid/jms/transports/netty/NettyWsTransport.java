@@ -97,6 +97,19 @@ public class NettyWsTransport extends NettyTcpTransport {
         channel.writeAndFlush(new BinaryWebSocketFrame(output));
     }
 
+    @Override
+    public void write(ByteBuf output) throws IOException {
+        checkConnected();
+        int length = output.readableBytes();
+        if (length == 0) {
+            return;
+        }
+
+        LOG.trace("Attempted write of: {} bytes", length);
+
+        channel.write(new BinaryWebSocketFrame(output));
+    }
+
     @Override
     protected ChannelInboundHandlerAdapter createChannelHandler() {
         return new NettyWebSocketTransportHandler();
@@ -16,35 +16,49 @@
  */
 package org.apache.qpid.jms.util;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
 
 /**
  * Abstract Message Queue class used to implement the common functions of a Message Queue
  * instance.
+ *
+ * The queue is guarded by a ReentrantLock rather than an object monitor so that a consumer
+ * on a virtual thread waiting for a message does not pin its carrier thread.  Subclasses
+ * take the lock returned from {@link #getLock()} around their own state changes and call
+ * {@link #signalWaiter()} when a message is added.
  */
 public abstract class AbstractMessageQueue implements MessageQueue {
 
     private volatile boolean closed;
     private volatile boolean running;
-    private final Object lock = new Object();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
 
     @Override
     public final JmsInboundMessageDispatch peek() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return peekFirst();
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public final JmsInboundMessageDispatch dequeue(long timeout) throws InterruptedException {
-        synchronized (lock) {
+        lock.lock();
+        try {
             // Wait until the consumer is ready to deliver messages.
             while (timeout != 0 && !closed && isEmpty() && running) {
                 if (timeout == -1) {
-                    lock.wait();
+                    notEmpty.await();
                 } else {
                     long start = System.currentTimeMillis();
-                    lock.wait(timeout);
+                    notEmpty.await(timeout, TimeUnit.MILLISECONDS);
                     timeout = Math.max(timeout + start - System.currentTimeMillis(), 0);
                 }
             }
@@ -54,34 +68,45 @@ public abstract class AbstractMessageQueue implements MessageQueue {
             }
 
             return removeFirst();
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public final JmsInboundMessageDispatch dequeueNoWait() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             if (closed || !running || isEmpty()) {
                 return null;
             }
             return removeFirst();
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public final void start() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             if (!closed) {
                 running = true;
             }
-            lock.notifyAll();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public final void stop() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             running = false;
-            lock.notifyAll();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -92,10 +117,13 @@ public abstract class AbstractMessageQueue implements MessageQueue {
 
     @Override
     public final void close() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             running = false;
             closed = true;
-            lock.notifyAll();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -105,10 +133,18 @@ public abstract class AbstractMessageQueue implements MessageQueue {
     }
 
     @Override
-    public final Object getLock() {
+    public final ReentrantLock getLock() {
         return lock;
     }
 
+    /**
+     * Wakes a thread waiting in dequeue for a message to arrive, must be called while
+     * holding the lock.
+     */
+    protected final void signalWaiter() {
+        notEmpty.signal();
+    }
+
     /**
      * Removes and returns the first entry in the implementation queue.  This method
      * is always called under lock and does not need to protect itself or check running
@@ -16,87 +16,201 @@
  */
 package org.apache.qpid.jms.util;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
 
 /**
  * Simple first in / first out Message Queue.
+ *
+ * Messages are held in a non-blocking deque so that the provider thread adding
+ * messages and the thread consuming them do not contend on a lock for each message.
+ * A consumer only blocks on the queue lock when there is nothing to dequeue, and
+ * the enqueuing thread only takes the lock to wake such a waiting consumer.  The
+ * lock is a ReentrantLock so that a consumer on a virtual thread waiting for a
+ * message does not pin its carrier thread.  The number of messages held is governed
+ * by the credit given on the consumer link so no capacity limit is enforced here.
  */
-public final class FifoMessageQueue extends AbstractMessageQueue {
+public final class FifoMessageQueue implements MessageQueue {
 
-    protected final Deque<JmsInboundMessageDispatch> queue;
+    private final Deque<JmsInboundMessageDispatch> queue = new ConcurrentLinkedDeque<JmsInboundMessageDispatch>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
 
-    public FifoMessageQueue(int prefetchSize) {
-        this.queue = new ArrayDeque<JmsInboundMessageDispatch>(prefetchSize);
-    }
+    private volatile boolean closed;
+    private volatile boolean running;
 
     @Override
     public void enqueueFirst(JmsInboundMessageDispatch envelope) {
-        synchronized (getLock()) {
-            queue.addFirst(envelope);
-            getLock().notify();
-        }
+        queue.addFirst(envelope);
+        size.incrementAndGet();
+        signalWaiter();
     }
 
     @Override
     public void enqueue(JmsInboundMessageDispatch envelope) {
-        synchronized (getLock()) {
-            queue.addLast(envelope);
-            getLock().notify();
-        }
+        queue.addLast(envelope);
+        size.incrementAndGet();
+        signalWaiter();
     }
 
     @Override
     public boolean isEmpty() {
-        synchronized (getLock()) {
-            return queue.isEmpty();
-        }
+        return queue.isEmpty();
     }
 
     @Override
-    public int size() {
-        synchronized (getLock()) {
-            return queue.size();
+    public JmsInboundMessageDispatch peek() {
+        return queue.peekFirst();
+    }
+
+    @Override
+    public JmsInboundMessageDispatch dequeue(long timeout) throws InterruptedException {
+        long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+
+        while (true) {
+            JmsInboundMessageDispatch envelope = dequeueNoWait();
+            if (envelope != null || timeout == 0 || closed || !running) {
+                return envelope;
+            }
+
+            lock.lock();
+            try {
+                // Registering as a waiter before checking the queue again ensures that
+                // an enqueue that we do not see here will see us and signal the lock.
+                waiters.incrementAndGet();
+                try {
+                    if (queue.isEmpty() && !closed && running) {
+                        if (timeout == -1) {
+                            notEmpty.await();
+                        } else {
+                            notEmpty.await(timeout, TimeUnit.MILLISECONDS);
+                        }
+                    }
+                } finally {
+                    waiters.decrementAndGet();
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (timeout > 0) {
+                // Poll one last time once the wait time has been used up.
+                timeout = Math.max(deadline - System.currentTimeMillis(), 0);
+            }
         }
     }
 
     @Override
-    public void clear() {
-        synchronized (getLock()) {
-            queue.clear();
+    public JmsInboundMessageDispatch dequeueNoWait() {
+        if (closed || !running) {
+            return null;
         }
+
+        JmsInboundMessageDispatch envelope = queue.pollFirst();
+        if (envelope != null) {
+            size.decrementAndGet();
+        }
+
+        return envelope;
     }
 
     @Override
-    public List<JmsInboundMessageDispatch> removeAll() {
-        synchronized (getLock()) {
-            ArrayList<JmsInboundMessageDispatch> rc = new ArrayList<JmsInboundMessageDispatch>(queue.size());
-            for (JmsInboundMessageDispatch entry : queue) {
-                rc.add(entry);
+    public void start() {
+        lock.lock();
+        try {
+            if (!closed) {
+                running = true;
             }
-            queue.clear();
-            return rc;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
-    public String toString() {
-        synchronized (getLock()) {
-            return queue.toString();
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
-    protected JmsInboundMessageDispatch removeFirst() {
-        return queue.removeFirst();
+    public boolean isRunning() {
+        return running;
     }
 
     @Override
-    protected JmsInboundMessageDispatch peekFirst() {
-        return queue.peekFirst();
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public int size() {
+        return Math.max(size.get(), 0);
+    }
+
+    @Override
+    public void clear() {
+        while (queue.pollFirst() != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    @Override
+    public List<JmsInboundMessageDispatch> removeAll() {
+        ArrayList<JmsInboundMessageDispatch> rc = new ArrayList<JmsInboundMessageDispatch>(size());
+        JmsInboundMessageDispatch entry;
+        while ((entry = queue.pollFirst()) != null) {
+            size.decrementAndGet();
+            rc.add(entry);
+        }
+        return rc;
+    }
+
+    @Override
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    @Override
+    public String toString() {
+        return queue.toString();
+    }
+
+    private void signalWaiter() {
+        if (waiters.get() > 0) {
+            lock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 }
@@ -127,7 +127,9 @@ public interface MessageQueue {
     List<JmsInboundMessageDispatch> removeAll();
 
     /**
-     * @return the lock object used to protect against concurrent access.
+     * @return the lock object used to protect against concurrent access.  The built in
+     *         queues use a ReentrantLock which must be locked and unlocked rather than
+     *         synchronized on.
      */
     Object getLock();
 
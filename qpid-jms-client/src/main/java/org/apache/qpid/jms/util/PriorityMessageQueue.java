@@ -16,8 +16,8 @@
  */
 package org.apache.qpid.jms.util;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import javax.jms.JMSException;
@@ -28,106 +28,138 @@ import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
  * Simple Message Priority ordered Queue.  Message envelopes are stored in the
  * Queue based on their priority value, except where {@link #enqueueFirst} is
  * used.
+ *
+ * Each priority level is held in its own array backed deque and a bit mask
+ * records which levels currently hold messages, so the highest priority message
+ * is found without visiting the empty levels.
  */
 public final class PriorityMessageQueue extends AbstractMessageQueue {
 
     // There are 10 priorities, values 0-9
-    private static final Integer MAX_PRIORITY = 9;
+    private static final int MAX_PRIORITY = 9;
 
-    private final LinkedList<JmsInboundMessageDispatch>[] lists;
+    private final ArrayDeque<JmsInboundMessageDispatch>[] lists;
+    private int nonEmptyLevels;
     private int size = 0;
 
     @SuppressWarnings("unchecked")
     public PriorityMessageQueue() {
-        this.lists = new LinkedList[MAX_PRIORITY + 1];
+        this.lists = new ArrayDeque[MAX_PRIORITY + 1];
         for (int i = 0; i <= MAX_PRIORITY; i++) {
-            lists[i] = new LinkedList<JmsInboundMessageDispatch>();
+            lists[i] = new ArrayDeque<JmsInboundMessageDispatch>();
         }
     }
 
     @Override
     public void enqueue(JmsInboundMessageDispatch envelope) {
-        synchronized (getLock()) {
-            getList(envelope).addLast(envelope);
+        getLock().lock();
+        try {
+            int priority = getPriority(envelope);
+            lists[priority].addLast(envelope);
+            nonEmptyLevels |= 1 << priority;
             this.size++;
-            getLock().notify();
+            signalWaiter();
+        } finally {
+            getLock().unlock();
         }
     }
 
     @Override
     public void enqueueFirst(JmsInboundMessageDispatch envelope) {
-        synchronized (getLock()) {
-            getList(MAX_PRIORITY).addFirst(envelope);
+        getLock().lock();
+        try {
+            lists[MAX_PRIORITY].addFirst(envelope);
+            nonEmptyLevels |= 1 << MAX_PRIORITY;
             this.size++;
-            getLock().notify();
+            signalWaiter();
+        } finally {
+            getLock().unlock();
         }
     }
 
     @Override
     public boolean isEmpty() {
-        synchronized (getLock()) {
+        getLock().lock();
+        try {
             return size == 0;
+        } finally {
+            getLock().unlock();
         }
     }
 
     @Override
     public int size() {
-        synchronized (getLock()) {
+        getLock().lock();
+        try {
             return size;
+        } finally {
+            getLock().unlock();
         }
     }
 
     @Override
     public void clear() {
-        synchronized (getLock()) {
-            for (int i = 0; i <= MAX_PRIORITY; i++) {
-                lists[i].clear();
+        getLock().lock();
+        try {
+            while (nonEmptyLevels != 0) {
+                int priority = highestNonEmptyLevel();
+                lists[priority].clear();
+                nonEmptyLevels &= ~(1 << priority);
             }
             this.size = 0;
+        } finally {
+            getLock().unlock();
         }
     }
 
     @Override
     public List<JmsInboundMessageDispatch> removeAll() {
-        synchronized (getLock()) {
-            ArrayList<JmsInboundMessageDispatch> result = new ArrayList<JmsInboundMessageDispatch>(size());
-            for (int i = MAX_PRIORITY; i >= 0; i--) {
-                List<JmsInboundMessageDispatch> list = lists[i];
-                result.addAll(list);
-                size -= list.size();
-                list.clear();
+        getLock().lock();
+        try {
+            ArrayList<JmsInboundMessageDispatch> result = new ArrayList<JmsInboundMessageDispatch>(size);
+            while (nonEmptyLevels != 0) {
+                int priority = highestNonEmptyLevel();
+                ArrayDeque<JmsInboundMessageDispatch> list = lists[priority];
+                JmsInboundMessageDispatch envelope;
+                while ((envelope = list.pollFirst()) != null) {
+                    result.add(envelope);
+                }
+                nonEmptyLevels &= ~(1 << priority);
             }
+            size = 0;
             return result;
+        } finally {
+            getLock().unlock();
         }
     }
 
     @Override
     protected JmsInboundMessageDispatch removeFirst() {
-        if (this.size > 0) {
-            for (int i = MAX_PRIORITY; i >= 0; i--) {
-                LinkedList<JmsInboundMessageDispatch> list = lists[i];
-                if (!list.isEmpty()) {
-                    this.size--;
-                    return list.removeFirst();
-                }
+        if (nonEmptyLevels != 0) {
+            int priority = highestNonEmptyLevel();
+            ArrayDeque<JmsInboundMessageDispatch> list = lists[priority];
+            JmsInboundMessageDispatch envelope = list.pollFirst();
+            if (list.isEmpty()) {
+                nonEmptyLevels &= ~(1 << priority);
             }
+            this.size--;
+            return envelope;
         }
         return null;
     }
 
     @Override
     protected JmsInboundMessageDispatch peekFirst() {
-        if (this.size > 0) {
-            for (int i = MAX_PRIORITY; i >= 0; i--) {
-                LinkedList<JmsInboundMessageDispatch> list = lists[i];
-                if (!list.isEmpty()) {
-                    return list.peekFirst();
-                }
-            }
+        if (nonEmptyLevels != 0) {
+            return lists[highestNonEmptyLevel()].peekFirst();
         }
         return null;
     }
 
+    private int highestNonEmptyLevel() {
+        return 31 - Integer.numberOfLeadingZeros(nonEmptyLevels);
+    }
+
     private int getPriority(JmsInboundMessageDispatch envelope) {
         int priority = javax.jms.Message.DEFAULT_PRIORITY;
         if (envelope.getMessage() != null) {
@@ -139,12 +171,4 @@ public final class PriorityMessageQueue extends AbstractMessageQueue {
         }
         return priority;
     }
-
-    private LinkedList<JmsInboundMessageDispatch> getList(JmsInboundMessageDispatch envelope) {
-        return getList(getPriority(envelope));
-    }
-
-    private LinkedList<JmsInboundMessageDispatch> getList(int priority) {
-        return lists[priority];
-    }
 }
@@ -17,6 +17,7 @@
 package org.apache.qpid.jms.util;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.lang.reflect.Method;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -25,13 +26,38 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Simple ThreadFactory object
+ *
+ * The factory can be asked to create virtual threads, these are found reflectively so that
+ * the client still runs on JVMs that do not support them, in which case platform threads
+ * are created instead.
  */
 public class QpidJMSThreadFactory implements ThreadFactory {
 
     private static final Logger LOG = LoggerFactory.getLogger(QpidJMSThreadFactory.class);
 
+    private static final Method OF_VIRTUAL;
+    private static final Method UNSTARTED;
+
+    static {
+        Method ofVirtual = null;
+        Method unstarted = null;
+
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            unstarted = ofVirtual.getReturnType().getMethod("unstarted", Runnable.class);
+        } catch (Throwable error) {
+            LOG.trace("Virtual threads are not supported on this JVM: {}", error.getMessage());
+            ofVirtual = null;
+            unstarted = null;
+        }
+
+        OF_VIRTUAL = ofVirtual;
+        UNSTARTED = unstarted;
+    }
+
     private final String threadName;
     private final boolean daemon;
+    private final boolean virtual;
     private final AtomicReference<Thread> threadTracker;
 
     /**
@@ -44,9 +70,7 @@ public class QpidJMSThreadFactory implements ThreadFactory {
      * 		should the created thread be a daemon thread.
      */
     public QpidJMSThreadFactory(String threadName, boolean daemon) {
-        this.threadName = threadName;
-        this.daemon = daemon;
-        this.threadTracker = null;
+        this(threadName, daemon, false, null);
     }
 
     /**
@@ -66,11 +90,39 @@ public class QpidJMSThreadFactory implements ThreadFactory {
      * 		AtomicReference that will be updated any time a new Thread is created.
      */
     public QpidJMSThreadFactory(String threadName, boolean daemon, AtomicReference<Thread> threadTracker) {
+        this(threadName, daemon, false, threadTracker);
+    }
+
+    /**
+     * Creates a new Thread factory that will create threads with the given name,
+     * creating virtual threads when requested and supported by the JVM.
+     *
+     * Virtual threads are always daemon threads so the daemon state is only applied
+     * when a platform thread is created.
+     *
+     * @param threadName
+     * 		the name that will be used for each thread created.
+     * @param daemon
+     * 		should the created thread be a daemon thread.
+     * @param virtual
+     * 		should the created thread be a virtual thread if the JVM supports them.
+     * @param threadTracker
+     * 		AtomicReference that will be updated any time a new Thread is created, or null.
+     */
+    public QpidJMSThreadFactory(String threadName, boolean daemon, boolean virtual, AtomicReference<Thread> threadTracker) {
         this.threadName = threadName;
         this.daemon = daemon;
+        this.virtual = virtual && isVirtualThreadSupported();
         this.threadTracker = threadTracker;
     }
 
+    /**
+     * @return true if the running JVM is able to create virtual threads.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return OF_VIRTUAL != null;
+    }
+
     @Override
     public Thread newThread(final Runnable target) {
         Runnable runner = target;
@@ -91,8 +143,16 @@ public class QpidJMSThreadFactory implements ThreadFactory {
             };
         }
 
-        Thread thread = new Thread(runner, threadName);
-        thread.setDaemon(daemon);
+        Thread thread = null;
+        if (virtual) {
+            thread = newVirtualThread(runner);
+        }
+
+        if (thread == null) {
+            thread = new Thread(runner, threadName);
+            thread.setDaemon(daemon);
+        }
+
         thread.setUncaughtExceptionHandler(new UncaughtExceptionHandler() {
 
             @Override
@@ -104,4 +164,22 @@ public class QpidJMSThreadFactory implements ThreadFactory {
 
         return thread;
     }
+
+    /**
+     * @return true if this factory creates virtual threads.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    private Thread newVirtualThread(Runnable runner) {
+        try {
+            Thread thread = (Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(null), runner);
+            thread.setName(threadName);
+            return thread;
+        } catch (Exception error) {
+            LOG.debug("Failed to create virtual thread {}, using a platform thread: {}", threadName, error.getMessage());
+            return null;
+        }
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ExecutorService that runs its tasks one at a time in the order they were submitted,
+ * borrowing threads from a shared Executor rather than owning one.  Many instances can
+ * share a small pool of threads while each keeps the ordering of a single thread executor.
+ *
+ * At most a fixed number of tasks are run each time a thread is borrowed before the
+ * remainder is handed back to the shared Executor, so that a busy instance does not hold
+ * a thread while others wait.  Tasks submitted after shutdown are dropped, as are any
+ * still queued if the shared Executor stops accepting work.
+ */
+public class SerialExecutor extends AbstractExecutorService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SerialExecutor.class);
+
+    private static final int MAX_TASKS_PER_RUN = 64;
+
+    private final Executor executor;
+    private final AtomicReference<Thread> threadTracker;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final Runnable runner = new Runnable() {
+
+        @Override
+        public void run() {
+            runTasks();
+        }
+    };
+
+    private boolean scheduled;
+    private boolean shutdown;
+
+    /**
+     * Create a new SerialExecutor that runs its tasks on the given Executor.
+     *
+     * @param executor
+     *      the shared Executor whose threads run the tasks.
+     * @param threadTracker
+     *      updated with the thread running tasks for this instance while it runs them.
+     */
+    public SerialExecutor(Executor executor, AtomicReference<Thread> threadTracker) {
+        this.executor = executor;
+        this.threadTracker = threadTracker;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        synchronized (tasks) {
+            if (shutdown) {
+                LOG.trace("Task {} dropped as the executor has been shut down", task);
+                return;
+            }
+
+            tasks.add(task);
+            if (scheduled) {
+                return;
+            }
+
+            scheduled = true;
+        }
+
+        schedule();
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (tasks) {
+            shutdown = true;
+            tasks.notifyAll();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        synchronized (tasks) {
+            shutdown = true;
+            List<Runnable> pending = new ArrayList<>(tasks);
+            tasks.clear();
+            tasks.notifyAll();
+            return pending;
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        synchronized (tasks) {
+            return shutdown;
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        synchronized (tasks) {
+            return shutdown && !scheduled;
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + remaining;
+
+        synchronized (tasks) {
+            while (!(shutdown && !scheduled)) {
+                if (remaining <= 0) {
+                    return false;
+                }
+
+                TimeUnit.NANOSECONDS.timedWait(tasks, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+
+            return true;
+        }
+    }
+
+    //----- Internal implementation ------------------------------------------//
+
+    private void schedule() {
+        try {
+            executor.execute(runner);
+        } catch (RejectedExecutionException ree) {
+            LOG.trace("Shared executor rejected tasks, dropping those queued");
+            synchronized (tasks) {
+                tasks.clear();
+                scheduled = false;
+                tasks.notifyAll();
+            }
+        }
+    }
+
+    private void runTasks() {
+        final Thread current = Thread.currentThread();
+        threadTracker.set(current);
+
+        try {
+            for (int i = 0; i < MAX_TASKS_PER_RUN; ++i) {
+                Runnable task;
+                synchronized (tasks) {
+                    task = tasks.poll();
+                    if (task == null) {
+                        // Let go of the thread before anyone waiting can see termination.
+                        threadTracker.compareAndSet(current, null);
+                        scheduled = false;
+                        tasks.notifyAll();
+                        return;
+                    }
+                }
+
+                try {
+                    task.run();
+                } catch (Throwable error) {
+                    LOG.warn("Task {} failed: {}", task, error.getMessage(), error);
+                }
+            }
+        } finally {
+            threadTracker.compareAndSet(current, null);
+        }
+
+        // Give up the thread and queue the remaining tasks behind any other waiting work.
+        schedule();
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A hashed wheel of timeouts where adding and cancelling a timeout are both constant
+ * time operations, meant for the large numbers of timeouts that are almost always
+ * cancelled before they expire, such as those guarding in-flight sends.
+ *
+ * Time is split into ticks of a fixed length and each timeout is placed into the bucket
+ * of the tick in which it expires, wrapping around the wheel as many times as needed.
+ * Nothing here runs on its own, the owner calls {@link #expire(long)} at least once per
+ * tick while the wheel is not empty and the expired tasks are run from that call.  A
+ * timeout therefore never fires early but can fire up to one tick late.
+ *
+ * Instances are not thread safe, all calls including cancelling a timeout must be made
+ * from the single thread that owns the wheel.
+ */
+public final class TimeoutWheel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimeoutWheel.class);
+
+    private final long tickNanos;
+    private final long startTime;
+    private final Timeout[] buckets;
+    private final int mask;
+
+    private long tick;
+    private int size;
+
+    /**
+     * Creates a new TimeoutWheel.
+     *
+     * @param tickMillis
+     *      the length of each tick in milliseconds.
+     * @param ticksPerWheel
+     *      the number of buckets in the wheel, rounded up to a power of two.
+     * @param now
+     *      the current time from {@link System#nanoTime()}.
+     */
+    public TimeoutWheel(long tickMillis, int ticksPerWheel, long now) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick length must be greater than zero: " + tickMillis);
+        }
+
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("Ticks per wheel must be between 1 and 2^30: " + ticksPerWheel);
+        }
+
+        int wheelSize = 1;
+        while (wheelSize < ticksPerWheel) {
+            wheelSize <<= 1;
+        }
+
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.startTime = now;
+        this.buckets = new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+    }
+
+    /**
+     * Schedules a task to run once the given delay has passed.
+     *
+     * @param task
+     *      the task to run when the timeout expires.
+     * @param delayMillis
+     *      the delay in milliseconds before the task is run.
+     * @param now
+     *      the current time from {@link System#nanoTime()}.
+     *
+     * @return a Timeout that can be used to cancel the task.
+     */
+    public Timeout schedule(Runnable task, long delayMillis, long now) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task to schedule cannot be null");
+        }
+
+        // While empty the wheel is not driven, so move up to the current tick rather than
+        // counting rounds from a stale one that expire would then have to walk forward from.
+        if (size == 0) {
+            tick = Math.max(tick, (now - startTime) / tickNanos);
+        }
+
+        long deadline = now - startTime + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+
+        // A tick is processed once its start time has passed, so the deadline falls in
+        // the first tick that starts at or after it, or the next one if that has gone.
+        long expiresOnTick = Math.max((deadline + tickNanos - 1) / tickNanos, tick);
+
+        Timeout timeout = new Timeout(task, (expiresOnTick - tick) / buckets.length);
+        timeout.bucket = (int) (expiresOnTick & mask);
+        timeout.next = buckets[timeout.bucket];
+        if (timeout.next != null) {
+            timeout.next.previous = timeout;
+        }
+        buckets[timeout.bucket] = timeout;
+        size++;
+
+        return timeout;
+    }
+
+    /**
+     * Runs the tasks of all timeouts that have expired by the given time.
+     *
+     * @param now
+     *      the current time from {@link System#nanoTime()}.
+     *
+     * @return the number of tasks that were run.
+     */
+    public int expire(long now) {
+        long lastTick = (now - startTime) / tickNanos;
+        int expired = 0;
+
+        while (tick <= lastTick && size > 0) {
+            int index = (int) (tick & mask);
+
+            // Move on before running anything so that a task which schedules a new timeout
+            // that is already due has it placed in a bucket that is still to be processed.
+            tick++;
+
+            // Take the due timeouts out of the bucket first as running one task can cancel
+            // or schedule others in the same bucket.
+            Timeout due = null;
+            Timeout last = null;
+            Timeout timeout = buckets[index];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    timeout.unlink();
+                    if (last == null) {
+                        due = timeout;
+                    } else {
+                        last.next = timeout;
+                    }
+                    last = timeout;
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+
+            while (due != null) {
+                Timeout next = due.next;
+                due.next = null;
+                if (due.expire()) {
+                    expired++;
+                }
+                due = next;
+            }
+        }
+
+        // Nothing was waiting so catch up without walking the empty buckets.
+        if (tick <= lastTick) {
+            tick = lastTick + 1;
+        }
+
+        return expired;
+    }
+
+    /**
+     * @return the number of timeouts that are waiting to expire.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if there are no timeouts waiting to expire.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the length of each tick in milliseconds.
+     */
+    public long getTickMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    /**
+     * Drops all waiting timeouts without running them.
+     */
+    public void clear() {
+        for (int i = 0; i < buckets.length; ++i) {
+            while (buckets[i] != null) {
+                buckets[i].cancel();
+            }
+        }
+    }
+
+    /**
+     * A single scheduled task in a {@link TimeoutWheel}.
+     */
+    public final class Timeout {
+
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+
+        private long remainingRounds;
+        private int bucket;
+        private int state = WAITING;
+        private boolean linked = true;
+        private Timeout next;
+        private Timeout previous;
+
+        private Timeout(Runnable task, long remainingRounds) {
+            this.task = task;
+            this.remainingRounds = remainingRounds;
+        }
+
+        /**
+         * Cancels the timeout so that its task will not run.
+         *
+         * @return true if the timeout was waiting and is now cancelled, false if it had
+         *         already expired or been cancelled.
+         */
+        public boolean cancel() {
+            if (state != WAITING) {
+                return false;
+            }
+
+            state = CANCELLED;
+            if (linked) {
+                unlink();
+            }
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private boolean expire() {
+            if (state != WAITING) {
+                return false;
+            }
+
+            state = EXPIRED;
+            try {
+                task.run();
+            } catch (Throwable error) {
+                LOG.warn("Task run on timeout threw an error: {}", error.getMessage());
+                LOG.trace("Timeout task error: ", error);
+            }
+
+            return true;
+        }
+
+        private void unlink() {
+            if (previous != null) {
+                previous.next = next;
+            } else {
+                buckets[bucket] = next;
+            }
+
+            if (next != null) {
+                next.previous = previous;
+            }
+
+            next = null;
+            previous = null;
+            linked = false;
+            size--;
+        }
+    }
+}
@@ -89,6 +89,14 @@ public class JmsConnectionFactoryTest extends QpidJmsTestCase {
         factory.setForceAsyncSend(!factory.isForceAsyncSend());
         factory.setLocalMessagePriority(!factory.isLocalMessagePriority());
         factory.setForceAsyncAcks(!factory.isForceAsyncAcks());
+        factory.setAckBatchSize(32);
+        factory.setAckBatchTimeout(250);
+        factory.setMaxInFlightSends(64);
+        factory.setMaxInFlightSendBytes(65536);
+        factory.setConsumerLinkCacheSize(4);
+        factory.setConsumerLinkIdleTimeout(1000);
+        factory.setDispatcherPoolSize(4);
+        factory.setUseVirtualThreads(true);
         factory.setConnectTimeout(TimeUnit.SECONDS.toMillis(30));
         factory.setCloseTimeout(TimeUnit.SECONDS.toMillis(45));
         factory.setUseDaemonThread(true);
@@ -106,6 +114,14 @@ public class JmsConnectionFactoryTest extends QpidJmsTestCase {
         assertEquals(factory.isForceAsyncSend(), connection.isForceAsyncSend());
         assertEquals(factory.isLocalMessagePriority(), connection.isLocalMessagePriority());
         assertEquals(factory.isForceAsyncAcks(), connection.isForceAsyncAcks());
+        assertEquals(32, connection.getAckBatchSize());
+        assertEquals(250, connection.getAckBatchTimeout());
+        assertEquals(64, connection.getMaxInFlightSends());
+        assertEquals(65536, connection.getMaxInFlightSendBytes());
+        assertEquals(4, connection.getConsumerLinkCacheSize());
+        assertEquals(1000, connection.getConsumerLinkIdleTimeout());
+        assertEquals(4, connection.getDispatcherPoolSize());
+        assertTrue(connection.isUseVirtualThreads());
         assertEquals(factory.isUseDaemonThread(), connection.isUseDaemonThread());
 
         assertEquals(TimeUnit.SECONDS.toMillis(30), connection.getConnectTimeout());
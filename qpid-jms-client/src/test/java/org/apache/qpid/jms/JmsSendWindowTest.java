@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.jms.IllegalStateException;
+import javax.jms.JMSException;
+
+import org.junit.Test;
+
+/**
+ * Tests for the producer in-flight send window
+ */
+public class JmsSendWindowTest {
+
+    @Test(timeout = 10000)
+    public void testMessageLimit() throws Exception {
+        JmsSendWindow window = new JmsSendWindow(2, 0);
+
+        window.acquire(100);
+        window.acquire(100);
+        assertEquals(2, window.getMessagesInFlight());
+        assertEquals(200, window.getBytesInFlight());
+
+        CountDownLatch acquired = acquireInBackground(window, 100, null);
+        assertFalse(acquired.await(50, TimeUnit.MILLISECONDS));
+
+        window.release(100);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(2, window.getMessagesInFlight());
+    }
+
+    @Test(timeout = 10000)
+    public void testByteLimit() throws Exception {
+        JmsSendWindow window = new JmsSendWindow(0, 1000);
+
+        window.acquire(600);
+
+        CountDownLatch acquired = acquireInBackground(window, 600, null);
+        assertFalse(acquired.await(50, TimeUnit.MILLISECONDS));
+
+        window.release(600);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(600, window.getBytesInFlight());
+    }
+
+    @Test(timeout = 10000)
+    public void testMessageLargerThanByteLimitSentWhenWindowEmpty() throws Exception {
+        JmsSendWindow window = new JmsSendWindow(0, 1000);
+
+        window.acquire(5000);
+        assertEquals(5000, window.getBytesInFlight());
+
+        window.release(5000);
+        assertEquals(0, window.getMessagesInFlight());
+        assertEquals(0, window.getBytesInFlight());
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseFailsWaitingSend() throws Exception {
+        JmsSendWindow window = new JmsSendWindow(1, 0);
+
+        window.acquire(10);
+
+        AtomicReference<JMSException> failure = new AtomicReference<>();
+        CountDownLatch done = acquireInBackground(window, 10, failure);
+        assertFalse(done.await(50, TimeUnit.MILLISECONDS));
+
+        window.close();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(failure.get() instanceof IllegalStateException);
+
+        try {
+            window.acquire(10);
+            fail("Should not be able to acquire from a closed window");
+        } catch (IllegalStateException ise) {}
+    }
+
+    private CountDownLatch acquireInBackground(final JmsSendWindow window, final int size, final AtomicReference<JMSException> failure) {
+        final CountDownLatch done = new CountDownLatch(1);
+
+        Thread sender = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    window.acquire(size);
+                } catch (JMSException ex) {
+                    if (failure != null) {
+                        failure.set(ex);
+                    }
+                }
+                done.countDown();
+            }
+        });
+        sender.start();
+
+        return done;
+    }
+}
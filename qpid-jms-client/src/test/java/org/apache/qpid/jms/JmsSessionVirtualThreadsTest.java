@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.Queue;
+import javax.jms.Session;
+
+import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
+import org.apache.qpid.jms.message.JmsMessage;
+import org.apache.qpid.jms.message.facade.test.JmsTestMessageFacade;
+import org.apache.qpid.jms.util.IdGenerator;
+import org.apache.qpid.jms.util.QpidJMSThreadFactory;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test for Sessions of a Connection configured to use virtual threads.
+ */
+public class JmsSessionVirtualThreadsTest extends JmsConnectionTestSupport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsSessionVirtualThreadsTest.class);
+
+    private final IdGenerator messageId = new IdGenerator();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Test(timeout = 10000)
+    public void testMessageListenerRunsOnVirtualThreadWhenSupported() throws Exception {
+        connectionInfo.setUseVirtualThreads(true);
+        connection = createConnectionToMockProvider();
+        connection.start();
+
+        final AtomicReference<Thread> listenerThread = new AtomicReference<>();
+        final CountDownLatch delivered = new CountDownLatch(1);
+
+        JmsMessageConsumer consumer = createConsumer(new MessageListener() {
+
+            @Override
+            public void onMessage(Message message) {
+                listenerThread.set(Thread.currentThread());
+                delivered.countDown();
+            }
+        });
+
+        deliver(consumer);
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertNotNull(listenerThread.get());
+        assertTrue(listenerThread.get().isDaemon());
+        assertTrue(listenerThread.get().getName().startsWith("JmsSession ["));
+        assertEquals(QpidJMSThreadFactory.isVirtualThreadSupported(), isVirtual(listenerThread.get()));
+    }
+
+    @Test(timeout = 10000)
+    public void testThreadFactoryCreatesVirtualThreadsWhenSupported() throws Exception {
+        QpidJMSThreadFactory factory = new QpidJMSThreadFactory("test", false, true, null);
+        assertEquals(QpidJMSThreadFactory.isVirtualThreadSupported(), factory.isVirtual());
+
+        Thread thread = factory.newThread(new Runnable() {
+
+            @Override
+            public void run() {
+            }
+        });
+
+        assertEquals("test", thread.getName());
+        assertEquals(factory.isVirtual(), isVirtual(thread));
+
+        QpidJMSThreadFactory platform = new QpidJMSThreadFactory("test", false, false, null);
+        assertFalse(platform.isVirtual());
+        assertFalse(isVirtual(platform.newThread(null)));
+    }
+
+    @Ignore("Used to test performance")
+    @Test
+    public void testBlockingListenersOnManySessions() throws Exception {
+        final int sessionCount = 10000;
+        final int messagesPerSession = 5;
+
+        for (boolean virtual : new boolean[] { false, true }) {
+            if (virtual && !QpidJMSThreadFactory.isVirtualThreadSupported()) {
+                continue;
+            }
+
+            connectionInfo.setUseVirtualThreads(virtual);
+            connection = createConnectionToMockProvider();
+            connection.start();
+
+            final CountDownLatch done = new CountDownLatch(sessionCount * messagesPerSession);
+            List<JmsMessageConsumer> consumers = new ArrayList<>(sessionCount);
+            for (int i = 0; i < sessionCount; ++i) {
+                consumers.add(createConsumer(new MessageListener() {
+
+                    @Override
+                    public void onMessage(Message message) {
+                        // Simulate a listener blocked on downstream I/O.
+                        try {
+                            TimeUnit.MILLISECONDS.sleep(20);
+                        } catch (InterruptedException e) {
+                        }
+                        done.countDown();
+                    }
+                }));
+            }
+
+            long start = System.nanoTime();
+
+            for (int i = 0; i < messagesPerSession; ++i) {
+                for (JmsMessageConsumer consumer : consumers) {
+                    deliver(consumer);
+                }
+            }
+
+            int platformThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            assertTrue(done.await(5, TimeUnit.MINUTES));
+            long elapsed = System.nanoTime() - start;
+
+            LOG.info("{} threads : {} sessions, {} ms, {} live platform threads",
+                virtual ? "virtual" : "platform", sessionCount, TimeUnit.NANOSECONDS.toMillis(elapsed), platformThreads);
+
+            connection.close();
+            connection = null;
+        }
+    }
+
+    private JmsMessageConsumer createConsumer(MessageListener listener) throws Exception {
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        Queue queue = session.createQueue(getTestName());
+        JmsMessageConsumer consumer = (JmsMessageConsumer) session.createConsumer(queue);
+        consumer.setMessageListener(listener);
+        return consumer;
+    }
+
+    private void deliver(JmsMessageConsumer consumer) {
+        JmsTestMessageFacade facade = new JmsTestMessageFacade();
+        facade.setMessageId(messageId.generateId());
+
+        JmsInboundMessageDispatch envelope = new JmsInboundMessageDispatch(sequence.incrementAndGet());
+        envelope.setConsumerId(consumer.getConsumerId());
+        envelope.setMessage(new JmsMessage(facade));
+
+        providerListener.onInboundMessage(envelope);
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        if (!QpidJMSThreadFactory.isVirtualThreadSupported()) {
+            return false;
+        }
+
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+}
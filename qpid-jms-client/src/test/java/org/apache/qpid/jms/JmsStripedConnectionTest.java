@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.ExceptionListener;
+import javax.jms.IllegalStateException;
+import javax.jms.JMSContext;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.QueueConnection;
+import javax.jms.Session;
+import javax.jms.TemporaryQueue;
+
+import org.apache.qpid.jms.test.QpidJmsTestCase;
+import org.junit.Test;
+
+/**
+ * Test for the striped Connection created when the factory has connectionStripes set
+ */
+public class JmsStripedConnectionTest extends QpidJmsTestCase {
+
+    @Test(timeout = 30000)
+    public void testFactoryCreatesStripedConnection() throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory("mock://localhost?jms.connectionStripes=3");
+        assertEquals(3, factory.getConnectionStripes());
+
+        Connection connection = factory.createConnection();
+        assertTrue(connection instanceof JmsStripedConnection);
+
+        JmsStripedConnection striped = (JmsStripedConnection) connection;
+        assertEquals(3, striped.getStripes().size());
+        assertNotSame(striped.getStripes().get(0), striped.getStripes().get(1));
+
+        QueueConnection queueConnection = factory.createQueueConnection();
+        assertTrue(queueConnection instanceof JmsStripedConnection);
+
+        connection.close();
+        queueConnection.close();
+    }
+
+    @Test(timeout = 30000)
+    public void testSessionsSpreadAcrossStripes() throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory("mock://localhost?jms.connectionStripes=3");
+        JmsStripedConnection connection = (JmsStripedConnection) factory.createConnection();
+
+        for (int i = 0; i < 6; ++i) {
+            connection.createSession();
+        }
+
+        for (JmsConnection stripe : connection.getStripes()) {
+            assertEquals(2, stripe.getSessionLoad());
+        }
+
+        connection.close();
+
+        for (JmsConnection closed : connection.getStripes()) {
+            assertTrue(closed.isClosed());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testSessionPlacedOnLeastLoadedStripe() throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory("mock://localhost?jms.connectionStripes=2");
+        JmsStripedConnection connection = (JmsStripedConnection) factory.createConnection();
+
+        Session first = connection.getStripes().get(0).createSession();
+        connection.getStripes().get(0).createSession();
+
+        connection.createSession();
+        assertEquals(1, connection.getStripes().get(1).getSessionLoad());
+
+        first.close();
+
+        connection.createSession();
+        connection.createSession();
+        assertEquals(2, connection.getStripes().get(0).getSessionLoad());
+        assertEquals(2, connection.getStripes().get(1).getSessionLoad());
+
+        connection.close();
+    }
+
+    @Test(timeout = 30000)
+    public void testFailedStripeIsSkipped() throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory("mock://localhost?jms.connectionStripes=2");
+        JmsStripedConnection connection = (JmsStripedConnection) factory.createConnection();
+
+        final CountDownLatch failed = new CountDownLatch(1);
+        connection.setExceptionListener(new ExceptionListener() {
+
+            @Override
+            public void onException(JMSException exception) {
+                failed.countDown();
+            }
+        });
+
+        connection.start();
+
+        JmsConnection failedStripe = connection.getStripes().get(0);
+        failedStripe.onConnectionFailure(new IOException("Simulated failure"));
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        assertTrue(failedStripe.isFailed());
+
+        for (int i = 0; i < 3; ++i) {
+            connection.createSession();
+        }
+
+        assertEquals(3, connection.getStripes().get(1).getSessionLoad());
+
+        connection.getStripes().get(1).onConnectionFailure(new IOException("Simulated failure"));
+
+        try {
+            connection.createSession();
+            fail("Should not be able to create a session once all stripes failed");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+
+        connection.close();
+    }
+
+    @Test(timeout = 30000)
+    public void testTemporaryQueueConsumedFromAnotherStripe() throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory("mock://localhost?jms.connectionStripes=2");
+        JmsStripedConnection connection = (JmsStripedConnection) factory.createConnection();
+
+        Session creator = connection.createSession();
+        Session user = connection.createSession();
+
+        assertEquals(1, connection.getStripes().get(0).getSessionLoad());
+        assertEquals(1, connection.getStripes().get(1).getSessionLoad());
+
+        TemporaryQueue queue = creator.createTemporaryQueue();
+        MessageConsumer consumer = user.createConsumer(queue);
+        assertNotNull(consumer);
+
+        consumer.close();
+        queue.delete();
+
+        connection.close();
+    }
+
+    @Test(timeout = 30000)
+    public void testTemporaryQueueOfOtherConnectionIsRejected() throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory("mock://localhost?jms.connectionStripes=2");
+        JmsStripedConnection connection = (JmsStripedConnection) factory.createConnection();
+        JmsStripedConnection other = (JmsStripedConnection) factory.createConnection();
+
+        TemporaryQueue queue = other.createSession().createTemporaryQueue();
+
+        try {
+            connection.createSession().createConsumer(queue);
+            fail("Should not be able to consume from a temporary queue of another connection");
+        } catch (JMSException ex) {
+            // Expected
+        }
+
+        connection.close();
+        other.close();
+    }
+
+    @Test(timeout = 30000)
+    public void testClientIDCannotBeSet() throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory("mock://localhost?jms.connectionStripes=2");
+        Connection connection = factory.createConnection();
+
+        try {
+            connection.setClientID("client");
+            fail("Should not be able to set the client ID of a striped connection");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+
+        connection.close();
+
+        factory.setClientID("client");
+        try {
+            factory.createConnection();
+            fail("Should not be able to create a striped connection with a client ID");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testClosedConnectionThrows() throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory("mock://localhost?jms.connectionStripes=2");
+        Connection connection = factory.createConnection();
+        connection.close();
+
+        try {
+            connection.createSession();
+            fail("Should not be able to create a session from a closed connection");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+
+        // Closing again has no effect
+        connection.close();
+    }
+
+    @Test(timeout = 30000)
+    public void testContextUsesSingleConnection() throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory("mock://localhost?jms.connectionStripes=2");
+        JMSContext context = factory.createContext();
+        assertTrue(context instanceof JmsContext);
+        assertNotNull(context.createProducer());
+        context.close();
+    }
+}
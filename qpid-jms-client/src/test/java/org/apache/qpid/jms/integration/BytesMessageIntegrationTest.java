@@ -66,6 +66,20 @@ public class BytesMessageIntegrationTest extends QpidJmsTestCase {
 
     @Test(timeout = 20000)
     public void testSendBasicBytesMessageWithContent() throws Exception {
+        doSendBasicBytesMessageWithContentTestImpl("myBytes".getBytes());
+    }
+
+    @Test(timeout = 20000)
+    public void testSendLargeBytesMessageWithContent() throws Exception {
+        byte[] content = new byte[64 * 1024];
+        for (int i = 0; i < content.length; ++i) {
+            content[i] = (byte) i;
+        }
+
+        doSendBasicBytesMessageWithContentTestImpl(content);
+    }
+
+    private void doSendBasicBytesMessageWithContentTestImpl(byte[] content) throws Exception {
         try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
             Connection connection = testFixture.establishConnecton(testPeer);
             testPeer.expectBegin();
@@ -75,8 +89,6 @@ public class BytesMessageIntegrationTest extends QpidJmsTestCase {
             Queue queue = session.createQueue("myQueue");
             MessageProducer producer = session.createProducer(queue);
 
-            byte[] content = "myBytes".getBytes();
-
             MessageHeaderSectionMatcher headersMatcher = new MessageHeaderSectionMatcher(true).withDurable(equalTo(true));
             MessageAnnotationsSectionMatcher msgAnnotationsMatcher = new MessageAnnotationsSectionMatcher(true);
             msgAnnotationsMatcher.withEntry(Symbol.valueOf(AmqpMessageSupport.JMS_MSG_TYPE), equalTo(AmqpMessageSupport.JMS_BYTES_MESSAGE));
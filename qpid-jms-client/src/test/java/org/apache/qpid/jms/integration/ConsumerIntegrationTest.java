@@ -600,6 +600,396 @@ public class ConsumerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout=20000)
+    public void testMessageListenerWithAckBatchingAcceptsAllMessages() throws Exception {
+
+        final int messageCount = 4;
+        final CountDownLatch latch = new CountDownLatch(messageCount);
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?jms.ackBatchSize=10&jms.ackBatchTimeout=0");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue destination = session.createQueue(getTestName());
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, new AmqpValueDescribedType("content"), messageCount);
+
+            MessageConsumer consumer = session.createConsumer(destination);
+
+            for (int i = 0; i < messageCount; i++) {
+                testPeer.expectDisposition(true, new AcceptedMatcher());
+            }
+
+            consumer.setMessageListener(new MessageListener() {
+                @Override
+                public void onMessage(Message m) {
+                    latch.countDown();
+                }
+            });
+
+            boolean await = latch.await(3000, TimeUnit.MILLISECONDS);
+            assertTrue("Messages not received within given timeout. Count remaining: " + latch.getCount(), await);
+
+            // The batch is sent once the consumer has no more messages to deliver.
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectDetach(true, true, true);
+            consumer.close();
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout=20000)
+    public void testAckBatchingHoldsAcknowledgementsUntilConnectionClose() throws Exception {
+        final int messageCount = 4;
+        final int consumeCount = 3;
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            final CountDownLatch incoming = new CountDownLatch(messageCount);
+            Connection connection = testFixture.establishConnecton(testPeer, "?jms.ackBatchSize=10&jms.ackBatchTimeout=0");
+
+            ((JmsConnection) connection).addConnectionListener(new JmsDefaultConnectionListener() {
+
+                @Override
+                public void onInboundMessage(JmsInboundMessageDispatch envelope) {
+                    incoming.countDown();
+                }
+            });
+
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue destination = session.createQueue(getTestName());
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, new AmqpValueDescribedType("content"), messageCount);
+
+            MessageConsumer consumer = session.createConsumer(destination);
+
+            assertTrue(incoming.await(10, TimeUnit.SECONDS));
+
+            for (int i = 0; i < consumeCount; i++) {
+                assertNotNull(consumer.receive(3000));
+            }
+
+            // Nothing should have been sent yet since the batch is not full and there
+            // is still a prefetched message waiting to be consumed.
+            testPeer.waitForAllHandlersToComplete(500);
+
+            for (int i = 1; i <= consumeCount; i++) {
+                testPeer.expectDisposition(true, new AcceptedMatcher(), i, i);
+            }
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout=20000)
+    public void testAckBatchingSendsAcknowledgementsAfterTimeout() throws Exception {
+        final int messageCount = 4;
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            final CountDownLatch incoming = new CountDownLatch(messageCount);
+            Connection connection = testFixture.establishConnecton(testPeer, "?jms.ackBatchSize=10&jms.ackBatchTimeout=50");
+
+            ((JmsConnection) connection).addConnectionListener(new JmsDefaultConnectionListener() {
+
+                @Override
+                public void onInboundMessage(JmsInboundMessageDispatch envelope) {
+                    incoming.countDown();
+                }
+            });
+
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.DUPS_OK_ACKNOWLEDGE);
+            Queue destination = session.createQueue(getTestName());
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, new AmqpValueDescribedType("content"), messageCount);
+
+            MessageConsumer consumer = session.createConsumer(destination);
+
+            assertTrue(incoming.await(10, TimeUnit.SECONDS));
+
+            testPeer.expectDisposition(true, new AcceptedMatcher(), 1, 1);
+
+            assertNotNull(consumer.receive(3000));
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout=20000)
+    public void testMessageListenersOfSessionsShareDispatcherPool() throws Exception {
+        final int messageCount = 3;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?jms.dispatcherPoolSize=1");
+            connection.start();
+
+            for (int i = 0; i < 2; ++i) {
+                testPeer.expectBegin();
+
+                final CountDownLatch latch = new CountDownLatch(messageCount);
+                final Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                Queue destination = session.createQueue(getTestName() + i);
+
+                testPeer.expectReceiverAttach();
+                testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, new AmqpValueDescribedType("content"), messageCount);
+                for (int j = 1; j <= messageCount; j++) {
+                    testPeer.expectDisposition(true, new AcceptedMatcher());
+                }
+
+                MessageConsumer consumer = session.createConsumer(destination);
+                consumer.setMessageListener(new MessageListener() {
+
+                    @Override
+                    public void onMessage(Message m) {
+                        if (!Thread.currentThread().getName().startsWith("QpidJMS Connection Dispatcher")) {
+                            failure.compareAndSet(null, new AssertionError("Delivered on " + Thread.currentThread().getName()));
+                        }
+
+                        // The pooled thread is still known as the session's delivery thread.
+                        try {
+                            session.close();
+                            failure.compareAndSet(null, new AssertionError("Session closed from its MessageListener"));
+                        } catch (IllegalStateException expected) {
+                        } catch (JMSException ex) {
+                            failure.compareAndSet(null, ex);
+                        }
+
+                        latch.countDown();
+                    }
+                });
+
+                assertTrue("Messages not received within given timeout", latch.await(5, TimeUnit.SECONDS));
+                testPeer.waitForAllHandlersToComplete(2000);
+            }
+
+            assertNull(failure.get());
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout=20000)
+    public void testConsumerLinkReusedAfterCloseWithPrefetchedMessage() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            final CountDownLatch incoming = new CountDownLatch(1);
+            Connection connection = testFixture.establishConnecton(testPeer, "?jms.consumerLinkCacheSize=1");
+
+            ((JmsConnection) connection).addConnectionListener(new JmsDefaultConnectionListener() {
+
+                @Override
+                public void onInboundMessage(JmsInboundMessageDispatch envelope) {
+                    incoming.countDown();
+                }
+            });
+
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue destination = session.createQueue(getTestName());
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, new AmqpValueDescribedType("content"), 1);
+
+            MessageConsumer consumer = session.createConsumer(destination);
+            assertTrue(incoming.await(10, TimeUnit.SECONDS));
+
+            // The link is drained rather than detached and the message stays with it.
+            testPeer.expectLinkFlow(true, true, notNullValue(UnsignedInteger.class));
+            consumer.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectLinkFlow();
+            testPeer.expectDisposition(true, new AcceptedMatcher());
+
+            consumer = session.createConsumer(destination);
+            Message message = consumer.receive(3000);
+            assertNotNull(message);
+            assertEquals("content", ((TextMessage) message).getText());
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectLinkFlow(true, true, notNullValue(UnsignedInteger.class));
+            consumer.close();
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout=20000)
+    public void testConsumerLinkNotReusedForDifferentSelector() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?jms.consumerLinkCacheSize=1");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue destination = session.createQueue(getTestName());
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlow();
+
+            MessageConsumer consumer = session.createConsumer(destination);
+
+            testPeer.expectLinkFlow(true, true, notNullValue(UnsignedInteger.class));
+            consumer.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            // A consumer with a selector needs its own link, the second parked link
+            // pushes the first out of the cache.
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlow();
+
+            consumer = session.createConsumer(destination, "color = 'red'");
+
+            testPeer.expectLinkFlow(true, true, notNullValue(UnsignedInteger.class));
+            testPeer.expectDetach(true, true, true);
+            consumer.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout=20000)
+    public void testConsumerLinkOnTopicIsNotReused() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?jms.consumerLinkCacheSize=1");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Topic destination = session.createTopic(getTestName());
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlow();
+
+            MessageConsumer consumer = session.createConsumer(destination);
+
+            testPeer.expectDetach(true, true, true);
+            consumer.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlow();
+
+            consumer = session.createConsumer(destination);
+
+            testPeer.expectDetach(true, true, true);
+            consumer.close();
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout=20000)
+    public void testParkedConsumerLinkClosedAfterIdleTimeout() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?jms.consumerLinkCacheSize=1&jms.consumerLinkIdleTimeout=100");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue destination = session.createQueue(getTestName());
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlow();
+
+            MessageConsumer consumer = session.createConsumer(destination);
+
+            testPeer.expectLinkFlow(true, true, notNullValue(UnsignedInteger.class));
+            testPeer.expectDetach(true, true, true);
+            consumer.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout=20000)
+    public void testParkedConsumerLinksClosedWithoutWaitingForDetachResponse() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer,
+                "?jms.consumerLinkCacheSize=2&jms.consumerLinkIdleTimeout=100&jms.requestTimeout=15000");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue destination = session.createQueue(getTestName());
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlow();
+            MessageConsumer consumer1 = session.createConsumer(destination);
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlow();
+            MessageConsumer consumer2 = session.createConsumer(destination);
+
+            testPeer.expectLinkFlow(true, true, notNullValue(UnsignedInteger.class));
+            testPeer.expectLinkFlow(true, true, notNullValue(UnsignedInteger.class));
+            consumer1.close();
+            consumer2.close();
+
+            // The remote never answers, the expiry must not wait on one detach before sending the next.
+            testPeer.expectDetach(true, false, false);
+            testPeer.expectDetach(true, false, false);
+
+            testPeer.waitForAllHandlersToComplete(3000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
     @Test(timeout=20000)
     public void testNoReceivedMessagesWhenConnectionNotStarted() throws Exception {
         try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
@@ -996,6 +1386,49 @@ public class ConsumerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout=20000)
+    public void testAdaptivePrefetchShrinksCreditWindowForSlowConsumer() throws Exception {
+        final int prefetch = 4;
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer,
+                "?jms.prefetchPolicy.all=" + prefetch + "&jms.prefetchPolicy.adaptivePrefetchTarget=1");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue(getTestName());
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, new AmqpValueDescribedType("content"), prefetch);
+
+            // Taking longer than the 1ms target on each message shrinks the window to a single
+            // message, so rather than topping up to the full prefetch half way through the
+            // consumer waits until its buffer is empty and then grants a single credit.
+            for (int i = 1; i < prefetch; i++) {
+                testPeer.expectDisposition(true, new AcceptedMatcher(), i, i);
+            }
+            testPeer.expectLinkFlow(false, false, equalTo(UnsignedInteger.valueOf(1)));
+            testPeer.expectDisposition(true, new AcceptedMatcher(), prefetch, prefetch);
+
+            MessageConsumer consumer = session.createConsumer(queue);
+            for (int i = 1; i <= prefetch; i++) {
+                assertNotNull("Should have received message " + i, consumer.receive(3000));
+                Thread.sleep(20);
+            }
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectDetach(true, true, true);
+            consumer.close();
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
     @Test(timeout=20000)
     public void testMessageListenerCallsConnectionCloseThrowsIllegalStateException() throws Exception {
         final CountDownLatch latch = new CountDownLatch(1);
@@ -1589,6 +2022,66 @@ public class ConsumerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout=20000)
+    public void testCloseClientAckConsumerAfterRecoverCompletesOnAcknowledge() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            final int DEFAULT_PREFETCH = 100;
+
+            // Set to fixed known value to reduce breakage if defaults are changed.
+            Connection connection = testFixture.establishConnecton(testPeer, "jms.prefetchPolicy.all=" + DEFAULT_PREFETCH);
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.CLIENT_ACKNOWLEDGE);
+            Queue queue = session.createQueue(getTestName());
+
+            int messageCount = 2;
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, new AmqpValueDescribedType("content"), messageCount);
+
+            MessageConsumer consumer = session.createConsumer(queue);
+            Message receivedMessage = null;
+
+            for (int i = 1; i <= messageCount; i++) {
+                assertNotNull(consumer.receive(3000));
+            }
+
+            session.recover();
+
+            for (int i = 1; i <= messageCount; i++) {
+                receivedMessage = consumer.receive(3000);
+
+                assertNotNull(receivedMessage);
+                assertTrue(receivedMessage.getJMSRedelivered());
+            }
+
+            // Expect the client to then drain off all credit from the link.
+            testPeer.expectLinkFlow(true, true, equalTo(UnsignedInteger.valueOf(DEFAULT_PREFETCH - messageCount)));
+
+            // Close should be deferred as these messages were delivered but not acknowledged.
+            consumer.close();
+
+            testPeer.waitForAllHandlersToComplete(3000);
+
+            for (int i = 1; i <= messageCount; i++) {
+                testPeer.expectDisposition(true, new AcceptedMatcher());
+            }
+            // Redelivered messages must only be counted once so the close now completes.
+            testPeer.expectDetach(true, true, true);
+
+            receivedMessage.acknowledge();
+
+            testPeer.waitForAllHandlersToComplete(3000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(3000);
+        }
+    }
+
     @Test(timeout=20000)
     public void testConsumerWithDeferredCloseActsAsClosed() throws Exception {
         try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
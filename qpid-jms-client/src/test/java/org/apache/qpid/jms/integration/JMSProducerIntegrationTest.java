@@ -24,12 +24,17 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.DeliveryMode;
 import javax.jms.JMSContext;
 import javax.jms.JMSProducer;
 import javax.jms.Message;
 import javax.jms.Queue;
 import javax.jms.Topic;
 
+import org.apache.qpid.jms.JmsProducer;
 import org.apache.qpid.jms.provider.amqp.message.AmqpDestinationHelper;
 import org.apache.qpid.jms.provider.amqp.message.AmqpMessageSupport;
 import org.apache.qpid.jms.test.QpidJmsTestCase;
@@ -189,6 +194,46 @@ public class JMSProducerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout = 20000)
+    public void testJMSProducerSendBatchAppliesConfiguration() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            JMSContext context = testFixture.createJMSContext(testPeer, SERVER_ANONYMOUS_RELAY);
+            testPeer.expectBegin();
+            testPeer.expectSenderAttach();
+
+            String queueName = "myQueue";
+            Queue queue = context.createQueue(queueName);
+            JmsProducer producer = (JmsProducer) context.createProducer();
+
+            List<Message> messages = new ArrayList<>();
+            for (int i = 0; i < 2; ++i) {
+                ApplicationPropertiesSectionMatcher appPropsMatcher = new ApplicationPropertiesSectionMatcher(true);
+                appPropsMatcher.withEntry(STRING_PROP, equalTo(STRING_PROP_VALUE));
+
+                TransferPayloadCompositeMatcher messageMatcher = new TransferPayloadCompositeMatcher();
+                messageMatcher.setMessageAnnotationsMatcher(new MessageAnnotationsSectionMatcher(true));
+                messageMatcher.setPropertiesMatcher(new MessagePropertiesSectionMatcher(true).withTo(equalTo(queueName)));
+                messageMatcher.setApplicationPropertiesMatcher(appPropsMatcher);
+                testPeer.expectTransfer(messageMatcher);
+
+                messages.add(context.createTextMessage("message-" + i));
+            }
+
+            producer.setProperty(STRING_PROP, STRING_PROP_VALUE);
+            producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+            producer.send(queue, messages);
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            testPeer.expectEnd();
+            testPeer.expectClose();
+
+            context.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
     @Test(timeout = 20000)
     public void testJMSProducerPropertyOverridesMessageValue() throws Exception {
         try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
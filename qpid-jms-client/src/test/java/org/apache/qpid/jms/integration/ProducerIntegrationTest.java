@@ -37,10 +37,12 @@ import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
@@ -65,6 +67,7 @@ import javax.jms.Topic;
 import org.apache.qpid.jms.JmsConnection;
 import org.apache.qpid.jms.JmsConnectionFactory;
 import org.apache.qpid.jms.JmsDefaultConnectionListener;
+import org.apache.qpid.jms.JmsMessageProducer;
 import org.apache.qpid.jms.JmsOperationTimedOutException;
 import org.apache.qpid.jms.JmsSendTimedOutException;
 import org.apache.qpid.jms.message.foreign.ForeignJmsMessage;
@@ -94,6 +97,7 @@ import org.apache.qpid.proton.amqp.Binary;
 import org.apache.qpid.proton.amqp.Symbol;
 import org.apache.qpid.proton.amqp.UnsignedByte;
 import org.apache.qpid.proton.amqp.UnsignedInteger;
+import org.apache.qpid.proton.amqp.UnsignedLong;
 import org.hamcrest.Matcher;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
@@ -226,6 +230,89 @@ public class ProducerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout = 20000)
+    public void testSendDurableMessageUsingTransportEventLoop() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?amqp.useTransportEventLoop=true");
+            testPeer.expectBegin();
+            testPeer.expectSenderAttach();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+            MessageProducer producer = session.createProducer(queue);
+
+            final int MSG_COUNT = 5;
+
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                MessageHeaderSectionMatcher headersMatcher = new MessageHeaderSectionMatcher(true).withDurable(equalTo(true));
+                MessageAnnotationsSectionMatcher msgAnnotationsMatcher = new MessageAnnotationsSectionMatcher(true);
+                MessagePropertiesSectionMatcher propsMatcher = new MessagePropertiesSectionMatcher(true);
+                TransferPayloadCompositeMatcher messageMatcher = new TransferPayloadCompositeMatcher();
+                messageMatcher.setHeadersMatcher(headersMatcher);
+                messageMatcher.setMessageAnnotationsMatcher(msgAnnotationsMatcher);
+                messageMatcher.setPropertiesMatcher(propsMatcher);
+                messageMatcher.setMessageContentMatcher(new EncodedAmqpValueMatcher("message-" + i));
+                testPeer.expectTransfer(messageMatcher);
+            }
+            testPeer.expectClose();
+
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                producer.send(session.createTextMessage("message-" + i));
+            }
+
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testSendMessagesUsingPooledDirectEncodeBuffers() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?amqp.encodeBufferPool=direct");
+            testPeer.expectBegin();
+            testPeer.expectSenderAttach();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+            MessageProducer producer = session.createProducer(queue);
+
+            final int MSG_COUNT = 10;
+            final String[] payloads = new String[MSG_COUNT];
+
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                StringBuilder payload = new StringBuilder("message-" + i);
+                for (int j = 0; j < (i % 3) * 1000; ++j) {
+                    payload.append('x');
+                }
+                payloads[i] = payload.toString();
+
+                boolean durable = i % 2 == 0;
+                MessageHeaderSectionMatcher headersMatcher = new MessageHeaderSectionMatcher(true).withDurable(equalTo(true));
+                MessageAnnotationsSectionMatcher msgAnnotationsMatcher = new MessageAnnotationsSectionMatcher(true);
+                MessagePropertiesSectionMatcher propsMatcher = new MessagePropertiesSectionMatcher(true);
+                TransferPayloadCompositeMatcher messageMatcher = new TransferPayloadCompositeMatcher();
+                if (durable) {
+                    messageMatcher.setHeadersMatcher(headersMatcher);
+                }
+                messageMatcher.setMessageAnnotationsMatcher(msgAnnotationsMatcher);
+                messageMatcher.setPropertiesMatcher(propsMatcher);
+                messageMatcher.setMessageContentMatcher(new EncodedAmqpValueMatcher(payloads[i]));
+                testPeer.expectTransfer(messageMatcher);
+            }
+            testPeer.expectClose();
+
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                int deliveryMode = i % 2 == 0 ? DeliveryMode.PERSISTENT : DeliveryMode.NON_PERSISTENT;
+                producer.send(session.createTextMessage(payloads[i]), deliveryMode, Message.DEFAULT_PRIORITY, Message.DEFAULT_TIME_TO_LIVE);
+            }
+
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
     @Test(timeout = 20000)
     public void testProducerOverridesMessageDeliveryMode() throws Exception {
         try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
@@ -790,6 +877,68 @@ public class ProducerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout=20000)
+    public void testSendingMessageWithULongMessageIdFormat() throws Exception {
+        doSendingMessageWithCounterBasedMessageIdFormatTestImpl("ULONG", UnsignedLong.class, AmqpMessageIdHelper.AMQP_ULONG_PREFIX);
+    }
+
+    @Test(timeout=20000)
+    public void testSendingMessageWithBinaryMessageIdFormat() throws Exception {
+        doSendingMessageWithCounterBasedMessageIdFormatTestImpl("BINARY", Binary.class, AmqpMessageIdHelper.AMQP_BINARY_PREFIX);
+    }
+
+    private void doSendingMessageWithCounterBasedMessageIdFormatTestImpl(String type, Class<?> idClass, String encodingPrefix) throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            // DONT create a test fixture, we will drive everything directly.
+            String uri = "amqp://127.0.0.1:" + testPeer.getServerPort() + "?jms.messageIDPolicy.messageIDType=" + type;
+            JmsConnectionFactory factory = new JmsConnectionFactory(uri);
+
+            testPeer.expectSaslAnonymous();
+            testPeer.expectOpen();
+            testPeer.expectBegin();
+            testPeer.expectBegin();
+            testPeer.expectSenderAttach();
+
+            Connection connection = factory.createConnection();
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+            MessageProducer producer = session.createProducer(queue);
+
+            String text = "myMessage";
+            MessagePropertiesSectionMatcher[] propsMatchers = new MessagePropertiesSectionMatcher[2];
+            for (int i = 0; i < propsMatchers.length; ++i) {
+                propsMatchers[i] = new MessagePropertiesSectionMatcher(true).withMessageId(isA(idClass));
+                TransferPayloadCompositeMatcher messageMatcher = new TransferPayloadCompositeMatcher();
+                messageMatcher.setHeadersMatcher(new MessageHeaderSectionMatcher(true).withDurable(equalTo(true)));
+                messageMatcher.setMessageAnnotationsMatcher(new MessageAnnotationsSectionMatcher(true));
+                messageMatcher.setPropertiesMatcher(propsMatchers[i]);
+                messageMatcher.setMessageContentMatcher(new EncodedAmqpValueMatcher(text));
+                testPeer.expectTransfer(messageMatcher);
+            }
+            testPeer.expectClose();
+
+            Message message1 = session.createTextMessage(text);
+            Message message2 = session.createTextMessage(text);
+
+            producer.send(message1);
+            producer.send(message2);
+
+            String jmsMessageID1 = message1.getJMSMessageID();
+            String jmsMessageID2 = message2.getJMSMessageID();
+            assertNotNull("JMSMessageID should be set", jmsMessageID1);
+            assertTrue("The encoding hint was not found", jmsMessageID1.startsWith(AmqpMessageIdHelper.JMS_ID_PREFIX + encodingPrefix));
+            assertFalse("JMSMessageID values should differ", jmsMessageID1.equals(jmsMessageID2));
+
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            // Get the values that were actually transmitted and compare to what we have locally
+            assertEquals(jmsMessageID1, AmqpMessageIdHelper.INSTANCE.toMessageIdString(propsMatchers[0].getReceivedMessageId()));
+            assertEquals(jmsMessageID2, AmqpMessageIdHelper.INSTANCE.toMessageIdString(propsMatchers[1].getReceivedMessageId()));
+        }
+    }
+
     @Test(timeout=20000)
     public void testSendingMessageWithPrefixedUUIDStringMessageIdFormat() throws Exception {
         try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
@@ -1532,6 +1681,249 @@ public class ProducerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout = 20000)
+    public void testAsyncSendWithInFlightWindowDoesNotWaitForCredit() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            JmsConnection connection = (JmsConnection) testFixture.establishConnecton(testPeer, "?jms.forceAsyncSend=true&jms.maxInFlightSends=2");
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            // Credit is granted well after the first sends are handed off, the window lets
+            // two sends through without it and the third must wait for the credit to arrive.
+            testPeer.expectSenderAttach(1000);
+
+            final MessageProducer producer = session.createProducer(queue);
+
+            final CountDownLatch twoSent = new CountDownLatch(1);
+            final CountDownLatch thirdSent = new CountDownLatch(1);
+            final AtomicReference<Throwable> sendFailure = new AtomicReference<>();
+
+            for (int i = 0; i < 3; ++i) {
+                testPeer.expectTransfer(new TransferPayloadCompositeMatcher());
+            }
+
+            Thread sender = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        producer.send(session.createTextMessage("1"));
+                        producer.send(session.createTextMessage("2"));
+                        twoSent.countDown();
+                        producer.send(session.createTextMessage("3"));
+                        thirdSent.countDown();
+                    } catch (Throwable error) {
+                        sendFailure.set(error);
+                    }
+                }
+            });
+            sender.start();
+
+            assertTrue("Sends should not wait for credit", twoSent.await(500, TimeUnit.MILLISECONDS));
+            assertEquals("Third send should wait for the window", 1, thirdSent.getCount());
+            assertTrue("Third send should complete once credit arrives", thirdSent.await(5, TimeUnit.SECONDS));
+            assertNull(sendFailure.get());
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testAsyncSendWithInFlightWindowFailureGoesToExceptionListener() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            JmsConnection connection = (JmsConnection) testFixture.establishConnecton(testPeer, "?jms.forceAsyncSend=true&jms.maxInFlightSends=1");
+            connection.setSendTimeout(200);
+
+            final AtomicReference<JMSException> asyncError = new AtomicReference<>();
+            final CountDownLatch asyncErrorLatch = new CountDownLatch(1);
+            connection.setExceptionListener(new ExceptionListener() {
+
+                @Override
+                public void onException(JMSException exception) {
+                    asyncError.set(exception);
+                    asyncErrorLatch.countDown();
+                }
+            });
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            testPeer.expectSenderAttachWithoutGrantingCredit();
+
+            MessageProducer producer = session.createProducer(queue);
+
+            // Returns without credit and then times out waiting for it.
+            producer.send(session.createTextMessage("text"));
+
+            assertTrue("Should get a non-fatal error", asyncErrorLatch.await(5, TimeUnit.SECONDS));
+            assertTrue(asyncError.get() instanceof JmsSendTimedOutException);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testAsyncCompletionWithInFlightWindowGetsTimedOutErrorWhenNoCredit() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            JmsConnection connection = (JmsConnection) testFixture.establishConnecton(testPeer, "?jms.maxInFlightSends=1");
+            connection.setSendTimeout(200);
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            testPeer.expectSenderAttachWithoutGrantingCredit();
+
+            MessageProducer producer = session.createProducer(queue);
+            TestJmsCompletionListener listener = new TestJmsCompletionListener();
+
+            producer.send(session.createTextMessage("text"), listener);
+
+            assertTrue("Did not get async callback", listener.awaitCompletion(5, TimeUnit.SECONDS));
+            assertTrue(listener.exception instanceof JmsSendTimedOutException);
+            assertNotNull(listener.message);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testSendBatchOfMessages() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer);
+            testPeer.expectBegin();
+            testPeer.expectSenderAttach();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+            JmsMessageProducer producer = (JmsMessageProducer) session.createProducer(queue);
+
+            final int MSG_COUNT = 3;
+
+            List<Message> messages = new ArrayList<>();
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                TransferPayloadCompositeMatcher messageMatcher = new TransferPayloadCompositeMatcher();
+                messageMatcher.setHeadersMatcher(new MessageHeaderSectionMatcher(true).withDurable(equalTo(true)));
+                messageMatcher.setMessageAnnotationsMatcher(new MessageAnnotationsSectionMatcher(true));
+                messageMatcher.setPropertiesMatcher(new MessagePropertiesSectionMatcher(true).withTo(equalTo("myQueue")));
+                messageMatcher.setMessageContentMatcher(new EncodedAmqpValueMatcher("message-" + i));
+                testPeer.expectTransfer(messageMatcher);
+
+                messages.add(session.createTextMessage("message-" + i));
+            }
+
+            producer.send(messages);
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            for (Message message : messages) {
+                assertEquals(queue, message.getJMSDestination());
+                assertNotNull(message.getJMSMessageID());
+            }
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testSendBatchFailsWhenOneMessageIsRejected() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer);
+            testPeer.expectBegin();
+            testPeer.expectSenderAttach();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+            JmsMessageProducer producer = (JmsMessageProducer) session.createProducer(queue);
+
+            testPeer.expectTransfer(new TransferPayloadCompositeMatcher());
+            testPeer.expectTransfer(new TransferPayloadCompositeMatcher(), nullValue(), false, new Rejected(), true);
+            testPeer.expectTransfer(new TransferPayloadCompositeMatcher());
+
+            List<Message> messages = new ArrayList<>();
+            for (int i = 0; i < 3; ++i) {
+                messages.add(session.createTextMessage("message-" + i));
+            }
+
+            try {
+                producer.send(messages);
+                fail("Expected an exception to be thrown");
+            } catch (JMSException e) {
+                // Expected
+            }
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testSendBatchInTransactedSession() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer);
+            connection.start();
+
+            testPeer.expectBegin();
+            testPeer.expectCoordinatorAttach();
+
+            Binary txnId = new Binary(new byte[]{ (byte) 5, (byte) 6, (byte) 7, (byte) 8});
+            testPeer.expectDeclare(txnId);
+            testPeer.expectSenderAttach();
+
+            Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+            Queue queue = session.createQueue("myQueue");
+            JmsMessageProducer producer = (JmsMessageProducer) session.createProducer(queue);
+
+            TransactionalStateMatcher stateMatcher = new TransactionalStateMatcher();
+            stateMatcher.withTxnId(equalTo(txnId));
+            stateMatcher.withOutcome(nullValue());
+
+            TransactionalState txState = new TransactionalState();
+            txState.setTxnId(txnId);
+            txState.setOutcome(new Accepted());
+
+            List<Message> messages = new ArrayList<>();
+            for (int i = 0; i < 2; ++i) {
+                testPeer.expectTransfer(new TransferPayloadCompositeMatcher(), stateMatcher, false, txState, true);
+                messages.add(session.createTextMessage("message-" + i));
+            }
+
+            producer.send(messages);
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            testPeer.expectDischarge(txnId, true);
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
     @Test(timeout = 20000)
     public void testSendWorksWhenConnectionNotStarted() throws Exception {
         try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
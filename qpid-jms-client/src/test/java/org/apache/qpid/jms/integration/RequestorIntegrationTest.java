@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.integration;
+
+import static org.apache.qpid.jms.provider.amqp.AmqpSupport.ANONYMOUS_RELAY;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.IllegalStateException;
+import javax.jms.Message;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import org.apache.qpid.jms.JmsOperationTimedOutException;
+import org.apache.qpid.jms.JmsRequestor;
+import org.apache.qpid.jms.JmsSession;
+import org.apache.qpid.jms.test.QpidJmsTestCase;
+import org.apache.qpid.jms.test.testpeer.TestAmqpPeer;
+import org.apache.qpid.jms.test.testpeer.describedtypes.sections.AmqpValueDescribedType;
+import org.apache.qpid.jms.test.testpeer.describedtypes.sections.PropertiesDescribedType;
+import org.apache.qpid.jms.test.testpeer.matchers.AcceptedMatcher;
+import org.apache.qpid.jms.test.testpeer.matchers.TargetMatcher;
+import org.apache.qpid.jms.test.testpeer.matchers.sections.MessageAnnotationsSectionMatcher;
+import org.apache.qpid.jms.test.testpeer.matchers.sections.MessageHeaderSectionMatcher;
+import org.apache.qpid.jms.test.testpeer.matchers.sections.TransferPayloadCompositeMatcher;
+import org.apache.qpid.proton.amqp.Symbol;
+import org.junit.Test;
+
+public class RequestorIntegrationTest extends QpidJmsTestCase {
+
+    private final IntegrationTestFixture testFixture = new IntegrationTestFixture();
+
+    @Test(timeout = 20000)
+    public void testRequestReplyMatchedByCorrelationId() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, new Symbol[] { ANONYMOUS_RELAY });
+            connection.start();
+
+            testPeer.expectBegin();
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("service");
+
+            JmsRequestor requestor = createRequestor(testPeer, session);
+
+            TransferPayloadCompositeMatcher messageMatcher = new TransferPayloadCompositeMatcher();
+            messageMatcher.setHeadersMatcher(new MessageHeaderSectionMatcher(true));
+            messageMatcher.setMessageAnnotationsMatcher(new MessageAnnotationsSectionMatcher(true));
+
+            testPeer.expectTransfer(messageMatcher);
+
+            Message first = session.createTextMessage("first");
+            CompletableFuture<Message> firstReply = requestor.request(queue, first);
+            assertNotNull(first.getJMSCorrelationID());
+            assertEquals(requestor.getReplyQueue(), first.getJMSReplyTo());
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            // Reply to the first request once the second arrives, leaving the second
+            // request without a reply so that it times out.
+            PropertiesDescribedType replyProperties = new PropertiesDescribedType();
+            replyProperties.setCorrelationId(first.getJMSCorrelationID());
+
+            testPeer.expectTransfer(messageMatcher);
+            testPeer.sendTransferToLastOpenedLinkOnLastOpenedSession(null, null, replyProperties, null, new AmqpValueDescribedType("reply"), 0);
+            testPeer.expectDisposition(true, new AcceptedMatcher());
+
+            Message second = session.createTextMessage("second");
+            CompletableFuture<Message> secondReply = requestor.request(queue, second, 100);
+
+            Message reply = firstReply.get(5, TimeUnit.SECONDS);
+            assertEquals("reply", ((TextMessage) reply).getText());
+
+            try {
+                secondReply.get(5, TimeUnit.SECONDS);
+                fail("Second request should have timed out");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof JmsOperationTimedOutException);
+            }
+
+            assertEquals(0, requestor.getPendingRequestCount());
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectDetach(true, true, true);
+            testPeer.expectDetach(true, true, true);
+            testPeer.expectDetach(true, true, true);
+            requestor.close();
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testCloseFailsPendingRequests() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, new Symbol[] { ANONYMOUS_RELAY });
+            connection.start();
+
+            testPeer.expectBegin();
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("service");
+
+            JmsRequestor requestor = createRequestor(testPeer, session);
+
+            testPeer.expectTransfer(new TransferPayloadCompositeMatcher());
+
+            CompletableFuture<Message> reply = requestor.request(queue, session.createMessage());
+            assertEquals(1, requestor.getPendingRequestCount());
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectDetach(true, true, true);
+            testPeer.expectDetach(true, true, true);
+            testPeer.expectDetach(true, true, true);
+            requestor.close();
+
+            try {
+                reply.get(5, TimeUnit.SECONDS);
+                fail("Pending request should have failed");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof IllegalStateException);
+            }
+
+            try {
+                requestor.request(queue, session.createMessage());
+                fail("Should not be able to send a request from a closed requestor");
+            } catch (IllegalStateException ex) {
+                // Expected
+            }
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testCancelRemovesPendingRequest() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, new Symbol[] { ANONYMOUS_RELAY });
+            connection.start();
+
+            testPeer.expectBegin();
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("service");
+
+            JmsRequestor requestor = createRequestor(testPeer, session);
+
+            testPeer.expectTransfer(new TransferPayloadCompositeMatcher());
+
+            CompletableFuture<Message> reply = requestor.request(queue, session.createMessage(), 60000);
+            assertEquals(1, requestor.getPendingRequestCount());
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            assertTrue(reply.cancel(false));
+            assertTrue(reply.isCancelled());
+            assertEquals(0, requestor.getPendingRequestCount());
+
+            testPeer.expectDetach(true, true, true);
+            testPeer.expectDetach(true, true, true);
+            testPeer.expectDetach(true, true, true);
+            requestor.close();
+
+            assertTrue(reply.isCancelled());
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testRequestorRejectsClientAcknowledgeSession() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer);
+
+            testPeer.expectBegin();
+            Session session = connection.createSession(false, Session.CLIENT_ACKNOWLEDGE);
+
+            try {
+                new JmsRequestor((JmsSession) session);
+                fail("Should not be able to create a requestor on a client acknowledged session");
+            } catch (IllegalStateException ex) {
+                // Expected
+            }
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    private JmsRequestor createRequestor(TestAmqpPeer testPeer, Session session) throws Exception {
+        TargetMatcher targetMatcher = new TargetMatcher();
+        targetMatcher.withAddress(nullValue());
+        targetMatcher.withDynamic(nullValue());
+        targetMatcher.withDurable(nullValue());
+
+        testPeer.expectSenderAttach(targetMatcher, false, false);
+        testPeer.expectTempQueueCreationAttach("replyQueue");
+        testPeer.expectReceiverAttach();
+        testPeer.expectLinkFlow();
+
+        JmsRequestor requestor = new JmsRequestor((JmsSession) session);
+
+        testPeer.waitForAllHandlersToComplete(2000);
+
+        return requestor;
+    }
+}
@@ -19,6 +19,8 @@ package org.apache.qpid.jms.message;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -114,6 +116,27 @@ public class JmsBytesMessageTest {
         assertEquals("Message reports unexpected length", content.length, bytesMessage.getBodyLength());
     }
 
+    @Test
+    public void testReadBytesFromCopyOnWriteLeavesOriginalUnread() throws Exception {
+        byte[] content = "myBytesData".getBytes();
+        JmsTestBytesMessageFacade facade = new JmsTestBytesMessageFacade(content);
+
+        JmsBytesMessage original = new JmsBytesMessage(facade);
+        original.onDispatch();
+
+        JmsBytesMessage copy = original.copyOnWrite();
+        assertSame(facade, copy.getFacade());
+
+        byte[] receivedBytes = new byte[content.length];
+        copy.readBytes(receivedBytes);
+        assertTrue(Arrays.equals(content, receivedBytes));
+        assertNotSame(facade, copy.getFacade());
+
+        receivedBytes = new byte[content.length];
+        original.readBytes(receivedBytes);
+        assertTrue(Arrays.equals(content, receivedBytes));
+    }
+
     /**
      * Test that attempting to write bytes to a received message (without calling {@link BytesMessage#clearBody()} first)
      * causes a {@link MessageNotWriteableException} to be thrown due to being read-only.
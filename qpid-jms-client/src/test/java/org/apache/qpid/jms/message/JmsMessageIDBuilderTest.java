@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.message;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.qpid.jms.message.JmsMessageIDBuilder.BUILTIN;
+import org.apache.qpid.jms.provider.amqp.message.AmqpJmsMessageFacade;
+import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.UnsignedLong;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for the built in Message ID builders
+ */
+public class JmsMessageIDBuilderTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsMessageIDBuilderTest.class);
+
+    private static final String PRODUCER_ID = "ID:connection:1:1";
+
+    @Test
+    public void testFromString() {
+        assertEquals(BUILTIN.ULONG, BUILTIN.fromString("ulong"));
+        assertEquals(BUILTIN.BINARY, BUILTIN.fromString("Binary"));
+        assertEquals(BUILTIN.DEFAULT, BUILTIN.fromString("DEFAULT"));
+
+        try {
+            BUILTIN.fromString("unknown");
+            fail("Should not accept unknown builder type");
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    @Test
+    public void testDefaultBuilder() {
+        JmsMessageIDBuilder builder = BUILTIN.DEFAULT.createBuilder();
+
+        assertEquals(PRODUCER_ID + "-1", builder.createMessageID(PRODUCER_ID, 1));
+        assertEquals(PRODUCER_ID + "-2", builder.createMessageID(PRODUCER_ID, 2));
+        assertEquals("ID:producer-3", builder.createMessageID("producer", 3));
+        assertEquals(PRODUCER_ID + "-4", builder.createMessageID(PRODUCER_ID, 4));
+    }
+
+    @Test
+    public void testULongBuilderCreatesConsecutiveIds() {
+        JmsMessageIDBuilder builder = BUILTIN.ULONG.createBuilder();
+
+        Object first = builder.createMessageID(PRODUCER_ID, 1);
+        Object second = builder.createMessageID(PRODUCER_ID, 2);
+
+        assertTrue(first instanceof UnsignedLong);
+        assertTrue(second instanceof UnsignedLong);
+        assertEquals(((UnsignedLong) first).longValue() + 1, ((UnsignedLong) second).longValue());
+    }
+
+    @Test
+    public void testBinaryBuilderEncodesPrefixAndSequence() {
+        JmsMessageIDBuilder builder = BUILTIN.BINARY.createBuilder();
+
+        Binary first = (Binary) builder.createMessageID(PRODUCER_ID, 1);
+        Binary second = (Binary) builder.createMessageID(PRODUCER_ID, 0x0102030405060708L);
+
+        assertEquals(16, first.getLength());
+        assertEquals(16, second.getLength());
+
+        byte[] firstBytes = first.getArray();
+        byte[] secondBytes = second.getArray();
+
+        assertArrayEquals(Arrays.copyOfRange(firstBytes, 0, 8), Arrays.copyOfRange(secondBytes, 0, 8));
+        assertArrayEquals(new byte[] { 0, 0, 0, 0, 0, 0, 0, 1 }, Arrays.copyOfRange(firstBytes, 8, 16));
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }, Arrays.copyOfRange(secondBytes, 8, 16));
+    }
+
+    @Test
+    public void testEachBuilderUsesItsOwnPrefix() {
+        Object ulong1 = BUILTIN.ULONG.createBuilder().createMessageID(PRODUCER_ID, 1);
+        Object ulong2 = BUILTIN.ULONG.createBuilder().createMessageID(PRODUCER_ID, 1);
+        assertFalse(ulong1.equals(ulong2));
+
+        Object binary1 = BUILTIN.BINARY.createBuilder().createMessageID(PRODUCER_ID, 1);
+        Object binary2 = BUILTIN.BINARY.createBuilder().createMessageID(PRODUCER_ID, 1);
+        assertFalse(binary1.equals(binary2));
+    }
+
+    @Ignore("Used to test performance")
+    @Test
+    public void testConcurrentMessageIDPerformance() throws Exception {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final int iterations = 1000000;
+
+        for (final BUILTIN type : BUILTIN.values()) {
+            // Warm up
+            runConcurrently(type, 1, iterations);
+
+            long[] nanos = runConcurrently(type, threads, iterations);
+
+            LOG.info("{} : {} ns per createMessageID, {} ns per getJMSMessageID ({} threads)",
+                type, nanos[0], nanos[1], threads);
+        }
+    }
+
+    private long[] runConcurrently(final BUILTIN type, int threads, final int iterations) throws Exception {
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicLong createNanos = new AtomicLong();
+        final AtomicLong lookupNanos = new AtomicLong();
+        final AtomicLong checksum = new AtomicLong();
+
+        for (int t = 0; t < threads; ++t) {
+            final String producerId = PRODUCER_ID + t;
+            Thread worker = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    // Each producer is given its own builder by the message ID policy.
+                    JmsMessageIDBuilder builder = type.createBuilder();
+                    AmqpJmsMessageFacade facade = new AmqpJmsMessageFacade();
+                    long hash = 0;
+
+                    long started = System.nanoTime();
+                    for (int i = 0; i < iterations; ++i) {
+                        hash += builder.createMessageID(producerId, i).hashCode();
+                    }
+                    createNanos.addAndGet(System.nanoTime() - started);
+
+                    facade.setProviderMessageIdObject(builder.createMessageID(producerId, 0));
+                    started = System.nanoTime();
+                    for (int i = 0; i < iterations; ++i) {
+                        hash += facade.getMessageId().length();
+                    }
+                    lookupNanos.addAndGet(System.nanoTime() - started);
+
+                    // Publish the result so that the measured loops cannot be optimized away.
+                    checksum.addAndGet(hash);
+
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        assertTrue(done.await(5, TimeUnit.MINUTES));
+
+        long operations = (long) threads * iterations;
+
+        return new long[] { createNanos.get() / operations, lookupNanos.get() / operations };
+    }
+}
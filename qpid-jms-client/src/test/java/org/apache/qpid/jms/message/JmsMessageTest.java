@@ -22,7 +22,9 @@ import static org.apache.qpid.jms.message.JmsMessageSupport.RELEASED;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -191,6 +193,31 @@ public class JmsMessageTest {
         assertTrue(msg1 != msg2 && msg1.equals(msg2));
     }
 
+    @Test
+    public void testCopyOnWriteSharesFacadeUntilModified() throws Exception {
+        JmsMessage msg1 = factory.createMessage();
+        msg1.setJMSMessageID(jmsMessageID);
+        msg1.setJMSType("original");
+        msg1.setStringProperty("property", "original");
+        msg1.onDispatch();
+
+        JmsMessage msg2 = msg1.copyOnWrite();
+        assertTrue(msg1 != msg2 && msg1.equals(msg2));
+        assertSame(msg1.getFacade(), msg2.getFacade());
+        assertEquals("original", msg2.getJMSType());
+        assertEquals("original", msg2.getStringProperty("property"));
+
+        msg2.setJMSType("changed");
+        assertNotSame(msg1.getFacade(), msg2.getFacade());
+        assertEquals("original", msg1.getJMSType());
+        assertEquals("changed", msg2.getJMSType());
+
+        JmsMessage msg3 = msg1.copyOnWrite();
+        msg3.clearProperties();
+        assertEquals("original", msg1.getStringProperty("property"));
+        assertNull(msg3.getStringProperty("property"));
+    }
+
     @Test
     public void testCopy() throws Exception {
         this.jmsMessageID = "testid";
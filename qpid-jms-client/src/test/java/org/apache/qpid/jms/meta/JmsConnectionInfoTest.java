@@ -72,6 +72,14 @@ public class JmsConnectionInfoTest {
         info.setCloseTimeout(100);
         info.setConnectTimeout(200);
         info.setForceAsyncSend(true);
+        info.setAckBatchSize(16);
+        info.setAckBatchTimeout(300);
+        info.setMaxInFlightSends(32);
+        info.setMaxInFlightSendBytes(4096);
+        info.setConsumerLinkCacheSize(8);
+        info.setConsumerLinkIdleTimeout(5000);
+        info.setDispatcherPoolSize(4);
+        info.setUseVirtualThreads(true);
         info.setPassword("pass");
         info.setQueuePrefix("queue");
         info.setRequestTimeout(50);
@@ -96,6 +104,14 @@ public class JmsConnectionInfoTest {
         assertEquals(100, copy.getCloseTimeout());
         assertEquals(200, copy.getConnectTimeout());
         assertEquals(true, copy.isForceAsyncSend());
+        assertEquals(16, copy.getAckBatchSize());
+        assertEquals(300, copy.getAckBatchTimeout());
+        assertEquals(32, copy.getMaxInFlightSends());
+        assertEquals(4096, copy.getMaxInFlightSendBytes());
+        assertEquals(8, copy.getConsumerLinkCacheSize());
+        assertEquals(5000, copy.getConsumerLinkIdleTimeout());
+        assertEquals(4, copy.getDispatcherPoolSize());
+        assertEquals(true, copy.isUseVirtualThreads());
         assertEquals("pass", copy.getPassword());
         assertEquals("queue", copy.getQueuePrefix());
         assertEquals(50, copy.getRequestTimeout());
@@ -80,6 +80,7 @@ public class JmsConsumerInfoTest {
         info.setLastDeliveredSequenceId(42);
         info.setNoLocal(true);
         info.setPrefetchSize(123456);
+        info.setAdaptivePrefetchTarget(200);
         info.setSelector("select");
         info.setDurable(true);
         info.setShared(true);
@@ -98,6 +99,7 @@ public class JmsConsumerInfoTest {
         assertEquals(true, copy.isDurable());
         assertEquals(true, copy.isShared());
         assertEquals(123456, copy.getPrefetchSize());
+        assertEquals(200, copy.getAdaptivePrefetchTarget());
         assertEquals("select", copy.getSelector());
         assertEquals("name", copy.getSubscriptionName());
         assertEquals(true, copy.isListener());
@@ -20,6 +20,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import org.apache.qpid.jms.JmsQueue;
+import org.apache.qpid.jms.JmsTopic;
 import org.apache.qpid.jms.policy.JmsDefaultPrefetchPolicy;
 import org.apache.qpid.jms.policy.JmsPrefetchPolicy;
 import org.junit.Test;
@@ -48,6 +50,7 @@ public class JmsDefaultPrefetchPolicyTest {
         assertEquals(JmsDefaultPrefetchPolicy.DEFAULT_QUEUE_PREFETCH, policy.getQueuePrefetch());
         assertEquals(JmsDefaultPrefetchPolicy.DEFAULT_QUEUE_BROWSER_PREFETCH, policy.getQueueBrowserPrefetch());
         assertEquals(JmsDefaultPrefetchPolicy.MAX_PREFETCH_SIZE, policy.getMaxPrefetchSize());
+        assertEquals(0, policy.getAdaptivePrefetchTarget());
     }
 
     @Test
@@ -58,6 +61,7 @@ public class JmsDefaultPrefetchPolicyTest {
         policy1.setQueueBrowserPrefetch(30);
         policy1.setQueuePrefetch(40);
         policy1.setMaxPrefetchSize(100);
+        policy1.setAdaptivePrefetchTarget(200);
 
         JmsDefaultPrefetchPolicy policy2 = new JmsDefaultPrefetchPolicy(policy1);
 
@@ -66,6 +70,23 @@ public class JmsDefaultPrefetchPolicyTest {
         assertEquals(policy1.getQueuePrefetch(), policy2.getQueuePrefetch());
         assertEquals(policy1.getQueueBrowserPrefetch(), policy2.getQueueBrowserPrefetch());
         assertEquals(policy1.getMaxPrefetchSize(), policy2.getMaxPrefetchSize());
+        assertEquals(policy1.getAdaptivePrefetchTarget(), policy2.getAdaptivePrefetchTarget());
+    }
+
+    @Test
+    public void testConfiguredAdaptivePrefetchTarget() {
+        JmsDefaultPrefetchPolicy policy = new JmsDefaultPrefetchPolicy();
+        JmsQueue queue = new JmsQueue("queue");
+        JmsTopic topic = new JmsTopic("topic");
+
+        assertEquals(0, policy.getConfiguredAdaptivePrefetchTarget(null, queue, false, false));
+
+        policy.setAdaptivePrefetchTarget(200);
+
+        assertEquals(200, policy.getConfiguredAdaptivePrefetchTarget(null, queue, false, false));
+        assertEquals(200, policy.getConfiguredAdaptivePrefetchTarget(null, topic, false, false));
+        assertEquals(200, policy.getConfiguredAdaptivePrefetchTarget(null, topic, true, false));
+        assertEquals(0, policy.getConfiguredAdaptivePrefetchTarget(null, queue, false, true));
     }
 
     @Test
@@ -127,11 +148,14 @@ public class JmsDefaultPrefetchPolicyTest {
         policy5.setDurableTopicPrefetch(10);
         JmsDefaultPrefetchPolicy policy6 = new JmsDefaultPrefetchPolicy();
         policy6.setQueueBrowserPrefetch(10);
+        JmsDefaultPrefetchPolicy policy7 = new JmsDefaultPrefetchPolicy();
+        policy7.setAdaptivePrefetchTarget(10);
 
         assertFalse(policy1.equals(policy3));
         assertFalse(policy1.equals(policy4));
         assertFalse(policy1.equals(policy5));
         assertFalse(policy1.equals(policy6));
+        assertFalse(policy1.equals(policy7));
 
         assertFalse(policy1.equals(null));
         assertFalse(policy1.equals(""));
@@ -23,6 +23,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -444,6 +445,78 @@ public class JmsMessageProducerTest extends JmsConnectionTestSupport {
         }
     }
 
+    @Test(timeout = 10000)
+    public void testBatchSendChecksProducerDestination() throws Exception {
+        JmsDestination dest = new JmsQueue("explicitDestination");
+        List<Message> messages = Collections.singletonList(session.createMessage());
+
+        JmsMessageProducer anonymous = (JmsMessageProducer) session.createProducer(null);
+        try {
+            anonymous.send(messages);
+            fail("Expected exception not thrown");
+        } catch (UnsupportedOperationException uoe) {
+            // expected
+        }
+
+        try {
+            anonymous.send(null, messages);
+            fail("Expected exception not thrown");
+        } catch (InvalidDestinationException ide) {
+            // expected
+        }
+
+        JmsMessageProducer explicit = (JmsMessageProducer) session.createProducer(dest);
+        try {
+            explicit.send(dest, messages);
+            fail("Expected exception not thrown");
+        } catch (UnsupportedOperationException uoe) {
+            // expected
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testBatchSendThrowsMFEWhenNullMessageProvided() throws Exception {
+        JmsDestination dest = new JmsQueue("explicitDestination");
+        JmsMessageProducer producer = (JmsMessageProducer) session.createProducer(dest);
+
+        try {
+            producer.send(Arrays.asList(session.createMessage(), null));
+            fail("Expected exception not thrown");
+        } catch (MessageFormatException mfe) {
+            // expected
+        }
+
+        try {
+            producer.send((List<Message>) null);
+            fail("Expected exception not thrown");
+        } catch (MessageFormatException mfe) {
+            // expected
+        }
+
+        assertEquals(0, remotePeer.getContextStats().getSendCalls());
+    }
+
+    @Test(timeout = 10000)
+    public void testBatchSendSendsAllMessagesInOrder() throws Exception {
+        JmsDestination dest = new JmsQueue("explicitDestination");
+        JmsMessageProducer producer = (JmsMessageProducer) session.createProducer(dest);
+
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            messages.add(session.createTextMessage("message-" + i));
+        }
+
+        producer.send(messages);
+
+        assertEquals(3, remotePeer.getContextStats().getSendCalls());
+        assertEquals(messages.get(2).getJMSMessageID(), remotePeer.getLastReceivedMessage().getMessage().getJMSMessageID());
+
+        for (Message message : messages) {
+            assertEquals(dest, message.getJMSDestination());
+            assertEquals(DeliveryMode.PERSISTENT, message.getJMSDeliveryMode());
+        }
+    }
+
     @Test(timeout = 10000)
     public void testInOrderSendAcksCompletionsReturnInOrder() throws Exception {
         final int MESSAGE_COUNT = 3;
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class BatchAsyncResultTest {
+
+    @Test
+    public void testCompletesWhenAllEntriesCompleteAndSubmitted() {
+        ProviderFuture future = new ProviderFuture();
+        BatchAsyncResult batch = new BatchAsyncResult(future);
+
+        AsyncResult first = batch.createRequest();
+        AsyncResult second = batch.createRequest();
+
+        first.onSuccess();
+        assertTrue(first.isComplete());
+        assertFalse(second.isComplete());
+        assertFalse(future.isComplete());
+
+        batch.submitted();
+        assertFalse(future.isComplete());
+
+        second.onSuccess();
+        assertTrue(future.isComplete());
+    }
+
+    @Test
+    public void testNotCompleteUntilSubmitted() {
+        ProviderFuture future = new ProviderFuture();
+        BatchAsyncResult batch = new BatchAsyncResult(future);
+
+        batch.createRequest().onSuccess();
+        batch.createRequest().onSuccess();
+        assertFalse(future.isComplete());
+
+        batch.submitted();
+        assertTrue(future.isComplete());
+    }
+
+    @Test
+    public void testEmptyBatchCompletesWhenSubmitted() {
+        ProviderFuture future = new ProviderFuture();
+        BatchAsyncResult batch = new BatchAsyncResult(future);
+
+        batch.submitted();
+        assertTrue(future.isComplete());
+    }
+
+    @Test
+    public void testFailsOnFirstEntryFailure() throws Exception {
+        ProviderFuture future = new ProviderFuture();
+        BatchAsyncResult batch = new BatchAsyncResult(future);
+
+        AsyncResult first = batch.createRequest();
+        AsyncResult second = batch.createRequest();
+
+        second.onFailure(new IOException("failed"));
+        assertTrue(second.isComplete());
+        assertFalse(first.isComplete());
+        assertTrue(future.isComplete());
+
+        try {
+            future.sync();
+            fail("Batch should have failed");
+        } catch (IOException ex) {}
+    }
+
+    @Test
+    public void testEntryCompletesOnlyOnce() {
+        ProviderFuture future = new ProviderFuture();
+        BatchAsyncResult batch = new BatchAsyncResult(future);
+
+        AsyncResult first = batch.createRequest();
+        batch.createRequest();
+
+        // Repeated completion of the same entry must not count for the other one.
+        first.onSuccess();
+        first.onSuccess();
+        batch.submitted();
+
+        assertFalse(future.isComplete());
+    }
+}
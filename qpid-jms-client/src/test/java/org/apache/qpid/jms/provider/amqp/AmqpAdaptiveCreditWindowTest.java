@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider.amqp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for the AMQP adaptive consumer credit window
+ */
+public class AmqpAdaptiveCreditWindowTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private long now = 1000 * MILLIS;
+
+    @Test
+    public void testWindowStartsAtMaximum() {
+        AmqpAdaptiveCreditWindow window = new AmqpAdaptiveCreditWindow(200, 1000);
+        assertEquals(1000, window.getWindow());
+    }
+
+    @Test
+    public void testWindowIsNeverLessThanOne() {
+        AmqpAdaptiveCreditWindow window = new AmqpAdaptiveCreditWindow(200, 0);
+        assertEquals(1, window.getWindow());
+
+        window = new AmqpAdaptiveCreditWindow(200, 1000);
+        consumeBacklogged(window, 10, 1000 * MILLIS);
+        assertEquals(1, window.getWindow());
+    }
+
+    @Test
+    public void testWindowShrinksForSlowConsumer() {
+        AmqpAdaptiveCreditWindow window = new AmqpAdaptiveCreditWindow(200, 1000);
+
+        consumeBacklogged(window, 20, 50 * MILLIS);
+
+        assertEquals(4, window.getWindow());
+    }
+
+    @Test
+    public void testWindowGrowsBackForFasterConsumer() {
+        AmqpAdaptiveCreditWindow window = new AmqpAdaptiveCreditWindow(200, 1000);
+
+        consumeBacklogged(window, 20, 100 * MILLIS);
+        assertEquals(2, window.getWindow());
+
+        consumeBacklogged(window, 50, 1 * MILLIS);
+        assertTrue(window.getWindow() > 100);
+
+        consumeBacklogged(window, 50, TimeUnit.MICROSECONDS.toNanos(10));
+        assertEquals(1000, window.getWindow());
+    }
+
+    @Test
+    public void testTimeSpentWaitingForMessagesIsNotCounted() {
+        AmqpAdaptiveCreditWindow window = new AmqpAdaptiveCreditWindow(200, 1000);
+
+        consumeBacklogged(window, 20, 100 * MILLIS);
+        assertEquals(2, window.getWindow());
+
+        // An idle consumer that takes each message a millisecond after it arrives is
+        // fast no matter how long it was waiting for the message to show up.
+        for (int i = 0; i < 50; ++i) {
+            now += 500 * MILLIS;
+            window.onMessageArrived(now);
+            now += 1 * MILLIS;
+            window.onMessageConsumed(now, 0);
+        }
+
+        assertTrue(window.getWindow() > 190);
+        assertTrue(window.getWindow() <= 200);
+    }
+
+    @Test
+    public void testNoSampleTakenWithoutArrivalWhenIdle() {
+        AmqpAdaptiveCreditWindow window = new AmqpAdaptiveCreditWindow(200, 1000);
+
+        window.onMessageConsumed(now, 0);
+        now += 1000 * MILLIS;
+        window.onMessageConsumed(now, 0);
+
+        assertEquals(1000, window.getWindow());
+    }
+
+    private void consumeBacklogged(AmqpAdaptiveCreditWindow window, int count, long interval) {
+        for (int i = 0; i < count; ++i) {
+            window.onMessageArrived(now);
+            now += interval;
+            window.onMessageConsumed(now, 1);
+        }
+    }
+}
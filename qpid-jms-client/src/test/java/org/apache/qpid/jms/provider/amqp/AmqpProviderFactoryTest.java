@@ -117,7 +117,11 @@ public class AmqpProviderFactoryTest extends QpidJmsTestCase {
         URI configuredURI = new URI(peerURI.toString() +
             "?amqp.traceFrames=true" +
             "&amqp.traceBytes=true" +
-            "&amqp.channelMax=32");
+            "&amqp.channelMax=32" +
+            "&amqp.useTransportEventLoop=true" +
+            "&amqp.flushThreshold=1024" +
+            "&amqp.maxFlushDelay=5" +
+            "&amqp.encodeBufferPool=direct");
         Provider provider = AmqpProviderFactory.create(configuredURI);
         assertNotNull(provider);
         assertTrue(provider instanceof AmqpProvider);
@@ -127,6 +131,10 @@ public class AmqpProviderFactoryTest extends QpidJmsTestCase {
         assertEquals(true, amqpProvider.isTraceBytes());
         assertEquals(true, amqpProvider.isTraceFrames());
         assertEquals(32, amqpProvider.getChannelMax());
+        assertEquals(true, amqpProvider.isUseTransportEventLoop());
+        assertEquals(1024, amqpProvider.getFlushThreshold());
+        assertEquals(5, amqpProvider.getMaxFlushDelay());
+        assertEquals("direct", amqpProvider.getEncodeBufferPool());
     }
 
     @Test(timeout = 20000)
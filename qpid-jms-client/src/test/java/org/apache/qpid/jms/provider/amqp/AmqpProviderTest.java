@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -46,6 +47,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import io.netty.channel.EventLoop;
+
 /**
  * Test some basic functionality of the AmqpProvider
  */
@@ -174,6 +177,27 @@ public class AmqpProviderTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout=20000)
+    public void testConnectUsingTransportEventLoop() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer()) {
+            testPeer.expectSaslAnonymous();
+
+            provider = new AmqpProviderFactory().createProvider(getPeerURI(testPeer));
+            provider.setUseTransportEventLoop(true);
+            provider.connect(connectionInfo);
+
+            assertTrue(provider.getScheduler() instanceof EventLoop);
+            assertSame(provider.getTransport().getEventLoop(), provider.getScheduler());
+
+            testPeer.expectOpen();
+            testPeer.expectClose();
+
+            provider.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
     @Test(timeout=20000)
     public void testSetIdleTimeout() throws Exception {
         try (TestAmqpPeer testPeer = new TestAmqpPeer()) {
@@ -25,20 +25,26 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.jms.DeliveryMode;
 
 import org.apache.qpid.jms.message.JmsBytesMessage;
+import org.apache.qpid.jms.message.JmsMapMessage;
 import org.apache.qpid.jms.message.JmsMessage;
 import org.apache.qpid.jms.message.JmsObjectMessage;
 import org.apache.qpid.jms.message.JmsStreamMessage;
@@ -53,10 +59,14 @@ import org.apache.qpid.proton.amqp.Binary;
 import org.apache.qpid.proton.amqp.Symbol;
 import org.apache.qpid.proton.amqp.UnsignedInteger;
 import org.apache.qpid.proton.amqp.messaging.AmqpSequence;
+import org.apache.qpid.proton.amqp.messaging.ApplicationProperties;
 import org.apache.qpid.proton.amqp.messaging.AmqpValue;
 import org.apache.qpid.proton.amqp.messaging.Data;
+import org.apache.qpid.proton.amqp.messaging.Footer;
 import org.apache.qpid.proton.amqp.messaging.Header;
 import org.apache.qpid.proton.amqp.messaging.MessageAnnotations;
+import org.apache.qpid.proton.codec.CompositeReadableBuffer;
+import org.apache.qpid.proton.codec.ReadableBuffer;
 import org.apache.qpid.proton.message.Message;
 import org.apache.qpid.proton.message.impl.MessageImpl;
 import org.junit.Before;
@@ -893,4 +903,272 @@ public class AmqpCodecTest extends QpidJmsTestCase {
         AmqpObjectTypeDelegate delegate = ((AmqpJmsObjectMessageFacade) facade).getDelegate();
         assertTrue("Unexpected delegate type: " + delegate, delegate instanceof AmqpTypedObjectDelegate);
     }
+
+    //----- Data section decoding --------------------------------------------//
+
+    @Test
+    public void testDecodeSmallDataSectionReferencesMessageBytes() throws Exception {
+        doTestDecodeDataSectionReferencesMessageBytes(16);
+    }
+
+    @Test
+    public void testDecodeLargeDataSectionReferencesMessageBytes() throws Exception {
+        doTestDecodeDataSectionReferencesMessageBytes(65536);
+    }
+
+    private void doTestDecodeDataSectionReferencesMessageBytes(int size) throws Exception {
+        byte[] payload = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            payload[i] = (byte) i;
+        }
+
+        Message message = Proton.message();
+        message.setContentType(AmqpMessageSupport.OCTET_STREAM_CONTENT_TYPE);
+        message.setBody(new Data(new Binary(payload)));
+        message.setFooter(new Footer(Collections.singletonMap("key", "value")));
+
+        ReadableBuffer encoded = encodeMessage(message);
+
+        AmqpJmsMessageFacade facade = AmqpCodec.decodeMessage(mockConsumer, encoded);
+        assertEquals("Unexpected facade class type", AmqpJmsBytesMessageFacade.class, facade.getClass());
+        assertNotNull("Footer should have been decoded", facade.getFooter());
+        assertEquals("value", facade.getFooter().getValue().get("key"));
+
+        Binary body = ((Data) facade.getBody()).getValue();
+        assertSame("Body should reference the message bytes", encoded.array(), body.getArray());
+        assertEquals(new Binary(payload), body);
+    }
+
+    //----- Lazy section decoding --------------------------------------------//
+
+    @Test
+    public void testSectionsAreDecodedOnFirstAccess() throws Exception {
+        Message message = Proton.message();
+
+        Map<Symbol, Object> annotations = new HashMap<Symbol, Object>();
+        annotations.put(Symbol.valueOf("x-opt-test"), "annotation");
+        annotations.put(Symbol.valueOf(AmqpMessageSupport.JMS_MSG_TYPE), AmqpMessageSupport.JMS_TEXT_MESSAGE);
+        message.setMessageAnnotations(new MessageAnnotations(annotations));
+        message.setApplicationProperties(new ApplicationProperties(Collections.singletonMap("property", "value")));
+        message.setBody(new AmqpValue("content"));
+
+        AmqpJmsMessageFacade facade = AmqpCodec.decodeMessage(mockConsumer, encodeMessage(message));
+        assertEquals("Unexpected facade class type", AmqpJmsTextMessageFacade.class, facade.getClass());
+        assertFalse("Body should not have been decoded yet", facade.isBodyDecoded());
+
+        assertEquals("value", facade.getApplicationProperty("property"));
+        assertEquals("annotation", facade.getMessageAnnotation("x-opt-test"));
+        assertFalse("Body should not have been decoded yet", facade.isBodyDecoded());
+
+        assertEquals("content", ((AmqpJmsTextMessageFacade) facade).getText());
+        assertTrue("Body should have been decoded", facade.isBodyDecoded());
+    }
+
+    @Test
+    public void testCopyOfUndecodedMessageDecodesIndependently() throws Exception {
+        Message message = Proton.message();
+
+        Map<Symbol, Object> annotations = new HashMap<Symbol, Object>();
+        annotations.put(Symbol.valueOf(AmqpMessageSupport.JMS_MSG_TYPE), AmqpMessageSupport.JMS_MAP_MESSAGE);
+        message.setMessageAnnotations(new MessageAnnotations(annotations));
+        message.setApplicationProperties(new ApplicationProperties(Collections.singletonMap("property", "value")));
+        message.setBody(new AmqpValue(Collections.singletonMap("entry", "original")));
+
+        AmqpJmsMapMessageFacade facade = (AmqpJmsMapMessageFacade) AmqpCodec.decodeMessage(mockConsumer, encodeMessage(message));
+        AmqpJmsMapMessageFacade copy = facade.copy();
+
+        assertFalse("Copy should not have decoded the original body", facade.isBodyDecoded());
+        assertFalse("Copy body should not have been decoded yet", copy.isBodyDecoded());
+
+        copy.put("entry", "changed");
+        copy.setApplicationProperty("property", "changed");
+
+        assertEquals("original", facade.get("entry"));
+        assertEquals("value", facade.getApplicationProperty("property"));
+        assertEquals("changed", copy.get("entry"));
+        assertEquals("changed", copy.getApplicationProperty("property"));
+    }
+
+    @Test(timeout = 30000)
+    public void testCopyWhileApplicationMessageDecodes() throws Exception {
+        Message message = Proton.message();
+
+        Map<Symbol, Object> annotations = new HashMap<Symbol, Object>();
+        annotations.put(Symbol.valueOf(AmqpMessageSupport.JMS_MSG_TYPE), AmqpMessageSupport.JMS_TEXT_MESSAGE);
+        message.setMessageAnnotations(new MessageAnnotations(annotations));
+        message.setApplicationProperties(new ApplicationProperties(Collections.singletonMap("property", "value")));
+        message.setBody(new AmqpValue("content"));
+
+        ReadableBuffer encoded = encodeMessage(message);
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int i = 0; i < 1000 && failure.get() == null; ++i) {
+            // The dispatched message and the view of it given to the application.
+            final JmsTextMessage dispatched = (JmsTextMessage) AmqpCodec.decodeMessage(mockConsumer, ReadableBuffer.ByteBufferReader.wrap(bytes)).asJmsMessage();
+            final JmsTextMessage view = (JmsTextMessage) dispatched.copyOnWrite();
+            assertSame(dispatched.getFacade(), view.getFacade());
+
+            Thread application = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        barrier.await();
+                        assertEquals("value", view.getStringProperty("property"));
+                        assertEquals("content", view.getText());
+                    } catch (Throwable error) {
+                        failure.compareAndSet(null, error);
+                    }
+                }
+            });
+            application.start();
+
+            // Copy the dispatched message as a recover would while the application decodes.
+            barrier.await();
+            JmsTextMessage redelivered = (JmsTextMessage) dispatched.copy();
+            application.join();
+
+            assertEquals("value", redelivered.getStringProperty("property"));
+            assertEquals("content", redelivered.getText());
+        }
+
+        assertNull(failure.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void testDecodeMessageWithMalformedApplicationPropertiesThrows() throws Exception {
+        byte[] bytes = encodeWithApplicationProperty("property", "value");
+
+        // Replace the format code of the property value with one that does not exist.
+        int index = indexOf(bytes, new byte[] { (byte) 0xa1, 5, 'v', 'a', 'l', 'u', 'e' });
+        bytes[index] = 0x01;
+
+        AmqpCodec.decodeMessage(mockConsumer, ReadableBuffer.ByteBufferReader.wrap(bytes));
+    }
+
+    @Test(expected = IOException.class)
+    public void testDecodeMessageWithInvalidUtf8ApplicationPropertyThrows() throws Exception {
+        byte[] bytes = encodeWithApplicationProperty("property", "value");
+
+        // A two byte sequence lead that is not followed by a continuation byte.
+        int index = indexOf(bytes, new byte[] { 'v', 'a', 'l', 'u', 'e' });
+        bytes[index] = (byte) 0xC3;
+
+        AmqpCodec.decodeMessage(mockConsumer, ReadableBuffer.ByteBufferReader.wrap(bytes));
+    }
+
+    @Test
+    public void testDecodeMessageWithValuesOfEveryKindInLazySections() throws Exception {
+        Message message = Proton.message();
+
+        Map<Symbol, Object> annotations = new HashMap<Symbol, Object>();
+        annotations.put(Symbol.valueOf(AmqpMessageSupport.JMS_MSG_TYPE), AmqpMessageSupport.JMS_MAP_MESSAGE);
+        annotations.put(Symbol.valueOf("x-opt-array"), new Integer[] { 1, 2, 3 });
+        annotations.put(Symbol.valueOf("x-opt-symbols"), new Symbol[] { Symbol.valueOf("a"), Symbol.valueOf("b") });
+        message.setMessageAnnotations(new MessageAnnotations(annotations));
+
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put("null", null);
+        properties.put("boolean", true);
+        properties.put("byte", (byte) 1);
+        properties.put("short", (short) 2);
+        properties.put("int", 3);
+        properties.put("long", Long.MAX_VALUE);
+        properties.put("float", 4.5f);
+        properties.put("double", 6.5d);
+        properties.put("uuid", UUID.randomUUID());
+        properties.put("string", "\u00e9t\u00e9 \u6771\u4eac \ud83d\ude00");
+        message.setApplicationProperties(new ApplicationProperties(properties));
+
+        Map<String, Object> body = new HashMap<String, Object>();
+        body.put("list", Arrays.asList("one", 2, Collections.singletonMap("three", 3L)));
+        body.put("binary", new Binary(new byte[300]));
+        body.put("large", new String(new char[300]).replace('\0', 'x'));
+        message.setBody(new AmqpValue(body));
+
+        JmsMessage jmsMessage = AmqpCodec.decodeMessage(mockConsumer, encodeMessage(message)).asJmsMessage();
+
+        assertEquals("\u00e9t\u00e9 \u6771\u4eac \ud83d\ude00", jmsMessage.getStringProperty("string"));
+        assertEquals(Long.MAX_VALUE, jmsMessage.getLongProperty("long"));
+        assertEquals(300, ((JmsMapMessage) jmsMessage).getBytes("binary").length);
+    }
+
+    private static byte[] encodeWithApplicationProperty(String name, String value) {
+        Message message = Proton.message();
+
+        Map<Symbol, Object> annotations = new HashMap<Symbol, Object>();
+        annotations.put(Symbol.valueOf(AmqpMessageSupport.JMS_MSG_TYPE), AmqpMessageSupport.JMS_TEXT_MESSAGE);
+        message.setMessageAnnotations(new MessageAnnotations(annotations));
+        message.setApplicationProperties(new ApplicationProperties(Collections.singletonMap(name, value)));
+        message.setBody(new AmqpValue("content"));
+
+        ReadableBuffer encoded = encodeMessage(message);
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+
+        return bytes;
+    }
+
+    private static int indexOf(byte[] array, byte[] target) {
+        for (int i = 0; i <= array.length - target.length; ++i) {
+            if (Arrays.equals(Arrays.copyOfRange(array, i, i + target.length), target)) {
+                return i;
+            }
+        }
+
+        throw new AssertionError("Encoded message does not hold the expected bytes");
+    }
+
+    @Test
+    public void testDecodeMessageFromBufferNotBackedBySingleArray() throws Exception {
+        Message message = Proton.message();
+
+        Map<Symbol, Object> annotations = new HashMap<Symbol, Object>();
+        annotations.put(Symbol.valueOf(AmqpMessageSupport.JMS_MSG_TYPE), AmqpMessageSupport.JMS_TEXT_MESSAGE);
+        message.setMessageAnnotations(new MessageAnnotations(annotations));
+        message.setBody(new AmqpValue("content"));
+
+        ReadableBuffer encoded = encodeMessage(message);
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+
+        int split = bytes.length / 2;
+        CompositeReadableBuffer composite = new CompositeReadableBuffer();
+        composite.append(Arrays.copyOfRange(bytes, 0, split));
+        composite.append(Arrays.copyOfRange(bytes, split, bytes.length));
+        assertFalse(composite.hasArray());
+
+        AmqpJmsMessageFacade facade = AmqpCodec.decodeMessage(mockConsumer, composite);
+
+        // The delivery buffer may be reused once decoded so must not be referenced.
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = 0;
+        }
+
+        assertEquals("Unexpected facade class type", AmqpJmsTextMessageFacade.class, facade.getClass());
+        assertEquals("content", ((AmqpJmsTextMessageFacade) facade).getText());
+    }
+
+    @Test
+    public void testFindAnnotationInEncodedSection() throws Exception {
+        Map<Symbol, Object> annotations = new HashMap<Symbol, Object>();
+        annotations.put(Symbol.valueOf("x-opt-string"), "value");
+        annotations.put(Symbol.valueOf("x-opt-list"), Arrays.asList("a", "b", "c"));
+        annotations.put(Symbol.valueOf(AmqpMessageSupport.JMS_MSG_TYPE), AmqpMessageSupport.JMS_BYTES_MESSAGE);
+
+        ByteBuf encoded = AmqpCodec.encode(new MessageAnnotations(annotations));
+        byte[] bytes = new byte[encoded.readableBytes() + 2];
+        encoded.readBytes(bytes, 1, encoded.readableBytes());
+
+        AmqpEncodedSection section = new AmqpEncodedSection(bytes, 1, bytes.length - 2);
+
+        assertEquals(AmqpMessageSupport.JMS_BYTES_MESSAGE, section.findAnnotation(AmqpMessageSupport.JMS_MSG_TYPE));
+        assertEquals("value", section.findAnnotation("x-opt-string"));
+        assertNull(section.findAnnotation("x-opt-missing"));
+        assertEquals(new MessageAnnotations(annotations).getValue(), ((MessageAnnotations) section.decode()).getValue());
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider.amqp.message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+
+import org.apache.qpid.jms.meta.JmsProducerId;
+import org.apache.qpid.jms.provider.amqp.message.AmqpEncodeBufferAllocator.PoolType;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.buffer.ByteBuf;
+
+public class AmqpEncodeBufferAllocatorTest extends AmqpJmsMessageTypesTestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AmqpEncodeBufferAllocatorTest.class);
+
+    private final JmsProducerId producerId = new JmsProducerId("ID:TEST:1", 1, 1);
+
+    @Test
+    public void testPoolTypeFromString() {
+        assertEquals(PoolType.NONE, PoolType.fromString("none"));
+        assertEquals(PoolType.HEAP, PoolType.fromString("Heap"));
+        assertEquals(PoolType.DIRECT, PoolType.fromString(" DIRECT "));
+
+        try {
+            PoolType.fromString("offheap");
+            fail("Should not accept unknown pool type");
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    @Test
+    public void testAllocateWithoutHistoryUsesDefaultCapacity() {
+        AmqpEncodeBufferAllocator allocator = new AmqpEncodeBufferAllocator(PoolType.NONE);
+
+        ByteBuf buffer = allocator.allocate(producerId);
+        assertEquals(AmqpWritableBuffer.INITIAL_CAPACITY, buffer.capacity());
+        assertFalse(buffer.isDirect());
+        buffer.release();
+
+        buffer = allocator.allocate(null);
+        assertEquals(AmqpWritableBuffer.INITIAL_CAPACITY, buffer.capacity());
+        buffer.release();
+    }
+
+    @Test
+    public void testAllocateDirect() {
+        AmqpEncodeBufferAllocator allocator = new AmqpEncodeBufferAllocator(PoolType.DIRECT);
+
+        ByteBuf buffer = allocator.allocate(producerId);
+        assertTrue(buffer.isDirect());
+        assertTrue(buffer.release());
+    }
+
+    @Test
+    public void testEstimateJumpsToLargerSize() {
+        AmqpEncodeBufferAllocator allocator = new AmqpEncodeBufferAllocator(PoolType.NONE);
+
+        allocator.recordEncodedSize(producerId, 100);
+        allocator.recordEncodedSize(producerId, 8000);
+
+        assertTrue(allocator.getEstimatedCapacity(producerId) >= 8000);
+
+        ByteBuf buffer = allocator.allocate(producerId);
+        assertTrue(buffer.capacity() >= 8000);
+        buffer.release();
+    }
+
+    @Test
+    public void testEstimateDecaysTowardsSmallerSizes() {
+        AmqpEncodeBufferAllocator allocator = new AmqpEncodeBufferAllocator(PoolType.NONE);
+
+        allocator.recordEncodedSize(producerId, 8000);
+        allocator.recordEncodedSize(producerId, 200);
+
+        int afterOne = allocator.getEstimatedCapacity(producerId);
+        assertTrue(afterOne > 4000);
+
+        for (int i = 0; i < 100; ++i) {
+            allocator.recordEncodedSize(producerId, 200);
+        }
+
+        int settled = allocator.getEstimatedCapacity(producerId);
+        assertTrue(settled < afterOne);
+        assertTrue(settled >= 200);
+        assertTrue(settled < 300);
+    }
+
+    @Test
+    public void testEstimatesAreTrackedPerProducer() {
+        AmqpEncodeBufferAllocator allocator = new AmqpEncodeBufferAllocator(PoolType.NONE);
+        JmsProducerId otherId = new JmsProducerId("ID:TEST:1", 1, 2);
+
+        allocator.recordEncodedSize(producerId, 16000);
+        allocator.recordEncodedSize(otherId, 100);
+
+        assertTrue(allocator.getEstimatedCapacity(producerId) >= 16000);
+        assertTrue(allocator.getEstimatedCapacity(otherId) < 200);
+
+        allocator.removeProducer(producerId);
+        assertEquals(AmqpWritableBuffer.INITIAL_CAPACITY, allocator.getEstimatedCapacity(producerId));
+    }
+
+    @Test
+    public void testEncodeRecordsSizeForProducer() {
+        AmqpEncodeBufferAllocator allocator = new AmqpEncodeBufferAllocator(PoolType.HEAP);
+
+        AmqpJmsTextMessageFacade message = createNewTextMessageFacade();
+        message.setText(createPayloadString(4096));
+
+        ByteBuf encoded = AmqpCodec.encodeMessage(message, allocator, producerId);
+        int size = encoded.readableBytes();
+        assertTrue(encoded.release());
+
+        assertTrue(allocator.getEstimatedCapacity(producerId) >= size);
+
+        encoded = AmqpCodec.encodeMessage(message, allocator, producerId);
+        assertTrue(encoded.capacity() >= size);
+        assertEquals(size, encoded.readableBytes());
+        assertTrue(encoded.release());
+    }
+
+    @Ignore("Used to test performance")
+    @Test
+    public void testAllocationPerSend() {
+        AmqpJmsTextMessageFacade message = createNewTextMessageFacade();
+        message.setText(createPayloadString(2048));
+
+        for (PoolType type : PoolType.values()) {
+            AmqpEncodeBufferAllocator allocator = new AmqpEncodeBufferAllocator(type);
+
+            // Warm up the encoder, the pool and the size estimate.
+            encodeAndRelease(message, allocator, 100000);
+
+            final int iterations = 1000000;
+            long allocatedBefore = allocatedBytes();
+            long started = System.nanoTime();
+
+            encodeAndRelease(message, allocator, iterations);
+
+            long elapsed = System.nanoTime() - started;
+            long allocated = allocatedBytes() - allocatedBefore;
+
+            LOG.info("{} : {} bytes allocated per send, {} ns per send", type, allocated / iterations, elapsed / iterations);
+        }
+    }
+
+    private void encodeAndRelease(AmqpJmsMessageFacade message, AmqpEncodeBufferAllocator allocator, int count) {
+        for (int i = 0; i < count; ++i) {
+            AmqpCodec.encodeMessage(message, allocator, producerId).release();
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static String createPayloadString(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            builder.append((char) ('a' + (i % 26)));
+        }
+
+        return builder.toString();
+    }
+}
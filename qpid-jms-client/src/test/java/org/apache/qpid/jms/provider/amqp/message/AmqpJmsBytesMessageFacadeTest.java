@@ -32,6 +32,7 @@ import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
 
 import org.apache.qpid.proton.amqp.Binary;
@@ -39,6 +40,7 @@ import org.apache.qpid.proton.amqp.Symbol;
 import org.apache.qpid.proton.amqp.messaging.AmqpSequence;
 import org.apache.qpid.proton.amqp.messaging.AmqpValue;
 import org.apache.qpid.proton.amqp.messaging.Data;
+import org.apache.qpid.proton.amqp.messaging.Footer;
 import org.apache.qpid.proton.amqp.messaging.MessageAnnotations;
 import org.apache.qpid.proton.amqp.messaging.Properties;
 import org.apache.qpid.proton.amqp.messaging.Section;
@@ -46,8 +48,10 @@ import org.apache.qpid.proton.message.Message;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 
 /**
@@ -592,6 +596,40 @@ public class AmqpJmsBytesMessageFacadeTest extends AmqpJmsMessageTypesTestCase {
         assertTrue(amqpBytesMessageFacade.hasBody());
     }
 
+    // ---------- test encoding ----------------------------------------------//
+
+    @Test
+    public void testEncodeSmallBody() throws Exception {
+        doTestEncodeBody(1024);
+    }
+
+    @Test
+    public void testEncodeLargeBody() throws Exception {
+        doTestEncodeBody(256 * 1024);
+    }
+
+    private void doTestEncodeBody(int size) throws Exception {
+        byte[] payload = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            payload[i] = (byte) i;
+        }
+
+        AmqpJmsBytesMessageFacade amqpBytesMessageFacade = createNewBytesMessageFacade();
+        amqpBytesMessageFacade.getOutputStream().write(payload);
+        amqpBytesMessageFacade.reset();
+        amqpBytesMessageFacade.setFooter(new Footer(Collections.singletonMap("key", "value")));
+
+        ByteBuf encoded = amqpBytesMessageFacade.encodeMessage();
+
+        Message decoded = Message.Factory.create();
+        byte[] encodedBytes = ByteBufUtil.getBytes(encoded);
+        decoded.decode(encodedBytes, 0, encodedBytes.length);
+
+        assertTrue(Arrays.equals(payload, ((Data) decoded.getBody()).getValue().getArray()));
+        assertEquals("value", decoded.getFooter().getValue().get("key"));
+        assertEquals(JMS_BYTES_MESSAGE, decoded.getMessageAnnotations().getValue().get(getSymbol(JMS_MSG_TYPE)));
+    }
+
     //--------- utility methods ----------
 
     private void assertDataBodyAsExpected(Section body, int length) {
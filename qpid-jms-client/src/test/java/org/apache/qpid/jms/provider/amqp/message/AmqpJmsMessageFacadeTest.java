@@ -1291,6 +1291,24 @@ public class AmqpJmsMessageFacadeTest extends AmqpJmsMessageTypesTestCase  {
         messageIdOnReceivedMessageTestImpl(testMessageId, expected);
     }
 
+    @Test
+    public void testGetMessageIdReturnsSameStringUntilIdChanges() throws Exception {
+        AmqpJmsMessageFacade amqpMessageFacade = createNewMessageFacade();
+
+        amqpMessageFacade.setProviderMessageIdObject(UnsignedLong.valueOf(42));
+
+        String first = amqpMessageFacade.getMessageId();
+        assertEquals(AmqpMessageIdHelper.JMS_ID_PREFIX + AmqpMessageIdHelper.AMQP_ULONG_PREFIX + "42", first);
+        assertSame(first, amqpMessageFacade.getMessageId());
+        assertSame(first, amqpMessageFacade.copy().getMessageId());
+
+        amqpMessageFacade.setProviderMessageIdObject(UnsignedLong.valueOf(43));
+        assertEquals(AmqpMessageIdHelper.JMS_ID_PREFIX + AmqpMessageIdHelper.AMQP_ULONG_PREFIX + "43", amqpMessageFacade.getMessageId());
+
+        amqpMessageFacade.setProviderMessageIdObject(null);
+        assertNull(amqpMessageFacade.getMessageId());
+    }
+
     private void messageIdOnReceivedMessageTestImpl(Object underlyingMessageId, String expected) {
         if (!(underlyingMessageId == null || underlyingMessageId instanceof Binary
                 || underlyingMessageId instanceof UnsignedLong || underlyingMessageId instanceof String || underlyingMessageId instanceof UUID)) {
@@ -253,6 +253,20 @@ public class AmqpReadableBufferTest {
         }
     }
 
+    @Test
+    public void testGetBytesToWritableBufferFromComposite() {
+        byte[] data = new byte[] { 0, 1, 2, 3, 4};
+        ByteBuf byteBuffer = Unpooled.wrappedBuffer(
+            Unpooled.wrappedBuffer(data, 0, 2), Unpooled.wrappedBuffer(data, 2, 3));
+        AmqpReadableBuffer buffer = new AmqpReadableBuffer(byteBuffer);
+        ByteBuf targetBuffer = Unpooled.buffer(data.length, data.length);
+        AmqpWritableBuffer target = new AmqpWritableBuffer(targetBuffer);
+
+        buffer.get(target);
+        assertFalse(buffer.hasRemaining());
+        assertArrayEquals(targetBuffer.array(), data);
+    }
+
     @Test
     public void testDuplicate() {
         byte[] data = new byte[] { 0, 1, 2, 3, 4};
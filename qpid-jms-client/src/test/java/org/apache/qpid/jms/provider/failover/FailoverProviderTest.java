@@ -34,8 +34,10 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import javax.jms.Connection;
+import javax.jms.DeliveryMode;
 import javax.jms.Destination;
 import javax.jms.JMSException;
+import javax.jms.Message;
 import javax.jms.MessageProducer;
 import javax.jms.Queue;
 import javax.jms.Session;
@@ -50,6 +52,7 @@ import org.apache.qpid.jms.provider.ProviderFuture;
 import org.apache.qpid.jms.test.Wait;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -414,6 +417,82 @@ public class FailoverProviderTest extends FailoverProviderTestSupport {
         assertEquals(1, mockPeer.getContextStats().getSendCalls());
     }
 
+    @Test(timeout = 30000)
+    public void testSendMessagesFromManyThreadsPassthrough() throws Exception {
+        final int THREADS = 4;
+        final int MSG_COUNT = 250;
+
+        JmsConnectionFactory factory = new JmsConnectionFactory(
+            "failover:(mock://localhost)");
+
+        final Connection connection = factory.createConnection();
+        connection.start();
+
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        final List<Exception> failures = Collections.synchronizedList(new ArrayList<Exception>());
+
+        for (int i = 0; i < THREADS; ++i) {
+            Thread sender = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                        MessageProducer producer = session.createProducer(session.createQueue(getTestName()));
+                        for (int j = 0; j < MSG_COUNT; ++j) {
+                            producer.send(session.createMessage());
+                        }
+                    } catch (Exception ex) {
+                        failures.add(ex);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+            sender.start();
+        }
+
+        assertTrue(done.await(20, TimeUnit.SECONDS));
+        assertTrue("Sends failed: " + failures, failures.isEmpty());
+
+        connection.close();
+
+        assertEquals(THREADS * MSG_COUNT, mockPeer.getContextStats().getSendCalls());
+    }
+
+    @Ignore("Used to test performance")
+    @Test
+    public void testSendPerformanceComparedToDirectConnection() throws Exception {
+        final int MSG_COUNT = 200000;
+
+        for (int i = 0; i < 3; ++i) {
+            long direct = timeSends("mock://localhost", MSG_COUNT);
+            long failover = timeSends("failover:(mock://localhost)", MSG_COUNT);
+
+            LOG.info("Sent {} messages, direct: {} ms, failover: {} ms", MSG_COUNT,
+                TimeUnit.NANOSECONDS.toMillis(direct), TimeUnit.NANOSECONDS.toMillis(failover));
+        }
+    }
+
+    private long timeSends(String uri, int count) throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory(uri);
+        Connection connection = factory.createConnection();
+        try {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            MessageProducer producer = session.createProducer(session.createQueue(getTestName()));
+            producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+            Message message = session.createMessage();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < count; ++i) {
+                producer.send(message);
+            }
+            return System.nanoTime() - start;
+        } finally {
+            connection.close();
+        }
+    }
+
     @Test(timeout=10000)
     public void testTimeoutsSetFromConnectionInfo() throws IOException, JMSException {
         final long CONNECT_TIMEOUT = TimeUnit.SECONDS.toMillis(4);
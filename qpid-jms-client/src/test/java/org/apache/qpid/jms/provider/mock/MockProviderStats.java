@@ -260,7 +260,7 @@ public class MockProviderStats {
             parent.recordRollbackCall();
         }
 
-        commitCalls.incrementAndGet();
+        rollbackCalls.incrementAndGet();
     }
 
     public int getRecoverCalls() {
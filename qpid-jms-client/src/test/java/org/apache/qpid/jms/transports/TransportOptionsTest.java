@@ -44,6 +44,7 @@ public class TransportOptionsTest extends QpidJmsTestCase {
     public static final int TEST_DEFAULT_TCP_PORT = 5682;
     public static final boolean TEST_USE_EPOLL_VALUE = !TransportOptions.DEFAULT_USE_EPOLL;
     public static final boolean TEST_TRACE_BYTES_VALUE = !TransportOptions.DEFAULT_TRACE_BYTES;
+    public static final int TEST_SHARED_EVENT_LOOP_THREADS = 4;
 
     private static final String PASSWORD = "password";
     private static final String CLIENT_KEYSTORE = "src/test/resources/client-jks.keystore";
@@ -53,6 +54,7 @@ public class TransportOptionsTest extends QpidJmsTestCase {
     private static final String CONTEXT_PROTOCOL = "TLSv1.1";
     private static final boolean TRUST_ALL = true;
     private static final boolean VERIFY_HOST = true;
+    private static final boolean USE_OPENSSL = true;
 
     private static final int TEST_DEFAULT_SSL_PORT = 5681;
 
@@ -73,7 +75,9 @@ public class TransportOptionsTest extends QpidJmsTestCase {
         TransportOptions options = new TransportOptions();
 
         assertEquals(TransportOptions.DEFAULT_TCP_NO_DELAY, options.isTcpNoDelay());
+        assertEquals(TransportOptions.DEFAULT_SHARED_EVENT_LOOP_THREADS, options.getSharedEventLoopThreads());
         assertEquals(TransportOptions.DEFAULT_TRUST_ALL, options.isTrustAll());
+        assertEquals(TransportOptions.DEFAULT_USE_OPENSSL, options.isUseOpenSSL());
         assertEquals(TransportOptions.DEFAULT_STORE_TYPE, options.getKeyStoreType());
         assertEquals(TransportOptions.DEFAULT_STORE_TYPE, options.getTrustStoreType());
 
@@ -107,6 +111,7 @@ public class TransportOptionsTest extends QpidJmsTestCase {
         assertEquals(TEST_DEFAULT_TCP_PORT, options.getDefaultTcpPort());
         assertEquals(TEST_USE_EPOLL_VALUE, options.isUseEpoll());
         assertEquals(TEST_TRACE_BYTES_VALUE, options.isTraceBytes());
+        assertEquals(TEST_SHARED_EVENT_LOOP_THREADS, options.getSharedEventLoopThreads());
     }
 
     @Test
@@ -125,6 +130,7 @@ public class TransportOptionsTest extends QpidJmsTestCase {
         assertEquals(TEST_DEFAULT_SSL_PORT, options.getDefaultSslPort());
         assertEquals(TEST_USE_EPOLL_VALUE, options.isUseEpoll());
         assertEquals(TEST_TRACE_BYTES_VALUE, options.isTraceBytes());
+        assertEquals(TEST_SHARED_EVENT_LOOP_THREADS, options.getSharedEventLoopThreads());
         assertEquals(CLIENT_KEYSTORE, options.getKeyStoreLocation());
         assertEquals(PASSWORD, options.getKeyStorePassword());
         assertEquals(CLIENT_TRUSTSTORE, options.getTrustStoreLocation());
@@ -132,6 +138,7 @@ public class TransportOptionsTest extends QpidJmsTestCase {
         assertEquals(KEYSTORE_TYPE, options.getKeyStoreType());
         assertEquals(KEYSTORE_TYPE, options.getTrustStoreType());
         assertEquals(KEY_ALIAS, options.getKeyAlias());
+        assertEquals(USE_OPENSSL, options.isUseOpenSSL());
         assertEquals(CONTEXT_PROTOCOL, options.getContextProtocol());
         assertEquals(SSL_CONTEXT, options.getSslContextOverride());
         assertArrayEquals(ENABLED_PROTOCOLS,options.getEnabledProtocols());
@@ -213,6 +220,7 @@ public class TransportOptionsTest extends QpidJmsTestCase {
         assertEquals(KEYSTORE_TYPE, options.getKeyStoreType());
         assertEquals(KEYSTORE_TYPE, options.getTrustStoreType());
         assertEquals(KEY_ALIAS, options.getKeyAlias());
+        assertEquals(USE_OPENSSL, options.isUseOpenSSL());
         assertEquals(CONTEXT_PROTOCOL, options.getContextProtocol());
         assertEquals(SSL_CONTEXT, options.getSslContextOverride());
         assertArrayEquals(ENABLED_PROTOCOLS,options.getEnabledProtocols());
@@ -231,6 +239,7 @@ public class TransportOptionsTest extends QpidJmsTestCase {
         options.setStoreType(KEYSTORE_TYPE);
         options.setTrustAll(TRUST_ALL);
         options.setVerifyHost(VERIFY_HOST);
+        options.setUseOpenSSL(USE_OPENSSL);
         options.setKeyAlias(KEY_ALIAS);
         options.setContextProtocol(CONTEXT_PROTOCOL);
         options.setEnabledProtocols(ENABLED_PROTOCOLS);
@@ -310,11 +319,13 @@ public class TransportOptionsTest extends QpidJmsTestCase {
         options.setDefaultSslPort(TEST_DEFAULT_SSL_PORT);
         options.setUseEpoll(TEST_USE_EPOLL_VALUE);
         options.setTraceBytes(TEST_TRACE_BYTES_VALUE);
+        options.setSharedEventLoopThreads(TEST_SHARED_EVENT_LOOP_THREADS);
         options.setKeyStoreLocation(CLIENT_KEYSTORE);
         options.setKeyStorePassword(PASSWORD);
         options.setTrustStoreLocation(CLIENT_TRUSTSTORE);
         options.setTrustStorePassword(PASSWORD);
         options.setKeyAlias(KEY_ALIAS);
+        options.setUseOpenSSL(USE_OPENSSL);
         options.setContextProtocol(CONTEXT_PROTOCOL);
         options.setSslContextOverride(SSL_CONTEXT);
         options.setEnabledProtocols(ENABLED_PROTOCOLS);
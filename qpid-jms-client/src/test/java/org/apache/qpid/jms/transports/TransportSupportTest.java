@@ -23,6 +23,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
 
 import java.io.IOException;
 import java.security.UnrecoverableKeyException;
@@ -35,6 +37,12 @@ import javax.net.ssl.SSLEngine;
 import org.apache.qpid.jms.test.QpidJmsTestCase;
 import org.junit.Test;
 
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.ReferenceCountedOpenSslEngine;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslHandler;
+
 /**
  * Tests for the TransportSupport class.
  */
@@ -408,6 +416,119 @@ public class TransportSupportTest extends QpidJmsTestCase {
         }
     }
 
+    @Test
+    public void testIsOpenSSLPossibleWhenNotRequested() throws Exception {
+        TransportOptions options = createJksSslOptions();
+        options.setUseOpenSSL(false);
+
+        assertFalse(TransportSupport.isOpenSSLPossible(options));
+    }
+
+    @Test
+    public void testIsOpenSSLPossibleWithSslContextOverride() throws Exception {
+        TransportOptions options = createJksSslOptions();
+        options.setUseOpenSSL(true);
+        options.setSslContextOverride(SSLContext.getDefault());
+
+        assertFalse(TransportSupport.isOpenSSLPossible(options));
+    }
+
+    @Test
+    public void testIsOpenSSLPossibleWithConfiguredContextProtocol() throws Exception {
+        TransportOptions options = createJksSslOptions();
+        options.setUseOpenSSL(true);
+        options.setContextProtocol("TLSv1.2");
+
+        assertFalse(TransportSupport.isOpenSSLPossible(options));
+    }
+
+    @Test
+    public void testIsOpenSSLPossibleMatchesLibraryAvailability() throws Exception {
+        TransportOptions options = createJksSslOptions();
+        options.setUseOpenSSL(true);
+        options.setVerifyHost(false);
+
+        assertEquals(OpenSsl.isAvailable() && OpenSsl.supportsKeyManagerFactory(), TransportSupport.isOpenSSLPossible(options));
+    }
+
+    @Test
+    public void testCreateSslHandlerFallsBackToJdkEngineWhenOpenSSLUnavailable() throws Exception {
+        assumeFalse(OpenSsl.isAvailable());
+
+        TransportOptions options = createJksSslOptions(ENABLED_PROTOCOLS);
+        options.setUseOpenSSL(true);
+
+        SslHandler handler = TransportSupport.createSslHandler(null, options);
+        assertNotNull(handler);
+
+        SSLEngine engine = handler.engine();
+        assertFalse(engine instanceof ReferenceCountedOpenSslEngine);
+        assertTrue(engine.getUseClientMode());
+        assertArrayEquals("Enabled protocols not as expected", ENABLED_PROTOCOLS, engine.getEnabledProtocols());
+        assertEquals("HTTPS", engine.getSSLParameters().getEndpointIdentificationAlgorithm());
+    }
+
+    @Test
+    public void testCreateOpenSslEngineFromJksStore() throws Exception {
+        assumeTrue(OpenSsl.isAvailable());
+
+        TransportOptions options = createJksSslOptions();
+        options.setUseOpenSSL(true);
+        options.setVerifyHost(false);
+
+        SslContext context = TransportSupport.createOpenSslContext(options);
+        assertNotNull(context);
+
+        SSLEngine engine = TransportSupport.createOpenSslEngine(PooledByteBufAllocator.DEFAULT, null, context, options);
+        assertNotNull(engine);
+        assertTrue(engine instanceof ReferenceCountedOpenSslEngine);
+        assertTrue(engine.getUseClientMode());
+
+        List<String> engineProtocols = Arrays.asList(engine.getEnabledProtocols());
+        assertFalse(engineProtocols.isEmpty());
+        assertFalse("SSLv3 should not be enabled by default", engineProtocols.contains("SSLv3"));
+
+        ((ReferenceCountedOpenSslEngine) engine).release();
+    }
+
+    @Test
+    public void testCreateOpenSslEngineWithExplicitEnabledCiphers() throws Exception {
+        assumeTrue(OpenSsl.isAvailable());
+
+        TransportOptions options = createJksSslOptions();
+        options.setUseOpenSSL(true);
+        options.setVerifyHost(false);
+
+        SslContext context = TransportSupport.createOpenSslContext(options);
+        SSLEngine defaultEngine = TransportSupport.createOpenSslEngine(PooledByteBufAllocator.DEFAULT, null, context, options);
+        String[] ciphers = defaultEngine.getEnabledCipherSuites();
+        ((ReferenceCountedOpenSslEngine) defaultEngine).release();
+        assertTrue("There were no initial ciphers to choose from!", ciphers.length > 0);
+
+        String[] enabledCipher = new String[] { ciphers[0] };
+        options.setEnabledCipherSuites(enabledCipher);
+
+        SSLEngine engine = TransportSupport.createOpenSslEngine(PooledByteBufAllocator.DEFAULT, null, context, options);
+        assertArrayEquals("Enabled ciphers not as expected", enabledCipher, engine.getEnabledCipherSuites());
+        ((ReferenceCountedOpenSslEngine) engine).release();
+    }
+
+    @Test
+    public void testCreateOpenSslContextWithKeyAliasWhichDoesntExist() throws Exception {
+        assumeTrue(OpenSsl.isAvailable());
+
+        TransportOptions options = createJksSslOptions();
+        options.setUseOpenSSL(true);
+        options.setKeyAlias(ALIAS_DOES_NOT_EXIST);
+
+        try {
+            TransportSupport.createOpenSslContext(options);
+            fail("Expected exception to be thrown");
+        } catch (IllegalArgumentException iae) {
+            // Expected
+        }
+    }
+
     private TransportOptions createJksSslOptions() {
         return createJksSslOptions(null);
     }
@@ -27,17 +27,25 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.qpid.jms.test.Wait;
 import org.apache.qpid.jms.transports.Transport;
 import org.apache.qpid.jms.transports.TransportListener;
 import org.apache.qpid.jms.transports.TransportOptions;
 import org.apache.qpid.jms.util.QpidJMSTestRunner;
 import org.apache.qpid.jms.util.Repeat;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.ssl.OpenSsl;
+
 /**
  * Test basic functionality of the Netty based TCP Transport ruuing in secure mode (SSL).
  */
@@ -285,6 +293,104 @@ public class NettySslTransportTest extends NettyTcpTransportTest {
         }
     }
 
+    @Test(timeout = 60 * 1000)
+    public void testConnectToServerWithOpenSSLEnabled() throws Exception {
+        try (NettyEchoServer server = createEchoServer(createServerOptions())) {
+            server.start();
+
+            int port = server.getServerPort();
+            URI serverLocation = new URI("tcp://localhost:" + port);
+
+            TransportOptions options = createClientOptions();
+            options.setUseOpenSSL(true);
+
+            // Falls back to the JDK SSLEngine when the native library is not available.
+            Transport transport = createTransport(serverLocation, testListener, options);
+            try {
+                transport.connect(null);
+                LOG.info("Connected to server:{} as expected.", serverLocation);
+            } catch (Exception e) {
+                fail("Should have connected to the server at " + serverLocation + " but got exception: " + e);
+            }
+
+            assertTrue(transport.isConnected());
+            assertTrue(transport.isSecure());
+
+            transport.send(Unpooled.wrappedBuffer(new byte[] { 1, 2, 3, 4 }));
+
+            assertTrue(Wait.waitFor(() -> !data.isEmpty(), 10000, 10));
+
+            transport.close();
+        }
+
+        logTransportErrors();
+        assertTrue(exceptions.isEmpty());
+    }
+
+    @Ignore("Used to test performance")
+    @Test
+    public void testCompareSslEnginePerformance() throws Exception {
+        doTestSslEnginePerformance(false);
+        if (OpenSsl.isAvailable()) {
+            doTestSslEnginePerformance(true);
+        } else {
+            LOG.info("OpenSSL is not available: {}", OpenSsl.unavailabilityCause().getMessage());
+        }
+    }
+
+    private void doTestSslEnginePerformance(boolean useOpenSSL) throws Exception {
+        final int HANDSHAKE_COUNT = 500;
+        final int FRAME_SIZE = 64 * 1024;
+        final int FRAME_COUNT = 4096;
+
+        try (NettyEchoServer server = createEchoServer(createServerOptions())) {
+            server.start();
+
+            URI serverLocation = new URI("tcp://localhost:" + server.getServerPort());
+
+            TransportOptions options = createClientOptions();
+            options.setUseOpenSSL(useOpenSSL);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < HANDSHAKE_COUNT; ++i) {
+                Transport transport = createTransport(serverLocation, testListener, options);
+                transport.connect(null);
+                transport.close();
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            LOG.info("OpenSSL {}: {} handshakes in {} ms ({} per second)",
+                     useOpenSSL, HANDSHAKE_COUNT, elapsed, (HANDSHAKE_COUNT * 1000L) / Math.max(1, elapsed));
+
+            final AtomicLong echoed = new AtomicLong();
+            Transport transport = createTransport(serverLocation, new NettyTransportListener(false) {
+
+                @Override
+                public void onData(ByteBuf incoming) {
+                    echoed.addAndGet(incoming.readableBytes());
+                }
+            }, options);
+            transport.connect(null);
+
+            ByteBuf sendBuffer = Unpooled.buffer(FRAME_SIZE);
+            sendBuffer.writerIndex(FRAME_SIZE);
+
+            final long expected = (long) FRAME_SIZE * FRAME_COUNT;
+
+            start = System.nanoTime();
+            for (int i = 0; i < FRAME_COUNT; ++i) {
+                transport.send(sendBuffer.retainedDuplicate());
+            }
+            assertTrue(Wait.waitFor(() -> echoed.get() == expected, 120000, 1));
+            elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            LOG.info("OpenSSL {}: echoed {} bytes in {} ms ({} MB per second)",
+                     useOpenSSL, expected, elapsed, (expected * 1000L) / Math.max(1, elapsed) / (1024 * 1024));
+
+            transport.close();
+        }
+    }
+
     @Override
     protected NettyTcpTransport createTransport(URI serverLocation, TransportListener listener, TransportOptions options) {
         return new NettyTcpTransport(listener, serverLocation, options, true);
@@ -41,6 +41,7 @@ public class NettyTcpTransportFactoryTest {
     public static final int CUSTOM_SO_LINGER = Short.MIN_VALUE;
     public static final int CUSTOM_SO_TIMEOUT = 10;
     public static final int CUSTOM_CONNECT_TIMEOUT = 90000;
+    public static final int CUSTOM_SHARED_EVENT_LOOP_THREADS = 4;
 
     @Test(timeout = 30000)
     public void testCreateWithDefaultOptions() throws Exception {
@@ -65,6 +66,7 @@ public class NettyTcpTransportFactoryTest {
         assertEquals(TransportOptions.DEFAULT_TCP_KEEP_ALIVE, options.isTcpKeepAlive());
         assertEquals(TransportOptions.DEFAULT_SO_LINGER, options.getSoLinger());
         assertEquals(TransportOptions.DEFAULT_SO_TIMEOUT, options.getSoTimeout());
+        assertEquals(TransportOptions.DEFAULT_SHARED_EVENT_LOOP_THREADS, options.getSharedEventLoopThreads());
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -116,7 +118,8 @@ public class NettyTcpTransportFactoryTest {
             "transport.tcpNoDelay=" + CUSTOM_TCP_NO_DELAY + "&" +
             "transport.tcpKeepAlive=" + CUSTOM_TCP_KEEP_ALIVE + "&" +
             "transport.soLinger=" + CUSTOM_SO_LINGER + "&" +
-            "transport.soTimeout=" + CUSTOM_SO_TIMEOUT);
+            "transport.soTimeout=" + CUSTOM_SO_TIMEOUT + "&" +
+            "transport.sharedEventLoopThreads=" + CUSTOM_SHARED_EVENT_LOOP_THREADS);
 
         NettyTcpTransportFactory factory = new NettyTcpTransportFactory();
 
@@ -137,5 +140,6 @@ public class NettyTcpTransportFactoryTest {
         assertEquals(CUSTOM_TCP_KEEP_ALIVE, options.isTcpKeepAlive());
         assertEquals(CUSTOM_SO_LINGER, options.getSoLinger());
         assertEquals(CUSTOM_SO_TIMEOUT, options.getSoTimeout());
+        assertEquals(CUSTOM_SHARED_EVENT_LOOP_THREADS, options.getSharedEventLoopThreads());
     }
 }
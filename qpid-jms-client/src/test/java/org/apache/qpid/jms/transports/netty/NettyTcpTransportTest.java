@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
@@ -28,7 +29,10 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.qpid.jms.test.QpidJmsTestCase;
@@ -43,6 +47,8 @@ import org.slf4j.LoggerFactory;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.epoll.Epoll;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.kqueue.KQueue;
@@ -276,6 +282,154 @@ public class NettyTcpTransportTest extends QpidJmsTestCase {
         assertTrue(exceptions.isEmpty());
     }
 
+    @Test(timeout = 60 * 1000)
+    public void testMultipleConnectionsShareEventLoopGroup() throws Exception {
+        final int CONNECTION_COUNT = 4;
+        final int SHARED_THREADS = 2;
+
+        try (NettyEchoServer server = createEchoServer(createServerOptions())) {
+            server.start();
+
+            int port = server.getServerPort();
+            URI serverLocation = new URI("tcp://localhost:" + port);
+
+            List<NettyTcpTransport> transports = new ArrayList<NettyTcpTransport>();
+
+            for (int i = 0; i < CONNECTION_COUNT; ++i) {
+                TransportOptions options = createClientOptions();
+                options.setSharedEventLoopThreads(SHARED_THREADS);
+
+                NettyTcpTransport transport = (NettyTcpTransport) createTransport(serverLocation, testListener, options);
+                try {
+                    transport.connect(null);
+                    assertTrue(transport.isConnected());
+                    transports.add(transport);
+                } catch (Exception e) {
+                    fail("Should have connected to the server at " + serverLocation + " but got exception: " + e);
+                }
+            }
+
+            assertEquals(1, NettyEventLoopGroupFactory.getSharedGroupCount());
+
+            EventLoopGroup sharedGroup = transports.get(0).group;
+            Set<EventLoop> usedLoops = new HashSet<>();
+            for (NettyTcpTransport transport : transports) {
+                assertSame(sharedGroup, transport.group);
+                usedLoops.add(transport.channel.eventLoop());
+            }
+
+            assertEquals("Connections should be spread across the shared loops", SHARED_THREADS, usedLoops.size());
+
+            for (int i = 0; i < CONNECTION_COUNT - 1; ++i) {
+                transports.get(i).close();
+            }
+
+            assertFalse(sharedGroup.isShuttingDown());
+            assertTrue(transports.get(CONNECTION_COUNT - 1).isConnected());
+
+            transports.get(CONNECTION_COUNT - 1).close();
+
+            assertTrue(sharedGroup.isShuttingDown());
+            assertEquals(0, NettyEventLoopGroupFactory.getSharedGroupCount());
+        }
+
+        assertTrue(!transportClosed);  // Normal shutdown does not trigger the event.
+        assertTrue(exceptions.isEmpty());
+    }
+
+    @Test(timeout = 60 * 1000)
+    public void testSharedEventLoopGroupReleasedOnFailedConnect() throws Exception {
+        try (NettyEchoServer server = createEchoServer(createServerOptions())) {
+            server.start();
+
+            int port = server.getServerPort();
+            URI serverLocation = new URI("tcp://localhost:" + port);
+
+            server.close();
+
+            TransportOptions options = createClientOptions();
+            options.setSharedEventLoopThreads(1);
+
+            Transport transport = createTransport(serverLocation, testListener, options);
+            try {
+                transport.connect(null);
+                fail("Should have failed to connect to the server: " + serverLocation);
+            } catch (Exception e) {
+                LOG.info("Failed to connect to: {} as expected.", serverLocation);
+            }
+
+            assertFalse(transport.isConnected());
+            assertEquals(0, NettyEventLoopGroupFactory.getSharedGroupCount());
+
+            transport.close();
+        }
+    }
+
+    @Ignore("Used to test performance")
+    @Test
+    public void testSharedEventLoopGroupWithManyConnections() throws Exception {
+        doTestEventLoopGroupWithManyConnections(-1);
+        doTestEventLoopGroupWithManyConnections(Runtime.getRuntime().availableProcessors());
+    }
+
+    private void doTestEventLoopGroupWithManyConnections(int sharedThreads) throws Exception {
+        final int CONNECTION_COUNT = 1000;
+        final int FRAME_SIZE = 64;
+        final int FRAMES_PER_CONNECTION = 100;
+
+        ByteBuf sendBuffer = Unpooled.buffer(FRAME_SIZE);
+        sendBuffer.writerIndex(FRAME_SIZE);
+
+        bytesRead.set(0);
+
+        try (NettyEchoServer server = createEchoServer(createServerOptions())) {
+            server.start();
+
+            int port = server.getServerPort();
+            URI serverLocation = new URI("tcp://localhost:" + port);
+
+            int threadsBefore = Thread.activeCount();
+
+            List<Transport> transports = new ArrayList<Transport>();
+            for (int i = 0; i < CONNECTION_COUNT; ++i) {
+                TransportOptions options = createClientOptions();
+                options.setSharedEventLoopThreads(sharedThreads);
+
+                Transport transport = createTransport(serverLocation, new NettyTransportListener(false) {
+
+                    @Override
+                    public void onData(ByteBuf incoming) {
+                        bytesRead.addAndGet(incoming.readableBytes());
+                    }
+                }, options);
+                transport.connect(null);
+                transports.add(transport);
+            }
+
+            int clientThreads = Thread.activeCount() - threadsBefore;
+
+            final long expected = (long) FRAME_SIZE * FRAMES_PER_CONNECTION * CONNECTION_COUNT;
+            final long start = System.nanoTime();
+
+            for (int i = 0; i < FRAMES_PER_CONNECTION; ++i) {
+                for (Transport transport : transports) {
+                    transport.send(sendBuffer.retainedDuplicate());
+                }
+            }
+
+            assertTrue(Wait.waitFor(() -> bytesRead.get() == expected, 60000, 1));
+
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            LOG.info("Shared threads {}: {} connections used {} client threads, echoed {} bytes in {} ms",
+                     sharedThreads, CONNECTION_COUNT, clientThreads, expected, elapsed);
+
+            for (Transport transport : transports) {
+                transport.close();
+            }
+        }
+    }
+
     @Test(timeout = 60 * 1000)
     public void testDetectServerClose() throws Exception {
         Transport transport = null;
@@ -436,6 +590,51 @@ public class NettyTcpTransportTest extends QpidJmsTestCase {
         assertTrue(exceptions.isEmpty());
     }
 
+    @Test(timeout = 60 * 1000)
+    public void testWrittenDataIsReceivedAfterFlush() throws Exception {
+        final int iterations = 10;
+
+        try (NettyEchoServer server = createEchoServer(createServerOptions())) {
+            server.start();
+
+            int port = server.getServerPort();
+            URI serverLocation = new URI("tcp://localhost:" + port);
+
+            Transport transport = createTransport(serverLocation, testListener, createClientOptions());
+            try {
+                transport.connect(null);
+                LOG.info("Connected to server:{} as expected.", serverLocation);
+            } catch (Exception e) {
+                fail("Should have connected to the server at " + serverLocation + " but got exception: " + e);
+            }
+
+            assertTrue(transport.isConnected());
+
+            ByteBuf sendBuffer = Unpooled.buffer(SEND_BYTE_COUNT);
+            for (int i = 0; i < SEND_BYTE_COUNT; ++i) {
+                sendBuffer.writeByte('A');
+            }
+
+            for (int i = 0; i < iterations; ++i) {
+                transport.write(sendBuffer.copy());
+            }
+
+            transport.flush();
+
+            assertTrue(Wait.waitFor(new Wait.Condition() {
+                @Override
+                public boolean isSatisfied() throws Exception {
+                    return bytesRead.get() == (SEND_BYTE_COUNT * iterations);
+                }
+            }, 10000, 50));
+
+            transport.close();
+        }
+
+        assertTrue(!transportClosed);  // Normal shutdown does not trigger the event.
+        assertTrue(exceptions.isEmpty());
+    }
+
     @Test(timeout = 60 * 1000)
     public void testSendToClosedTransportFails() throws Exception {
         Transport transport = null;
@@ -23,10 +23,16 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.jms.JMSException;
 
@@ -34,20 +40,25 @@ import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
 import org.apache.qpid.jms.message.JmsMessage;
 import org.apache.qpid.jms.message.facade.test.JmsTestMessageFacade;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Test the FIFO based message queue.
  */
 public class FifoMessageQueueTest {
 
+    private static final Logger LOG = LoggerFactory.getLogger(FifoMessageQueueTest.class);
+
     private MessageQueue queue;
     private final IdGenerator messageId = new IdGenerator();
     private long sequence;
 
     @Before
     public void setUp() {
-        queue = new FifoMessageQueue(1000);
+        queue = new FifoMessageQueue();
         queue.start();
     }
 
@@ -63,7 +74,7 @@ public class FifoMessageQueueTest {
 
     @Test
     public void testCreate() {
-        FifoMessageQueue queue = new FifoMessageQueue(1000);
+        FifoMessageQueue queue = new FifoMessageQueue();
 
         assertFalse(queue.isClosed());
         assertTrue(queue.isEmpty());
@@ -356,6 +367,192 @@ public class FifoMessageQueueTest {
         assertNull(queue.dequeue(1L));
     }
 
+    @Test(timeout = 30000)
+    public void testConcurrentEnqueueAndDequeueDeliversEachMessageOnce() throws Exception {
+        final int messageCount = 20000;
+        final int consumerCount = 4;
+
+        final List<JmsInboundMessageDispatch> messages = new ArrayList<JmsInboundMessageDispatch>(messageCount);
+        for (int i = 0; i < messageCount; ++i) {
+            messages.add(createEnvelope());
+        }
+
+        final Set<JmsInboundMessageDispatch> received = Collections.newSetFromMap(
+            new ConcurrentHashMap<JmsInboundMessageDispatch, Boolean>());
+
+        runProducerAndConsumers(queue, messages, consumerCount, received);
+
+        assertEquals(messageCount, received.size());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testSizeTracksEnqueueAndDequeue() {
+        queue.enqueue(createEnvelope());
+        queue.enqueueFirst(createEnvelope());
+        queue.enqueue(createEnvelope());
+
+        assertEquals(3, queue.size());
+        assertNotNull(queue.dequeueNoWait());
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.removeAll().size());
+        assertEquals(0, queue.size());
+    }
+
+    @Ignore("Used to test performance")
+    @Test
+    public void testThroughputAgainstSynchronizedQueue() throws Exception {
+        final int messageCount = 2000000;
+
+        final List<JmsInboundMessageDispatch> messages = new ArrayList<JmsInboundMessageDispatch>(messageCount);
+        for (int i = 0; i < messageCount; ++i) {
+            messages.add(new JmsInboundMessageDispatch(i));
+        }
+
+        for (int consumers : new int[] { 1, 4 }) {
+            for (int round = 0; round < 3; ++round) {
+                MessageQueue synchronizedQueue = new SynchronizedFifoMessageQueue();
+                synchronizedQueue.start();
+                long synchronizedTime = runProducerAndConsumers(synchronizedQueue, messages, consumers, null);
+
+                MessageQueue fifoQueue = new FifoMessageQueue();
+                fifoQueue.start();
+                long fifoTime = runProducerAndConsumers(fifoQueue, messages, consumers, null);
+
+                LOG.info("1:{} synchronized : {} ns per message, fifo : {} ns per message",
+                    consumers, synchronizedTime / messageCount, fifoTime / messageCount);
+            }
+        }
+    }
+
+    /*
+     * Enqueues the messages from one thread while the given number of threads dequeue
+     * them, returns the elapsed time in nanoseconds.
+     */
+    private long runProducerAndConsumers(final MessageQueue target, final List<JmsInboundMessageDispatch> messages,
+                                         int consumerCount, final Set<JmsInboundMessageDispatch> received) throws Exception {
+
+        final AtomicInteger remaining = new AtomicInteger(messages.size());
+        final CountDownLatch done = new CountDownLatch(consumerCount);
+
+        for (int i = 0; i < consumerCount; ++i) {
+            Thread consumer = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        while (remaining.get() > 0) {
+                            JmsInboundMessageDispatch envelope = target.dequeue(10);
+                            if (envelope != null) {
+                                remaining.decrementAndGet();
+                                if (received != null) {
+                                    received.add(envelope);
+                                }
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+            consumer.start();
+        }
+
+        long start = System.nanoTime();
+
+        for (JmsInboundMessageDispatch envelope : messages) {
+            target.enqueue(envelope);
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+
+        return System.nanoTime() - start;
+    }
+
+    /*
+     * The lock guarded deque that the FIFO queue used previously, kept to compare against.
+     */
+    private static final class SynchronizedFifoMessageQueue extends AbstractMessageQueue {
+
+        private final Deque<JmsInboundMessageDispatch> queue = new ArrayDeque<JmsInboundMessageDispatch>();
+
+        @Override
+        public void enqueueFirst(JmsInboundMessageDispatch envelope) {
+            getLock().lock();
+            try {
+                queue.addFirst(envelope);
+                signalWaiter();
+            } finally {
+                getLock().unlock();
+            }
+        }
+
+        @Override
+        public void enqueue(JmsInboundMessageDispatch envelope) {
+            getLock().lock();
+            try {
+                queue.addLast(envelope);
+                signalWaiter();
+            } finally {
+                getLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean isEmpty() {
+            getLock().lock();
+            try {
+                return queue.isEmpty();
+            } finally {
+                getLock().unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            getLock().lock();
+            try {
+                return queue.size();
+            } finally {
+                getLock().unlock();
+            }
+        }
+
+        @Override
+        public void clear() {
+            getLock().lock();
+            try {
+                queue.clear();
+            } finally {
+                getLock().unlock();
+            }
+        }
+
+        @Override
+        public List<JmsInboundMessageDispatch> removeAll() {
+            getLock().lock();
+            try {
+                List<JmsInboundMessageDispatch> rc = new ArrayList<JmsInboundMessageDispatch>(queue);
+                queue.clear();
+                return rc;
+            } finally {
+                getLock().unlock();
+            }
+        }
+
+        @Override
+        protected JmsInboundMessageDispatch removeFirst() {
+            return queue.removeFirst();
+        }
+
+        @Override
+        protected JmsInboundMessageDispatch peekFirst() {
+            return queue.peekFirst();
+        }
+    }
+
     private List<JmsInboundMessageDispatch> createFullRangePrioritySet() {
         List<JmsInboundMessageDispatch> messages = new ArrayList<JmsInboundMessageDispatch>();
         for (int i = 0; i < 10; ++i) {
@@ -36,14 +36,19 @@ import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
 import org.apache.qpid.jms.message.JmsMessage;
 import org.apache.qpid.jms.message.facade.test.JmsTestMessageFacade;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Test for the priority based message Queue
  */
 public class PriorityMessageQueueTest {
 
+    private static final Logger LOG = LoggerFactory.getLogger(PriorityMessageQueueTest.class);
+
     private MessageQueue queue;
     private final IdGenerator messageId = new IdGenerator();
     private long sequence;
@@ -416,6 +421,60 @@ public class PriorityMessageQueueTest {
         assertTrue(queue.isEmpty());
     }
 
+    @Test
+    public void testPriorityOrderMaintainedAsLevelsEmptyAndRefill() throws JMSException {
+        JmsInboundMessageDispatch low1 = createEnvelope(2);
+        JmsInboundMessageDispatch low2 = createEnvelope(2);
+        JmsInboundMessageDispatch high1 = createEnvelope(7);
+        JmsInboundMessageDispatch high2 = createEnvelope(7);
+
+        queue.enqueue(low1);
+        queue.enqueue(high1);
+        queue.enqueue(low2);
+
+        assertSame(high1, queue.dequeueNoWait());
+        assertSame(low1, queue.dequeueNoWait());
+
+        queue.enqueue(high2);
+
+        assertSame(high2, queue.peek());
+        assertSame(high2, queue.dequeueNoWait());
+        assertSame(low2, queue.dequeueNoWait());
+        assertNull(queue.dequeueNoWait());
+        assertNull(queue.peek());
+        assertEquals(0, queue.size());
+
+        queue.enqueue(low1);
+        assertSame(low1, queue.dequeueNoWait());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Ignore("Used to test performance")
+    @Test
+    public void testEnqueueDequeuePerformance() throws JMSException {
+        final int prefetch = 1000;
+        final int iterations = 5000;
+
+        List<JmsInboundMessageDispatch> messages = new ArrayList<JmsInboundMessageDispatch>(prefetch);
+        for (int i = 0; i < prefetch; ++i) {
+            messages.add(createEnvelope(i % 3 == 0 ? 4 : i % 10));
+        }
+
+        for (int round = 0; round < 5; ++round) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; ++i) {
+                for (JmsInboundMessageDispatch envelope : messages) {
+                    queue.enqueue(envelope);
+                }
+                while (queue.dequeueNoWait() != null) {
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            LOG.info("Priority queue: {} ns per enqueue and dequeue", elapsed / ((long) iterations * prefetch));
+        }
+    }
+
     private List<JmsInboundMessageDispatch> createFullRangePrioritySet() {
         List<JmsInboundMessageDispatch> messages = new ArrayList<JmsInboundMessageDispatch>();
         for (int i = 0; i < 10; ++i) {
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the executor that runs tasks in order on a shared pool
+ */
+public class SerialExecutorTest {
+
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test(timeout = 10000)
+    public void testTasksRunInSubmissionOrder() throws Exception {
+        SerialExecutor executor = new SerialExecutor(pool, new AtomicReference<Thread>());
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+
+        for (int i = 0; i < 500; ++i) {
+            final int value = i;
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    if (concurrent.incrementAndGet() > 1) {
+                        overlapped.set(true);
+                    }
+                    order.add(value);
+                    concurrent.decrementAndGet();
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertFalse(overlapped.get());
+        assertEquals(500, order.size());
+        for (int i = 0; i < 500; ++i) {
+            assertEquals(i, order.get(i).intValue());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testExecutorsShareSingleThread() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            final CountDownLatch done = new CountDownLatch(20);
+            List<SerialExecutor> executors = new ArrayList<>();
+            for (int i = 0; i < 20; ++i) {
+                executors.add(new SerialExecutor(single, new AtomicReference<Thread>()));
+            }
+
+            for (SerialExecutor executor : executors) {
+                executor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                });
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testThreadTrackerSetWhileRunning() throws Exception {
+        final AtomicReference<Thread> tracker = new AtomicReference<>();
+        final AtomicReference<Thread> seen = new AtomicReference<>();
+        SerialExecutor executor = new SerialExecutor(pool, tracker);
+
+        executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                seen.set(tracker.get());
+            }
+        });
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertNotNull(seen.get());
+        assertNull(tracker.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testFailingTaskDoesNotStopLaterTasks() throws Exception {
+        SerialExecutor executor = new SerialExecutor(pool, new AtomicReference<Thread>());
+        final CountDownLatch ran = new CountDownLatch(1);
+
+        executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                throw new RuntimeException("Expected");
+            }
+        });
+        executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                ran.countDown();
+            }
+        });
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 10000)
+    public void testTasksDroppedAfterShutdown() throws Exception {
+        SerialExecutor executor = new SerialExecutor(pool, new AtomicReference<Thread>());
+        executor.shutdown();
+        assertTrue(executor.isShutdown());
+        assertTrue(executor.isTerminated());
+
+        final AtomicBoolean ran = new AtomicBoolean();
+        executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                ran.set(true);
+            }
+        });
+
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertFalse(ran.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testAwaitTerminationWaitsForQueuedTasks() throws Exception {
+        SerialExecutor executor = new SerialExecutor(pool, new AtomicReference<Thread>());
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean ran = new AtomicBoolean();
+
+        executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                }
+            }
+        });
+        executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                ran.set(true);
+            }
+        });
+
+        executor.shutdown();
+        assertFalse(executor.awaitTermination(50, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(ran.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testShutdownNowReturnsQueuedTasks() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch blocked = new CountDownLatch(1);
+
+            // Occupy the only thread so that the tasks below stay queued.
+            single.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                    }
+                }
+            });
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+            SerialExecutor executor = new SerialExecutor(single, new AtomicReference<Thread>());
+            Runnable task = new Runnable() {
+
+                @Override
+                public void run() {
+                }
+            };
+
+            executor.execute(task);
+            List<Runnable> pending = executor.shutdownNow();
+            assertEquals(1, pending.size());
+            assertSame(task, pending.get(0));
+
+            release.countDown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testQueuedTasksDroppedWhenPoolRejects() throws Exception {
+        pool.shutdown();
+
+        SerialExecutor executor = new SerialExecutor(pool, new AtomicReference<Thread>());
+        executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+            }
+        });
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+}
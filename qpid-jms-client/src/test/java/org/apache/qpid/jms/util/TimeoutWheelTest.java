@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.qpid.jms.util.TimeoutWheel.Timeout;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for the hashed wheel of timeouts
+ */
+public class TimeoutWheelTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimeoutWheelTest.class);
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final long start = 1000 * MILLIS;
+
+    @Test
+    public void testCreateWithInvalidArguments() {
+        try {
+            new TimeoutWheel(0, 16, start);
+            fail("Should not accept a zero tick length");
+        } catch (IllegalArgumentException iae) {}
+
+        try {
+            new TimeoutWheel(10, 0, start);
+            fail("Should not accept an empty wheel");
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    @Test
+    public void testTimeoutNeverFiresEarly() {
+        TimeoutWheel wheel = new TimeoutWheel(10, 16, start);
+        AtomicInteger fired = new AtomicInteger();
+
+        wheel.schedule(new CountingTask(fired), 25, start);
+        assertEquals(1, wheel.size());
+
+        assertEquals(0, wheel.expire(start + 10 * MILLIS));
+        assertEquals(0, wheel.expire(start + 24 * MILLIS));
+        assertEquals(0, fired.get());
+
+        // Fires on the first tick at or after the deadline.
+        assertEquals(1, wheel.expire(start + 30 * MILLIS));
+        assertEquals(1, fired.get());
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testTimeoutLongerThanOneRotation() {
+        TimeoutWheel wheel = new TimeoutWheel(10, 4, start);
+        AtomicInteger fired = new AtomicInteger();
+
+        Timeout timeout = wheel.schedule(new CountingTask(fired), 95, start);
+
+        for (long now = start; now < start + 100 * MILLIS; now += 10 * MILLIS) {
+            wheel.expire(now);
+            assertEquals(0, fired.get());
+        }
+
+        wheel.expire(start + 100 * MILLIS);
+        assertEquals(1, fired.get());
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void testCancelledTimeoutDoesNotFire() {
+        TimeoutWheel wheel = new TimeoutWheel(10, 16, start);
+        AtomicInteger fired = new AtomicInteger();
+
+        Timeout first = wheel.schedule(new CountingTask(fired), 20, start);
+        Timeout second = wheel.schedule(new CountingTask(fired), 20, start);
+        Timeout third = wheel.schedule(new CountingTask(fired), 20, start);
+        assertEquals(3, wheel.size());
+
+        assertTrue(second.cancel());
+        assertFalse(second.cancel());
+        assertTrue(second.isCancelled());
+        assertEquals(2, wheel.size());
+
+        assertEquals(2, wheel.expire(start + 20 * MILLIS));
+        assertEquals(2, fired.get());
+        assertTrue(first.isExpired());
+        assertTrue(third.isExpired());
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testTaskCanCancelAnotherDueTimeout() {
+        final TimeoutWheel wheel = new TimeoutWheel(10, 16, start);
+        final AtomicInteger fired = new AtomicInteger();
+        final List<Timeout> timeouts = new ArrayList<>();
+
+        Runnable cancelOthers = new Runnable() {
+
+            @Override
+            public void run() {
+                fired.incrementAndGet();
+                for (Timeout timeout : timeouts) {
+                    timeout.cancel();
+                }
+            }
+        };
+
+        timeouts.add(wheel.schedule(cancelOthers, 10, start));
+        timeouts.add(wheel.schedule(cancelOthers, 10, start));
+        timeouts.add(wheel.schedule(cancelOthers, 10, start));
+
+        assertEquals(1, wheel.expire(start + 10 * MILLIS));
+        assertEquals(1, fired.get());
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testTaskCanScheduleTimeoutThatIsAlreadyDue() {
+        final TimeoutWheel wheel = new TimeoutWheel(10, 16, start);
+        final AtomicInteger fired = new AtomicInteger();
+
+        wheel.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                wheel.schedule(new CountingTask(fired), 0, start + 10 * MILLIS);
+            }
+        }, 10, start);
+
+        wheel.expire(start + 10 * MILLIS);
+        assertEquals(0, fired.get());
+        assertEquals(1, wheel.size());
+
+        wheel.expire(start + 20 * MILLIS);
+        assertEquals(1, fired.get());
+    }
+
+    @Test
+    public void testScheduleAfterIdlePeriod() {
+        TimeoutWheel wheel = new TimeoutWheel(10, 4, start);
+        AtomicInteger fired = new AtomicInteger();
+
+        // Nothing is waiting so the wheel is not driven for a long time.
+        wheel.expire(start + 10000 * MILLIS);
+
+        long now = start + 10005 * MILLIS;
+        wheel.schedule(new CountingTask(fired), 30, now);
+
+        wheel.expire(now + 20 * MILLIS);
+        assertEquals(0, fired.get());
+
+        wheel.expire(now + 40 * MILLIS);
+        assertEquals(1, fired.get());
+    }
+
+    @Test
+    public void testScheduleWithoutExpireAfterIdlePeriod() {
+        TimeoutWheel wheel = new TimeoutWheel(10, 4, start);
+        AtomicInteger fired = new AtomicInteger();
+
+        // The wheel was never driven so schedule has to catch up the tick itself.
+        long now = start + 10005 * MILLIS;
+        wheel.schedule(new CountingTask(fired), 30, now);
+
+        assertEquals(0, wheel.expire(now + 20 * MILLIS));
+        assertEquals(0, fired.get());
+
+        assertEquals(1, wheel.expire(now + 40 * MILLIS));
+        assertEquals(1, fired.get());
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testFailingTaskDoesNotStopOthers() {
+        TimeoutWheel wheel = new TimeoutWheel(10, 16, start);
+        AtomicInteger fired = new AtomicInteger();
+
+        wheel.schedule(new CountingTask(fired), 10, start);
+        wheel.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                throw new IllegalStateException("Expected");
+            }
+        }, 10, start);
+        wheel.schedule(new CountingTask(fired), 10, start);
+
+        assertEquals(3, wheel.expire(start + 10 * MILLIS));
+        assertEquals(2, fired.get());
+    }
+
+    @Test
+    public void testClear() {
+        TimeoutWheel wheel = new TimeoutWheel(10, 16, start);
+        AtomicInteger fired = new AtomicInteger();
+
+        Timeout timeout = wheel.schedule(new CountingTask(fired), 10, start);
+        wheel.schedule(new CountingTask(fired), 500, start);
+
+        wheel.clear();
+        assertTrue(wheel.isEmpty());
+        assertTrue(timeout.isCancelled());
+
+        wheel.expire(start + 1000 * MILLIS);
+        assertEquals(0, fired.get());
+    }
+
+    @Ignore("Used to test performance")
+    @Test
+    public void testScheduleAndCancelPerformance() {
+        final int timeouts = 100000;
+        final int iterations = 50;
+        final Runnable task = new Runnable() {
+
+            @Override
+            public void run() {
+            }
+        };
+
+        TimeoutWheel wheel = new TimeoutWheel(10, 512, System.nanoTime());
+        Timeout[] pending = new Timeout[timeouts];
+
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            long now = System.nanoTime();
+            for (int j = 0; j < timeouts; ++j) {
+                pending[j] = wheel.schedule(task, 30000, now);
+            }
+            for (int j = 0; j < timeouts; ++j) {
+                pending[j].cancel();
+            }
+            wheel.expire(System.nanoTime());
+        }
+
+        long operations = (long) timeouts * iterations;
+        LOG.info("TimeoutWheel: {} ns per schedule and cancel", (System.nanoTime() - started) / operations);
+    }
+
+    private static final class CountingTask implements Runnable {
+
+        private final AtomicInteger counter;
+
+        public CountingTask(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void run() {
+            counter.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.bench;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.DeliveryMode;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import javax.jms.Topic;
+
+import org.apache.qpid.jms.JmsConnectionFactory;
+import org.apache.qpid.jms.support.AmqpTestSupport;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the send rate of many sessions sharing one Connection as the number of
+ * physical connections striped behind it grows, the rate should scale close to
+ * linearly until the broker or the available cores become the limit.
+ */
+@Ignore
+public class ProduceToStripedAMQPTest extends AmqpTestSupport {
+
+    private final int MSG_COUNT = 50 * 1000;
+    private final int NUM_SESSIONS = 16;
+    private final int[] STRIPES = { 1, 2, 4, 8 };
+
+    @Override
+    protected boolean isForceAsyncSends() {
+        return true;
+    }
+
+    @Override
+    protected boolean isForceSyncSends() {
+        return false;
+    }
+
+    @Override
+    protected String getAmqpTransformer() {
+        return "raw";
+    }
+
+    @Override
+    public String getAmqpConnectionURIOptions() {
+        return "jms.presettlePolicy.presettleAll=true";
+    }
+
+    @Test
+    public void testProduceRateByConnectionStripes() throws Exception {
+        // Warm Up the broker and the client.
+        produceMessages(STRIPES[STRIPES.length - 1]);
+
+        double singleRate = 0;
+        for (int stripes : STRIPES) {
+            long result = produceMessages(stripes);
+            double rate = (double) MSG_COUNT * NUM_SESSIONS * 1000 / result;
+            if (stripes == 1) {
+                singleRate = rate;
+            }
+
+            LOG.info("Stripes: {}, time to send {} messages from {} sessions: {} ms, {} msg/s, {}x a single connection",
+                stripes, MSG_COUNT, NUM_SESSIONS, result, (long) rate, String.format("%.2f", rate / singleRate));
+        }
+
+        TimeUnit.SECONDS.sleep(1);
+    }
+
+    protected long produceMessages(int stripes) throws Exception {
+        JmsConnectionFactory factory = (JmsConnectionFactory) createAmqpConnectionFactory();
+        factory.setConnectionStripes(stripes);
+
+        final Connection striped = factory.createConnection();
+        final Vector<Throwable> exceptions = new Vector<Throwable>();
+        final CountDownLatch ready = new CountDownLatch(NUM_SESSIONS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(NUM_SESSIONS);
+
+        try {
+            for (int i = 0; i < NUM_SESSIONS; ++i) {
+                final Session session = striped.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                final Topic topic = session.createTopic(getDestinationName() + "." + i);
+
+                Thread sender = new Thread(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        try {
+                            MessageProducer producer = session.createProducer(topic);
+                            producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+                            TextMessage message = session.createTextMessage("hello");
+
+                            ready.countDown();
+                            start.await();
+
+                            for (int j = 0; j < MSG_COUNT; ++j) {
+                                producer.send(message);
+                            }
+
+                            producer.close();
+                        } catch (Throwable e) {
+                            exceptions.add(e);
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }, "Striped Sender " + i);
+                sender.start();
+            }
+
+            ready.await(1, TimeUnit.MINUTES);
+
+            long startTime = System.currentTimeMillis();
+            start.countDown();
+
+            assertTrue("Senders done in time", done.await(10, TimeUnit.MINUTES));
+            assertTrue("No exceptions: " + exceptions, exceptions.isEmpty());
+
+            return System.currentTimeMillis() - startTime;
+        } finally {
+            striped.close();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.pool;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.apache.qpid.jms.JmsConnection;
+import org.apache.qpid.jms.JmsConnectionListener;
+import org.apache.qpid.jms.JmsSession;
+import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single pooled JmsConnection along with the Sessions it keeps for reuse.
+ *
+ * The connection is shared by every {@link PooledConnection} handed out for it and is
+ * only closed once it has been removed from the pool and the last of those is closed.
+ * Connection events are used to track its health, a failed connection is removed from
+ * the pool while an interrupted one is avoided until failover has restored it.
+ */
+final class ConnectionPool implements JmsConnectionListener, ExceptionListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final JmsConnection connection;
+    private final int maxCachedSessions;
+    private final int maxCachedProducers;
+
+    private final Map<Integer, ArrayDeque<SessionHolder>> idleSessions = new HashMap<Integer, ArrayDeque<SessionHolder>>();
+    private final Set<PooledConnection> handles = new LinkedHashSet<PooledConnection>();
+
+    private int references;
+    private long lastUsed = System.nanoTime();
+    private boolean retired;
+    private boolean closed;
+
+    private volatile boolean failed;
+    private volatile boolean interrupted;
+
+    ConnectionPool(JmsConnection connection, int maxCachedSessions, int maxCachedProducers) throws JMSException {
+        this.connection = connection;
+        this.maxCachedSessions = maxCachedSessions;
+        this.maxCachedProducers = maxCachedProducers;
+
+        connection.addConnectionListener(this);
+        connection.setExceptionListener(this);
+    }
+
+    JmsConnection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Reserves the connection for a handle that is about to be created, must be called
+     * before {@link #createConnection()} so the connection cannot be judged idle between.
+     */
+    synchronized void incrementReferences() {
+        references++;
+    }
+
+    synchronized PooledConnection createConnection() {
+        PooledConnection handle = new PooledConnection(this);
+        handles.add(handle);
+        return handle;
+    }
+
+    void release(PooledConnection handle) {
+        boolean close = false;
+
+        synchronized (this) {
+            if (handles.remove(handle)) {
+                references--;
+                lastUsed = System.nanoTime();
+                close = retired && references == 0;
+            }
+        }
+
+        if (close) {
+            close();
+        }
+    }
+
+    /**
+     * Called once the connection has been removed from the pool, it is closed now if
+     * not in use or otherwise once the last handle for it has been closed.
+     */
+    void retire() {
+        boolean close = false;
+
+        synchronized (this) {
+            retired = true;
+            close = references == 0;
+        }
+
+        if (close) {
+            close();
+        }
+    }
+
+    boolean isFailed() {
+        return failed || connection.isFailed() || connection.isClosed();
+    }
+
+    boolean isInterrupted() {
+        return interrupted;
+    }
+
+    synchronized boolean isIdle(long now, long idleTimeout) {
+        return idleTimeout > 0 && references == 0 && now - lastUsed > TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+    }
+
+    //----- Session caching --------------------------------------------------//
+
+    SessionHolder takeSession(boolean transacted, int acknowledgeMode) throws JMSException {
+        if (!transacted && acknowledgeMode == Session.SESSION_TRANSACTED) {
+            throw new JMSException("acknowledgeMode SESSION_TRANSACTED cannot be used for an non-transacted Session");
+        }
+
+        int mode = transacted ? Session.SESSION_TRANSACTED : acknowledgeMode;
+
+        synchronized (this) {
+            ArrayDeque<SessionHolder> idle = idleSessions.get(mode);
+            while (idle != null && !idle.isEmpty()) {
+                // Reuse the most recently returned session as it is the least likely to
+                // have been closed while it sat in the pool.
+                SessionHolder holder = idle.pollLast();
+                if (!holder.getSession().isClosed()) {
+                    return holder;
+                }
+            }
+        }
+
+        JmsSession session = (JmsSession) connection.createSession(transacted, acknowledgeMode);
+        return new SessionHolder(session, mode, maxCachedProducers);
+    }
+
+    void returnSession(SessionHolder holder) {
+        boolean cached = false;
+
+        if (!failed && holder.reset()) {
+            synchronized (this) {
+                if (!closed) {
+                    int mode = holder.getAcknowledgeMode();
+                    ArrayDeque<SessionHolder> idle = idleSessions.get(mode);
+                    if (idle == null) {
+                        idle = new ArrayDeque<SessionHolder>();
+                        idleSessions.put(mode, idle);
+                    }
+
+                    if (idle.size() < maxCachedSessions) {
+                        idle.addLast(holder);
+                        cached = true;
+                    }
+                }
+            }
+        }
+
+        if (!cached) {
+            holder.close();
+        }
+    }
+
+    //----- Shutdown ---------------------------------------------------------//
+
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            idleSessions.clear();
+        }
+
+        LOG.debug("Closing pooled connection: {}", connection.getId());
+
+        try {
+            connection.removeConnectionListener(this);
+            connection.close();
+        } catch (Exception ex) {
+            LOG.trace("Caught exception while closing pooled connection: {}", ex.getMessage());
+        }
+    }
+
+    //----- Connection event handling ----------------------------------------//
+
+    @Override
+    public void onException(JMSException exception) {
+        List<PooledConnection> listeners;
+        synchronized (this) {
+            listeners = new ArrayList<PooledConnection>(handles);
+        }
+
+        for (PooledConnection handle : listeners) {
+            handle.onException(exception);
+        }
+    }
+
+    @Override
+    public void onConnectionEstablished(URI remoteURI) {
+    }
+
+    @Override
+    public void onConnectionFailure(Throwable error) {
+        LOG.debug("Pooled connection {} has failed: {}", connection.getId(), error.getMessage());
+        // The pool drops the connection on its next lease or idle check, closing it from
+        // here would be from within the connection's own event delivery.
+        failed = true;
+    }
+
+    @Override
+    public void onConnectionInterrupted(URI remoteURI) {
+        interrupted = true;
+    }
+
+    @Override
+    public void onConnectionRestored(URI remoteURI) {
+        interrupted = false;
+    }
+
+    @Override
+    public void onInboundMessage(JmsInboundMessageDispatch envelope) {
+    }
+
+    @Override
+    public void onSessionClosed(Session session, Throwable cause) {
+    }
+
+    @Override
+    public void onConsumerClosed(MessageConsumer consumer, Throwable cause) {
+    }
+
+    @Override
+    public void onProducerClosed(MessageProducer producer, Throwable cause) {
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool { " + connection.getId() + " }";
+    }
+}
@@ -0,0 +1,447 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.pool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSContext;
+import javax.jms.JMSException;
+
+import org.apache.qpid.jms.JmsConnection;
+import org.apache.qpid.jms.JmsConnectionFactory;
+import org.apache.qpid.jms.exceptions.JmsExceptionSupport;
+import org.apache.qpid.jms.util.QpidJMSThreadFactory;
+import org.apache.qpid.jms.util.ThreadPoolUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A ConnectionFactory that hands out Connections from a bounded pool of JmsConnection
+ * instances created by a wrapped {@link JmsConnectionFactory}.
+ *
+ * Closing a Connection obtained from this factory returns it to the pool, the Sessions
+ * created from it are kept for reuse by later Connections for the same acknowledgement
+ * mode and each of those Sessions keeps the MessageProducers it has created for reuse
+ * by destination.  An application that creates a Connection, Session and Producer for
+ * each message it sends therefore only pays for those the first time.
+ *
+ * Connections that have failed are dropped from the pool and those that are currently
+ * interrupted by a failover reconnect are passed over while an alternative exists.
+ * Connections that have been unused for longer than the idle timeout are closed.
+ *
+ * JMSContext instances are not pooled, they are created by the wrapped factory.
+ */
+public class JmsPoolConnectionFactory implements ConnectionFactory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsPoolConnectionFactory.class);
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 1;
+    public static final int DEFAULT_MAX_CACHED_SESSIONS = 100;
+    public static final int DEFAULT_MAX_CACHED_PRODUCERS = 32;
+    public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    public static final long DEFAULT_IDLE_CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+
+    private final Map<ConnectionKey, List<ConnectionPool>> pools = new HashMap<ConnectionKey, List<ConnectionPool>>();
+    private final Map<ConnectionKey, Integer> creating = new HashMap<ConnectionKey, Integer>();
+
+    private JmsConnectionFactory connectionFactory;
+    private ScheduledThreadPoolExecutor evictor;
+    private int nextConnection;
+
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private int maxCachedSessions = DEFAULT_MAX_CACHED_SESSIONS;
+    private int maxCachedProducers = DEFAULT_MAX_CACHED_PRODUCERS;
+    private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+    private long idleCheckInterval = DEFAULT_IDLE_CHECK_INTERVAL;
+
+    public JmsPoolConnectionFactory() {
+    }
+
+    public JmsPoolConnectionFactory(JmsConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    //----- ConnectionFactory implementation ---------------------------------//
+
+    @Override
+    public Connection createConnection() throws JMSException {
+        JmsConnectionFactory factory = getConnectionFactoryOrThrow();
+        return createConnection(factory.getUsername(), factory.getPassword());
+    }
+
+    @Override
+    public Connection createConnection(String username, String password) throws JMSException {
+        return lease(new ConnectionKey(username, password)).createConnection();
+    }
+
+    @Override
+    public JMSContext createContext() {
+        return getConnectionFactoryOrThrow().createContext();
+    }
+
+    @Override
+    public JMSContext createContext(int sessionMode) {
+        return getConnectionFactoryOrThrow().createContext(sessionMode);
+    }
+
+    @Override
+    public JMSContext createContext(String username, String password) {
+        return getConnectionFactoryOrThrow().createContext(username, password);
+    }
+
+    @Override
+    public JMSContext createContext(String username, String password, int sessionMode) {
+        return getConnectionFactoryOrThrow().createContext(username, password, sessionMode);
+    }
+
+    /**
+     * Closes all pooled connections, including those currently handed out.  The
+     * factory can be used again afterwards and will create new connections.
+     */
+    public void stop() {
+        List<ConnectionPool> closing = new ArrayList<ConnectionPool>();
+        ScheduledThreadPoolExecutor evictor;
+
+        synchronized (pools) {
+            for (List<ConnectionPool> keyed : pools.values()) {
+                closing.addAll(keyed);
+            }
+            pools.clear();
+
+            evictor = this.evictor;
+            this.evictor = null;
+        }
+
+        if (evictor != null) {
+            ThreadPoolUtils.shutdown(evictor);
+        }
+
+        for (ConnectionPool pool : closing) {
+            pool.close();
+        }
+    }
+
+    /**
+     * @return the number of connections currently held in the pool.
+     */
+    public int getConnectionsCount() {
+        int count = 0;
+        synchronized (pools) {
+            for (List<ConnectionPool> keyed : pools.values()) {
+                count += keyed.size();
+            }
+        }
+
+        return count;
+    }
+
+    //----- Property Getters and Setters -------------------------------------//
+
+    public JmsConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    /**
+     * Sets the factory used to create the connections held in the pool.
+     *
+     * @param connectionFactory
+     *      the JmsConnectionFactory that creates the pooled connections.
+     */
+    public void setConnectionFactory(JmsConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Sets the maximum number of connections that are opened for each set of credentials,
+     * connections are shared once this many have been created.
+     *
+     * @param maxConnections
+     *      the maximum number of pooled connections per set of credentials.
+     */
+    public void setMaxConnections(int maxConnections) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Max connections must be greater than zero");
+        }
+
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxCachedSessions() {
+        return maxCachedSessions;
+    }
+
+    /**
+     * Sets the maximum number of unused sessions that each pooled connection keeps for
+     * reuse for each acknowledgement mode, sessions returned beyond that are closed.
+     *
+     * @param maxCachedSessions
+     *      the number of idle sessions kept per acknowledgement mode.
+     */
+    public void setMaxCachedSessions(int maxCachedSessions) {
+        this.maxCachedSessions = maxCachedSessions;
+    }
+
+    public int getMaxCachedProducers() {
+        return maxCachedProducers;
+    }
+
+    /**
+     * Sets the maximum number of producers that each pooled session keeps for reuse, the
+     * least recently used producer is closed when another destination is added.
+     *
+     * @param maxCachedProducers
+     *      the number of producers kept per pooled session.
+     */
+    public void setMaxCachedProducers(int maxCachedProducers) {
+        this.maxCachedProducers = maxCachedProducers;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets the time in milliseconds that a pooled connection which is not in use is kept
+     * open for, a value of zero or less keeps idle connections open.
+     *
+     * @param idleTimeout
+     *      the time in milliseconds before an unused connection is closed.
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public long getIdleCheckInterval() {
+        return idleCheckInterval;
+    }
+
+    /**
+     * Sets the interval in milliseconds between checks for idle connections.
+     *
+     * @param idleCheckInterval
+     *      the time in milliseconds between checks for idle connections.
+     */
+    public void setIdleCheckInterval(long idleCheckInterval) {
+        if (idleCheckInterval <= 0) {
+            throw new IllegalArgumentException("Idle check interval must be greater than zero");
+        }
+
+        this.idleCheckInterval = idleCheckInterval;
+    }
+
+    //----- Internal implementation ------------------------------------------//
+
+    private ConnectionPool lease(ConnectionKey key) throws JMSException {
+        JmsConnectionFactory factory = getConnectionFactoryOrThrow();
+
+        // Reserve a slot for a new connection under the lock but create it outside of
+        // it so that a slow connect does not hold up leases of the existing connections.
+        synchronized (pools) {
+            while (true) {
+                List<ConnectionPool> keyed = getKeyedPools(key);
+                removeFailed(keyed);
+
+                int reserved = getReserved(key);
+                if (keyed.size() + reserved < maxConnections) {
+                    creating.put(key, reserved + 1);
+                    break;
+                }
+
+                if (!keyed.isEmpty()) {
+                    ConnectionPool selected = selectExisting(keyed);
+                    selected.incrementReferences();
+                    return selected;
+                }
+
+                // Every slot is taken by a connection still being created, wait for one.
+                try {
+                    pools.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw JmsExceptionSupport.create(ex);
+                }
+            }
+        }
+
+        JmsConnection connection = null;
+        try {
+            connection = (JmsConnection) factory.createConnection(key.username, key.password);
+        } finally {
+            if (connection == null) {
+                synchronized (pools) {
+                    releaseReserved(key);
+                }
+            }
+        }
+
+        ConnectionPool created = new ConnectionPool(connection, maxCachedSessions, maxCachedProducers);
+
+        synchronized (pools) {
+            releaseReserved(key);
+
+            List<ConnectionPool> keyed = getKeyedPools(key);
+            keyed.add(created);
+            created.incrementReferences();
+
+            LOG.debug("Created pooled connection {}, pool now holds {}", connection.getId(), keyed.size());
+            startIdleChecks();
+        }
+
+        return created;
+    }
+
+    private ConnectionPool selectExisting(List<ConnectionPool> keyed) {
+        // Pass over connections that are waiting on a failover reconnect when we can.
+        int start = nextConnection++ & Integer.MAX_VALUE;
+        for (int i = 0; i < keyed.size(); ++i) {
+            ConnectionPool candidate = keyed.get((start + i) % keyed.size());
+            if (!candidate.isInterrupted()) {
+                return candidate;
+            }
+        }
+
+        return keyed.get(start % keyed.size());
+    }
+
+    private List<ConnectionPool> getKeyedPools(ConnectionKey key) {
+        List<ConnectionPool> keyed = pools.get(key);
+        if (keyed == null) {
+            keyed = new ArrayList<ConnectionPool>(maxConnections);
+            pools.put(key, keyed);
+        }
+
+        return keyed;
+    }
+
+    private int getReserved(ConnectionKey key) {
+        Integer reserved = creating.get(key);
+        return reserved != null ? reserved : 0;
+    }
+
+    private void releaseReserved(ConnectionKey key) {
+        int reserved = getReserved(key) - 1;
+        if (reserved > 0) {
+            creating.put(key, reserved);
+        } else {
+            creating.remove(key);
+        }
+
+        pools.notifyAll();
+    }
+
+    private void removeFailed(List<ConnectionPool> keyed) {
+        Iterator<ConnectionPool> iterator = keyed.iterator();
+        while (iterator.hasNext()) {
+            ConnectionPool pool = iterator.next();
+            if (pool.isFailed()) {
+                iterator.remove();
+                pool.retire();
+            }
+        }
+    }
+
+    private void startIdleChecks() {
+        if (evictor == null && idleTimeout > 0) {
+            evictor = new ScheduledThreadPoolExecutor(1, new QpidJMSThreadFactory("QpidJMS Pool Idle Connection Evictor", true));
+            evictor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            evictor.scheduleWithFixedDelay(new IdleConnectionCheck(), idleCheckInterval, idleCheckInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private JmsConnectionFactory getConnectionFactoryOrThrow() {
+        JmsConnectionFactory factory = connectionFactory;
+        if (factory == null) {
+            throw new java.lang.IllegalStateException("No JmsConnectionFactory has been configured for the pool");
+        }
+
+        if (factory.getConnectionStripes() > 1) {
+            throw new java.lang.IllegalStateException("The pool cannot use a JmsConnectionFactory with connection striping enabled");
+        }
+
+        return factory;
+    }
+
+    private final class IdleConnectionCheck implements Runnable {
+
+        @Override
+        public void run() {
+            List<ConnectionPool> idle = new ArrayList<ConnectionPool>();
+            long now = System.nanoTime();
+
+            synchronized (pools) {
+                for (List<ConnectionPool> keyed : pools.values()) {
+                    Iterator<ConnectionPool> iterator = keyed.iterator();
+                    while (iterator.hasNext()) {
+                        ConnectionPool pool = iterator.next();
+                        if (pool.isFailed() || pool.isIdle(now, idleTimeout)) {
+                            iterator.remove();
+                            idle.add(pool);
+                        }
+                    }
+                }
+            }
+
+            for (ConnectionPool pool : idle) {
+                LOG.debug("Closing pooled connection that is idle or has failed: {}", pool);
+                pool.retire();
+            }
+        }
+    }
+
+    private static final class ConnectionKey {
+
+        private final String username;
+        private final String password;
+
+        public ConnectionKey(String username, String password) {
+            this.username = username;
+            this.password = password;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(username, password);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (other == null || getClass() != other.getClass()) {
+                return false;
+            }
+
+            ConnectionKey key = (ConnectionKey) other;
+            return Objects.equals(username, key.username) && Objects.equals(password, key.password);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionConsumer;
+import javax.jms.ConnectionMetaData;
+import javax.jms.Destination;
+import javax.jms.ExceptionListener;
+import javax.jms.IllegalStateException;
+import javax.jms.JMSException;
+import javax.jms.ServerSessionPool;
+import javax.jms.Session;
+import javax.jms.TemporaryQueue;
+import javax.jms.TemporaryTopic;
+import javax.jms.Topic;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Connection handed out by the {@link JmsPoolConnectionFactory}, a view onto a shared
+ * pooled connection that returns its sessions to the pool when closed.
+ *
+ * Stopping a handle has no effect as the underlying connection is shared with all other
+ * handles for it, and the client ID cannot be set as it belongs to that connection.
+ */
+final class PooledConnection implements Connection {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PooledConnection.class);
+
+    private final ConnectionPool pool;
+
+    private final List<PooledSession> sessions = new CopyOnWriteArrayList<PooledSession>();
+    private final List<ConnectionConsumer> connectionConsumers = new CopyOnWriteArrayList<ConnectionConsumer>();
+    private final List<Destination> temporaryDestinations = new CopyOnWriteArrayList<Destination>();
+
+    private volatile ExceptionListener exceptionListener;
+    private volatile boolean closed;
+
+    PooledConnection(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    //----- Session creation -------------------------------------------------//
+
+    @Override
+    public Session createSession() throws JMSException {
+        return createSession(false, Session.AUTO_ACKNOWLEDGE);
+    }
+
+    @Override
+    public Session createSession(int acknowledgeMode) throws JMSException {
+        return createSession(acknowledgeMode == Session.SESSION_TRANSACTED, acknowledgeMode);
+    }
+
+    @Override
+    public Session createSession(boolean transacted, int acknowledgeMode) throws JMSException {
+        checkClosed();
+
+        PooledSession session = new PooledSession(this, pool.takeSession(transacted, acknowledgeMode));
+        sessions.add(session);
+
+        return session;
+    }
+
+    //----- Connection consumers ---------------------------------------------//
+
+    @Override
+    public ConnectionConsumer createConnectionConsumer(Destination destination, String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        checkClosed();
+        return track(pool.getConnection().createConnectionConsumer(destination, messageSelector, sessionPool, maxMessages));
+    }
+
+    @Override
+    public ConnectionConsumer createDurableConnectionConsumer(Topic topic, String subscriptionName, String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        checkClosed();
+        return track(pool.getConnection().createDurableConnectionConsumer(topic, subscriptionName, messageSelector, sessionPool, maxMessages));
+    }
+
+    @Override
+    public ConnectionConsumer createSharedConnectionConsumer(Topic topic, String subscriptionName, String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        checkClosed();
+        return track(pool.getConnection().createSharedConnectionConsumer(topic, subscriptionName, messageSelector, sessionPool, maxMessages));
+    }
+
+    @Override
+    public ConnectionConsumer createSharedDurableConnectionConsumer(Topic topic, String subscriptionName, String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        checkClosed();
+        return track(pool.getConnection().createSharedDurableConnectionConsumer(topic, subscriptionName, messageSelector, sessionPool, maxMessages));
+    }
+
+    //----- Connection state -------------------------------------------------//
+
+    @Override
+    public String getClientID() throws JMSException {
+        checkClosed();
+        return pool.getConnection().getClientID();
+    }
+
+    @Override
+    public void setClientID(String clientID) throws JMSException {
+        checkClosed();
+        throw new IllegalStateException("Cannot set the client ID of a pooled connection");
+    }
+
+    @Override
+    public ConnectionMetaData getMetaData() throws JMSException {
+        checkClosed();
+        return pool.getConnection().getMetaData();
+    }
+
+    @Override
+    public ExceptionListener getExceptionListener() throws JMSException {
+        checkClosed();
+        return exceptionListener;
+    }
+
+    @Override
+    public void setExceptionListener(ExceptionListener listener) throws JMSException {
+        checkClosed();
+        this.exceptionListener = listener;
+    }
+
+    @Override
+    public void start() throws JMSException {
+        checkClosed();
+        pool.getConnection().start();
+    }
+
+    /**
+     * Stopping is not supported on a pooled connection, the underlying connection is
+     * shared with every other handle leased from the pool and so it is left running and
+     * message delivery to the consumers of this handle continues.
+     */
+    @Override
+    public void stop() throws JMSException {
+        checkClosed();
+        LOG.warn("Connection stop is not supported on a pooled connection, delivery continues on {}", pool);
+    }
+
+    @Override
+    public void close() throws JMSException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        for (PooledSession session : new ArrayList<PooledSession>(sessions)) {
+            try {
+                session.close();
+            } catch (JMSException ex) {
+                LOG.trace("Caught exception while closing pooled session: {}", ex.getMessage());
+            }
+        }
+
+        for (ConnectionConsumer consumer : connectionConsumers) {
+            try {
+                consumer.close();
+            } catch (JMSException ex) {
+                LOG.trace("Caught exception while closing connection consumer: {}", ex.getMessage());
+            }
+        }
+        connectionConsumers.clear();
+
+        for (Destination destination : temporaryDestinations) {
+            try {
+                if (destination instanceof TemporaryQueue) {
+                    ((TemporaryQueue) destination).delete();
+                } else {
+                    ((TemporaryTopic) destination).delete();
+                }
+            } catch (JMSException ex) {
+                LOG.trace("Caught exception while deleting temporary destination: {}", ex.getMessage());
+            }
+        }
+        temporaryDestinations.clear();
+
+        pool.release(this);
+    }
+
+    //----- Internal implementation ------------------------------------------//
+
+    void checkClosed() throws IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("The Connection is closed");
+        }
+    }
+
+    void sessionClosed(PooledSession session) {
+        sessions.remove(session);
+    }
+
+    void temporaryDestinationCreated(Destination destination) {
+        temporaryDestinations.add(destination);
+    }
+
+    void onException(JMSException exception) {
+        ExceptionListener listener = exceptionListener;
+        if (listener != null && !closed) {
+            listener.onException(exception);
+        }
+    }
+
+    ConnectionPool getPool() {
+        return pool;
+    }
+
+    private ConnectionConsumer track(ConnectionConsumer consumer) {
+        connectionConsumers.add(consumer);
+        return consumer;
+    }
+
+    @Override
+    public String toString() {
+        return "PooledConnection { " + pool + " }";
+    }
+}
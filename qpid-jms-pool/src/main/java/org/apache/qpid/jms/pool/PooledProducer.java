@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.pool;
+
+import javax.jms.CompletionListener;
+import javax.jms.DeliveryMode;
+import javax.jms.Destination;
+import javax.jms.IllegalStateException;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+
+/**
+ * The MessageProducer handed out by a {@link PooledSession}, a view onto a producer that
+ * the pooled session keeps for reuse.
+ *
+ * The send options set on a handle belong to it alone and are applied to the shared
+ * producer on each send, closing a handle leaves the shared producer open.
+ */
+final class PooledProducer implements MessageProducer {
+
+    private final PooledSession session;
+    private final MessageProducer producer;
+    private final Destination destination;
+
+    private int deliveryMode = DeliveryMode.PERSISTENT;
+    private int priority = Message.DEFAULT_PRIORITY;
+    private long timeToLive = Message.DEFAULT_TIME_TO_LIVE;
+    private long deliveryDelay = Message.DEFAULT_DELIVERY_DELAY;
+    private boolean disableMessageId;
+    private boolean disableTimestamp;
+
+    private volatile boolean closed;
+
+    PooledProducer(PooledSession session, MessageProducer producer, Destination destination) {
+        this.session = session;
+        this.producer = producer;
+        this.destination = destination;
+    }
+
+    //----- Send methods -----------------------------------------------------//
+
+    @Override
+    public void send(Message message) throws JMSException {
+        send(message, deliveryMode, priority, timeToLive);
+    }
+
+    @Override
+    public void send(Message message, int deliveryMode, int priority, long timeToLive) throws JMSException {
+        checkClosed();
+        applyOptions();
+        producer.send(message, deliveryMode, priority, timeToLive);
+    }
+
+    @Override
+    public void send(Destination destination, Message message) throws JMSException {
+        send(destination, message, deliveryMode, priority, timeToLive);
+    }
+
+    @Override
+    public void send(Destination destination, Message message, int deliveryMode, int priority, long timeToLive) throws JMSException {
+        checkClosed();
+        applyOptions();
+        producer.send(destination, message, deliveryMode, priority, timeToLive);
+    }
+
+    @Override
+    public void send(Message message, CompletionListener listener) throws JMSException {
+        send(message, deliveryMode, priority, timeToLive, listener);
+    }
+
+    @Override
+    public void send(Message message, int deliveryMode, int priority, long timeToLive, CompletionListener listener) throws JMSException {
+        checkClosed();
+        applyOptions();
+        producer.send(message, deliveryMode, priority, timeToLive, listener);
+    }
+
+    @Override
+    public void send(Destination destination, Message message, CompletionListener listener) throws JMSException {
+        send(destination, message, deliveryMode, priority, timeToLive, listener);
+    }
+
+    @Override
+    public void send(Destination destination, Message message, int deliveryMode, int priority, long timeToLive, CompletionListener listener) throws JMSException {
+        checkClosed();
+        applyOptions();
+        producer.send(destination, message, deliveryMode, priority, timeToLive, listener);
+    }
+
+    //----- Producer options -------------------------------------------------//
+
+    @Override
+    public Destination getDestination() throws JMSException {
+        checkClosed();
+        return destination;
+    }
+
+    @Override
+    public void setDisableMessageID(boolean value) throws JMSException {
+        checkClosed();
+        this.disableMessageId = value;
+    }
+
+    @Override
+    public boolean getDisableMessageID() throws JMSException {
+        checkClosed();
+        return disableMessageId;
+    }
+
+    @Override
+    public void setDisableMessageTimestamp(boolean value) throws JMSException {
+        checkClosed();
+        this.disableTimestamp = value;
+    }
+
+    @Override
+    public boolean getDisableMessageTimestamp() throws JMSException {
+        checkClosed();
+        return disableTimestamp;
+    }
+
+    @Override
+    public void setDeliveryMode(int deliveryMode) throws JMSException {
+        checkClosed();
+        switch (deliveryMode) {
+            case DeliveryMode.PERSISTENT:
+            case DeliveryMode.NON_PERSISTENT:
+                this.deliveryMode = deliveryMode;
+                break;
+            default:
+                throw new JMSException(String.format("Invalid DeliveryMode specified: %d", deliveryMode));
+        }
+    }
+
+    @Override
+    public int getDeliveryMode() throws JMSException {
+        checkClosed();
+        return deliveryMode;
+    }
+
+    @Override
+    public void setPriority(int priority) throws JMSException {
+        checkClosed();
+        if (priority < 0 || priority > 9) {
+            throw new JMSException(String.format("Priority value given {%d} is out of range (0..9)", priority));
+        }
+
+        this.priority = priority;
+    }
+
+    @Override
+    public int getPriority() throws JMSException {
+        checkClosed();
+        return priority;
+    }
+
+    @Override
+    public void setTimeToLive(long timeToLive) throws JMSException {
+        checkClosed();
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public long getTimeToLive() throws JMSException {
+        checkClosed();
+        return timeToLive;
+    }
+
+    @Override
+    public void setDeliveryDelay(long deliveryDelay) throws JMSException {
+        checkClosed();
+        this.deliveryDelay = deliveryDelay;
+    }
+
+    @Override
+    public long getDeliveryDelay() throws JMSException {
+        checkClosed();
+        return deliveryDelay;
+    }
+
+    @Override
+    public void close() throws JMSException {
+        closed = true;
+    }
+
+    //----- Internal implementation ------------------------------------------//
+
+    private void checkClosed() throws IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("The MessageProducer is closed");
+        }
+
+        session.checkClosed();
+    }
+
+    private void applyOptions() throws JMSException {
+        // Options not carried by the send call itself are set on the shared producer,
+        // only one handle can be sending from a pooled session at a time.
+        producer.setDisableMessageID(disableMessageId);
+        producer.setDisableMessageTimestamp(disableTimestamp);
+        producer.setDeliveryDelay(deliveryDelay);
+    }
+
+    @Override
+    public String toString() {
+        return "PooledProducer { " + producer + " }";
+    }
+}
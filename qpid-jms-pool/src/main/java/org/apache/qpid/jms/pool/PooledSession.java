@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.pool;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.jms.BytesMessage;
+import javax.jms.Destination;
+import javax.jms.IllegalStateException;
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.ObjectMessage;
+import javax.jms.Queue;
+import javax.jms.QueueBrowser;
+import javax.jms.Session;
+import javax.jms.StreamMessage;
+import javax.jms.TemporaryQueue;
+import javax.jms.TemporaryTopic;
+import javax.jms.TextMessage;
+import javax.jms.Topic;
+import javax.jms.TopicSubscriber;
+
+import org.apache.qpid.jms.JmsSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Session handed out by a {@link PooledConnection}, closing it closes the consumers
+ * and browsers created from it and returns the underlying session to the pool.
+ *
+ * Producers are handed out as {@link PooledProducer} instances over the producers that
+ * the pooled session keeps for reuse.  A session that has been given a MessageListener
+ * is closed rather than returned to the pool.
+ */
+final class PooledSession implements Session {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PooledSession.class);
+
+    private final PooledConnection connection;
+    private final SessionHolder holder;
+    private final JmsSession session;
+
+    private final List<MessageConsumer> consumers = new CopyOnWriteArrayList<MessageConsumer>();
+    private final List<QueueBrowser> browsers = new CopyOnWriteArrayList<QueueBrowser>();
+
+    private volatile boolean closed;
+
+    PooledSession(PooledConnection connection, SessionHolder holder) {
+        this.connection = connection;
+        this.holder = holder;
+        this.session = holder.getSession();
+    }
+
+    //----- Message creation -------------------------------------------------//
+
+    @Override
+    public BytesMessage createBytesMessage() throws JMSException {
+        checkClosed();
+        return session.createBytesMessage();
+    }
+
+    @Override
+    public MapMessage createMapMessage() throws JMSException {
+        checkClosed();
+        return session.createMapMessage();
+    }
+
+    @Override
+    public Message createMessage() throws JMSException {
+        checkClosed();
+        return session.createMessage();
+    }
+
+    @Override
+    public ObjectMessage createObjectMessage() throws JMSException {
+        checkClosed();
+        return session.createObjectMessage();
+    }
+
+    @Override
+    public ObjectMessage createObjectMessage(Serializable object) throws JMSException {
+        checkClosed();
+        return session.createObjectMessage(object);
+    }
+
+    @Override
+    public StreamMessage createStreamMessage() throws JMSException {
+        checkClosed();
+        return session.createStreamMessage();
+    }
+
+    @Override
+    public TextMessage createTextMessage() throws JMSException {
+        checkClosed();
+        return session.createTextMessage();
+    }
+
+    @Override
+    public TextMessage createTextMessage(String text) throws JMSException {
+        checkClosed();
+        return session.createTextMessage(text);
+    }
+
+    //----- Session state ----------------------------------------------------//
+
+    @Override
+    public boolean getTransacted() throws JMSException {
+        checkClosed();
+        return session.getTransacted();
+    }
+
+    @Override
+    public int getAcknowledgeMode() throws JMSException {
+        checkClosed();
+        return session.getAcknowledgeMode();
+    }
+
+    @Override
+    public void commit() throws JMSException {
+        checkClosed();
+        session.commit();
+    }
+
+    @Override
+    public void rollback() throws JMSException {
+        checkClosed();
+        session.rollback();
+    }
+
+    @Override
+    public void recover() throws JMSException {
+        checkClosed();
+        session.recover();
+    }
+
+    @Override
+    public MessageListener getMessageListener() throws JMSException {
+        checkClosed();
+        return session.getMessageListener();
+    }
+
+    @Override
+    public void setMessageListener(MessageListener listener) throws JMSException {
+        checkClosed();
+        holder.doNotReuse();
+        session.setMessageListener(listener);
+    }
+
+    @Override
+    public void run() {
+        session.run();
+    }
+
+    @Override
+    public void close() throws JMSException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        for (MessageConsumer consumer : consumers) {
+            try {
+                consumer.close();
+            } catch (JMSException ex) {
+                LOG.trace("Caught exception while closing pooled session consumer: {}", ex.getMessage());
+            }
+        }
+        consumers.clear();
+
+        for (QueueBrowser browser : browsers) {
+            try {
+                browser.close();
+            } catch (JMSException ex) {
+                LOG.trace("Caught exception while closing pooled session browser: {}", ex.getMessage());
+            }
+        }
+        browsers.clear();
+
+        connection.sessionClosed(this);
+        connection.getPool().returnSession(holder);
+    }
+
+    //----- Producers and consumers ------------------------------------------//
+
+    @Override
+    public MessageProducer createProducer(Destination destination) throws JMSException {
+        checkClosed();
+        return new PooledProducer(this, holder.getProducer(destination), destination);
+    }
+
+    @Override
+    public MessageConsumer createConsumer(Destination destination) throws JMSException {
+        checkClosed();
+        return track(session.createConsumer(destination));
+    }
+
+    @Override
+    public MessageConsumer createConsumer(Destination destination, String messageSelector) throws JMSException {
+        checkClosed();
+        return track(session.createConsumer(destination, messageSelector));
+    }
+
+    @Override
+    public MessageConsumer createConsumer(Destination destination, String messageSelector, boolean noLocal) throws JMSException {
+        checkClosed();
+        return track(session.createConsumer(destination, messageSelector, noLocal));
+    }
+
+    @Override
+    public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName) throws JMSException {
+        checkClosed();
+        return track(session.createSharedConsumer(topic, sharedSubscriptionName));
+    }
+
+    @Override
+    public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName, String messageSelector) throws JMSException {
+        checkClosed();
+        return track(session.createSharedConsumer(topic, sharedSubscriptionName, messageSelector));
+    }
+
+    @Override
+    public TopicSubscriber createDurableSubscriber(Topic topic, String name) throws JMSException {
+        checkClosed();
+        return track(session.createDurableSubscriber(topic, name));
+    }
+
+    @Override
+    public TopicSubscriber createDurableSubscriber(Topic topic, String name, String messageSelector, boolean noLocal) throws JMSException {
+        checkClosed();
+        return track(session.createDurableSubscriber(topic, name, messageSelector, noLocal));
+    }
+
+    @Override
+    public MessageConsumer createDurableConsumer(Topic topic, String name) throws JMSException {
+        checkClosed();
+        return track(session.createDurableConsumer(topic, name));
+    }
+
+    @Override
+    public MessageConsumer createDurableConsumer(Topic topic, String name, String messageSelector, boolean noLocal) throws JMSException {
+        checkClosed();
+        return track(session.createDurableConsumer(topic, name, messageSelector, noLocal));
+    }
+
+    @Override
+    public MessageConsumer createSharedDurableConsumer(Topic topic, String name) throws JMSException {
+        checkClosed();
+        return track(session.createSharedDurableConsumer(topic, name));
+    }
+
+    @Override
+    public MessageConsumer createSharedDurableConsumer(Topic topic, String name, String messageSelector) throws JMSException {
+        checkClosed();
+        return track(session.createSharedDurableConsumer(topic, name, messageSelector));
+    }
+
+    @Override
+    public QueueBrowser createBrowser(Queue queue) throws JMSException {
+        checkClosed();
+        return track(session.createBrowser(queue));
+    }
+
+    @Override
+    public QueueBrowser createBrowser(Queue queue, String messageSelector) throws JMSException {
+        checkClosed();
+        return track(session.createBrowser(queue, messageSelector));
+    }
+
+    @Override
+    public void unsubscribe(String name) throws JMSException {
+        checkClosed();
+        session.unsubscribe(name);
+    }
+
+    //----- Destinations -----------------------------------------------------//
+
+    @Override
+    public Queue createQueue(String queueName) throws JMSException {
+        checkClosed();
+        return session.createQueue(queueName);
+    }
+
+    @Override
+    public Topic createTopic(String topicName) throws JMSException {
+        checkClosed();
+        return session.createTopic(topicName);
+    }
+
+    @Override
+    public TemporaryQueue createTemporaryQueue() throws JMSException {
+        checkClosed();
+        TemporaryQueue queue = session.createTemporaryQueue();
+        connection.temporaryDestinationCreated(queue);
+        return queue;
+    }
+
+    @Override
+    public TemporaryTopic createTemporaryTopic() throws JMSException {
+        checkClosed();
+        TemporaryTopic topic = session.createTemporaryTopic();
+        connection.temporaryDestinationCreated(topic);
+        return topic;
+    }
+
+    //----- Internal implementation ------------------------------------------//
+
+    void checkClosed() throws IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("The Session is closed");
+        }
+    }
+
+    private <T extends MessageConsumer> T track(T consumer) {
+        consumers.add(consumer);
+        return consumer;
+    }
+
+    private QueueBrowser track(QueueBrowser browser) {
+        browsers.add(browser);
+        return browser;
+    }
+
+    @Override
+    public String toString() {
+        return "PooledSession { " + session + " }";
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.pool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.jms.Destination;
+import javax.jms.IllegalStateException;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+
+import org.apache.qpid.jms.JmsSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pooled JmsSession along with the producers it keeps for reuse, keyed by the
+ * destination they were created for.
+ */
+final class SessionHolder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SessionHolder.class);
+
+    private final JmsSession session;
+    private final int acknowledgeMode;
+    private final Map<Destination, MessageProducer> producers;
+
+    private boolean reusable = true;
+
+    SessionHolder(JmsSession session, int acknowledgeMode, final int maxCachedProducers) {
+        this.session = session;
+        this.acknowledgeMode = acknowledgeMode;
+        this.producers = new LinkedHashMap<Destination, MessageProducer>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Destination, MessageProducer> eldest) {
+                if (size() > maxCachedProducers) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    JmsSession getSession() {
+        return session;
+    }
+
+    int getAcknowledgeMode() {
+        return acknowledgeMode;
+    }
+
+    /**
+     * Returns the cached producer for the given destination, or an anonymous producer
+     * when the destination is null, creating one if none is cached.
+     *
+     * @param destination
+     *      the destination the producer sends to, or null for an anonymous producer.
+     *
+     * @return a producer from the session for the given destination.
+     *
+     * @throws JMSException if a new producer cannot be created.
+     */
+    MessageProducer getProducer(Destination destination) throws JMSException {
+        MessageProducer producer = producers.get(destination);
+        if (producer != null) {
+            try {
+                // Fails if the producer has since been closed, such as by the remote.
+                producer.getDestination();
+                return producer;
+            } catch (IllegalStateException closed) {
+                producers.remove(destination);
+            }
+        }
+
+        producer = session.createProducer(destination);
+        producers.put(destination, producer);
+
+        return producer;
+    }
+
+    /**
+     * Marks the session as one that must be closed rather than returned to the pool,
+     * used when it has been put into a state that a later user would not expect.
+     */
+    void doNotReuse() {
+        reusable = false;
+    }
+
+    /**
+     * Readies the session to be handed out again.
+     *
+     * @return true if the session can be returned to the pool.
+     */
+    boolean reset() {
+        if (!reusable || session.isClosed()) {
+            return false;
+        }
+
+        try {
+            if (session.isTransacted()) {
+                session.rollback();
+            } else if (session.isClientAcknowledge() || session.isIndividualAcknowledge()) {
+                session.recover();
+            }
+        } catch (JMSException ex) {
+            LOG.trace("Pooled session could not be reset and will be closed: {}", ex.getMessage());
+            return false;
+        }
+
+        return true;
+    }
+
+    void close() {
+        try {
+            session.close();
+        } catch (JMSException ex) {
+            LOG.trace("Caught exception while closing pooled session: {}", ex.getMessage());
+        }
+    }
+
+    private static void closeQuietly(MessageProducer producer) {
+        try {
+            producer.close();
+        } catch (JMSException ex) {
+            LOG.trace("Caught exception while closing pooled producer: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.DeliveryMode;
+import javax.jms.ExceptionListener;
+import javax.jms.IllegalStateException;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+
+import org.apache.qpid.jms.JmsConnectionFactory;
+import org.apache.qpid.jms.meta.JmsConnectionInfo;
+import org.apache.qpid.jms.meta.JmsProducerInfo;
+import org.apache.qpid.jms.meta.JmsResource;
+import org.apache.qpid.jms.meta.JmsSessionInfo;
+import org.apache.qpid.jms.provider.mock.MockRemotePeer;
+import org.apache.qpid.jms.provider.mock.ResourceLifecycleFilter;
+import org.apache.qpid.jms.test.Wait;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the pooling JmsPoolConnectionFactory
+ */
+public class JmsPoolConnectionFactoryTest {
+
+    private final MockRemotePeer remotePeer = new MockRemotePeer();
+
+    private JmsPoolConnectionFactory factory;
+
+    @Before
+    public void setUp() throws Exception {
+        remotePeer.start();
+        factory = new JmsPoolConnectionFactory(new JmsConnectionFactory("mock://localhost"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try {
+            factory.stop();
+        } finally {
+            remotePeer.terminate();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testConnectionSessionAndProducerAreReused() throws Exception {
+        for (int i = 0; i < 10; ++i) {
+            Connection connection = factory.createConnection();
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("test");
+            MessageProducer producer = session.createProducer(queue);
+            producer.send(session.createMessage());
+            producer.close();
+            session.close();
+            connection.close();
+        }
+
+        assertEquals(1, factory.getConnectionsCount());
+        assertEquals(10, remotePeer.getContextStats().getSendCalls());
+        assertEquals(1, remotePeer.getContextStats().getCreateResourceCalls(JmsConnectionInfo.class));
+        assertEquals(1, remotePeer.getContextStats().getCreateResourceCalls(JmsSessionInfo.class));
+        assertEquals(1, remotePeer.getContextStats().getCreateResourceCalls(JmsProducerInfo.class));
+        assertEquals(0, remotePeer.getContextStats().getDestroyResourceCalls(JmsSessionInfo.class));
+    }
+
+    @Test(timeout = 10000)
+    public void testSessionsAreKeptApartByAcknowledgeMode() throws Exception {
+        Connection connection = factory.createConnection();
+        connection.createSession(false, Session.AUTO_ACKNOWLEDGE).close();
+        connection.createSession(false, Session.CLIENT_ACKNOWLEDGE).close();
+        connection.createSession(true, Session.SESSION_TRANSACTED).close();
+
+        Session auto = connection.createSession(Session.AUTO_ACKNOWLEDGE);
+        Session client = connection.createSession(Session.CLIENT_ACKNOWLEDGE);
+        Session transacted = connection.createSession(Session.SESSION_TRANSACTED);
+
+        assertEquals(Session.AUTO_ACKNOWLEDGE, auto.getAcknowledgeMode());
+        assertEquals(Session.CLIENT_ACKNOWLEDGE, client.getAcknowledgeMode());
+        assertTrue(transacted.getTransacted());
+        assertEquals(3, remotePeer.getContextStats().getCreateResourceCalls(JmsSessionInfo.class));
+
+        connection.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testSessionInUseIsNotSharedOnSameConnection() throws Exception {
+        Connection connection = factory.createConnection();
+        Session first = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        Session second = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+
+        assertNotSame(first, second);
+        assertEquals(2, remotePeer.getContextStats().getCreateResourceCalls(JmsSessionInfo.class));
+
+        connection.close();
+
+        // Both are returned to the pool on close of the connection.
+        assertEquals(0, remotePeer.getContextStats().getDestroyResourceCalls(JmsSessionInfo.class));
+    }
+
+    @Test(timeout = 10000)
+    public void testTransactedSessionRolledBackWhenReturned() throws Exception {
+        Connection connection = factory.createConnection();
+        Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+        session.createProducer(session.createQueue("test")).send(session.createMessage());
+        session.close();
+
+        assertEquals(1, remotePeer.getContextStats().getRollbackCalls());
+
+        connection.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testSessionWithMessageListenerIsNotReused() throws Exception {
+        Connection connection = factory.createConnection();
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        session.setMessageListener(new MessageListener() {
+
+            @Override
+            public void onMessage(Message message) {
+            }
+        });
+        session.close();
+
+        assertEquals(1, remotePeer.getContextStats().getDestroyResourceCalls(JmsSessionInfo.class));
+
+        connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        assertEquals(2, remotePeer.getContextStats().getCreateResourceCalls(JmsSessionInfo.class));
+
+        connection.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testMaxConnections() throws Exception {
+        factory.setMaxConnections(3);
+
+        for (int i = 0; i < 6; ++i) {
+            factory.createConnection().createSession(false, Session.AUTO_ACKNOWLEDGE);
+        }
+
+        assertEquals(3, factory.getConnectionsCount());
+        assertEquals(3, remotePeer.getContextStats().getCreateResourceCalls(JmsConnectionInfo.class));
+    }
+
+    @Test(timeout = 10000)
+    public void testCreateConnectionUsesCredentialsOfWrappedFactory() throws Exception {
+        final List<String> usernames = new CopyOnWriteArrayList<String>();
+        remotePeer.setResourceCreateFilter(new ResourceLifecycleFilter() {
+
+            @Override
+            public void onLifecycleEvent(JmsResource resource) throws Exception {
+                if (resource instanceof JmsConnectionInfo) {
+                    usernames.add(((JmsConnectionInfo) resource).getUsername());
+                }
+            }
+        });
+
+        JmsConnectionFactory wrapped = new JmsConnectionFactory("mock://localhost");
+        wrapped.setUsername("user");
+        wrapped.setPassword("password");
+        factory.setConnectionFactory(wrapped);
+
+        factory.createConnection().createSession(false, Session.AUTO_ACKNOWLEDGE);
+        factory.createConnection("user", "password").createSession(false, Session.AUTO_ACKNOWLEDGE);
+
+        assertEquals(1, factory.getConnectionsCount());
+        assertEquals(1, usernames.size());
+        assertEquals("user", usernames.get(0));
+    }
+
+    @Test(timeout = 10000)
+    public void testFailedCreateDoesNotHoldConnectionSlot() throws Exception {
+        remotePeer.shutdownQuietly();
+
+        try {
+            factory.createConnection();
+            fail("Should not be able to create a connection while the peer is offline");
+        } catch (JMSException ex) {
+            // Expected
+        }
+
+        assertEquals(0, factory.getConnectionsCount());
+
+        remotePeer.start();
+
+        factory.createConnection().createSession(false, Session.AUTO_ACKNOWLEDGE);
+        assertEquals(1, factory.getConnectionsCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testConnectionsArePooledPerUser() throws Exception {
+        factory.createConnection("user1", "password").close();
+        factory.createConnection("user2", "password").close();
+        factory.createConnection("user1", "password").close();
+
+        assertEquals(2, factory.getConnectionsCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testFailedConnectionIsReplaced() throws Exception {
+        final CountDownLatch failed = new CountDownLatch(1);
+
+        Connection connection = factory.createConnection();
+        connection.setExceptionListener(new ExceptionListener() {
+
+            @Override
+            public void onException(JMSException exception) {
+                failed.countDown();
+            }
+        });
+        connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+
+        remotePeer.getLastRegistered().signalConnectionFailed();
+        assertTrue("Pooled connection should report the failure", failed.await(5, TimeUnit.SECONDS));
+        connection.close();
+
+        connection = factory.createConnection();
+        connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        connection.close();
+
+        assertEquals(1, factory.getConnectionsCount());
+        assertEquals(2, remotePeer.getContextStats().getCreateResourceCalls(JmsConnectionInfo.class));
+        assertEquals(2, remotePeer.getContextStats().getCreateResourceCalls(JmsSessionInfo.class));
+    }
+
+    @Test(timeout = 10000)
+    public void testIdleConnectionIsClosed() throws Exception {
+        factory.setIdleTimeout(50);
+        factory.setIdleCheckInterval(10);
+
+        Connection connection = factory.createConnection();
+        connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        connection.close();
+
+        assertTrue("Idle connection should be closed", Wait.waitFor(new Wait.Condition() {
+
+            @Override
+            public boolean isSatisfied() throws Exception {
+                return remotePeer.getContextStats().getCloseAttempts() == 1;
+            }
+        }, TimeUnit.SECONDS.toMillis(5), 10));
+
+        assertEquals(0, factory.getConnectionsCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testConnectionInUseIsNotClosedWhenIdle() throws Exception {
+        factory.setIdleTimeout(10);
+        factory.setIdleCheckInterval(10);
+
+        Connection connection = factory.createConnection();
+        connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        assertEquals(1, factory.getConnectionsCount());
+        assertEquals(0, remotePeer.getContextStats().getCloseAttempts());
+
+        connection.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testProducerSettingsAreNotShared() throws Exception {
+        Connection connection = factory.createConnection();
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        Queue queue = session.createQueue("test");
+
+        MessageProducer first = session.createProducer(queue);
+        first.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+        first.setPriority(7);
+
+        MessageProducer second = session.createProducer(queue);
+        assertEquals(DeliveryMode.PERSISTENT, second.getDeliveryMode());
+        assertEquals(Message.DEFAULT_PRIORITY, second.getPriority());
+
+        first.send(session.createMessage());
+        assertEquals(DeliveryMode.NON_PERSISTENT, remotePeer.getLastReceivedMessage().getMessage().getJMSDeliveryMode());
+        assertEquals(7, remotePeer.getLastReceivedMessage().getMessage().getJMSPriority());
+
+        second.send(session.createMessage());
+        assertEquals(DeliveryMode.PERSISTENT, remotePeer.getLastReceivedMessage().getMessage().getJMSDeliveryMode());
+        assertEquals(Message.DEFAULT_PRIORITY, remotePeer.getLastReceivedMessage().getMessage().getJMSPriority());
+
+        assertEquals(1, remotePeer.getContextStats().getCreateResourceCalls(JmsProducerInfo.class));
+
+        connection.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testClosedHandlesCannotBeUsed() throws Exception {
+        Connection connection = factory.createConnection();
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageProducer producer = session.createProducer(null);
+
+        connection.close();
+
+        try {
+            producer.send(session.createQueue("test"), session.createMessage());
+            fail("Should not be able to use a closed producer");
+        } catch (IllegalStateException ise) {}
+
+        try {
+            connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            fail("Should not be able to use a closed connection");
+        } catch (IllegalStateException ise) {}
+
+        // The underlying connection remains open in the pool.
+        assertEquals(1, factory.getConnectionsCount());
+        assertEquals(0, remotePeer.getContextStats().getCloseAttempts());
+    }
+
+    @Test(timeout = 10000)
+    public void testSetClientIdIsNotAllowed() throws Exception {
+        Connection connection = factory.createConnection();
+
+        try {
+            connection.setClientID("client");
+            fail("Should not be able to set the client ID of a pooled connection");
+        } catch (IllegalStateException ise) {}
+
+        connection.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testStopClosesAllConnections() throws Exception {
+        factory.setMaxConnections(2);
+
+        Connection first = factory.createConnection();
+        first.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        Connection second = factory.createConnection();
+        second.createSession(false, Session.AUTO_ACKNOWLEDGE);
+
+        factory.stop();
+
+        assertEquals(0, factory.getConnectionsCount());
+        assertEquals(2, remotePeer.getContextStats().getCloseAttempts());
+    }
+
+    @Test
+    public void testInvalidConfiguration() {
+        try {
+            factory.setMaxConnections(0);
+            fail("Should not accept zero max connections");
+        } catch (IllegalArgumentException iae) {}
+
+        try {
+            factory.setIdleCheckInterval(0);
+            fail("Should not accept a zero idle check interval");
+        } catch (IllegalArgumentException iae) {}
+
+        assertEquals(JmsPoolConnectionFactory.DEFAULT_MAX_CONNECTIONS, factory.getMaxConnections());
+        assertEquals(JmsPoolConnectionFactory.DEFAULT_IDLE_CHECK_INTERVAL, factory.getIdleCheckInterval());
+    }
+}